@@ -7,6 +7,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.bind.annotation.CrossOrigin;
 
 
@@ -16,6 +17,7 @@ import io.github.cdimascio.dotenv.Dotenv;
 @EnableJpaRepositories(basePackages = "com.parkease.dao")
 
 @EntityScan(basePackages = "com.parkease.beans")
+@EnableScheduling
 public class ParkEaseApplication {
 
 	public static void main(String[] args) {
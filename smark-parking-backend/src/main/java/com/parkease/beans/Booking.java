@@ -17,7 +17,10 @@ import com.fasterxml.jackson.annotation.JsonFormat;
 
 
 @Entity
-@Table(name = "booking")
+// Matches the reconciliation stream's keyset order; a paid order pays for one booking
+@Table(name = "booking",
+        uniqueConstraints = @UniqueConstraint(name = "uk_booking_order_id", columnNames = "orderId"),
+        indexes = @Index(name = "idx_booking_reconciliation", columnList = "userId, parkingLotId, arrivalTime, id"))
 @Data
 @NoArgsConstructor
 public class Booking {
@@ -33,6 +36,8 @@ public class Booking {
     private String carNumber;
     private String paymentStatus;
     private String bookingStatus;
+    // Gateway order that paid for it; null on bookings made before orders were recorded
+    private String orderId;
    
     @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ssXXX")
     private ZonedDateTime arrivalTime;
@@ -0,0 +1,34 @@
+package com.parkease.beans;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Persistent result of geocoding one normalized address. Misses are stored
+// too (resolved = false) so an unknown address is not re-queried on every save.
+@Entity
+@Table(name = "geocode_cache")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class GeocodeCacheEntry {
+    // SHA-256 of the normalized address; addresses can exceed index key limits
+    @Id
+    @Column(length = 64)
+    private String addressHash;
+
+    @Column(length = 1000, nullable = false)
+    private String normalizedAddress;
+
+    private Double latitude;
+    private Double longitude;
+
+    private boolean resolved;
+
+    @Column(nullable = false)
+    private long updatedAt;
+}
@@ -0,0 +1,80 @@
+package com.parkease.beans;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Lob;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One client-supplied Idempotency-Key and the response it produced. The unique
+// constraint is what makes two concurrent retries race for a single write.
+@Entity
+@Table(name = "idempotency_record",
+        uniqueConstraints = @UniqueConstraint(name = "uk_idempotency_key",
+                columnNames = { "scope", "principal", "idempotencyKey" }),
+        indexes = @Index(name = "idx_idempotency_expires_at", columnList = "expiresAt"))
+@Data
+@NoArgsConstructor
+public class IdempotencyRecord {
+
+    public static final String IN_PROGRESS = "IN_PROGRESS";
+    public static final String COMPLETED = "COMPLETED";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Endpoint the key belongs to, e.g. payment.store
+    @Column(length = 40, nullable = false)
+    private String scope;
+
+    // Keys are per caller, so one user can never replay another's response
+    @Column(nullable = false)
+    private String principal;
+
+    @Column(length = 100, nullable = false)
+    private String idempotencyKey;
+
+    // SHA-256 of the request body; a reused key with a different body is rejected
+    @Column(length = 64, nullable = false)
+    private String requestHash;
+
+    @Column(length = 20, nullable = false)
+    private String status;
+
+    private Integer responseStatus;
+
+    private String responseContentType;
+
+    @Lob
+    @Column(columnDefinition = "TEXT")
+    private String responseBody;
+
+    // Epoch millis, like slot_hold
+    @Column(nullable = false)
+    private long createdAt;
+
+    @Column(nullable = false)
+    private long expiresAt;
+
+    public IdempotencyRecord(String scope, String principal, String idempotencyKey, String requestHash,
+            long createdAt, long expiresAt) {
+        this.scope = scope;
+        this.principal = principal;
+        this.idempotencyKey = idempotencyKey;
+        this.requestHash = requestHash;
+        this.status = IN_PROGRESS;
+        this.createdAt = createdAt;
+        this.expiresAt = expiresAt;
+    }
+
+    public boolean isExpired(long now) {
+        return expiresAt <= now;
+    }
+}
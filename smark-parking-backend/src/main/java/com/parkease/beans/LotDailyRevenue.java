@@ -0,0 +1,58 @@
+package com.parkease.beans;
+
+import java.time.LocalDate;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One lot's takings for one day. Bumped as payments and bookings are stored,
+// then recomputed from the raw rows by the nightly compaction (finalized).
+// Revenue is by payment date; booking count and duration by arrival date.
+@Entity
+@Table(name = "lot_daily_revenue",
+        uniqueConstraints = @UniqueConstraint(name = "uk_lot_daily_revenue", columnNames = { "parkingSpaceId", "rollup_day" }),
+        indexes = @Index(name = "idx_lot_daily_revenue_owner_day", columnList = "ownerId, rollup_day"))
+@Data
+@NoArgsConstructor
+public class LotDailyRevenue {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long parkingSpaceId;
+
+    private Long ownerId;
+
+    // DAY is a reserved word in some SQL dialects
+    @Column(name = "rollup_day", nullable = false)
+    private LocalDate day;
+
+    private double revenue;
+    private long paymentCount;
+    private long bookingCount;
+    // Average duration is totalDurationMinutes / durationSamples; only bookings
+    // with both arrival and departure times count as samples
+    private long totalDurationMinutes;
+    private long durationSamples;
+
+    private boolean finalized;
+
+    // Epoch millis
+    private long updatedAt;
+
+    public LotDailyRevenue(Long parkingSpaceId, Long ownerId, LocalDate day) {
+        this.parkingSpaceId = parkingSpaceId;
+        this.ownerId = ownerId;
+        this.day = day;
+        this.updatedAt = System.currentTimeMillis();
+    }
+}
@@ -6,10 +6,13 @@ import java.util.List;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
 
+import com.parkease.services.ParkingSlotAvailabilityListener;
+
 import jakarta.persistence.*;
 
 @Entity
 @Table(name = "parking_slots")
+@EntityListeners(ParkingSlotAvailabilityListener.class)
 public class ParkingSlot {
 
     @Id
@@ -12,9 +12,11 @@ import com.fasterxml.jackson.annotation.JsonManagedReference;
 
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
@@ -23,10 +25,13 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.Getter;
 
+import com.parkease.services.ParkingSpaceIndexListener;
+
 @Data
 @AllArgsConstructor
 @Entity
-@Table(name="parking_space")
+@Table(name="parking_space", indexes = @Index(name = "idx_parking_space_lot_name", columnList = "lotName"))
+@EntityListeners(ParkingSpaceIndexListener.class)
 public class ParkingSpace {
 	
 	@Id
@@ -44,6 +49,13 @@ public class ParkingSpace {
 	private LocalTime availableTo;
 
 	private double pricingPerHour;
+	// Most a stay pays per 24 hours, and per night; null uses the app.pricing defaults
+	private Double dailyCap;
+	private Double overnightRate;
+
+	// Geocoded from address on create/address change; null until that succeeds
+	private Double latitude;
+	private Double longitude;
  
 	public ParkingSpace() {
 		super();
@@ -11,14 +11,26 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import jakarta.persistence.Temporal;
 import jakarta.persistence.TemporalType;
+import jakarta.persistence.UniqueConstraint;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "payment")
+// (filter, date, id) matches the newest-first keyset order of the payment queries.
+// One row per gateway order: /store and the webhook drain both upsert on orderId.
+@Table(name = "payment",
+        uniqueConstraints = @UniqueConstraint(name = "uk_payment_order_id", columnNames = "orderId"),
+        indexes = {
+        @Index(name = "idx_payment_lot_date", columnList = "lotName, date, id"),
+        @Index(name = "idx_payment_email_date", columnList = "customerEmail, date, id"),
+        @Index(name = "idx_payment_date", columnList = "date, id"),
+        @Index(name = "idx_payment_payment_id", columnList = "paymentId"),
+        @Index(name = "idx_payment_reconciliation", columnList = "status, userId, parkingSpaceId, date, id")
+})
 @Data
 @NoArgsConstructor
 public class PaymentOrder {
@@ -35,6 +47,11 @@ public class PaymentOrder {
     private String status;
     public String lotName;
 
+    // customerEmail and lotName resolved to ids for reconciliation, 0 when
+    // nothing matches; null until ReconciliationService resolves them
+    private Long userId;
+    private Long parkingSpaceId;
+
   
     public LocalDate date;
 }
@@ -0,0 +1,43 @@
+package com.parkease.beans;
+
+import com.parkease.enums.DiscrepancyType;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "reconciliation_discrepancy",
+        indexes = @Index(name = "idx_discrepancy_run_group", columnList = "runId, userId, parkingSpaceId"))
+@Data
+@NoArgsConstructor
+public class ReconciliationDiscrepancy {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Long runId;
+
+    @Enumerated(EnumType.STRING)
+    private DiscrepancyType type;
+
+    // 0 when the payment's email or lot name matches no user or lot
+    private Long userId;
+    private Long parkingSpaceId;
+
+    // Either side is null when it has no counterpart
+    private Long paymentOrderId;
+    private String orderId;
+    private Double paymentAmount;
+    private Long bookingId;
+    private Double bookingAmount;
+
+    private long createdAt;
+}
@@ -0,0 +1,45 @@
+package com.parkease.beans;
+
+import com.parkease.enums.ReconciliationStatus;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One pass of the payment/booking reconciliation. The checkpoint is the last
+// (userId, parkingSpaceId) group fully processed; counters cover exactly the
+// groups up to it, so a resumed run continues as if it had never stopped.
+@Entity
+@Table(name = "reconciliation_run")
+@Data
+@NoArgsConstructor
+public class ReconciliationRun {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    private ReconciliationStatus status;
+
+    // Null until the first checkpoint
+    private Long checkpointUserId;
+    private Long checkpointSpaceId;
+
+    private long paymentsScanned;
+    private long bookingsScanned;
+    private long matched;
+    private long discrepancies;
+
+    private String error;
+
+    // Epoch millis
+    private long startedAt;
+    private long checkpointAt;
+    private Long finishedAt;
+}
@@ -0,0 +1,40 @@
+package com.parkease.beans;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Temporary hold on a slot while a user completes checkout. Times are epoch
+// millis so the expiry sweep compares plain numbers on every database.
+@Entity
+@Table(name = "slot_hold", indexes = @Index(name = "idx_slot_hold_expires_at", columnList = "expiresAt"))
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SlotHold {
+    @Id
+    private Long slotId;
+
+    @Column(nullable = false)
+    private Long parkingSpaceId;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    private String userName;
+
+    @Column(nullable = false)
+    private long createdAt;
+
+    @Column(nullable = false)
+    private long expiresAt;
+
+    public boolean isExpired(long now) {
+        return expiresAt <= now;
+    }
+}
@@ -0,0 +1,56 @@
+package com.parkease.controllers;
+
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.parkease.beans.ParkingSpace;
+import com.parkease.dao.ParkingSpaceRepo;
+import com.parkease.dtos.ParkingSpaceUpdate;
+import com.parkease.exceptions.ResourceNotFoundException;
+import com.parkease.services.AvailabilityEventPublisher;
+import com.parkease.services.LiveAvailabilityCounter;
+
+// Read-only availability feed for lot entrance displays. Streams the same
+// events as /topic/parking-space/{id} without the SockJS/STOMP handshake.
+@RestController
+@RequestMapping("/api/availability")
+public class AvailabilityStreamController {
+
+    @Autowired
+    private AvailabilityEventPublisher publisher;
+
+    @Autowired
+    private ParkingSpaceRepo parkingSpaceRepo;
+
+    @Autowired
+    private LiveAvailabilityCounter availabilityCounter;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @GetMapping(path = "/{parkingSpaceId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@PathVariable long parkingSpaceId) throws JsonProcessingException {
+        Optional<ParkingSpace> spaceOpt = parkingSpaceRepo.findById(parkingSpaceId);
+        if (spaceOpt.isEmpty()) {
+            throw new ResourceNotFoundException("Parking space not found with id: " + parkingSpaceId);
+        }
+
+        int availableSlots = availabilityCounter.getFreeSlots(parkingSpaceId);
+        ParkingSpaceUpdate initial = new ParkingSpaceUpdate(
+                parkingSpaceId,
+                availableSlots,
+                spaceOpt.get().getTotalSlots(),
+                "INITIAL_STATUS"
+        );
+        return publisher.subscribe(parkingSpaceId, objectMapper.writeValueAsString(initial));
+    }
+}
@@ -9,13 +9,7 @@ import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
 import jakarta.annotation.PostConstruct;
-import jakarta.annotation.PreDestroy;
 import java.util.Map;
 import java.util.Optional;
 import org.apache.http.HttpStatus;
@@ -28,12 +22,14 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
@@ -53,24 +49,17 @@ import com.parkease.dtos.BookingUpdateRequest;
 import com.parkease.dtos.MessageResponse;
 import com.parkease.dtos.StatusUpdateRequest;
 import com.parkease.services.BookingService;
+import com.parkease.services.IdempotencyService;
+import com.parkease.services.SlotHoldService;
+import com.parkease.services.SlotUpdateNotifier;
 import java.util.Map;
 import java.util.Optional;
 
 import jakarta.validation.Valid;
 
 import org.springframework.web.bind.annotation.RequestParam;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
-import com.parkease.dtos.SlotUpdateMessage;
-import com.parkease.dtos.ParkingSpaceUpdate;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
 import jakarta.annotation.PostConstruct;
-import jakarta.annotation.PreDestroy;
 
-import com.parkease.dtos.SlotUpdateMessage;
-import com.parkease.dtos.ParkingSpaceUpdate;
 
 
 @RestController
@@ -94,37 +83,49 @@ public class BookingController {
  @Autowired
  private UserRepository userRepository;;;
  
+
+
  @Autowired
- private SimpMessagingTemplate messagingTemplate;
- 
+ private SlotHoldService slotHoldService;
 
+ @Autowired
+ private SlotUpdateNotifier slotUpdateNotifier;
 
-// Store temporary slot reservations
-private final ConcurrentHashMap<Long, SlotReservation> slotReservations = new ConcurrentHashMap<>();
-private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
+ @Autowired
+ private IdempotencyService idempotencyService;
 
-private static class SlotReservation {
-    Long userId;
-    String userName;
-    Long timestamp;
-    
-    SlotReservation(Long userId, String userName) {
-        this.userId = userId;
-        this.userName = userName;
-        this.timestamp = System.currentTimeMillis();
-    }
-}
     @PostMapping("/{slotId}")
-    public ResponseEntity<?> createBooking(@RequestBody BookingRequest bookingReq,@PathVariable Long slotId) {
+    public ResponseEntity<?> createBooking(@RequestBody BookingRequest bookingReq,@PathVariable Long slotId,
+    		@RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+    		Authentication authentication) {
         
     	System.out.println("lkdl"+bookingReq.getArrivalTime());
-    	Booking booking=bookingService.saveBooking(bookingReq,slotId);
+    	// The booking is always the caller's, whatever userId the body sends
+    	Long userId = currentUserId(authentication);
+    	bookingReq.setUserId(userId);
+    	// A retried request with the same key gets the first booking back instead of a second one
+    	return idempotencyService.execute("booking.create", idempotencyKey, List.of(slotId, bookingReq), () -> {
+    	// 409 if another user is holding the slot
+    	boolean claimed = slotHoldService.claim(slotId, bookingReq.getParkingLotId(), userId);
+    	Booking booking;
+    	try {
+    	    booking=bookingService.saveBooking(bookingReq,slotId);
+    	} catch (RuntimeException e) {
+    	    // Don't leave the slot blocked by a checkout that failed; a hold the
+    	    // user had taken before checkout stays theirs for a retry
+    	    if (claimed) {
+    	        slotHoldService.release(slotId, userId);
+    	    }
+    	    throw e;
+    	}
     	System.out.println(booking.getId());
     	
-    	    notifySlotBooked(slotId, bookingReq.getParkingLotId(), bookingReq.getUserId());
+    	    slotHoldService.completeClaim(slotId, userId);
+    	    slotUpdateNotifier.notifySlotBooked(slotId, bookingReq.getParkingLotId(), userId);
 
     	
         return ResponseEntity.ok(booking);
+    	});
     }
    @GetMapping("/generateReciept/{bookingId}")
  public ResponseEntity<?> getReceipt(@PathVariable Long bookingId) {
@@ -219,105 +220,39 @@ private static class SlotReservation {
     // Real-time slot booking methods
     
     @PostMapping("/reserve/{slotId}")
-    public ResponseEntity<?> reserveSlot(@PathVariable Long slotId, @RequestBody Map<String, Object> request) {
+    public ResponseEntity<?> reserveSlot(@PathVariable Long slotId, @RequestBody Map<String, Object> request,
+            Authentication authentication) {
         Long parkingSpaceId = Long.valueOf(request.get("parkingSpaceId").toString());
-        Long userId = Long.valueOf(request.get("userId").toString());
+        Long userId = currentUserId(authentication);
         String userName = request.get("userName").toString();
         
-        // Check if slot is available
-        Optional<com.parkease.beans.ParkingSlot> slotOpt = parkingSlotRepository.findById(slotId);
-        if (slotOpt.isEmpty() || !slotOpt.get().isAvailable()) {
-            return ResponseEntity.badRequest().body(new MessageResponse("Slot not available"));
+        switch (slotHoldService.hold(slotId, parkingSpaceId, userId, userName)) {
+            case HELD:
+            case ALREADY_HELD:
+                return ResponseEntity.ok(new MessageResponse("Slot reserved successfully"));
+            case HELD_BY_OTHER:
+                return ResponseEntity.badRequest().body(new MessageResponse("Slot already reserved"));
+            default:
+                return ResponseEntity.badRequest().body(new MessageResponse("Slot not available"));
         }
-        
-        // Check if already reserved
-        if (slotReservations.containsKey(slotId)) {
-            return ResponseEntity.badRequest().body(new MessageResponse("Slot already reserved"));
-        }
-        
-        // Reserve the slot temporarily
-        slotReservations.put(slotId, new SlotReservation(userId, userName));
-        
-        // Schedule timeout to release reservation
-        scheduler.schedule(() -> {
-            if (slotReservations.containsKey(slotId)) {
-                slotReservations.remove(slotId);
-                notifySlotReleased(slotId, parkingSpaceId, "TIMEOUT");
-            }
-        }, 5, TimeUnit.MINUTES);
-        
-        // Notify all clients about reservation
-        notifySlotReserved(slotId, parkingSpaceId, userId, userName);
-        
-        return ResponseEntity.ok(new MessageResponse("Slot reserved successfully"));
     }
     
     @PostMapping("/release/{slotId}")
-    public ResponseEntity<?> releaseSlot(@PathVariable Long slotId, @RequestBody Map<String, Object> request) {
-        Long parkingSpaceId = Long.valueOf(request.get("parkingSpaceId").toString());
+    public ResponseEntity<?> releaseSlot(@PathVariable Long slotId, Authentication authentication) {
+        Long userId = currentUserId(authentication);
         
-        if (slotReservations.containsKey(slotId)) {
-            slotReservations.remove(slotId);
-            notifySlotReleased(slotId, parkingSpaceId, "RELEASED");
+        if (slotHoldService.release(slotId, userId).isPresent()) {
             return ResponseEntity.ok(new MessageResponse("Slot released successfully"));
         }
         
-        return ResponseEntity.badRequest().body(new MessageResponse("Slot not reserved"));
-    }
-    
-    private void notifySlotReserved(Long slotId, Long parkingSpaceId, Long userId, String userName) {
-        SlotUpdateMessage message = new SlotUpdateMessage(slotId, parkingSpaceId, false, "RESERVED");
-        message.setUserId(userId);
-        message.setUserName(userName);
-        
-        messagingTemplate.convertAndSend("/topic/parking-space/" + parkingSpaceId, message);
-        messagingTemplate.convertAndSend("/topic/slots", message);
-    }
-    
-    private void notifySlotBooked(Long slotId, Long parkingSpaceId, Long userId) {
-        // Remove from reservations if it was reserved
-        slotReservations.remove(slotId);
-        
-        SlotUpdateMessage message = new SlotUpdateMessage(slotId, parkingSpaceId, false, "BOOKED");
-        message.setUserId(userId);
-        
-        messagingTemplate.convertAndSend("/topic/parking-space/" + parkingSpaceId, message);
-        messagingTemplate.convertAndSend("/topic/slots", message);
-        
-        // Update parking space availability count
-        updateParkingSpaceAvailability(parkingSpaceId);
-    }
-    
-    private void notifySlotReleased(Long slotId, Long parkingSpaceId, String action) {
-        SlotUpdateMessage message = new SlotUpdateMessage(slotId, parkingSpaceId, true, action);
-        
-        messagingTemplate.convertAndSend("/topic/parking-space/" + parkingSpaceId, message);
-        messagingTemplate.convertAndSend("/topic/slots", message);
-        
-        // Update parking space availability count
-        updateParkingSpaceAvailability(parkingSpaceId);
+        return ResponseEntity.badRequest().body(new MessageResponse("Slot not reserved by this user"));
     }
-    
-    private void updateParkingSpaceAvailability(Long parkingSpaceId) {
-        try {
-            com.parkease.beans.ParkingSpace parkingSpace = parkingSpaceRepo.findById(parkingSpaceId).orElse(null);
-            if (parkingSpace != null) {
-                long availableSlots = parkingSpace.getParkingSlot().stream()
-                    .mapToLong(slot -> slot.isAvailable() ? 1 : 0)
-                    .sum();
-                
-                ParkingSpaceUpdate update = new ParkingSpaceUpdate(
-                    parkingSpaceId, 
-                    (int) availableSlots, 
-                    parkingSpace.getTotalSlots(), 
-                    "AVAILABILITY_UPDATE"
-                );
-                
-                messagingTemplate.convertAndSend("/topic/parking-spaces", update);
-            }
-        } catch (Exception e) {
-            System.err.println("Error updating parking space availability: " + e.getMessage());
-        }
+
+    // Holds and bookings belong to the authenticated user, never to a userId in the request
+    private Long currentUserId(Authentication authentication) {
+        return userRepository.findByEmail(authentication.getName()).map(User::getUserId)
+                .orElseThrow(() -> new ResponseStatusException(org.springframework.http.HttpStatus.FORBIDDEN,
+                        "Unknown user"));
     }
     
     @PostConstruct
@@ -325,9 +260,4 @@ private static class SlotReservation {
         System.out.println("Real-time booking controller initialized");
     }
     
-    @PreDestroy
-    public void cleanup() {
-        scheduler.shutdown();
-    }
-    
 }
@@ -1,17 +1,19 @@
 package com.parkease.controllers;
 
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.client.RestTemplate;
+
+import com.parkease.exceptions.DependencyUnavailableException;
+import com.parkease.services.DirectionsService;
 
 @RestController
 @RequestMapping("/api/directions")
 public class DirectionsController {
 
-	 String apiKey = "5b3ce3597851110001cf62482e42f6ec82c5e8d3d482a9cc2a84a989a949e58d9d3f31009d796b16";
-
-    private final RestTemplate restTemplate = new RestTemplate();
+    @Autowired
+    private DirectionsService directionsService;
 
     @GetMapping
     public ResponseEntity<String> getDirections(
@@ -21,14 +23,12 @@ public class DirectionsController {
             @RequestParam double endLng
             
     ) {
-        String url = String.format(
-            "https://api.openrouteservice.org/v2/directions/driving-car?api_key=%s&start=%f,%f&end=%f,%f",
-            apiKey, startLng, startLat, endLng, endLat
-        );
-
         try {
-            String response = restTemplate.getForObject(url, String.class);
+            String response = directionsService.getRoute(startLat, startLng, endLat, endLng);
             return ResponseEntity.ok(response);
+        } catch (DependencyUnavailableException e) {
+            // The map still works without a route; the client retries later
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Directions are temporarily unavailable");
         } catch (Exception e) {
         	System.out.println(e.getMessage());
             return ResponseEntity.status(502).body("Error fetching directions: " + e.getMessage());
@@ -0,0 +1,75 @@
+package com.parkease.controllers;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.parkease.services.GatewaySimulatorService;
+
+// Razorpay-compatible paths under /gateway-sim; app.payment.razorpay-url points
+// here in the gateway-sim profile. Only registered in that profile.
+@RestController
+@Profile("gateway-sim")
+@RequestMapping("/gateway-sim")
+public class GatewaySimulatorController {
+
+    @Autowired
+    private GatewaySimulatorService simulator;
+
+    @PostMapping("/v1/orders")
+    public CompletableFuture<ResponseEntity<String>> createOrder(
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+            @RequestBody ObjectNode request) {
+        if (!isBasicAuth(authorization)) {
+            return CompletableFuture.completedFuture(unauthorized());
+        }
+        return simulator.createOrder(request);
+    }
+
+    @GetMapping("/v1/orders/{orderId}")
+    public CompletableFuture<ResponseEntity<String>> getOrder(
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+            @PathVariable String orderId) {
+        if (!isBasicAuth(authorization)) {
+            return CompletableFuture.completedFuture(unauthorized());
+        }
+        return simulator.getOrder(orderId);
+    }
+
+    // What the browser checkout would do; the body may carry the payer's "email"
+    @PostMapping("/v1/orders/{orderId}/pay")
+    public CompletableFuture<ResponseEntity<String>> pay(@PathVariable String orderId,
+            @RequestBody(required = false) Map<String, String> body) {
+        return simulator.pay(orderId, body != null ? body.get("email") : null);
+    }
+
+    @GetMapping("/stats")
+    public Map<String, Long> stats() {
+        return Map.of("webhooksSent", simulator.getWebhooksSent(), "webhooksFailed", simulator.getWebhooksFailed());
+    }
+
+    // The real API rejects calls without key credentials; so does the simulator,
+    // which catches a client that lost its auth header
+    private static boolean isBasicAuth(String authorization) {
+        return authorization != null && authorization.startsWith("Basic ");
+    }
+
+    private static ResponseEntity<String> unauthorized() {
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).contentType(MediaType.APPLICATION_JSON)
+                .body("{\"error\":{\"code\":\"BAD_REQUEST_ERROR\",\"description\":\"The api key provided is invalid\"}}");
+    }
+}
@@ -0,0 +1,48 @@
+package com.parkease.controllers;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.parkease.beans.User;
+import com.parkease.dao.UserRepository;
+import com.parkease.dtos.GeofenceBatchResponse;
+import com.parkease.dtos.GeofenceEvent;
+import com.parkease.services.GeofenceEventService;
+
+@RestController
+@RequestMapping("/api/geofence")
+@PreAuthorize("hasRole('USER')")
+public class GeofenceController {
+
+    private static final int MAX_BATCH = 1000;
+
+    @Autowired
+    private GeofenceEventService geofenceEventService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    // Events are applied asynchronously, hence 202. They are the caller's own:
+    // any userId in the body is replaced by the authenticated user's.
+    @PostMapping("/events")
+    public ResponseEntity<?> submitEvents(@RequestBody List<GeofenceEvent> events, Authentication authentication) {
+        if (events.size() > MAX_BATCH) {
+            return ResponseEntity.badRequest().body("At most " + MAX_BATCH + " events per request");
+        }
+        Long userId = userRepository.findByEmail(authentication.getName()).map(User::getUserId).orElse(null);
+        if (userId == null) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Unknown user");
+        }
+        GeofenceBatchResponse response = geofenceEventService.submit(userId, events);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+    }
+}
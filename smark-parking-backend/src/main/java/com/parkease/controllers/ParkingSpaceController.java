@@ -5,6 +5,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.List;
@@ -27,8 +28,19 @@ import org.springframework.web.multipart.MultipartFile;
 import com.parkease.beans.ParkingOwner;
 import com.parkease.beans.ParkingSpace;
 import com.parkease.dao.ParkingSpaceRepo;
+import com.parkease.dtos.ParkingSlotSummary;
 import com.parkease.dtos.ParkingSpaceDto;
+import com.parkease.dtos.ParkingSpaceSummary;
+import com.parkease.dtos.PriceQuote;
+import com.parkease.dtos.SearchSuggestion;
+import com.parkease.dtos.StayQuote;
+import com.parkease.enums.NearbySort;
+import com.parkease.exceptions.LotFullException;
+import com.parkease.exceptions.ResourceNotFoundException;
+import com.parkease.services.ParkingSpaceSearchIndex;
 import com.parkease.services.ParkingSpaceService;
+import com.parkease.services.PricingEngine;
+import com.parkease.services.QuoteService;
 @RestController	
 @RequestMapping("parkingspaces")
 @PreAuthorize("hasRole('USER')")
@@ -38,10 +50,31 @@ public class ParkingSpaceController {
 	public ParkingSpaceService parkingSpaceService;
 	@Autowired
 	public ParkingSpaceRepo parkingSpaceRepo;
+	@Autowired
+	private ParkingSpaceSearchIndex searchIndex;
+	@Autowired
+	private PricingEngine pricingEngine;
+	@Autowired
+	private QuoteService quoteService;
+
+	// view=summary returns ParkingSpaceSummary cards without the slot lists;
+	// slots are then fetched per lot from /{id}/slots
+	private static final String VIEW_FULL = "full";
+	private static final String VIEW_SUMMARY = "summary";
 	
+	// Typeahead for the search box; answered from memory
+	@GetMapping("/search")
+	public ResponseEntity<List<SearchSuggestion>> search(@RequestParam String q,
+			@RequestParam(defaultValue = "10") int limit) {
+		return ResponseEntity.ok(searchIndex.suggest(q, Math.min(Math.max(limit, 1), 50)));
+	}
+
 	@GetMapping("/{location}")
-	public ResponseEntity<?> getParkingSpaces(@PathVariable String location){
-		System.out.println("=========================ganresh");
+	public ResponseEntity<?> getParkingSpaces(@PathVariable String location,
+			@RequestParam(defaultValue = VIEW_FULL) String view){
+		if (VIEW_SUMMARY.equals(view)) {
+			return ResponseEntity.ok(parkingSpaceService.getSummariesByAddress(location));
+		}
 		List<ParkingSpace> spaces=parkingSpaceService.getByAddress(location);
 		return new ResponseEntity(spaces,HttpStatus.OK);
 	}
@@ -65,6 +98,11 @@ public class ParkingSpaceController {
 	            parkingSpaceService.bookParking(slotNumber, spaceId);
 	            return ResponseEntity.ok().body( slotNumber);
 	        }
+	    } catch (LotFullException e) {
+	        return ResponseEntity.status(HttpStatus.CONFLICT)
+	                .body(Map.of("message", e.getMessage(), "alternatives", e.getAlternatives()));
+	    } catch (ResourceNotFoundException e) {
+	        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
 	    } catch (RuntimeException e) {
 	        System.out.println(e.getMessage());
 	        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
@@ -92,13 +130,22 @@ public class ParkingSpaceController {
 	}
 	
 	  @GetMapping("/nearby")
-	    public ResponseEntity<?> getNearbyParking(@RequestParam double lat, @RequestParam double lon) {
+	    public ResponseEntity<?> getNearbyParking(@RequestParam double lat, @RequestParam double lon,
+	            @RequestParam(defaultValue = "5") double radiusKm,
+	            @RequestParam(defaultValue = "50") int limit,
+	            @RequestParam(defaultValue = "DISTANCE") NearbySort sort,
+	            @RequestParam(defaultValue = VIEW_FULL) String view) {
 	       
+		  if (radiusKm <= 0 || radiusKm > 50 || limit < 1 || limit > 200) {
+			  return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("radiusKm must be in (0, 50] and limit in [1, 200]");
+		  }
 		  try {
-			List<ParkingSpaceDto> spaces=parkingSpaceService.findNearbyParking(lat, lon);
+			if (VIEW_SUMMARY.equals(view)) {
+				return ResponseEntity.ok(parkingSpaceService.findNearbySummaries(lat, lon, radiusKm, limit, sort));
+			}
+			List<ParkingSpaceDto> spaces=parkingSpaceService.findNearbyParking(lat, lon, radiusKm, limit, sort);
 			  
-			  System.out.println("=======================================================parkingspaces");
-			  System.out.println("near"+spaces);
+			  System.out.println("nearby parking spaces: " + spaces.size());
 			  
 			  return ResponseEntity.status(HttpStatus.OK).body(spaces);
 		} catch (Exception e) {
@@ -109,10 +156,47 @@ public class ParkingSpaceController {
 	    }
 	  @PreAuthorize("permitAll()")
 	  @GetMapping("/getAllParkingSpaces")
-	  public ResponseEntity<List<ParkingSpace>> getAll(){
+	  public ResponseEntity<?> getAll(@RequestParam(defaultValue = VIEW_FULL) String view){
+		  if (VIEW_SUMMARY.equals(view)) {
+			  return ResponseEntity.ok(parkingSpaceService.getAllSummaries());
+		  }
 		  List<ParkingSpace>spaces= parkingSpaceService.getAllParkingSpaces();
 		  return ResponseEntity.ok(spaces);
 	  }
+
+	  @PreAuthorize("permitAll()")
+	  @GetMapping("/{id}/slots")
+	  public ResponseEntity<List<ParkingSlotSummary>> getSlots(@PathVariable long id){
+		  return ResponseEntity.ok(parkingSpaceService.getSlots(id));
+	  }
+	  
+	  // Nearby lots with free slots, for redirecting drivers away from a full lot
+	  @PreAuthorize("permitAll()")
+	  @GetMapping("/{id}/alternatives")
+	  public ResponseEntity<List<ParkingSpaceSummary>> getAlternatives(@PathVariable long id,
+			  @RequestParam(defaultValue = "3") int limit){
+		  return ResponseEntity.ok(parkingSpaceService.findAlternatives(id, Math.max(1, Math.min(limit, 8))));
+	  }
+	  
+	  // Dynamic hourly price; at (ISO instant) prices a later hour at today's occupancy
+	  @PreAuthorize("permitAll()")
+	  @GetMapping("/{id}/price")
+	  public ResponseEntity<PriceQuote> getPrice(@PathVariable long id,
+			  @RequestParam(required = false) Instant at){
+		  PriceQuote quote = pricingEngine.getQuote(id, at != null ? at.toEpochMilli() : System.currentTimeMillis());
+		  if (quote == null) {
+			  throw new ResourceNotFoundException("Parking space not found with id: " + id);
+		  }
+		  return ResponseEntity.ok(quote);
+	  }
+	  
+	  // Exact charge for a stay; the quoteToken locks it in for the booking
+	  @PreAuthorize("permitAll()")
+	  @GetMapping("/{id}/quote")
+	  public ResponseEntity<StayQuote> getQuote(@PathVariable long id, @RequestParam Instant arrival,
+			  @RequestParam Instant departure){
+		  return ResponseEntity.ok(quoteService.quote(id, arrival, departure));
+	  }
 	  
 	  @PutMapping("/update/{id}")
 	    public ResponseEntity<?> updateParkingSpace(
@@ -128,10 +212,13 @@ public class ParkingSpaceController {
 	            @PathVariable String lotName,
 	            @RequestParam LocalTime availableFrom,
 	            @RequestParam LocalTime availableTo,
-	            @RequestParam Double pricingPerHour
+	            @RequestParam Double pricingPerHour,
+	            @RequestParam(required = false) Double dailyCap,
+	            @RequestParam(required = false) Double overnightRate
 	         ) {
 	        
-	        ParkingSpace updated = parkingSpaceService.updatePricingAndTime(lotName,availableFrom,availableTo,pricingPerHour);
+	        ParkingSpace updated = parkingSpaceService.updatePricingAndTime(lotName,availableFrom,availableTo,pricingPerHour,
+	        		dailyCap,overnightRate);
 	        if(updated == null) {
 	        	return new ResponseEntity("Parking Space Not Found",HttpStatus.NOT_FOUND);
 	        }
@@ -5,24 +5,43 @@ package com.parkease.controllers;
 import org.json.JSONObject;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.*;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.ErrorResponse;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.parkease.beans.ParkingSpace;
 import com.parkease.beans.PaymentOrder;
+import com.parkease.dao.ParkingSpaceRepo;
 import com.parkease.dao.PaymentOrderRepository;
 import com.parkease.dtos.CreateOrderRequest;
 import com.parkease.dtos.CreateOrderResponse;
 
+import com.parkease.dtos.PaymentQuery;
 import com.parkease.dtos.PaymentResponse;
 import com.parkease.dtos.StripeResponse;
+import com.parkease.exceptions.DependencyUnavailableException;
+import com.parkease.security.AsyncTimeoutInterceptor;
+import com.parkease.services.IdempotencyService;
+import com.parkease.services.PaymentGatewayService;
 import com.parkease.services.PaymentService;
-import com.razorpay.Order;
-import com.razorpay.Payment;
-import com.razorpay.RazorpayClient;
+import com.parkease.services.QuoteService;
+import com.parkease.services.RevenueRollupService;
 
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
 
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -35,50 +54,144 @@ import org.springframework.web.bind.annotation.*;
 @RequestMapping("/api/payment")
 public class PaymentController {
 
-    @Value("${razorpay.key.id}")
-    private String razorpayKeyId;
-
-    @Value("${razorpay.key.secret}")
-    private String razorpayKeySecret;
-    
     @Autowired
     PaymentService paymentService;
+
+    @Autowired
+    PaymentGatewayService paymentGatewayService;
+
+    @Autowired
+    IdempotencyService idempotencyService;
+
+    @Autowired
+    QuoteService quoteService;
+
+    @Autowired
+    ObjectMapper objectMapper;
     
     @Autowired
     PaymentOrderRepository orderRepo;
 
+    @Autowired
+    ParkingSpaceRepo parkingSpaceRepo;
+
+    @Autowired
+    RevenueRollupService revenueRollupService;
+
+    @Value("${app.payment.export.timeout-ms:600000}")
+    long exportTimeoutMs;
+
+    // Completes on the gateway pool; the servlet thread is released while Razorpay answers.
+    // The order is for a quote from /parkingspaces/{id}/quote; 400 when it is missing or expired.
+    // Its row is stored before the client can pay it, with the amount the gateway will charge.
     @PostMapping("/create-order")
-    public String createOrder(@RequestBody CreateOrderRequest orderRequest) {
-        try {
-            RazorpayClient razorpayClient = new RazorpayClient(razorpayKeyId, razorpayKeySecret);
-
-            // Razorpay order creation parameters
-            JSONObject orderRequestParams = new JSONObject();
-            orderRequestParams.put("amount", orderRequest.getAmount() * 100); // amount in paise
-            orderRequestParams.put("currency", "INR");
-            orderRequestParams.put("receipt", "txn_123456");
-            orderRequestParams.put("payment_capture", 1);
-
-            // Create order on Razorpay
-            Order order = razorpayClient.orders.create(orderRequestParams);
-            return order.toString();
-        } catch (Exception e) {
-            e.printStackTrace();
-            System.out.println("Raw response: " + e.getMessage());
-            return "Error while creating order: " + e.getMessage();
+    public CompletableFuture<ResponseEntity<String>> createOrder(@RequestBody CreateOrderRequest orderRequest) {
+        double amount = quoteService.orderAmount(orderRequest);
+        return paymentGatewayService.createOrderAsync(amount, "INR", "txn_123456")
+                .thenApply(order -> {
+                    paymentService.recordOrder(order, orderRequest.getEmail());
+                    return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(order);
+                })
+                .exceptionally(this::orderFailed);
+    }
+
+    private ResponseEntity<String> orderFailed(Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        System.out.println("Error while creating order: " + cause);
+        if (cause instanceof RejectedExecutionException || cause instanceof DependencyUnavailableException) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Payment gateway busy, please retry");
+        }
+        if (cause instanceof TimeoutException) {
+            return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).body("Payment gateway timed out");
         }
+        return ResponseEntity.status(HttpStatus.BAD_GATEWAY).body("Error while creating order: " + cause.getMessage());
     }
     
+    // Newest app.payment.query.legacy-limit payments; use /payments to page through all
     @GetMapping("getPayments")
     public List<PaymentOrder> getPayment(){
     	
-    	return orderRepo.findAll();
+    	return paymentService.getAllPayments();
     	
     }
+
+    // Keyset-paginated listing, newest first. Pass nextCursor back as cursor.
+    @GetMapping("/payments")
+    public ResponseEntity<?> findPayments(@RequestParam(required = false) String lotName,
+            @RequestParam(required = false) String customerEmail,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int limit,
+            Authentication authentication) {
+        PaymentQuery query = scope(authentication, lotName, customerEmail, from, to);
+        if (query == null) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Not your payments");
+        }
+        try {
+            return ResponseEntity.ok(paymentService.findPayments(query, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // Same filters as /payments, every matching row as newline-delimited JSON,
+    // written page by page while the client reads
+    @GetMapping(value = "/payments/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportPayments(@RequestParam(required = false) String lotName,
+            @RequestParam(required = false) String customerEmail,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            Authentication authentication, HttpServletRequest request) {
+        if (lotName != null && customerEmail != null) {
+            return ResponseEntity.badRequest().build();
+        }
+        PaymentQuery query = scope(authentication, lotName, customerEmail, from, to);
+        if (query == null) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        request.setAttribute(AsyncTimeoutInterceptor.TIMEOUT_ATTRIBUTE, exportTimeoutMs);
+        StreamingResponseBody body = out -> paymentService.forEachPaymentPage(query, page -> {
+            try {
+                for (PaymentOrder payment : page) {
+                    out.write(objectMapper.writeValueAsBytes(payment));
+                    out.write('\n');
+                }
+                out.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=payments.ndjson")
+                .body(body);
+    }
+    // Admins see every payment and owners their own lots'; anyone else is
+    // limited to the payments they made. null when the filter isn't theirs.
+    private PaymentQuery scope(Authentication authentication, String lotName, String customerEmail,
+            LocalDate from, LocalDate to) {
+        String email = authentication.getName();
+        if (authentication.getAuthorities().stream().anyMatch(a -> "ROLE_ADMIN".equals(a.getAuthority()))) {
+            return new PaymentQuery(lotName, customerEmail, from, to);
+        }
+        if (lotName != null) {
+            ParkingSpace space = parkingSpaceRepo.findByLotName(lotName);
+            return space != null && revenueRollupService.ownsLot(email, space.getId())
+                    ? new PaymentQuery(lotName, customerEmail, from, to) : null;
+        }
+        if (customerEmail != null && !customerEmail.equalsIgnoreCase(email)) {
+            return null;
+        }
+        return new PaymentQuery(null, email, from, to);
+    }
+
     @PostMapping("/store")
-    public ResponseEntity<String> storePayment(@RequestBody PaymentOrder payment) {
-        paymentService.savePayment(payment);
-        return ResponseEntity.ok("Payment saved successfully.");
+    public ResponseEntity<?> storePayment(@RequestBody PaymentOrder payment,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute("payment.store", idempotencyKey, payment, () -> {
+            paymentService.savePayment(payment);
+            return ResponseEntity.ok("Payment saved successfully.");
+        });
     }
     
     
@@ -0,0 +1,46 @@
+package com.parkease.controllers;
+
+import java.io.IOException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.parkease.enums.WebhookIngestResult;
+import com.parkease.services.PaymentWebhookService;
+
+// Called by the payment gateway, not by users: authenticated by the body
+// signature instead of a JWT
+@RestController
+@RequestMapping("/api/payment")
+public class PaymentWebhookController {
+
+    @Autowired
+    private PaymentWebhookService webhookService;
+
+    // The raw bytes are needed, the signature covers the exact body sent
+    @PostMapping("/webhook")
+    public ResponseEntity<String> receive(@RequestBody byte[] body,
+            @RequestHeader(value = "X-Razorpay-Signature", required = false) String signature,
+            @RequestHeader(value = "X-Razorpay-Event-Id", required = false) String eventId) {
+        if (!webhookService.verifySignature(body, signature)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid signature");
+        }
+        WebhookIngestResult result;
+        try {
+            result = webhookService.submit(body, eventId);
+        } catch (IOException e) {
+            return ResponseEntity.badRequest().body("Malformed event");
+        }
+        if (result == WebhookIngestResult.REJECTED) {
+            // Any non-2xx makes the gateway deliver the event again later
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(result.name());
+        }
+        return ResponseEntity.ok(result.name());
+    }
+}
@@ -0,0 +1,59 @@
+package com.parkease.controllers;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.parkease.services.ReconciliationService;
+
+@RestController
+@RequestMapping("/api/reconciliation")
+@PreAuthorize("hasAuthority('ROLE_ADMIN')")
+public class ReconciliationController {
+
+    @Autowired
+    private ReconciliationService reconciliationService;
+
+    // Starts a run, or resumes the last one if it did not finish
+    @PostMapping("/runs")
+    public ResponseEntity<?> start() {
+        if (!reconciliationService.start()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("A reconciliation run is already in progress");
+        }
+        return ResponseEntity.accepted().body(Map.of("message", "Reconciliation started"));
+    }
+
+    @GetMapping("/runs/latest")
+    public ResponseEntity<?> latest() {
+        return reconciliationService.getLatestRun()
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/runs/{runId}")
+    public ResponseEntity<?> run(@PathVariable long runId) {
+        return reconciliationService.getRun(runId)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    // Pages by id: pass the last id seen as afterId
+    @GetMapping("/runs/{runId}/discrepancies")
+    public ResponseEntity<?> discrepancies(@PathVariable long runId,
+            @RequestParam(defaultValue = "0") long afterId,
+            @RequestParam(defaultValue = "100") int limit) {
+        if (limit < 1 || limit > 1000) {
+            return ResponseEntity.badRequest().body("limit must be between 1 and 1000");
+        }
+        return ResponseEntity.ok(reconciliationService.getDiscrepancies(runId, afterId, limit));
+    }
+}
@@ -0,0 +1,89 @@
+package com.parkease.controllers;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.parkease.services.RevenueRollupService;
+
+// Daily revenue dashboards, served from the lot_daily_revenue rollup. A lot's
+// and an owner's figures are visible to that owner and to admins only.
+@RestController
+@RequestMapping("/api/reports")
+public class ReportController {
+
+    @Autowired
+    private RevenueRollupService revenueRollupService;
+
+    @GetMapping("/lots/{parkingSpaceId}/daily")
+    @PreAuthorize("hasAnyAuthority('ROLE_PARKING_OWNER', 'ROLE_ADMIN')")
+    public ResponseEntity<?> lotDaily(@PathVariable long parkingSpaceId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            Authentication authentication) {
+        if (!isAdmin(authentication) && !revenueRollupService.ownsLot(authentication.getName(), parkingSpaceId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Not your parking lot");
+        }
+        try {
+            return ResponseEntity.ok(revenueRollupService.getLotDaily(parkingSpaceId, from, to));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/owners/{ownerId}/daily")
+    @PreAuthorize("hasAnyAuthority('ROLE_PARKING_OWNER', 'ROLE_ADMIN')")
+    public ResponseEntity<?> ownerDaily(@PathVariable long ownerId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            Authentication authentication) {
+        if (!isAdmin(authentication) && !revenueRollupService.isOwner(authentication.getName(), ownerId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Not your report");
+        }
+        try {
+            return ResponseEntity.ok(revenueRollupService.getOwnerDaily(ownerId, from, to));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/platform/daily")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public ResponseEntity<?> platformDaily(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            return ResponseEntity.ok(revenueRollupService.getPlatformDaily(from, to));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // Rebuilds a range from the raw tables, e.g. after a data correction
+    @PostMapping("/compact")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public ResponseEntity<?> compact(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        if (from.isAfter(to)) {
+            return ResponseEntity.badRequest().body("from must not be after to");
+        }
+        return ResponseEntity.ok(Map.of("rows", revenueRollupService.recompute(from, to)));
+    }
+
+    private static boolean isAdmin(Authentication authentication) {
+        return authentication.getAuthorities().stream().anyMatch(a -> "ROLE_ADMIN".equals(a.getAuthority()));
+    }
+}
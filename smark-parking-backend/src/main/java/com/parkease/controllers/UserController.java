@@ -43,6 +43,7 @@ import com.parkease.dao.ParkingUserRepo;
 import com.parkease.dao.UserRepository;
 import com.parkease.dtos.AuthResponse;
 import com.parkease.dtos.TokenRefreshRequest;
+import com.parkease.exceptions.DependencyUnavailableException;
 import com.parkease.security.AuthRequest;
 import com.parkease.security.JwtUtil;
 import com.parkease.services.OtpService;
@@ -166,7 +167,11 @@ public class UserController {
     	
     	User user=(User)repository.findByEmail(email).orElse(null);
     	if(user!=null) {
-    		  otpService.sendOtp(user.getFullname(),email);
+    		  try {
+    			  otpService.sendOtp(user.getFullname(),email);
+    		  } catch (DependencyUnavailableException e) {
+    			  return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Email is temporarily unavailable, please try again shortly");
+    		  }
     		  return ResponseEntity.status(HttpStatus.OK).body("Otp sentsuccessfully");
     		  
     	}
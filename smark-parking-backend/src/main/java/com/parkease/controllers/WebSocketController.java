@@ -4,110 +4,99 @@ import org.springframework.beans.factory.annotation.Autowired;
 
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
-import org.springframework.messaging.handler.annotation.SendTo;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.annotation.SendToUser;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.CrossOrigin;
 
 
-import com.parkease.beans.ParkingSlot;
 import com.parkease.beans.ParkingSpace;
-import com.parkease.dao.ParkingSlotRepository;
+import com.parkease.beans.User;
 import com.parkease.dao.ParkingSpaceRepo;
+import com.parkease.dao.UserRepository;
 import com.parkease.dtos.SlotReservationRequest;
 import com.parkease.dtos.SlotUpdateMessage;
 import com.parkease.dtos.ParkingSpaceUpdate;
+import com.parkease.enums.SlotHoldResult;
+import com.parkease.services.SlotHoldService;
 
+import java.security.Principal;
 import java.util.Optional;
 
 @Controller
 @CrossOrigin(origins = "*")
 public class WebSocketController {
 
+    private static final String SLOT_REPLIES = "/queue/slot-replies";
+
     @Autowired
     private SimpMessagingTemplate messagingTemplate;
     
-    @Autowired
-    private ParkingSlotRepository parkingSlotRepository;
-    
     @Autowired
     private ParkingSpaceRepo parkingSpaceRepo;
 
+    @Autowired
+    private SlotHoldService slotHoldService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    // The caller gets the outcome on /user/queue/slot-replies; everyone else
+    // only hears about it through the RESERVED broadcast when the hold is new.
+    // The holder is the session user, whatever userId the payload carries.
     @MessageMapping("/slot.reserve")
-    @SendTo("/topic/slots")
-    public SlotUpdateMessage reserveSlot(@Payload SlotReservationRequest request) {
-        System.out.println("=== WebSocket: RESERVE REQUEST RECEIVED ===");
-        System.out.println("Slot ID: " + request.getSlotId());
-        System.out.println("Parking Space ID: " + request.getParkingSpaceId());
-        System.out.println("User ID: " + request.getUserId());
-        System.out.println("User Name: " + request.getUserName());
-        System.out.println("Request: " + request);
-        
-        // Check if slot is available
-        Optional<ParkingSlot> slotOpt = parkingSlotRepository.findById(request.getSlotId());
-        if (slotOpt.isPresent() && slotOpt.get().isAvailable()) {
-            SlotUpdateMessage message = new SlotUpdateMessage();
-            message.setSlotId(request.getSlotId());
-            message.setParkingSpaceId(request.getParkingSpaceId());
-            message.setAvailable(false);
-            message.setAction("RESERVED");
-            message.setUserId(request.getUserId());
-            message.setUserName(request.getUserName());
-            message.setTimestamp(System.currentTimeMillis());
-            
-            // Also send to specific parking space topic
-            messagingTemplate.convertAndSend(
-                "/topic/parking-space/" + request.getParkingSpaceId(), 
-                message
-            );
-            
-            System.out.println("=== WebSocket: RESERVE MESSAGE SENT ===");
-            System.out.println("Message: " + message);
-            System.out.println("Sent to topics: /topic/slots and /topic/parking-space/" + request.getParkingSpaceId());
-            
-            return message;
+    @SendToUser(destinations = SLOT_REPLIES, broadcast = false)
+    public SlotUpdateMessage reserveSlot(@Payload SlotReservationRequest request, Principal principal) {
+        if (!authenticate(request, principal)) {
+            return reply(request, false, "NOT_AUTHENTICATED");
         }
-        
-        // Return slot not available message
-        SlotUpdateMessage notAvailableMessage = new SlotUpdateMessage();
-        notAvailableMessage.setSlotId(request.getSlotId());
-        notAvailableMessage.setParkingSpaceId(request.getParkingSpaceId());
-        notAvailableMessage.setAvailable(false);
-        notAvailableMessage.setAction("NOT_AVAILABLE");
-        notAvailableMessage.setUserId(request.getUserId());
-        notAvailableMessage.setUserName(request.getUserName());
-        notAvailableMessage.setTimestamp(System.currentTimeMillis());
-        return notAvailableMessage;
+        System.out.println("WebSocket: reserve slot " + request.getSlotId() + " by user " + request.getUserId());
+
+        SlotHoldResult result = slotHoldService.hold(
+                request.getSlotId(), request.getParkingSpaceId(), request.getUserId(), request.getUserName());
+
+        String action;
+        switch (result) {
+            case HELD:
+            case ALREADY_HELD:
+                action = "RESERVED";
+                break;
+            case HELD_BY_OTHER:
+                action = "ALREADY_RESERVED";
+                break;
+            default:
+                action = "NOT_AVAILABLE";
+        }
+        return reply(request, false, action);
     }
 
     @MessageMapping("/slot.release")
-    @SendTo("/topic/slots")
-    public SlotUpdateMessage releaseSlot(@Payload SlotReservationRequest request) {
-        System.out.println("=== WebSocket: RELEASE REQUEST RECEIVED ===");
-        System.out.println("Slot ID: " + request.getSlotId());
-        System.out.println("Parking Space ID: " + request.getParkingSpaceId());
-        System.out.println("User ID: " + request.getUserId());
-        System.out.println("User Name: " + request.getUserName());
-        
-        SlotUpdateMessage message = new SlotUpdateMessage();
-        message.setSlotId(request.getSlotId());
-        message.setParkingSpaceId(request.getParkingSpaceId());
-        message.setAvailable(true);
-        message.setAction("RELEASED");
+    @SendToUser(destinations = SLOT_REPLIES, broadcast = false)
+    public SlotUpdateMessage releaseSlot(@Payload SlotReservationRequest request, Principal principal) {
+        if (!authenticate(request, principal)) {
+            return reply(request, false, "NOT_AUTHENTICATED");
+        }
+        System.out.println("WebSocket: release slot " + request.getSlotId() + " by user " + request.getUserId());
+
+        boolean released = slotHoldService.release(request.getSlotId(), request.getUserId()).isPresent();
+        return reply(request, released, released ? "RELEASED" : "NOT_RESERVED");
+    }
+
+    // Replaces the payload's user with the session's; false for an anonymous session
+    private boolean authenticate(SlotReservationRequest request, Principal principal) {
+        Optional<User> user = principal == null ? Optional.empty() : userRepository.findByEmail(principal.getName());
+        request.setUserId(user.map(User::getUserId).orElse(null));
+        if (user.isPresent() && request.getUserName() == null) {
+            request.setUserName(user.get().getFullname());
+        }
+        return user.isPresent();
+    }
+
+    private SlotUpdateMessage reply(SlotReservationRequest request, boolean available, String action) {
+        SlotUpdateMessage message = new SlotUpdateMessage(
+                request.getSlotId(), request.getParkingSpaceId(), available, action);
         message.setUserId(request.getUserId());
         message.setUserName(request.getUserName());
-        message.setTimestamp(System.currentTimeMillis());
-        
-        // Also send to specific parking space topic
-        messagingTemplate.convertAndSend(
-            "/topic/parking-space/" + request.getParkingSpaceId(), 
-            message
-        );
-        
-        System.out.println("=== WebSocket: RELEASE MESSAGE SENT ===");
-        System.out.println("Message: " + message);
-        System.out.println("Sent to topics: /topic/slots and /topic/parking-space/" + request.getParkingSpaceId());
-        
         return message;
     }
 
@@ -0,0 +1,35 @@
+package com.parkease.controllers;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.parkease.services.WebSocketSessionMonitor;
+
+@RestController
+@RequestMapping("admin/websocket")
+// SecurityConfig permits /admin/** (the admin login is under it), so the check is here
+@PreAuthorize("hasAuthority('ROLE_ADMIN')")
+public class WebSocketMetricsController {
+
+    @Autowired
+    private WebSocketSessionMonitor sessionMonitor;
+
+    @GetMapping("/sessions")
+    public ResponseEntity<?> getSessions(@RequestParam(defaultValue = "50") int limit) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("openSessions", sessionMonitor.getOpenSessions());
+        body.put("totalBufferedBytes", sessionMonitor.totalBufferedBytes());
+        body.put("maxBufferedBytes", sessionMonitor.maxBufferedBytes());
+        body.put("slowSessionsClosed", sessionMonitor.getSlowSessionsClosed());
+        body.put("sessions", sessionMonitor.getSessionStats(Math.max(1, Math.min(limit, 1000))));
+        return ResponseEntity.ok(body);
+    }
+}
@@ -1,8 +1,14 @@
 package com.parkease.dao;
 
+import java.time.ZonedDateTime;
+import java.util.Collection;
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.parkease.beans.Booking;
@@ -15,6 +21,34 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
 	List<Booking> findByParkingLotId(Long parkingLotId);
 	
 	List<Booking> findByUserId(Long userId);
+
+	boolean existsByOrderId(String orderId);
+
+	// Over-fetches across the user/lot cross product; callers match exact pairs
+	List<Booking> findByUserIdInAndParkingLotIdInAndBookingStatusIn(
+			Collection<Long> userIds, Collection<Long> parkingLotIds, Collection<String> statuses);
+
+	// Guarded by the current status so a concurrent manual change is not overwritten
+	@Modifying
+	@Query("UPDATE Booking b SET b.bookingStatus = :to WHERE b.id IN :ids AND b.bookingStatus IN :from")
+	int updateStatus(@Param("ids") Collection<Long> ids, @Param("from") Collection<String> from, @Param("to") String to);
+
+	// {parkingLotId, arrivalTime, departureTime} of the bookings arriving in [from, to), for the revenue rollup
+	@Query("SELECT b.parkingLotId, b.arrivalTime, b.departureTime FROM Booking b "
+			+ "WHERE b.arrivalTime >= :from AND b.arrivalTime < :to AND b.bookingStatus <> 'Canceled'")
+	List<Object[]> findArrivalsBetween(@Param("from") ZonedDateTime from, @Param("to") ZonedDateTime to);
+
+	// Reconciliation stream: {id, userId, parkingLotId, arrivalTime, amount, paymentId, paymentAmount, orderId}
+	// of user bookings ordered by (userId, parkingLotId, arrivalTime, id), keyset pages after the cursor.
+	// The payment columns are those of the completed payment of the booking's order, if any.
+	@Query("SELECT b.id, b.userId, b.parkingLotId, b.arrivalTime, b.amount, p.id, p.amount, p.orderId FROM Booking b "
+			+ "LEFT JOIN PaymentOrder p ON p.orderId = b.orderId AND p.status = 'COMPLETED' "
+			+ "WHERE b.userId IS NOT NULL AND b.parkingLotId IS NOT NULL AND b.arrivalTime IS NOT NULL "
+			+ "AND (b.userId > :userId OR (b.userId = :userId AND (b.parkingLotId > :spaceId "
+			+ "OR (b.parkingLotId = :spaceId AND (b.arrivalTime > :arrival OR (b.arrivalTime = :arrival AND b.id > :id)))))) "
+			+ "ORDER BY b.userId, b.parkingLotId, b.arrivalTime, b.id")
+	List<Object[]> findReconciliationPage(@Param("userId") long userId, @Param("spaceId") long spaceId,
+			@Param("arrival") ZonedDateTime arrival, @Param("id") long id, Pageable pageable);
 //	  List<Booking> findByParkingSpace(ParkingSpace parkingSpace);
 //	    List<Booking> findByParkingUser(User user);
 }
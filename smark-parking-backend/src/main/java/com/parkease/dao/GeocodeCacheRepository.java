@@ -0,0 +1,8 @@
+package com.parkease.dao;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.parkease.beans.GeocodeCacheEntry;
+
+public interface GeocodeCacheRepository extends JpaRepository<GeocodeCacheEntry, String> {
+}
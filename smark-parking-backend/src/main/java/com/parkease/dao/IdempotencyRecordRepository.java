@@ -0,0 +1,39 @@
+package com.parkease.dao;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.parkease.beans.IdempotencyRecord;
+
+import jakarta.transaction.Transactional;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, Long> {
+
+    Optional<IdempotencyRecord> findByScopeAndPrincipalAndIdempotencyKey(String scope, String principal,
+            String idempotencyKey);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE IdempotencyRecord r SET r.status = 'COMPLETED', r.responseStatus = :responseStatus, "
+            + "r.responseContentType = :contentType, r.responseBody = :body, r.expiresAt = :expiresAt WHERE r.id = :id")
+    int complete(@Param("id") long id, @Param("responseStatus") int responseStatus,
+            @Param("contentType") String contentType, @Param("body") String body,
+            @Param("expiresAt") long expiresAt);
+
+    // Guarded by expiry so a live record is never removed by a late retry
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.id = :id AND r.expiresAt <= :now")
+    int deleteIfExpired(@Param("id") long id, @Param("now") long now);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt <= :now")
+    int deleteExpired(@Param("now") long now);
+}
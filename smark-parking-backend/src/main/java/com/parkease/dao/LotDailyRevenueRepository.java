@@ -0,0 +1,58 @@
+package com.parkease.dao;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.parkease.beans.LotDailyRevenue;
+import com.parkease.dtos.DailyRevenue;
+
+import jakarta.persistence.LockModeType;
+import jakarta.transaction.Transactional;
+
+@Repository
+public interface LotDailyRevenueRepository extends JpaRepository<LotDailyRevenue, Long> {
+
+    String DAILY_TOTALS = "SELECT new com.parkease.dtos.DailyRevenue(r.day, SUM(r.revenue), SUM(r.paymentCount), "
+            + "SUM(r.bookingCount), SUM(r.totalDurationMinutes), SUM(r.durationSamples)) FROM LotDailyRevenue r ";
+
+    // Increments in place so concurrent payments for one lot never lose an update
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE LotDailyRevenue r SET r.revenue = r.revenue + :amount, r.paymentCount = r.paymentCount + 1, "
+            + "r.updatedAt = :now WHERE r.parkingSpaceId = :spaceId AND r.day = :day")
+    int addPayment(@Param("spaceId") long spaceId, @Param("day") LocalDate day, @Param("amount") double amount,
+            @Param("now") long now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE LotDailyRevenue r SET r.bookingCount = r.bookingCount + 1, "
+            + "r.totalDurationMinutes = r.totalDurationMinutes + :minutes, r.durationSamples = r.durationSamples + :samples, "
+            + "r.updatedAt = :now WHERE r.parkingSpaceId = :spaceId AND r.day = :day")
+    int addBooking(@Param("spaceId") long spaceId, @Param("day") LocalDate day, @Param("minutes") long minutes,
+            @Param("samples") long samples, @Param("now") long now);
+
+    List<LotDailyRevenue> findByParkingSpaceIdAndDayBetweenOrderByDayAsc(long parkingSpaceId, LocalDate from, LocalDate to);
+
+    @Query(DAILY_TOTALS + "WHERE r.ownerId = :ownerId AND r.day BETWEEN :from AND :to GROUP BY r.day ORDER BY r.day")
+    List<DailyRevenue> findOwnerTotals(@Param("ownerId") long ownerId, @Param("from") LocalDate from,
+            @Param("to") LocalDate to);
+
+    @Query(DAILY_TOTALS + "WHERE r.day BETWEEN :from AND :to GROUP BY r.day ORDER BY r.day")
+    List<DailyRevenue> findPlatformTotals(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    List<LotDailyRevenue> findByDayBetween(LocalDate from, LocalDate to);
+
+    // Row locks for the compaction's transaction: increments for these lot-days
+    // wait for it and then apply on top of the recomputed totals
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM LotDailyRevenue r WHERE r.day BETWEEN :from AND :to ORDER BY r.parkingSpaceId, r.day")
+    List<LotDailyRevenue> lockByDayBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+}
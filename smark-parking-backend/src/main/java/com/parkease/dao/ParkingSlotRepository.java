@@ -4,9 +4,14 @@ import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.parkease.beans.ParkingSlot;
+import com.parkease.dtos.ParkingSlotSummary;
+
+import jakarta.transaction.Transactional;
 
 public interface ParkingSlotRepository extends JpaRepository<ParkingSlot, Long>{
 	 @Query("SELECT s FROM ParkingSlot s WHERE s.isAvailable = true")
@@ -14,5 +19,23 @@ public interface ParkingSlotRepository extends JpaRepository<ParkingSlot, Long>{
 
 	Optional<ParkingSlot> findFirstByParkingSpaceIdAndIsAvailableTrue(long spaceId);
 
+	List<ParkingSlot> findByParkingSpaceIdAndIsAvailableTrue(long spaceId);
+
 	Optional<ParkingSlot> findBySlotNumberAndParkingSpaceIdAndIsAvailableTrue(long slotNumber, long spaceId);
+
+	long countByParkingSpaceIdAndIsAvailableTrue(long spaceId);
+
+	// [parkingSpaceId, availableCount] for every lot with at least one free slot
+	@Query("SELECT s.parkingSpace.id, COUNT(s) FROM ParkingSlot s WHERE s.isAvailable = true GROUP BY s.parkingSpace.id")
+	List<Object[]> countAvailableByParkingSpace();
+
+	// Takes the slot only if it is still free, so two concurrent bookings cannot both get it
+	@Modifying
+	@Transactional
+	@Query("UPDATE ParkingSlot s SET s.isAvailable = false WHERE s.slotId = :slotId AND s.isAvailable = true")
+	int takeIfAvailable(@Param("slotId") long slotId);
+
+	@Query("SELECT new com.parkease.dtos.ParkingSlotSummary(s.slotId, s.slotNumber, s.floorNumber, s.isAvailable) "
+			+ "FROM ParkingSlot s WHERE s.parkingSpace.id = :spaceId ORDER BY s.floorNumber, s.slotId")
+	List<ParkingSlotSummary> findSummariesByParkingSpaceId(@Param("spaceId") long spaceId);
 }
@@ -4,10 +4,13 @@ import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.parkease.beans.ParkingOwner;
 import com.parkease.beans.ParkingSpace;
+import com.parkease.dtos.ParkingSpaceSummary;
 @Repository
 public interface ParkingSpaceRepo extends JpaRepository<ParkingSpace, Long>{
 	
@@ -16,6 +19,25 @@ public interface ParkingSpaceRepo extends JpaRepository<ParkingSpace, Long>{
 	ParkingSpace findByLotName(String lotName);
 	Optional<ParkingSpace> findByIdAndParkingowner(Long id, ParkingOwner owner);
 
+	List<ParkingSpace> findByLatitudeIsNotNullAndLongitudeIsNotNull();
+
+	List<ParkingSpace> findTop50ByLatitudeIsNullAndAddressIsNotNullAndIdGreaterThanOrderByIdAsc(long afterId);
+
+	String SUMMARY_SELECT = "SELECT new com.parkease.dtos.ParkingSpaceSummary(p.id, p.lotName, p.address, "
+			+ "p.pricingPerHour, p.totalSlots, "
+			+ "(SELECT COUNT(s) FROM ParkingSlot s WHERE s.parkingSpace = p AND s.isAvailable = true), "
+			+ "p.latitude, p.longitude, p.availableFrom, p.availableTo, p.parkingSpaceImage) FROM ParkingSpace p ";
+
+	@Query(SUMMARY_SELECT + "WHERE p.id IN :ids")
+	List<ParkingSpaceSummary> findSummariesByIdIn(@Param("ids") List<Long> ids);
+
+	@Query(SUMMARY_SELECT + "ORDER BY p.id")
+	List<ParkingSpaceSummary> findAllSummaries();
+
+	// {id, pricingPerHour, totalSlots, dailyCap, overnightRate} of every lot, for the price table
+	@Query("SELECT p.id, p.pricingPerHour, p.totalSlots, p.dailyCap, p.overnightRate FROM ParkingSpace p")
+	List<Object[]> findPricingInputs();
+
 
 
 
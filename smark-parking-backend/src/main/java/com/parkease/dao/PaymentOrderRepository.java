@@ -6,12 +6,19 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import jakarta.transaction.Transactional;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.parkease.beans.PaymentOrder;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,7 +26,57 @@ import java.util.Optional;
 public interface PaymentOrderRepository extends JpaRepository<PaymentOrder, Long> {
     Optional<PaymentOrder> findByOrderId(String orderId);
 
-	List<PaymentOrder> findByLotName(String lotName);
+    Optional<PaymentOrder> findFirstByPaymentId(String paymentId);
+
+    Optional<PaymentOrder> findFirstByOrderId(String orderId);
+
+    List<PaymentOrder> findByOrderIdIn(Collection<String> orderIds);
+
+    // {parkingSpaceId, ownerId, date, revenue, count} of completed payments, for the revenue rollup
+    @Query("SELECT s.id, o.userId, p.date, SUM(p.amount), COUNT(p) FROM PaymentOrder p, ParkingSpace s "
+            + "LEFT JOIN s.parkingowner o "
+            + "WHERE s.lotName = p.lotName AND p.date BETWEEN :from AND :to AND p.status = 'COMPLETED' "
+            + "GROUP BY s.id, o.userId, p.date")
+    List<Object[]> sumCompletedByLotAndDay(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    // Fills userId and parkingSpaceId of completed payments that do not have
+    // them yet, from the customer email and lot name; 0 when nothing matches
+    @Modifying
+    @Transactional
+    @Query("UPDATE PaymentOrder p SET "
+            + "p.userId = COALESCE((SELECT MIN(u.userId) FROM User u WHERE u.email = p.customerEmail), 0L), "
+            + "p.parkingSpaceId = COALESCE((SELECT MIN(s.id) FROM ParkingSpace s WHERE s.lotName = p.lotName), 0L) "
+            + "WHERE p.status = 'COMPLETED' AND p.userId IS NULL")
+    int resolveReconciliationKeys();
+
+    // Reconciliation stream: {id, userId, parkingSpaceId, date, amount, orderId} of completed
+    // payments no booking names, ordered by (userId, parkingSpaceId, date, id). Keyset pages
+    // after the cursor over idx_payment_reconciliation; the booking check probes uk_booking_order_id.
+    @Query("SELECT p.id, p.userId, p.parkingSpaceId, p.date, p.amount, p.orderId FROM PaymentOrder p "
+            + "WHERE p.status = 'COMPLETED' AND p.userId IS NOT NULL AND p.date IS NOT NULL "
+            + "AND NOT EXISTS (SELECT b.id FROM Booking b WHERE b.orderId = p.orderId) AND (p.userId > :userId "
+            + "OR (p.userId = :userId AND (p.parkingSpaceId > :spaceId "
+            + "OR (p.parkingSpaceId = :spaceId AND (p.date > :date OR (p.date = :date AND p.id > :id)))))) "
+            + "ORDER BY p.userId, p.parkingSpaceId, p.date, p.id")
+    List<Object[]> findReconciliationPage(@Param("userId") long userId, @Param("spaceId") long spaceId,
+            @Param("date") LocalDate date, @Param("id") long id, Pageable pageable);
+
+    // Keyset pages, newest first: rows strictly before (beforeDate, beforeId).
+    // The first page passes the day after the range end with beforeId 0.
+    String KEYSET = " p.date >= :from AND (p.date < :beforeDate OR (p.date = :beforeDate AND p.id < :beforeId))"
+            + " ORDER BY p.date DESC, p.id DESC";
+
+    @Query("SELECT p FROM PaymentOrder p WHERE" + KEYSET)
+    List<PaymentOrder> findPage(@Param("from") LocalDate from, @Param("beforeDate") LocalDate beforeDate,
+            @Param("beforeId") long beforeId, Pageable page);
+
+    @Query("SELECT p FROM PaymentOrder p WHERE p.lotName = :lotName AND" + KEYSET)
+    List<PaymentOrder> findPageByLotName(@Param("lotName") String lotName, @Param("from") LocalDate from,
+            @Param("beforeDate") LocalDate beforeDate, @Param("beforeId") long beforeId, Pageable page);
+
+    @Query("SELECT p FROM PaymentOrder p WHERE p.customerEmail = :email AND" + KEYSET)
+    List<PaymentOrder> findPageByCustomerEmail(@Param("email") String email, @Param("from") LocalDate from,
+            @Param("beforeDate") LocalDate beforeDate, @Param("beforeId") long beforeId, Pageable page);
+
 
-	List<PaymentOrder> findByCustomerEmail(String email);
 }
@@ -0,0 +1,32 @@
+package com.parkease.dao;
+
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.parkease.beans.ReconciliationDiscrepancy;
+
+import jakarta.transaction.Transactional;
+
+@Repository
+public interface ReconciliationDiscrepancyRepository extends JpaRepository<ReconciliationDiscrepancy, Long> {
+
+    List<ReconciliationDiscrepancy> findByRunIdAndIdGreaterThanOrderByIdAsc(long runId, long afterId, Pageable pageable);
+
+    // Discrepancies written after the run's checkpoint; the resumed run writes them again
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ReconciliationDiscrepancy d WHERE d.runId = :runId AND (d.userId > :userId "
+            + "OR (d.userId = :userId AND d.parkingSpaceId > :spaceId))")
+    int deleteAfterCheckpoint(@Param("runId") long runId, @Param("userId") long userId, @Param("spaceId") long spaceId);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ReconciliationDiscrepancy d WHERE d.runId = :runId")
+    int deleteByRun(@Param("runId") long runId);
+}
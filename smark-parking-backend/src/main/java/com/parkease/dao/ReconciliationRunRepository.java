@@ -0,0 +1,18 @@
+package com.parkease.dao;
+
+import java.util.Collection;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.parkease.beans.ReconciliationRun;
+import com.parkease.enums.ReconciliationStatus;
+
+@Repository
+public interface ReconciliationRunRepository extends JpaRepository<ReconciliationRun, Long> {
+
+    Optional<ReconciliationRun> findFirstByOrderByIdDesc();
+
+    Optional<ReconciliationRun> findFirstByStatusInOrderByIdDesc(Collection<ReconciliationStatus> statuses);
+}
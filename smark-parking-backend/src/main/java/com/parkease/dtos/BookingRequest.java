@@ -14,6 +14,10 @@ public class BookingRequest {
 	    
 	    double amount;
 	    private String carNumber;
+	    // From GET /parkingspaces/{id}/quote; the booking is charged the quoted amount
+	    private String quoteToken;
+	    // Gateway order paid for this booking; its captured amount must equal the quote
+	    private String orderId;
 	
 
 }
\ No newline at end of file
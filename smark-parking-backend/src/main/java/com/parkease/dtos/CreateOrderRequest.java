@@ -14,6 +14,12 @@ public class CreateOrderRequest {
 	    
 	    private double amount;
 
+	    // The quote the order is for (GET /parkingspaces/{id}/quote); amount must be the quoted one
+	    private Long parkingLotId;
+	    private String arrivalTime;
+	    private String departureTime;
+	    private String quoteToken;
+
 	  
 	    public String getName() {
 	        return name;
@@ -47,6 +53,38 @@ public class CreateOrderRequest {
 			this.amount = amount;
 		}
 
+		public Long getParkingLotId() {
+			return parkingLotId;
+		}
+
+		public void setParkingLotId(Long parkingLotId) {
+			this.parkingLotId = parkingLotId;
+		}
+
+		public String getArrivalTime() {
+			return arrivalTime;
+		}
+
+		public void setArrivalTime(String arrivalTime) {
+			this.arrivalTime = arrivalTime;
+		}
+
+		public String getDepartureTime() {
+			return departureTime;
+		}
+
+		public void setDepartureTime(String departureTime) {
+			this.departureTime = departureTime;
+		}
+
+		public String getQuoteToken() {
+			return quoteToken;
+		}
+
+		public void setQuoteToken(String quoteToken) {
+			this.quoteToken = quoteToken;
+		}
+
 		
 
 	   
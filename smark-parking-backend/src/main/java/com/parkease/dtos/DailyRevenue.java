@@ -0,0 +1,30 @@
+package com.parkease.dtos;
+
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// A report row: one day, summed over the lots in scope
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyRevenue {
+    private LocalDate day;
+    private double revenue;
+    private long paymentCount;
+    private long bookingCount;
+    // Null when no booking that day had both times set
+    private Double averageDurationMinutes;
+
+    // JPQL constructor expression over SUMs of the rollup columns
+    public DailyRevenue(LocalDate day, Double revenue, Long paymentCount, Long bookingCount,
+            Long totalDurationMinutes, Long durationSamples) {
+        this(day,
+                revenue != null ? revenue : 0,
+                paymentCount != null ? paymentCount : 0,
+                bookingCount != null ? bookingCount : 0,
+                durationSamples != null && durationSamples > 0 ? (double) totalDurationMinutes / durationSamples : null);
+    }
+}
@@ -0,0 +1,16 @@
+package com.parkease.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GeofenceBatchResponse {
+    private int accepted;
+    private int duplicates;
+    private int invalid;
+    // Queue was full; the client should retry these later
+    private int rejected;
+}
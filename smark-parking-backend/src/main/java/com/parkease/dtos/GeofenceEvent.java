@@ -0,0 +1,21 @@
+package com.parkease.dtos;
+
+import com.parkease.enums.GeofenceEventType;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GeofenceEvent {
+    // Client-generated id used for deduplication of retried uploads; optional
+    private String eventId;
+    // Set from the authenticated user; a value sent by the client is ignored
+    private Long userId;
+    private Long parkingSpaceId;
+    private GeofenceEventType type;
+    // Epoch millis when the device saw the crossing
+    private long timestamp;
+}
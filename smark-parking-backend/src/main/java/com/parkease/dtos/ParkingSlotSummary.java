@@ -0,0 +1,15 @@
+package com.parkease.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ParkingSlotSummary {
+    private Long slotId;
+    private int slotNumber;
+    private int floorNumber;
+    private boolean available;
+}
@@ -26,6 +26,7 @@ public class ParkingSpaceDto {
 		private int totalSlots;
 		private int numberOfFloors;
 		private double pricingPerHour;
+		private int freeSlots;
 		 
 		
 		private List<ParkingSlot> parkingSlot;
@@ -0,0 +1,35 @@
+package com.parkease.dtos;
+
+import java.time.LocalTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// What a search result card shows. Built by a JPQL constructor expression so
+// a page of results is one query and never touches the slot rows' entities.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ParkingSpaceSummary {
+    private long spaceId;
+    private String lotName;
+    private String address;
+    private double pricingPerHour;
+    private int totalSlots;
+    private long freeSlots;
+    private Double latitude;
+    private Double longitude;
+    private LocalTime availableFrom;
+    private LocalTime availableTo;
+    private String parkingSpaceImage;
+    // Only set by nearby search
+    private Double distanceKm;
+
+    public ParkingSpaceSummary(long spaceId, String lotName, String address, double pricingPerHour,
+            int totalSlots, long freeSlots, Double latitude, Double longitude,
+            LocalTime availableFrom, LocalTime availableTo, String parkingSpaceImage) {
+        this(spaceId, lotName, address, pricingPerHour, totalSlots, freeSlots, latitude, longitude,
+                availableFrom, availableTo, parkingSpaceImage, null);
+    }
+}
@@ -0,0 +1,18 @@
+package com.parkease.dtos;
+
+import java.util.List;
+
+import com.parkease.beans.PaymentOrder;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentPage {
+    private List<PaymentOrder> items;
+    // Pass back as ?cursor= for the next page; null on the last page
+    private String nextCursor;
+}
@@ -0,0 +1,19 @@
+package com.parkease.dtos;
+
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Filters of a payment listing; at most one of lotName and customerEmail
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentQuery {
+    private String lotName;
+    private String customerEmail;
+    // Inclusive; null means unbounded
+    private LocalDate from;
+    private LocalDate to;
+}
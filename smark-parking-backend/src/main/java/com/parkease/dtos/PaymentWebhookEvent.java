@@ -0,0 +1,25 @@
+package com.parkease.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// The fields of a gateway payment event that PaymentOrder keeps
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentWebhookEvent {
+    // x-razorpay-event-id; the gateway resends the same id on retries
+    private String eventId;
+    private String event;
+    private String orderId;
+    private String paymentId;
+    // Rupees, converted from the gateway's paise
+    private double amount;
+    private String currency;
+    private String email;
+    // PaymentStatus name the event maps to
+    private String status;
+    // Epoch seconds, as sent by the gateway
+    private long createdAt;
+}
@@ -0,0 +1,24 @@
+package com.parkease.dtos;
+
+import java.time.Instant;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// A lot's dynamic hourly price, with the day's schedule at the current occupancy
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceQuote {
+    private long spaceId;
+    private double basePricePerHour;
+    private double pricePerHour;
+    private int hourOfDay;
+    private int occupancyTier;
+    private double occupancyMultiplier;
+    // Index is the hour of day in the pricing zone
+    private double[] hourlyPrices;
+    // When the occupancy behind these prices was sampled
+    private Instant pricedAt;
+}
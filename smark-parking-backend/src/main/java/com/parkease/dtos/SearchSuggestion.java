@@ -0,0 +1,15 @@
+package com.parkease.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchSuggestion {
+    private long spaceId;
+    private String lotName;
+    private String address;
+    private double score;
+}
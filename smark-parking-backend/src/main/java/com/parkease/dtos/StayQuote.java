@@ -0,0 +1,30 @@
+package com.parkease.dtos;
+
+import java.time.Instant;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// The charge for one stay. A gateway order created with quoteToken before
+// expiresAt, and the booking paid by it, are for this amount even if occupancy
+// has moved the price since.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StayQuote {
+    private long spaceId;
+    // ISO instants, the format BookingRequest takes them back in
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
+    private Instant arrivalTime;
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
+    private Instant departureTime;
+    private long billedMinutes;
+    private double amount;
+    private int occupancyTier;
+    private String quoteToken;
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
+    private Instant expiresAt;
+}
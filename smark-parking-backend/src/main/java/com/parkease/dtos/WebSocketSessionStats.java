@@ -0,0 +1,15 @@
+package com.parkease.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WebSocketSessionStats {
+    private String sessionId;
+    private int bufferedBytes;
+    private int bufferSizeLimit;
+    private long timeSinceSendStartedMs; // 0 when no send is in progress
+}
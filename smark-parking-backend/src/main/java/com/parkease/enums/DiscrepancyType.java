@@ -0,0 +1,10 @@
+package com.parkease.enums;
+
+public enum DiscrepancyType {
+    // Completed payment with no booking by the same user at the same lot in the window
+    PAYMENT_WITHOUT_BOOKING,
+    // Booking with no completed payment it can be paired with
+    BOOKING_WITHOUT_PAYMENT,
+    // Paired, but the booking amount differs from what was paid
+    AMOUNT_MISMATCH
+}
@@ -0,0 +1,6 @@
+package com.parkease.enums;
+
+public enum GeofenceEventType {
+    ENTER,   // Car crossed into the lot's geofence
+    EXIT     // Car left the lot's geofence
+}
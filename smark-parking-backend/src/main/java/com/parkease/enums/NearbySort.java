@@ -0,0 +1,7 @@
+package com.parkease.enums;
+
+public enum NearbySort {
+    DISTANCE,     // Closest first
+    PRICE,        // Cheapest pricingPerHour first
+    FREE_SLOTS    // Most free slots first
+}
@@ -0,0 +1,8 @@
+package com.parkease.enums;
+
+public enum ReconciliationStatus {
+    RUNNING,
+    COMPLETED,
+    // Stopped by an error or shutdown; the next run resumes from its checkpoint
+    FAILED
+}
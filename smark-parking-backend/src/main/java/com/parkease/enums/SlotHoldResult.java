@@ -0,0 +1,8 @@
+package com.parkease.enums;
+
+public enum SlotHoldResult {
+    HELD,            // New hold placed for the caller
+    ALREADY_HELD,    // Caller already holds the slot, nothing changed
+    HELD_BY_OTHER,   // Another user holds the slot
+    NOT_AVAILABLE    // Slot missing or not bookable
+}
@@ -0,0 +1,10 @@
+package com.parkease.enums;
+
+public enum WebhookIngestResult {
+    ACCEPTED,
+    DUPLICATE,
+    // Event type that does not change a payment
+    IGNORED,
+    // Queue full; answered with 503 so the gateway retries later
+    REJECTED
+}
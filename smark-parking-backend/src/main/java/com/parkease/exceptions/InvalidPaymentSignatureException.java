@@ -0,0 +1,12 @@
+package com.parkease.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// A checkout result whose razorpay_signature is not the gateway's for its order and payment
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidPaymentSignatureException extends RuntimeException {
+    public InvalidPaymentSignatureException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,12 @@
+package com.parkease.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// Quote token missing, expired, or signed for a different lot, window or amount
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidQuoteException extends RuntimeException {
+    public InvalidQuoteException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,12 @@
+package com.parkease.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// Arrival/departure window that cannot be priced
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidStayException extends RuntimeException {
+    public InvalidStayException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,29 @@
+package com.parkease.exceptions;
+
+import java.util.List;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import com.parkease.dtos.ParkingSpaceSummary;
+
+// Carries nearby lots that still have free slots so the caller can redirect
+@ResponseStatus(HttpStatus.CONFLICT)
+public class LotFullException extends RuntimeException {
+    private final long spaceId;
+    private final List<ParkingSpaceSummary> alternatives;
+
+    public LotFullException(long spaceId, List<ParkingSpaceSummary> alternatives) {
+        super("No free slots left in parking space " + spaceId);
+        this.spaceId = spaceId;
+        this.alternatives = alternatives;
+    }
+
+    public long getSpaceId() {
+        return spaceId;
+    }
+
+    public List<ParkingSpaceSummary> getAlternatives() {
+        return alternatives;
+    }
+}
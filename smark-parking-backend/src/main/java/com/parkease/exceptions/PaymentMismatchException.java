@@ -0,0 +1,12 @@
+package com.parkease.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// A booking whose order has no captured payment, or one for a different amount
+@ResponseStatus(HttpStatus.CONFLICT)
+public class PaymentMismatchException extends RuntimeException {
+    public PaymentMismatchException(String message) {
+        super(message);
+    }
+}
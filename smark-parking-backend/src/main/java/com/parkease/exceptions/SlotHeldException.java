@@ -0,0 +1,11 @@
+package com.parkease.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class SlotHeldException extends RuntimeException {
+    public SlotHeldException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,189 @@
+package com.parkease.geo;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+// Fixed lat/lon grid over point ids. A query only visits the cells that can
+// contain a match, so its cost follows local density, not the total count.
+// Safe for concurrent reads and writes; a reader may briefly miss a point
+// that is being moved between cells.
+public class GridSpatialIndex {
+
+    public record Neighbor(long id, double distanceKm) {
+    }
+
+    private record Point(long id, double lat, double lon, long cell) {
+    }
+
+    private final double cellDegrees;
+    private final double cellHeightKm;
+    private final int lonCells;
+    private final Map<Long, Map<Long, Point>> cells = new ConcurrentHashMap<>();
+    private final Map<Long, Point> points = new ConcurrentHashMap<>();
+
+    public GridSpatialIndex(double cellDegrees) {
+        if (cellDegrees <= 0 || cellDegrees > 10) {
+            throw new IllegalArgumentException("cellDegrees must be in (0, 10]");
+        }
+        this.cellDegrees = cellDegrees;
+        this.cellHeightKm = cellDegrees * GeoUtils.KM_PER_DEGREE_LAT;
+        this.lonCells = (int) Math.ceil(360.0 / cellDegrees);
+    }
+
+    public void put(long id, double lat, double lon) {
+        Point point = new Point(id, lat, lon, cellKey(latIndex(lat), lonIndex(lon)));
+        Point previous = points.put(id, point);
+        if (previous != null && previous.cell() != point.cell()) {
+            removeFromCell(previous);
+        }
+        cells.computeIfAbsent(point.cell(), k -> new ConcurrentHashMap<>()).put(id, point);
+    }
+
+    public void remove(long id) {
+        Point previous = points.remove(id);
+        if (previous != null) {
+            removeFromCell(previous);
+        }
+    }
+
+    public boolean contains(long id) {
+        return points.containsKey(id);
+    }
+
+    // {lat, lon} of an indexed point, or null
+    public double[] position(long id) {
+        Point point = points.get(id);
+        return point == null ? null : new double[] { point.lat(), point.lon() };
+    }
+
+    public int size() {
+        return points.size();
+    }
+
+    public void forEachId(Consumer<Long> action) {
+        points.keySet().forEach(action);
+    }
+
+    public void clear() {
+        points.clear();
+        cells.clear();
+    }
+
+    // Every point within radiusKm, nearest first
+    public List<Neighbor> withinRadius(double lat, double lon, double radiusKm) {
+        List<Neighbor> result = new ArrayList<>();
+        forEachWithinRadius(lat, lon, radiusKm, result::add);
+        result.sort(Comparator.comparingDouble(Neighbor::distanceKm));
+        return result;
+    }
+
+    // Every point within radiusKm in no particular order, for callers that rank
+    // by something other than distance
+    public void forEachWithinRadius(double lat, double lon, double radiusKm, Consumer<Neighbor> action) {
+        int latSpan = (int) Math.ceil(radiusKm / cellHeightKm);
+        int lonSpan = lonSpan(lat, radiusKm);
+        int centerLat = latIndex(lat);
+        int centerLon = lonIndex(lon);
+        for (int dy = -latSpan; dy <= latSpan; dy++) {
+            for (int dx = -lonSpan; dx <= lonSpan; dx++) {
+                Map<Long, Point> cell = cells.get(cellKey(centerLat + dy, centerLon + dx));
+                if (cell == null) {
+                    continue;
+                }
+                for (Point p : cell.values()) {
+                    double d = GeoUtils.haversineKm(lat, lon, p.lat(), p.lon());
+                    if (d <= radiusKm) {
+                        action.accept(new Neighbor(p.id(), d));
+                    }
+                }
+            }
+        }
+    }
+
+    // Up to k nearest points no further than maxRadiusKm, nearest first. Scans
+    // rings of cells outward and stops once no unvisited cell can beat the
+    // current k-th distance.
+    public List<Neighbor> nearest(double lat, double lon, int k, double maxRadiusKm) {
+        if (k <= 0) {
+            return List.of();
+        }
+        PriorityQueue<Neighbor> best = new PriorityQueue<>(
+                Comparator.comparingDouble(Neighbor::distanceKm).reversed());
+        int centerLat = latIndex(lat);
+        int centerLon = lonIndex(lon);
+        int maxRing = Math.min((lonCells - 1) / 2,
+                Math.max((int) Math.ceil(maxRadiusKm / cellHeightKm), lonSpan(lat, maxRadiusKm)));
+
+        for (int ring = 0; ring <= maxRing; ring++) {
+            for (int dy = -ring; dy <= ring; dy++) {
+                boolean edgeRow = dy == -ring || dy == ring;
+                // Inner rows only contribute their two edge cells
+                int step = edgeRow ? 1 : Math.max(1, 2 * ring);
+                for (int dx = -ring; dx <= ring; dx += step) {
+                    Map<Long, Point> cell = cells.get(cellKey(centerLat + dy, centerLon + dx));
+                    if (cell == null) {
+                        continue;
+                    }
+                    for (Point p : cell.values()) {
+                        double d = GeoUtils.haversineKm(lat, lon, p.lat(), p.lon());
+                        if (d > maxRadiusKm) {
+                            continue;
+                        }
+                        if (best.size() < k) {
+                            best.add(new Neighbor(p.id(), d));
+                        } else if (d < best.peek().distanceKm()) {
+                            best.poll();
+                            best.add(new Neighbor(p.id(), d));
+                        }
+                    }
+                }
+            }
+            if (best.size() == k && best.peek().distanceKm() <= coveredKm(lat, ring)) {
+                break;
+            }
+        }
+
+        List<Neighbor> result = new ArrayList<>(best);
+        result.sort(Comparator.comparingDouble(Neighbor::distanceKm));
+        return result;
+    }
+
+    // Distance from the query point that rings 0..ring are guaranteed to cover
+    private double coveredKm(double lat, int ring) {
+        double edgeLat = Math.min(90.0, Math.abs(lat) + (ring + 1) * cellDegrees);
+        double cellWidthKm = cellHeightKm * Math.cos(Math.toRadians(edgeLat));
+        return ring * Math.min(cellHeightKm, cellWidthKm);
+    }
+
+    private int lonSpan(double lat, double radiusKm) {
+        double edgeLat = Math.min(89.0, Math.abs(lat) + radiusKm / GeoUtils.KM_PER_DEGREE_LAT);
+        double cellWidthKm = cellHeightKm * Math.cos(Math.toRadians(edgeLat));
+        // Capped so a huge radius never visits the same wrapped column twice
+        return Math.min((lonCells - 1) / 2, (int) Math.ceil(radiusKm / cellWidthKm));
+    }
+
+    private void removeFromCell(Point point) {
+        cells.computeIfPresent(point.cell(), (k, cell) -> {
+            cell.remove(point.id(), point);
+            return cell.isEmpty() ? null : cell;
+        });
+    }
+
+    private int latIndex(double lat) {
+        return (int) Math.floor((lat + 90.0) / cellDegrees);
+    }
+
+    private int lonIndex(double lon) {
+        return (int) Math.floor((lon + 180.0) / cellDegrees);
+    }
+
+    // Longitude wraps so queries near the antimeridian see both sides
+    private long cellKey(int latIdx, int lonIdx) {
+        return ((long) latIdx << 32) | (Math.floorMod(lonIdx, lonCells) & 0xffffffffL);
+    }
+}
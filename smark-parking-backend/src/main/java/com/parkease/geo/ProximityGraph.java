@@ -0,0 +1,127 @@
+package com.parkease.geo;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.parkease.geo.GridSpatialIndex.Neighbor;
+
+// Each point's k nearest neighbours within maxRadiusKm, precomputed over a
+// GridSpatialIndex. Reads are a map lookup. Writes are incremental: a new or
+// moved point is offered only to points within maxRadiusKm, and only points
+// that listed a moved or removed point are recomputed.
+public class ProximityGraph {
+
+    private final GridSpatialIndex index;
+    private final int k;
+    private final double maxRadiusKm;
+    private final Map<Long, List<Neighbor>> neighbours = new ConcurrentHashMap<>();
+    // Reverse edges: who lists this point among their neighbours
+    private final Map<Long, Set<Long>> listedBy = new ConcurrentHashMap<>();
+
+    public ProximityGraph(GridSpatialIndex index, int k, double maxRadiusKm) {
+        this.index = index;
+        this.k = k;
+        this.maxRadiusKm = maxRadiusKm;
+    }
+
+    public List<Neighbor> neighbours(long id) {
+        return neighbours.getOrDefault(id, List.of());
+    }
+
+    // Call after the point was put into the index
+    public synchronized void onPut(long id) {
+        double[] position = index.position(id);
+        if (position == null) {
+            return;
+        }
+        if (neighbours.containsKey(id)) {
+            // Moved: lists that hold its old distance are no longer valid
+            recomputeListers(id);
+        }
+        recompute(id);
+        for (Neighbor candidate : index.withinRadius(position[0], position[1], maxRadiusKm)) {
+            if (candidate.id() != id) {
+                offer(candidate.id(), new Neighbor(id, candidate.distanceKm()));
+            }
+        }
+    }
+
+    // Call after the point was removed from the index
+    public synchronized void onRemove(long id) {
+        setNeighbours(id, List.of());
+        neighbours.remove(id);
+        recomputeListers(id);
+        listedBy.remove(id);
+    }
+
+    public synchronized void rebuild() {
+        neighbours.clear();
+        listedBy.clear();
+        index.forEachId(this::recompute);
+    }
+
+    private void recomputeListers(long id) {
+        Set<Long> listers = listedBy.get(id);
+        if (listers != null) {
+            for (Long lister : List.copyOf(listers)) {
+                recompute(lister);
+            }
+        }
+    }
+
+    private void recompute(long id) {
+        double[] position = index.position(id);
+        if (position == null) {
+            return;
+        }
+        List<Neighbor> nearest = new ArrayList<>(k);
+        // k + 1 because the point finds itself
+        for (Neighbor n : index.nearest(position[0], position[1], k + 1, maxRadiusKm)) {
+            if (n.id() != id && nearest.size() < k) {
+                nearest.add(n);
+            }
+        }
+        setNeighbours(id, nearest);
+    }
+
+    // Inserts the neighbour into id's list if it is among the k nearest
+    private void offer(long id, Neighbor candidate) {
+        List<Neighbor> current = neighbours.getOrDefault(id, List.of());
+        boolean full = current.size() >= k;
+        if (full && candidate.distanceKm() >= current.get(current.size() - 1).distanceKm()) {
+            return;
+        }
+        List<Neighbor> updated = new ArrayList<>(current.size() + 1);
+        for (Neighbor n : current) {
+            if (n.id() != candidate.id()) {
+                updated.add(n);
+            }
+        }
+        updated.add(candidate);
+        updated.sort(Comparator.comparingDouble(Neighbor::distanceKm));
+        if (updated.size() > k) {
+            updated = updated.subList(0, k);
+        }
+        setNeighbours(id, updated);
+    }
+
+    // Lists are replaced, never mutated, so readers need no lock
+    private void setNeighbours(long id, List<Neighbor> updated) {
+        List<Neighbor> previous = neighbours.put(id, List.copyOf(updated));
+        if (previous != null) {
+            for (Neighbor n : previous) {
+                listedBy.computeIfPresent(n.id(), (key, set) -> {
+                    set.remove(id);
+                    return set.isEmpty() ? null : set;
+                });
+            }
+        }
+        for (Neighbor n : updated) {
+            listedBy.computeIfAbsent(n.id(), key -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.parkease.pricing;
+
+import java.util.Arrays;
+
+// Immutable snapshot of every lot's hourly price for each hour of the day and
+// occupancy tier, with the tier each lot was in when the snapshot was taken
+// and the caps its stays are charged against.
+// Lots are held in sorted primitive arrays so a lookup is a binary search and
+// two array reads, with no boxing or allocation.
+public class PriceTable {
+
+    public static final PriceTable EMPTY = new PriceTable(new long[0], new double[0], new int[0],
+            new double[0], new double[0], new double[0], 1, 0, 0);
+
+    private final long[] lotIds;
+    private final double[] basePrices;
+    private final int[] tiers;
+    // Positive infinity when the lot has no such cap
+    private final double[] dailyCaps;
+    private final double[] overnightCaps;
+    // [lot][hour][tier], flattened
+    private final double[] prices;
+    private final int tierCount;
+    private final long offsetMillis;
+    private final long builtAt;
+
+    private PriceTable(long[] lotIds, double[] basePrices, int[] tiers, double[] dailyCaps,
+            double[] overnightCaps, double[] prices, int tierCount, long offsetMillis, long builtAt) {
+        this.lotIds = lotIds;
+        this.basePrices = basePrices;
+        this.tiers = tiers;
+        this.dailyCaps = dailyCaps;
+        this.overnightCaps = overnightCaps;
+        this.prices = prices;
+        this.tierCount = tierCount;
+        this.offsetMillis = offsetMillis;
+        this.builtAt = builtAt;
+    }
+
+    // lotIds must be sorted and distinct; tiers are the current tier of each lot.
+    // offsetMillis is the UTC offset used to turn an instant into an hour of day.
+    public static PriceTable build(PricingRules rules, long[] lotIds, double[] basePrices, int[] tiers,
+            double[] dailyCaps, double[] overnightCaps, long offsetMillis) {
+        int tierCount = rules.tierCount();
+        double[] prices = new double[lotIds.length * PricingRules.HOURS * tierCount];
+        int i = 0;
+        for (int lot = 0; lot < lotIds.length; lot++) {
+            for (int hour = 0; hour < PricingRules.HOURS; hour++) {
+                for (int tier = 0; tier < tierCount; tier++) {
+                    double price = basePrices[lot] * rules.hourMultiplier(hour) * rules.tierMultiplier(tier);
+                    prices[i++] = Math.round(price * 100) / 100.0;
+                }
+            }
+        }
+        return new PriceTable(lotIds, basePrices, tiers, dailyCaps, overnightCaps, prices, tierCount,
+                offsetMillis, System.currentTimeMillis());
+    }
+
+    // Same prices with fresh occupancy tiers, for the frequent occupancy refresh
+    public PriceTable withTiers(int[] tiers, long offsetMillis) {
+        return new PriceTable(lotIds, basePrices, tiers, dailyCaps, overnightCaps, prices, tierCount,
+                offsetMillis, System.currentTimeMillis());
+    }
+
+    // Position of the lot in this table, or a negative number when it is not priced
+    public int indexOf(long lotId) {
+        return Arrays.binarySearch(lotIds, lotId);
+    }
+
+    public int hourOf(long epochMillis) {
+        return (int) (Math.floorMod(epochMillis + offsetMillis, 86_400_000L) / 3_600_000L);
+    }
+
+    public double price(int index, int hour) {
+        return price(index, hour, tiers[index]);
+    }
+
+    public double price(int index, int hour, int tier) {
+        return prices[(index * PricingRules.HOURS + hour) * tierCount + tier];
+    }
+
+    public double basePrice(int index) {
+        return basePrices[index];
+    }
+
+    public int tier(int index) {
+        return tiers[index];
+    }
+
+    public double dailyCap(int index) {
+        return dailyCaps[index];
+    }
+
+    public double overnightCap(int index) {
+        return overnightCaps[index];
+    }
+
+    public long lotId(int index) {
+        return lotIds[index];
+    }
+
+    public int size() {
+        return lotIds.length;
+    }
+
+    public long offsetMillis() {
+        return offsetMillis;
+    }
+
+    public long builtAt() {
+        return builtAt;
+    }
+}
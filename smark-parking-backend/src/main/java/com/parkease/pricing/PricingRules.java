@@ -0,0 +1,88 @@
+package com.parkease.pricing;
+
+import java.util.Arrays;
+
+// Multipliers applied to a lot's base hourly price: one per hour of the day,
+// and one per occupancy tier. Tier 0 is below the first threshold and is
+// charged at 1.0; tier i is reached at thresholds[i - 1] occupancy.
+public class PricingRules {
+
+    public static final int HOURS = 24;
+
+    private final double[] hourMultipliers;
+    private final double[] tierThresholds;
+    private final double[] tierMultipliers;
+
+    public PricingRules(double[] hourMultipliers, double[] tierThresholds, double[] tierMultipliers) {
+        if (hourMultipliers.length != HOURS) {
+            throw new IllegalArgumentException("Expected " + HOURS + " hour multipliers");
+        }
+        if (tierMultipliers.length != tierThresholds.length + 1) {
+            throw new IllegalArgumentException("Expected one more tier multiplier than thresholds");
+        }
+        for (int i = 1; i < tierThresholds.length; i++) {
+            if (tierThresholds[i] <= tierThresholds[i - 1]) {
+                throw new IllegalArgumentException("Occupancy thresholds must be increasing");
+            }
+        }
+        this.hourMultipliers = hourMultipliers.clone();
+        this.tierThresholds = tierThresholds.clone();
+        this.tierMultipliers = tierMultipliers.clone();
+    }
+
+    // hours: "0-6:0.8,8-11:1.2,17-21:1.3" (inclusive ranges, unlisted hours 1.0)
+    // tiers: "0.6:1.1,0.8:1.25,0.95:1.5" (occupancy at or above the threshold)
+    public static PricingRules parse(String hours, String tiers) {
+        double[] hourMultipliers = new double[HOURS];
+        Arrays.fill(hourMultipliers, 1.0);
+        for (String rule : split(hours)) {
+            String[] parts = rule.split(":");
+            String[] range = parts[0].split("-");
+            int from = Integer.parseInt(range[0].trim());
+            int to = range.length > 1 ? Integer.parseInt(range[1].trim()) : from;
+            if (from < 0 || to >= HOURS || from > to) {
+                throw new IllegalArgumentException("Bad hour range '" + parts[0] + "'");
+            }
+            Arrays.fill(hourMultipliers, from, to + 1, Double.parseDouble(parts[1].trim()));
+        }
+
+        String[] tierRules = split(tiers);
+        double[] thresholds = new double[tierRules.length];
+        double[] multipliers = new double[tierRules.length + 1];
+        multipliers[0] = 1.0;
+        for (int i = 0; i < tierRules.length; i++) {
+            String[] parts = tierRules[i].split(":");
+            thresholds[i] = Double.parseDouble(parts[0].trim());
+            multipliers[i + 1] = Double.parseDouble(parts[1].trim());
+        }
+        return new PricingRules(hourMultipliers, thresholds, multipliers);
+    }
+
+    private static String[] split(String spec) {
+        return spec == null || spec.isBlank() ? new String[0] : spec.split(",");
+    }
+
+    public int tierCount() {
+        return tierMultipliers.length;
+    }
+
+    public int tierFor(int freeSlots, int totalSlots) {
+        if (totalSlots <= 0) {
+            return 0;
+        }
+        double occupancy = (totalSlots - Math.max(0, Math.min(freeSlots, totalSlots))) / (double) totalSlots;
+        int tier = 0;
+        while (tier < tierThresholds.length && occupancy >= tierThresholds[tier]) {
+            tier++;
+        }
+        return tier;
+    }
+
+    public double hourMultiplier(int hour) {
+        return hourMultipliers[hour];
+    }
+
+    public double tierMultiplier(int tier) {
+        return tierMultipliers[tier];
+    }
+}
@@ -0,0 +1,99 @@
+package com.parkease.pricing;
+
+// How a stay is charged, shared by every lot: the hour-of-day profile of
+// PricingRules turned into per-minute rates for a lot whose base price is 1.0
+// per hour, summed into one cumulative array for daytime minutes and one for
+// overnight minutes. A lot's charge is a difference of two cumulative values
+// scaled by its hourly rate, so any window is priced with a few array reads.
+//
+// A stay is rounded up to whole blocks from arrival. Daytime minutes are
+// capped at the lot's daily cap per 24 hours from arrival; overnight minutes
+// are capped at the lot's overnight rate per night. A lot without an
+// overnight rate pays its overnight minutes as daytime minutes.
+//
+// Times are minutes since the epoch in local time, so minute 0 of every day
+// is local midnight.
+public class Tariff {
+
+    public static final int MINUTES_PER_DAY = 1440;
+
+    private final int blockMinutes;
+    private final int overnightStart;
+    private final int overnightLength;
+    private final double[] dayCumulative = new double[MINUTES_PER_DAY + 1];
+    private final double[] nightCumulative = new double[MINUTES_PER_DAY + 1];
+
+    // overnightStart == overnightEnd means no overnight window
+    public Tariff(PricingRules rules, int blockMinutes, int overnightStart, int overnightEnd) {
+        if (blockMinutes <= 0 || blockMinutes > MINUTES_PER_DAY) {
+            throw new IllegalArgumentException("Block must be between 1 and " + MINUTES_PER_DAY + " minutes");
+        }
+        this.blockMinutes = blockMinutes;
+        this.overnightStart = Math.floorMod(overnightStart, MINUTES_PER_DAY);
+        this.overnightLength = Math.floorMod(overnightEnd - overnightStart, MINUTES_PER_DAY);
+        for (int m = 0; m < MINUTES_PER_DAY; m++) {
+            double rate = rules.hourMultiplier(m / 60) / 60.0;
+            boolean night = isOvernight(m);
+            dayCumulative[m + 1] = dayCumulative[m] + (night ? 0 : rate);
+            nightCumulative[m + 1] = nightCumulative[m] + (night ? rate : 0);
+        }
+    }
+
+    public boolean isOvernight(int minuteOfDay) {
+        return Math.floorMod(minuteOfDay - overnightStart, MINUTES_PER_DAY) < overnightLength;
+    }
+
+    // End of the billed window: at least one block, and whole blocks from arrival
+    public long billedEnd(long arrival, long departure) {
+        long blocks = Math.max(1, Math.floorDiv(departure - arrival + blockMinutes - 1, blockMinutes));
+        return arrival + blocks * blockMinutes;
+    }
+
+    // Capped charge for the daytime minutes of [from, to), plus the overnight
+    // minutes when the lot has no overnight rate
+    public double dayCharge(long from, long to, double hourlyRate, double dailyCap, boolean includeOvernight) {
+        long fullDays = (to - from) / MINUTES_PER_DAY;
+        long restFrom = from + fullDays * MINUTES_PER_DAY;
+        double perDay = (dayCumulative[MINUTES_PER_DAY] + (includeOvernight ? nightCumulative[MINUTES_PER_DAY] : 0))
+                * hourlyRate;
+        double rest = (day(to) - day(restFrom) + (includeOvernight ? night(to) - night(restFrom) : 0)) * hourlyRate;
+        return fullDays * Math.min(dailyCap, perDay) + Math.min(dailyCap, rest);
+    }
+
+    // Capped charge for the overnight minutes of [from, to), night by night
+    public double overnightCharge(long from, long to, double hourlyRate, double overnightCap) {
+        if (overnightLength == 0 || to <= from) {
+            return 0;
+        }
+        // Nights are [overnightStart + k * 1440, + overnightLength); first and last that overlap the stay
+        long first = Math.floorDiv(from - overnightStart - overnightLength, MINUTES_PER_DAY) + 1;
+        long last = Math.floorDiv(to - overnightStart - 1, MINUTES_PER_DAY);
+        if (last < first) {
+            return 0;
+        }
+        long firstStart = overnightStart + first * MINUTES_PER_DAY;
+        double charge = Math.min(overnightCap, hourlyRate
+                * (night(Math.min(to, firstStart + overnightLength)) - night(Math.max(from, firstStart))));
+        if (last == first) {
+            return charge;
+        }
+        long lastStart = overnightStart + last * MINUTES_PER_DAY;
+        charge += Math.min(overnightCap, hourlyRate
+                * (night(Math.min(to, lastStart + overnightLength)) - night(lastStart)));
+        return charge + (last - first - 1) * Math.min(overnightCap, hourlyRate * nightCumulative[MINUTES_PER_DAY]);
+    }
+
+    private double day(long minute) {
+        return Math.floorDiv(minute, MINUTES_PER_DAY) * dayCumulative[MINUTES_PER_DAY]
+                + dayCumulative[Math.floorMod(minute, MINUTES_PER_DAY)];
+    }
+
+    private double night(long minute) {
+        return Math.floorDiv(minute, MINUTES_PER_DAY) * nightCumulative[MINUTES_PER_DAY]
+                + nightCumulative[Math.floorMod(minute, MINUTES_PER_DAY)];
+    }
+
+    public int blockMinutes() {
+        return blockMinutes;
+    }
+}
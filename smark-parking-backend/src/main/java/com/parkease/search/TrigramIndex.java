@@ -0,0 +1,192 @@
+package com.parkease.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Inverted index from character trigrams to document ids, for typeahead over
+// short texts. Every word is indexed with two leading pads, so a query that
+// is the start of a word matches all of its trigrams (prefix search), and a
+// misspelt query still shares most of them (fuzzy search).
+public class TrigramIndex {
+
+    public record Match(long id, double score) {
+    }
+
+    private record Doc(Set<String> trigrams, String text) {
+    }
+
+    // A document must contain at least this share of the query's trigrams
+    private static final double MIN_COVERAGE = 0.5;
+
+    private final Map<String, Set<Long>> postings = new ConcurrentHashMap<>();
+    private final Map<Long, Doc> docs = new ConcurrentHashMap<>();
+
+    public void put(long id, String... fields) {
+        String text = normalize(String.join(" ", nonNull(fields)));
+        Set<String> trigrams = trigrams(text, true);
+        Doc previous = docs.put(id, new Doc(trigrams, text));
+        if (previous != null) {
+            for (String gram : previous.trigrams()) {
+                if (!trigrams.contains(gram)) {
+                    removePosting(gram, id);
+                }
+            }
+        }
+        for (String gram : trigrams) {
+            postings.computeIfAbsent(gram, g -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+    }
+
+    public void remove(long id) {
+        Doc previous = docs.remove(id);
+        if (previous != null) {
+            for (String gram : previous.trigrams()) {
+                removePosting(gram, id);
+            }
+        }
+    }
+
+    public int size() {
+        return docs.size();
+    }
+
+    public void clear() {
+        docs.clear();
+        postings.clear();
+    }
+
+    // Best matches first. Score is the share of query trigrams found, with a
+    // bonus for exact substring hits and a small one for shorter texts.
+    public List<Match> search(String query, int limit) {
+        String normalized = normalize(query);
+        Set<String> queryGrams = trigrams(normalized, false);
+        if (queryGrams.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        // Rarest trigrams first. A document missing from all of the first
+        // (n - minShared + 1) lists cannot reach minShared, so only those lists
+        // produce candidates; the common trigrams are then probed per candidate
+        // instead of walking their long posting lists.
+        List<Set<Long>> lists = new ArrayList<>(queryGrams.size());
+        for (String gram : queryGrams) {
+            lists.add(postings.getOrDefault(gram, Set.of()));
+        }
+        lists.sort(Comparator.comparingInt(Set::size));
+        int minShared = (int) Math.ceil(queryGrams.size() * MIN_COVERAGE);
+        int seedLists = lists.size() - minShared + 1;
+
+        Map<Long, int[]> shared = new HashMap<>();
+        for (int i = 0; i < seedLists; i++) {
+            for (Long id : lists.get(i)) {
+                shared.computeIfAbsent(id, k -> new int[1])[0]++;
+            }
+        }
+        for (int i = seedLists; i < lists.size(); i++) {
+            Set<Long> ids = lists.get(i);
+            for (Map.Entry<Long, int[]> entry : shared.entrySet()) {
+                if (ids.contains(entry.getKey())) {
+                    entry.getValue()[0]++;
+                }
+            }
+        }
+
+        PriorityQueue<Match> best = new PriorityQueue<>(Comparator.comparingDouble(Match::score));
+        for (Map.Entry<Long, int[]> entry : shared.entrySet()) {
+            int count = entry.getValue()[0];
+            if (count < minShared) {
+                continue;
+            }
+            Doc doc = docs.get(entry.getKey());
+            if (doc == null) {
+                continue;
+            }
+            double score = (double) count / queryGrams.size()
+                    // Only full trigram matches can be word-prefix substrings
+                    + (count == queryGrams.size() && doc.text().contains(normalized) ? 0.5 : 0)
+                    + 0.1 * count / doc.trigrams().size();
+            if (best.size() < limit) {
+                best.add(new Match(entry.getKey(), score));
+            } else if (score > best.peek().score()) {
+                best.poll();
+                best.add(new Match(entry.getKey(), score));
+            }
+        }
+
+        List<Match> result = new ArrayList<>(best);
+        result.sort(Comparator.comparingDouble(Match::score).reversed());
+        return result;
+    }
+
+    // Documents holding every trigram from inside the query's words: all the
+    // documents that can contain the query as a substring, plus some that only
+    // share the trigrams, so callers confirm the substring themselves. null when
+    // no query word is long enough to have a trigram to narrow by.
+    public Set<Long> candidates(String query) {
+        Set<String> queryGrams = trigrams(normalize(query), "", "");
+        if (queryGrams.isEmpty()) {
+            return null;
+        }
+        List<Set<Long>> lists = new ArrayList<>(queryGrams.size());
+        for (String gram : queryGrams) {
+            lists.add(postings.getOrDefault(gram, Set.of()));
+        }
+        lists.sort(Comparator.comparingInt(Set::size));
+        Set<Long> ids = new HashSet<>(lists.get(0));
+        for (int i = 1; i < lists.size() && !ids.isEmpty(); i++) {
+            ids.retainAll(lists.get(i));
+        }
+        return ids;
+    }
+
+    private void removePosting(String gram, long id) {
+        postings.computeIfPresent(gram, (g, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    // Documents pad both ends of each word; queries only the start, so a
+    // partially typed last word does not demand an end-of-word trigram
+    static Set<String> trigrams(String text, boolean padEnd) {
+        return trigrams(text, "  ", padEnd ? " " : "");
+    }
+
+    private static Set<String> trigrams(String text, String startPad, String endPad) {
+        Set<String> grams = new HashSet<>();
+        for (String word : text.split(" ")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            String padded = startPad + word + endPad;
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                grams.add(padded.substring(i, i + 3));
+            }
+        }
+        return grams;
+    }
+
+    static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT)
+                .replaceAll("[^\\p{L}\\p{N}]+", " ")
+                .trim();
+    }
+
+    private static List<String> nonNull(String[] fields) {
+        List<String> result = new ArrayList<>(fields.length);
+        for (String field : fields) {
+            if (field != null) {
+                result.add(field);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,51 @@
+package com.parkease.security;
+
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.parkease.services.AvailabilityEventPublisher;
+
+// Copies every availability event that reaches the STOMP broker to the SSE
+// publisher, so kiosks see exactly what map viewers see without a second
+// publish call at each site that notifies slot changes.
+@Component
+public class AvailabilityEventBridge implements ChannelInterceptor {
+
+    private static final String SPACE_TOPIC = "/topic/parking-space/";
+    private static final String ALL_SPACES_TOPIC = "/topic/parking-spaces";
+
+    @Autowired
+    private AvailabilityEventPublisher publisher;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Override
+    public void afterSendCompletion(Message<?> message, MessageChannel channel, boolean sent, Exception ex) {
+        String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+        if (!sent || destination == null || !(message.getPayload() instanceof byte[] payload)) {
+            return;
+        }
+        try {
+            if (destination.startsWith(SPACE_TOPIC)) {
+                long spaceId = Long.parseLong(destination.substring(SPACE_TOPIC.length()));
+                publisher.publish(spaceId, new String(payload, StandardCharsets.UTF_8));
+            } else if (destination.equals(ALL_SPACES_TOPIC)) {
+                JsonNode spaceId = objectMapper.readTree(payload).get("parkingSpaceId");
+                if (spaceId != null) {
+                    publisher.publish(spaceId.asLong(), new String(payload, StandardCharsets.UTF_8));
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("Could not forward availability event to SSE: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.parkease.security;
+
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.SubscribableChannel;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator.OverflowStrategy;
+import org.springframework.web.socket.messaging.SubProtocolWebSocketHandler;
+
+import com.parkease.services.WebSocketSessionMonitor;
+
+public class BoundedSubProtocolWebSocketHandler extends SubProtocolWebSocketHandler {
+
+    private final OverflowStrategy overflowStrategy;
+    private final WebSocketSessionMonitor sessionMonitor;
+
+    public BoundedSubProtocolWebSocketHandler(MessageChannel clientInboundChannel,
+            SubscribableChannel clientOutboundChannel, OverflowStrategy overflowStrategy,
+            WebSocketSessionMonitor sessionMonitor) {
+        super(clientInboundChannel, clientOutboundChannel);
+        this.overflowStrategy = overflowStrategy;
+        this.sessionMonitor = sessionMonitor;
+    }
+
+    @Override
+    protected WebSocketSession decorateSession(WebSocketSession session) {
+        // Send time limit is always fatal; the buffer limit either drops the
+        // oldest queued frames or closes the session, depending on the strategy.
+        ConcurrentWebSocketSessionDecorator decorated = new ConcurrentWebSocketSessionDecorator(
+                session, getSendTimeLimit(), getSendBufferSizeLimit(), overflowStrategy);
+        sessionMonitor.register(decorated);
+        return decorated;
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+        sessionMonitor.unregister(session.getId(), closeStatus);
+        super.afterConnectionClosed(session, closeStatus);
+    }
+}
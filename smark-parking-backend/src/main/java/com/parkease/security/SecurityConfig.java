@@ -57,6 +57,7 @@ import com.parkease.dtos.Role;
 import com.parkease.services.RefreshTokenService;
 import com.parkease.services.UserInfoService;
 
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -111,7 +112,9 @@ public class SecurityConfig {
             .csrf(AbstractHttpConfigurer::disable) // ✅ Disable CSRF for development
             .cors(cors -> cors.configurationSource(corsConfigurationSource())) // ✅ Apply global CORS
             .authorizeHttpRequests(auth -> auth
-.requestMatchers("/user/login","/user/refresh","/user/success","/parkingspaces/getAllParkingSpaces","/parkingspaces/**","/parkingowner","parkingowner/{id}/upload-image","/api/payment/getPayments","/api/bookings/download/pdf","/admin/**","/admin/getParkingUsers", "/uploads/**", "/user/register","/user/send","/user/changepassword","/user/verify", "/auth/google/callback", "/ws/**", "/app/**", "/topic/**").permitAll()
+                // Async results (e.g. create-order) are dispatched again after the request was authorized
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+.requestMatchers("/user/login","/user/refresh","/user/success","/parkingspaces/getAllParkingSpaces","/parkingspaces/**","/parkingowner","parkingowner/{id}/upload-image","/api/payment/getPayments","/api/bookings/download/pdf","/admin/**","/admin/getParkingUsers", "/uploads/**", "/user/register","/user/send","/user/changepassword","/user/verify", "/auth/google/callback", "/ws/**", "/app/**", "/topic/**", "/api/availability/**", "/api/payment/webhook", "/gateway-sim/**").permitAll()
        
                 .requestMatchers("/auth/user/**").hasAuthority("ROLE_USER")
                 .requestMatchers("/api/bookings/**").hasAuthority("ROLE_USER")
@@ -0,0 +1,51 @@
+package com.parkease.security;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import com.parkease.services.UserInfoService;
+
+// SockJS can't send headers on the handshake, so the client passes its JWT in
+// the STOMP CONNECT frame instead. A valid token becomes the session user that
+// @MessageMapping methods get as their Principal; anything else leaves the
+// session anonymous (or with the user the cookie authenticated on handshake).
+@Component
+public class StompAuthInterceptor implements ChannelInterceptor {
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private UserInfoService userInfoService;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() != StompCommand.CONNECT) {
+            return message;
+        }
+        String header = accessor.getFirstNativeHeader("Authorization");
+        if (header == null || !header.startsWith("Bearer ")) {
+            return message;
+        }
+        String token = header.substring(7);
+        try {
+            UserDetails userDetails = userInfoService.loadUserByUsername(jwtUtil.extractUsername(token));
+            if (jwtUtil.validateToken(token, userDetails)) {
+                accessor.setUser(new UsernamePasswordAuthenticationToken(
+                        userDetails, null, userDetails.getAuthorities()));
+            }
+        } catch (Exception e) {
+            System.err.println("Ignoring invalid STOMP token: " + e.getMessage());
+        }
+        return message;
+    }
+}
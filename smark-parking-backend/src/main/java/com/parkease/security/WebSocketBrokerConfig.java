@@ -0,0 +1,38 @@
+package com.parkease.security;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.support.AbstractSubscribableChannel;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.config.annotation.DelegatingWebSocketMessageBrokerConfiguration;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator.OverflowStrategy;
+
+import com.parkease.services.WebSocketSessionMonitor;
+
+// Same as @EnableWebSocketMessageBroker (WebSocketConfig is still picked up as a
+// configurer) but with our own session handler, so lagging sessions get the
+// configured overflow strategy and show up in WebSocketSessionMonitor.
+@Configuration
+public class WebSocketBrokerConfig extends DelegatingWebSocketMessageBrokerConfiguration {
+
+    @Value("${app.websocket.overflow-strategy:DROP}")
+    private OverflowStrategy overflowStrategy;
+
+    @Autowired
+    private WebSocketSessionMonitor sessionMonitor;
+
+    @Bean
+    @Override
+    public WebSocketHandler subProtocolWebSocketHandler(
+            @Qualifier("clientInboundChannel") AbstractSubscribableChannel clientInboundChannel,
+            @Qualifier("clientOutboundChannel") AbstractSubscribableChannel clientOutboundChannel) {
+
+        BoundedSubProtocolWebSocketHandler handler = new BoundedSubProtocolWebSocketHandler(
+                clientInboundChannel, clientOutboundChannel, overflowStrategy, sessionMonitor);
+        handler.setPhase(getPhase());
+        return handler;
+    }
+}
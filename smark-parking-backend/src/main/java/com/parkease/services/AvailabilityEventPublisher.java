@@ -0,0 +1,201 @@
+package com.parkease.services;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+// Fans availability events out to Server-Sent Events subscribers (lot kiosks).
+// Each subscriber has a small bounded buffer drained by a shared pool, so a
+// slow display only ever loses its own oldest events and never holds a thread.
+@Service
+public class AvailabilityEventPublisher {
+
+    // Empty payloads are never real events, so they double as keep-alive markers
+    private static final String HEARTBEAT = "";
+
+    private final Map<Long, Set<Subscriber>> subscribersBySpace = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final AtomicLong droppedEvents = new AtomicLong();
+
+    private final int bufferSize;
+    private final long timeoutMs;
+    private final ExecutorService dispatcher;
+    private final ScheduledExecutorService heartbeat;
+
+    public AvailabilityEventPublisher(MeterRegistry meterRegistry,
+            @Value("${app.sse.buffer-size:32}") int bufferSize,
+            @Value("${app.sse.timeout-ms:1800000}") long timeoutMs,
+            @Value("${app.sse.dispatch-threads:4}") int dispatchThreads,
+            @Value("${app.sse.heartbeat-seconds:25}") long heartbeatSeconds) {
+        this.bufferSize = bufferSize;
+        this.timeoutMs = timeoutMs;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.dispatcher = Executors.newFixedThreadPool(dispatchThreads, r -> {
+            Thread t = new Thread(r, "sse-dispatch-" + threadNumber.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.heartbeat = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "sse-heartbeat");
+            t.setDaemon(true);
+            return t;
+        });
+        heartbeat.scheduleAtFixedRate(this::sendHeartbeats, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+
+        Gauge.builder("parkease.sse.subscribers", subscriberCount, AtomicInteger::get)
+                .description("Open availability SSE streams")
+                .register(meterRegistry);
+        Gauge.builder("parkease.sse.events.dropped", droppedEvents, AtomicLong::get)
+                .description("Events dropped because a subscriber buffer was full")
+                .register(meterRegistry);
+    }
+
+    public SseEmitter subscribe(long parkingSpaceId, String initialEvent) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(parkingSpaceId, emitter);
+
+        subscribersBySpace.compute(parkingSpaceId, (id, set) -> {
+            Set<Subscriber> subscribers = set != null ? set : ConcurrentHashMap.newKeySet();
+            subscribers.add(subscriber);
+            return subscribers;
+        });
+        subscriberCount.incrementAndGet();
+
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+
+        if (initialEvent != null) {
+            subscriber.enqueue(initialEvent);
+        }
+        return emitter;
+    }
+
+    // eventJson is already serialized, so it is shared by every subscriber of the lot
+    public void publish(long parkingSpaceId, String eventJson) {
+        Set<Subscriber> subscribers = subscribersBySpace.get(parkingSpaceId);
+        if (subscribers == null) {
+            return;
+        }
+        for (Subscriber subscriber : subscribers) {
+            subscriber.enqueue(eventJson);
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    public int getSubscriberCount(long parkingSpaceId) {
+        return subscribersBySpace.getOrDefault(parkingSpaceId, Collections.emptySet()).size();
+    }
+
+    private void sendHeartbeats() {
+        for (Set<Subscriber> subscribers : subscribersBySpace.values()) {
+            for (Subscriber subscriber : subscribers) {
+                if (subscriber.buffer.isEmpty()) {
+                    subscriber.enqueue(HEARTBEAT);
+                }
+            }
+        }
+    }
+
+    private void remove(Subscriber subscriber) {
+        if (!subscriber.closed.compareAndSet(false, true)) {
+            return;
+        }
+        subscriberCount.decrementAndGet();
+        subscribersBySpace.computeIfPresent(subscriber.parkingSpaceId, (id, set) -> {
+            set.remove(subscriber);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeat.shutdownNow();
+        dispatcher.shutdownNow();
+        for (Set<Subscriber> subscribers : subscribersBySpace.values()) {
+            for (Subscriber subscriber : subscribers) {
+                subscriber.emitter.complete();
+            }
+        }
+    }
+
+    private class Subscriber {
+        final long parkingSpaceId;
+        final SseEmitter emitter;
+        final ArrayBlockingQueue<String> buffer = new ArrayBlockingQueue<>(bufferSize);
+        final AtomicBoolean draining = new AtomicBoolean();
+        final AtomicBoolean closed = new AtomicBoolean();
+
+        Subscriber(long parkingSpaceId, SseEmitter emitter) {
+            this.parkingSpaceId = parkingSpaceId;
+            this.emitter = emitter;
+        }
+
+        void enqueue(String event) {
+            if (closed.get()) {
+                return;
+            }
+            while (!buffer.offer(event)) {
+                // Full: the oldest event is stale anyway, newer counts supersede it
+                if (buffer.poll() != null) {
+                    droppedEvents.incrementAndGet();
+                }
+            }
+            scheduleDrain();
+        }
+
+        void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    dispatcher.execute(this::drain);
+                } catch (RuntimeException e) {
+                    draining.set(false);
+                }
+            }
+        }
+
+        // Only one drain runs per subscriber, which keeps sends on an emitter serialized
+        void drain() {
+            try {
+                String event;
+                while (!closed.get() && (event = buffer.poll()) != null) {
+                    if (event.isEmpty()) {
+                        emitter.send(SseEmitter.event().comment("ping"));
+                    } else {
+                        emitter.send(SseEmitter.event().name("availability").data(event));
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                remove(this);
+                emitter.completeWithError(e);
+                return;
+            } finally {
+                draining.set(false);
+            }
+            if (!buffer.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+    }
+}
@@ -4,12 +4,17 @@ import org.springframework.http.MediaType;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.springframework.http.HttpHeaders;
 
@@ -18,6 +23,8 @@ import org.apache.pdfbox.pdmodel.PDPage;
 import org.apache.pdfbox.pdmodel.PDPageContentStream;
 import org.apache.pdfbox.pdmodel.font.PDType1Font;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -36,6 +43,9 @@ import com.parkease.dao.UserRepository;
 import com.parkease.dtos.BookingRequest;
 import com.parkease.dtos.BookingResponse;
 import com.parkease.dtos.BookingUpdateRequest;
+import com.parkease.dtos.GeofenceEvent;
+import com.parkease.enums.GeofenceEventType;
+import com.parkease.exceptions.PaymentMismatchException;
 import com.parkease.exceptions.ResourceNotFoundException;
 
 import jakarta.transaction.Transactional;
@@ -53,22 +63,36 @@ public class BookingService {
 	 @Autowired
 	 private UserRepository userRepository;;;
 
+	 @Autowired
+	 private RevenueRollupService revenueRollupService;
+
+	 @Autowired
+	 private QuoteService quoteService;
+
+	 @Autowired
+	 private PaymentService paymentService;
+
+	 @Value("${app.geofence.arrival-grace-minutes:30}")
+	 private long geofenceArrivalGraceMinutes;
+
 	    public Booking saveBooking(BookingRequest bookingReq, Long slotId) {
 	    	  System.out.println("================="+bookingReq.getCarNumber());
 	    	 ParkingSpace parkingSpace=parkingSpaceRepo.findById(bookingReq.getParkingLotId()).get();
 	    	 ParkingOwner owner=parkingSpace.getParkingowner();
-	    	  System.out.println();
-	    	 owner.setTotalEarning(owner.getTotalEarning()+bookingReq.getAmount());
-	    	 parkingSpace.setParkingowner(owner);
-	    	 
-	    	 parkingSpaceRepo.save(parkingSpace);
+	    	 double amount=quoteService.bookingAmount(bookingReq);
+	    	 paymentService.checkCaptured(bookingReq.getOrderId(), amount);
+	    	 // One booking per paid order; uk_booking_order_id settles a concurrent second one
+	    	 if (bookingRepository.existsByOrderId(bookingReq.getOrderId())) {
+	    		 throw new PaymentMismatchException("Order " + bookingReq.getOrderId() + " already paid for a booking");
+	    	 }
 	    	 Booking booking=new Booking();
 	    	 booking.setUserId(bookingReq.getUserId());
 	    	 booking.setParkingLotId(bookingReq.getParkingLotId());
-	    	 booking.setAmount(bookingReq.getAmount());
+	    	 booking.setAmount(amount);
 	    	 booking.setBookingStatus("Pending");
 	    	 booking.setCarNumber(bookingReq.getCarNumber());
 	    	 booking.setPaymentStatus("Completed");
+	    	 booking.setOrderId(bookingReq.getOrderId());
 	    	 
 	    	if (bookingReq.getArrivalTime() != null) {
 	    		booking.setArrivalTime(bookingReq.getArrivalTime());
@@ -80,9 +104,18 @@ public class BookingService {
 	    	parkingSlot.getBookings().add(booking);
 	    	booking.setParkingSlot(parkingSlot);
 	    	
-	    	
-	    
-	        return bookingRepository.save(booking);
+	        Booking saved;
+	        try {
+	            saved = bookingRepository.saveAndFlush(booking);
+	        } catch (DataIntegrityViolationException e) {
+	            throw new PaymentMismatchException("Order " + bookingReq.getOrderId() + " already paid for a booking");
+	        }
+	        // Credited only once the booking holds the order
+	        owner.setTotalEarning(owner.getTotalEarning()+amount);
+	        parkingSpace.setParkingowner(owner);
+	        parkingSpaceRepo.save(parkingSpace);
+	        revenueRollupService.recordBooking(saved);
+	        return saved;
 	    }
 	    public Booking updateBookingTimes(Long bookingId, BookingUpdateRequest request) {
 	        Optional<Booking> optionalBooking = bookingRepository.findById(bookingId);
@@ -181,6 +214,71 @@ public class BookingService {
 		        booking.setBookingStatus(newStatus);
 		        return bookingRepository.save(booking);
 		    }
+
+		 // Applies one drained batch of geofence events: one read for the
+		 // candidate bookings and at most two guarded bulk updates.
+		 // ENTER moves a Pending booking to Active; EXIT completes the booking.
+		 @Transactional
+		 public int applyGeofenceEvents(List<GeofenceEvent> events) {
+			 if (events.isEmpty()) {
+				 return 0;
+			 }
+			 Set<Long> userIds = events.stream().map(GeofenceEvent::getUserId).collect(Collectors.toSet());
+			 Set<Long> lotIds = events.stream().map(GeofenceEvent::getParkingSpaceId).collect(Collectors.toSet());
+			 Map<String, List<Booking>> byUserAndLot = bookingRepository
+					 .findByUserIdInAndParkingLotIdInAndBookingStatusIn(userIds, lotIds, List.of("Pending", "Active"))
+					 .stream()
+					 .collect(Collectors.groupingBy(b -> b.getUserId() + ":" + b.getParkingLotId()));
+
+			 List<Long> arrived = new ArrayList<>();
+			 List<Long> departed = new ArrayList<>();
+			 for (GeofenceEvent event : events) {
+				 List<Booking> bookings = byUserAndLot.get(event.getUserId() + ":" + event.getParkingSpaceId());
+				 if (bookings == null) {
+					 continue;
+				 }
+				 Instant at = Instant.ofEpochMilli(event.getTimestamp());
+				 if (event.getType() == GeofenceEventType.ENTER) {
+					 matchArrival(bookings, at).ifPresent(b -> arrived.add(b.getId()));
+				 } else {
+					 matchDeparture(bookings, at).ifPresent(b -> departed.add(b.getId()));
+				 }
+			 }
+
+			 int updated = 0;
+			 if (!arrived.isEmpty()) {
+				 updated += bookingRepository.updateStatus(arrived, List.of("Pending"), "Active");
+			 }
+			 if (!departed.isEmpty()) {
+				 updated += bookingRepository.updateStatus(departed, List.of("Pending", "Active"), "Completed");
+			 }
+			 return updated;
+		 }
+
+		 // The Pending booking whose window (opened early by the grace period) covers the arrival
+		 private Optional<Booking> matchArrival(List<Booking> bookings, Instant at) {
+			 Instant latestStart = at.plus(Duration.ofMinutes(geofenceArrivalGraceMinutes));
+			 return bookings.stream()
+					 .filter(b -> "Pending".equals(b.getBookingStatus()))
+					 .filter(b -> b.getArrivalTime() == null || !b.getArrivalTime().toInstant().isAfter(latestStart))
+					 .filter(b -> b.getDepartureTime() == null || b.getDepartureTime().toInstant().isAfter(at))
+					 .min(Comparator.comparing(b -> b.getArrivalTime() == null ? Instant.MAX : b.getArrivalTime().toInstant()));
+		 }
+
+		 // The Active booking, or a Pending one already under way when the ENTER was
+		 // coalesced away or never sent
+		 private Optional<Booking> matchDeparture(List<Booking> bookings, Instant at) {
+			 Optional<Booking> active = bookings.stream()
+					 .filter(b -> "Active".equals(b.getBookingStatus()))
+					 .findFirst();
+			 if (active.isPresent()) {
+				 return active;
+			 }
+			 return bookings.stream()
+					 .filter(b -> b.getArrivalTime() != null && !b.getArrivalTime().toInstant().isAfter(at))
+					 .max(Comparator.comparing(b -> b.getArrivalTime().toInstant()));
+		 }
+
 		   private boolean isValidStatus(String status) {
 		        return status.equals("Active") || status.equals("Completed") || status.equals("Canceled");
 		    }
@@ -0,0 +1,229 @@
+package com.parkease.services;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.web.client.HttpClientErrorException;
+
+import com.parkease.exceptions.DependencyUnavailableException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// Isolation for one external dependency: a semaphore bulkhead caps concurrent
+// calls, and a circuit breaker over the last window-size outcomes stops
+// calling a provider that keeps failing. Rejected calls fail at once with
+// DependencyUnavailableException so callers can fall back.
+//
+// Timeouts are enforced by the transport (HTTP client read timeout, SMTP
+// socket timeouts); calls slower than slowCallMs still count as failures, so
+// a provider that answers but degrades opens the circuit too.
+public class DependencyGuard {
+
+    public enum State {
+        CLOSED, HALF_OPEN, OPEN
+    }
+
+    private final String name;
+    private final Semaphore bulkhead;
+    private final long bulkheadWaitMs;
+    private final long slowCallNanos;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long openNanos;
+    private final int halfOpenCalls;
+
+    // Ring of the last outcomes, true = failure; guarded by this
+    private final boolean[] window;
+    private int windowIndex;
+    private int windowCount;
+    private int windowFailures;
+    private State state = State.CLOSED;
+    private long openedAtNanos;
+    private int halfOpenPermits;
+    private int halfOpenSuccesses;
+
+    private final Timer successTimer;
+    private final Timer failureTimer;
+    private final Counter bulkheadRejections;
+    private final Counter circuitRejections;
+
+    public DependencyGuard(String name, MeterRegistry meterRegistry, int maxConcurrent, long bulkheadWaitMs,
+            long slowCallMs, int windowSize, int minimumCalls, double failureRateThreshold, long openMs,
+            int halfOpenCalls) {
+        if (maxConcurrent < 1 || windowSize < 1 || minimumCalls < 1 || halfOpenCalls < 1) {
+            throw new IllegalArgumentException("maxConcurrent, windowSize, minimumCalls and halfOpenCalls must be >= 1");
+        }
+        this.name = name;
+        this.bulkhead = new Semaphore(maxConcurrent);
+        this.bulkheadWaitMs = bulkheadWaitMs;
+        this.slowCallNanos = TimeUnit.MILLISECONDS.toNanos(slowCallMs);
+        this.window = new boolean[windowSize];
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMs);
+        this.halfOpenCalls = halfOpenCalls;
+
+        this.successTimer = latencyTimer(meterRegistry, "success");
+        this.failureTimer = latencyTimer(meterRegistry, "failure");
+        this.bulkheadRejections = rejections(meterRegistry, "bulkhead_full");
+        this.circuitRejections = rejections(meterRegistry, "circuit_open");
+        Gauge.builder("parkease.dependency.circuit.state", this, g -> g.getState().ordinal())
+                .tag("dependency", name)
+                .description("0 closed, 1 half-open, 2 open")
+                .register(meterRegistry);
+        Gauge.builder("parkease.dependency.bulkhead.in-use", this, g -> maxConcurrent - g.bulkhead.availablePermits())
+                .tag("dependency", name)
+                .description("Calls in progress")
+                .register(meterRegistry);
+    }
+
+    public <T> T call(Callable<T> call) throws Exception {
+        acquirePermission();
+        try {
+            if (!bulkhead.tryAcquire(bulkheadWaitMs, TimeUnit.MILLISECONDS)) {
+                releasePermission();
+                bulkheadRejections.increment();
+                throw new DependencyUnavailableException(name, "too many concurrent calls");
+            }
+        } catch (InterruptedException e) {
+            releasePermission();
+            Thread.currentThread().interrupt();
+            throw e;
+        }
+        long start = System.nanoTime();
+        try {
+            T result = call.call();
+            long elapsed = System.nanoTime() - start;
+            successTimer.record(elapsed, TimeUnit.NANOSECONDS);
+            record(elapsed > slowCallNanos);
+            return result;
+        } catch (Exception e) {
+            long elapsed = System.nanoTime() - start;
+            boolean failure = isFailure(e);
+            (failure ? failureTimer : successTimer).record(elapsed, TimeUnit.NANOSECONDS);
+            record(failure || elapsed > slowCallNanos);
+            throw e;
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    // For calls that only throw unchecked exceptions
+    public <T> T execute(Callable<T> call) {
+        try {
+            return call(call);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public synchronized State getState() {
+        if (state == State.OPEN && System.nanoTime() - openedAtNanos >= openNanos) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    // Client errors are the caller's fault, not a sign the provider is down; 429 is
+    private static boolean isFailure(Exception e) {
+        return !(e instanceof HttpClientErrorException clientError) || clientError.getStatusCode().value() == 429;
+    }
+
+    private synchronized void acquirePermission() {
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAtNanos < openNanos) {
+                circuitRejections.increment();
+                throw new DependencyUnavailableException(name, "circuit open");
+            }
+            state = State.HALF_OPEN;
+            halfOpenPermits = halfOpenCalls;
+            halfOpenSuccesses = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (halfOpenPermits == 0) {
+                circuitRejections.increment();
+                throw new DependencyUnavailableException(name, "circuit half-open, trial calls in progress");
+            }
+            halfOpenPermits--;
+        }
+    }
+
+    // A trial call that never ran gives its permit back
+    private synchronized void releasePermission() {
+        if (state == State.HALF_OPEN) {
+            halfOpenPermits++;
+        }
+    }
+
+    private synchronized void record(boolean failure) {
+        if (state == State.HALF_OPEN) {
+            if (failure) {
+                open();
+            } else if (++halfOpenSuccesses >= halfOpenCalls) {
+                close();
+            }
+            return;
+        }
+        if (state == State.OPEN) {
+            // Started before the circuit opened; the outcome no longer matters
+            return;
+        }
+        if (windowCount == window.length) {
+            if (window[windowIndex]) {
+                windowFailures--;
+            }
+        } else {
+            windowCount++;
+        }
+        window[windowIndex] = failure;
+        if (failure) {
+            windowFailures++;
+        }
+        windowIndex = (windowIndex + 1) % window.length;
+        if (windowCount >= minimumCalls && (double) windowFailures / windowCount >= failureRateThreshold) {
+            open();
+        }
+    }
+
+    private void open() {
+        if (state != State.OPEN) {
+            System.err.println("Circuit for " + name + " opened");
+        }
+        state = State.OPEN;
+        openedAtNanos = System.nanoTime();
+    }
+
+    private void close() {
+        System.out.println("Circuit for " + name + " closed");
+        state = State.CLOSED;
+        windowIndex = 0;
+        windowCount = 0;
+        windowFailures = 0;
+    }
+
+    private Timer latencyTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("parkease.dependency.latency")
+                .tag("dependency", name)
+                .tag("outcome", outcome)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+
+    private Counter rejections(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("parkease.dependency.rejected")
+                .tag("dependency", name)
+                .tag("reason", reason)
+                .description("Calls refused without reaching the dependency")
+                .register(meterRegistry);
+    }
+}
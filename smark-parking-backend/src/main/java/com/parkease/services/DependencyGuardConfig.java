@@ -0,0 +1,52 @@
+package com.parkease.services;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+// One guard per external dependency, each with its own bulkhead and circuit,
+// so a degraded provider only takes down the features that need it.
+// Settings: app.resilience.<name>.<key>, falling back to app.resilience.<key>.
+@Configuration
+public class DependencyGuardConfig {
+
+    @Bean
+    public DependencyGuard razorpayGuard(Environment env, MeterRegistry meterRegistry) {
+        return guard("razorpay", env, meterRegistry, 16, 10000);
+    }
+
+    @Bean
+    public DependencyGuard nominatimGuard(Environment env, MeterRegistry meterRegistry) {
+        return guard("nominatim", env, meterRegistry, 4, 5000);
+    }
+
+    @Bean
+    public DependencyGuard orsGuard(Environment env, MeterRegistry meterRegistry) {
+        return guard("ors", env, meterRegistry, 16, 5000);
+    }
+
+    @Bean
+    public DependencyGuard smtpGuard(Environment env, MeterRegistry meterRegistry) {
+        return guard("smtp", env, meterRegistry, 4, 10000);
+    }
+
+    private static DependencyGuard guard(String name, Environment env, MeterRegistry meterRegistry,
+            int defaultMaxConcurrent, long defaultSlowCallMs) {
+        return new DependencyGuard(name, meterRegistry,
+                setting(env, name, "max-concurrent", Integer.class, defaultMaxConcurrent),
+                setting(env, name, "bulkhead-wait-ms", Long.class, 0L),
+                setting(env, name, "slow-call-ms", Long.class, defaultSlowCallMs),
+                setting(env, name, "window-size", Integer.class, 20),
+                setting(env, name, "minimum-calls", Integer.class, 10),
+                setting(env, name, "failure-rate-threshold", Double.class, 0.5),
+                setting(env, name, "open-ms", Long.class, 30000L),
+                setting(env, name, "half-open-calls", Integer.class, 3));
+    }
+
+    private static <T> T setting(Environment env, String name, String key, Class<T> type, T defaultValue) {
+        return env.getProperty("app.resilience." + name + "." + key, type,
+                env.getProperty("app.resilience." + key, type, defaultValue));
+    }
+}
@@ -0,0 +1,8 @@
+package com.parkease.services;
+
+// A routing backend. Returns the route as the openrouteservice GeoJSON
+// response body, which is what the frontend renders.
+public interface DirectionsProvider {
+
+    String route(double startLat, double startLng, double endLat, double endLng);
+}
@@ -0,0 +1,56 @@
+package com.parkease.services;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Route lookups with a TTL+LRU cache in front of the provider. Endpoints are
+// snapped to a grid (about 110 m by default) so users starting in the same
+// neighbourhood for the same lot share one cached route.
+@Service
+public class DirectionsService {
+
+    private final DirectionsProvider provider;
+    private final DependencyGuard guard;
+    private final TtlLruCache<String, String> cache;
+    private final double snapDegrees;
+
+    public DirectionsService(DirectionsProvider provider, MeterRegistry meterRegistry,
+            @Qualifier("orsGuard") DependencyGuard guard,
+            @Value("${app.directions.cache.max-size:10000}") int maxSize,
+            @Value("${app.directions.cache.ttl-minutes:60}") long ttlMinutes,
+            @Value("${app.directions.snap-degrees:0.001}") double snapDegrees) {
+        this.provider = provider;
+        this.guard = guard;
+        this.cache = new TtlLruCache<>(maxSize, ttlMinutes * 60_000L);
+        this.snapDegrees = snapDegrees;
+
+        Gauge.builder("parkease.directions.cache.size", cache, TtlLruCache::size).register(meterRegistry);
+        Gauge.builder("parkease.directions.cache.hits", cache, TtlLruCache::getHits).register(meterRegistry);
+        Gauge.builder("parkease.directions.cache.misses", cache, TtlLruCache::getMisses).register(meterRegistry);
+    }
+
+    public String getRoute(double startLat, double startLng, double endLat, double endLng) {
+        double sLat = snap(startLat);
+        double sLng = snap(startLng);
+        double eLat = snap(endLat);
+        double eLng = snap(endLng);
+        String key = sLat + "," + sLng + ">" + eLat + "," + eLng;
+
+        String route = cache.get(key);
+        if (route == null) {
+            // Route between the snapped points so the cached body matches its key
+            // for every user who maps to it; provider errors are not cached
+            route = guard.execute(() -> provider.route(sLat, sLng, eLat, eLng));
+            cache.put(key, route);
+        }
+        return route;
+    }
+
+    private double snap(double degrees) {
+        return Math.round(degrees / snapDegrees) * snapDegrees;
+    }
+}
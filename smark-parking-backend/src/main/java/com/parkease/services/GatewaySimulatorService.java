@@ -0,0 +1,315 @@
+package com.parkease.services;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import jakarta.annotation.PreDestroy;
+
+// Stand-in for the Razorpay endpoints checkout uses, so checkout can be load
+// tested on one machine (profile gateway-sim). Orders live in memory; every
+// response is delayed by a sampled latency on a scheduler, so slow answers
+// cost no request threads, and a configurable share fails like the real API.
+// Paying an order sends the same signed webhooks Razorpay would.
+@Service
+@Profile("gateway-sim")
+public class GatewaySimulatorService {
+
+    private static final String HMAC_SHA256 = "HmacSHA256";
+
+    private final ObjectMapper objectMapper;
+    private final TtlLruCache<String, ObjectNode> orders;
+    private final ScheduledExecutorService scheduler;
+    private final HttpClient httpClient;
+    private final AtomicLong webhooksSent = new AtomicLong();
+    private final AtomicLong webhooksFailed = new AtomicLong();
+
+    @Value("${app.gateway-sim.latency-ms:120}")
+    private long latencyMs;
+
+    @Value("${app.gateway-sim.latency-jitter-ms:80}")
+    private long latencyJitterMs;
+
+    // Share of calls answered after slow-latency-ms instead, for the tail
+    @Value("${app.gateway-sim.slow-rate:0.01}")
+    private double slowRate;
+
+    @Value("${app.gateway-sim.slow-latency-ms:3000}")
+    private long slowLatencyMs;
+
+    // Share of calls answered 500 / 429
+    @Value("${app.gateway-sim.error-rate:0.0}")
+    private double errorRate;
+
+    @Value("${app.gateway-sim.rate-limit-rate:0.0}")
+    private double rateLimitRate;
+
+    // Share of paid orders whose payment fails
+    @Value("${app.gateway-sim.payment-failure-rate:0.0}")
+    private double paymentFailureRate;
+
+    @Value("${app.gateway-sim.webhook.enabled:true}")
+    private boolean webhooksEnabled;
+
+    @Value("${app.gateway-sim.webhook.url:http://localhost:8081/api/payment/webhook}")
+    private String webhookUrl;
+
+    @Value("${app.gateway-sim.webhook.delay-ms:500}")
+    private long webhookDelayMs;
+
+    // Share of events delivered twice, as gateway retries do
+    @Value("${app.gateway-sim.webhook.duplicate-rate:0.1}")
+    private double webhookDuplicateRate;
+
+    @Value("${app.gateway-sim.webhook.max-attempts:3}")
+    private int webhookMaxAttempts;
+
+    private final SecretKeySpec webhookKey;
+    private final SecretKeySpec checkoutKey;
+
+    public GatewaySimulatorService(ObjectMapper objectMapper,
+            @Value("${app.payment.webhook.secret:}") String webhookSecret,
+            @Value("${razorpay.key.secret}") String keySecret,
+            @Value("${app.gateway-sim.max-orders:100000}") int maxOrders,
+            @Value("${app.gateway-sim.order-ttl-minutes:60}") long orderTtlMinutes,
+            @Value("${app.gateway-sim.threads:4}") int threads) {
+        this.objectMapper = objectMapper;
+        this.webhookKey = webhookSecret.isBlank() ? null
+                : new SecretKeySpec(webhookSecret.getBytes(StandardCharsets.UTF_8), HMAC_SHA256);
+        this.checkoutKey = new SecretKeySpec(keySecret.getBytes(StandardCharsets.UTF_8), HMAC_SHA256);
+        this.orders = new TtlLruCache<>(maxOrders, orderTtlMinutes * 60_000L);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.scheduler = Executors.newScheduledThreadPool(threads, r -> {
+            Thread t = new Thread(r, "gateway-sim-" + threadNumber.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+    }
+
+    // POST /v1/orders
+    public CompletableFuture<ResponseEntity<String>> createOrder(ObjectNode request) {
+        ResponseEntity<String> injected = injectedFailure();
+        if (injected != null) {
+            return delayed(injected);
+        }
+        long amount = request.path("amount").asLong();
+        if (amount < 100) {
+            return delayed(error(HttpStatus.BAD_REQUEST, "BAD_REQUEST_ERROR", "The amount must be atleast INR 1.00"));
+        }
+        ObjectNode order = objectMapper.createObjectNode();
+        order.put("id", "order_sim_" + randomId());
+        order.put("entity", "order");
+        order.put("amount", amount);
+        order.put("amount_paid", 0);
+        order.put("amount_due", amount);
+        order.put("currency", request.path("currency").asText("INR"));
+        order.put("receipt", request.path("receipt").asText(null));
+        order.put("status", "created");
+        order.put("attempts", 0);
+        order.put("created_at", System.currentTimeMillis() / 1000);
+        orders.put(order.get("id").asText(), order);
+        return delayed(json(HttpStatus.OK, order));
+    }
+
+    // GET /v1/orders/{id}
+    public CompletableFuture<ResponseEntity<String>> getOrder(String orderId) {
+        ObjectNode order = orders.get(orderId);
+        if (order == null) {
+            return delayed(error(HttpStatus.BAD_REQUEST, "BAD_REQUEST_ERROR", "The id provided does not exist"));
+        }
+        synchronized (order) {
+            return delayed(json(HttpStatus.OK, order.deepCopy()));
+        }
+    }
+
+    // Stands in for the customer completing Razorpay Checkout: answers what
+    // the checkout handler receives, signed the way the real gateway signs it,
+    // and queues the webhooks for the payment
+    public CompletableFuture<ResponseEntity<String>> pay(String orderId, String email) {
+        ObjectNode order = orders.get(orderId);
+        if (order == null) {
+            return delayed(error(HttpStatus.BAD_REQUEST, "BAD_REQUEST_ERROR", "The id provided does not exist"));
+        }
+        String paymentId = "pay_sim_" + randomId();
+        boolean failed = ThreadLocalRandom.current().nextDouble() < paymentFailureRate;
+        long amount;
+        String currency;
+        synchronized (order) {
+            if ("paid".equals(order.path("status").asText())) {
+                return delayed(error(HttpStatus.BAD_REQUEST, "BAD_REQUEST_ERROR", "Order is already paid"));
+            }
+            amount = order.path("amount").asLong();
+            currency = order.path("currency").asText();
+            order.put("attempts", order.path("attempts").asInt() + 1);
+            order.put("status", failed ? "attempted" : "paid");
+            if (!failed) {
+                order.put("amount_paid", amount);
+                order.put("amount_due", 0);
+            }
+        }
+
+        ObjectNode payment = objectMapper.createObjectNode();
+        payment.put("id", paymentId);
+        payment.put("entity", "payment");
+        payment.put("order_id", orderId);
+        payment.put("amount", amount);
+        payment.put("currency", currency);
+        payment.put("email", email);
+        if (failed) {
+            sendWebhooks(List.of("payment.failed"), payment);
+            return delayed(error(HttpStatus.BAD_REQUEST, "BAD_REQUEST_ERROR", "Payment failed"));
+        }
+        sendWebhooks(List.of("payment.authorized", "payment.captured", "order.paid"), payment);
+
+        ObjectNode result = objectMapper.createObjectNode();
+        result.put("razorpay_payment_id", paymentId);
+        result.put("razorpay_order_id", orderId);
+        result.put("razorpay_signature", hmac(checkoutKey, (orderId + "|" + paymentId).getBytes(StandardCharsets.UTF_8)));
+        return delayed(json(HttpStatus.OK, result));
+    }
+
+    public long getWebhooksSent() {
+        return webhooksSent.get();
+    }
+
+    public long getWebhooksFailed() {
+        return webhooksFailed.get();
+    }
+
+    private void sendWebhooks(List<String> events, ObjectNode payment) {
+        if (!webhooksEnabled) {
+            return;
+        }
+        if (webhookKey == null) {
+            System.err.println("Gateway simulator: app.payment.webhook.secret is not set, webhooks are not sent");
+            return;
+        }
+        long createdAt = System.currentTimeMillis() / 1000;
+        List<Runnable> deliveries = new ArrayList<>();
+        for (String event : events) {
+            ObjectNode entity = payment.deepCopy();
+            entity.put("status", event.equals("order.paid") ? "captured" : event.substring("payment.".length()));
+            ObjectNode root = objectMapper.createObjectNode();
+            root.put("entity", "event");
+            root.put("event", event);
+            root.put("created_at", createdAt);
+            root.putObject("payload").putObject("payment").set("entity", entity);
+            byte[] body = root.toString().getBytes(StandardCharsets.UTF_8);
+            String eventId = "evt_sim_" + randomId();
+            deliveries.add(() -> deliver(eventId, body, 1));
+            if (ThreadLocalRandom.current().nextDouble() < webhookDuplicateRate) {
+                deliveries.add(() -> deliver(eventId, body, 1));
+            }
+        }
+        // In order, a few ms apart; the receiver must cope with any order anyway
+        for (int i = 0; i < deliveries.size(); i++) {
+            scheduler.schedule(deliveries.get(i), webhookDelayMs + i * 5L, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void deliver(String eventId, byte[] body, int attempt) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(webhookUrl))
+                .timeout(Duration.ofSeconds(5))
+                .header("Content-Type", MediaType.APPLICATION_JSON_VALUE)
+                .header("X-Razorpay-Signature", hmac(webhookKey, body))
+                .header("X-Razorpay-Event-Id", eventId)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+        httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, e) -> {
+            if (e == null && response.statusCode() / 100 == 2) {
+                webhooksSent.incrementAndGet();
+            } else if (attempt < webhookMaxAttempts) {
+                scheduler.schedule(() -> deliver(eventId, body, attempt + 1),
+                        webhookDelayMs << attempt, TimeUnit.MILLISECONDS);
+            } else {
+                webhooksFailed.incrementAndGet();
+            }
+        });
+    }
+
+    private ResponseEntity<String> injectedFailure() {
+        double roll = ThreadLocalRandom.current().nextDouble();
+        if (roll < errorRate) {
+            return error(HttpStatus.INTERNAL_SERVER_ERROR, "SERVER_ERROR", "We are facing some trouble completing your request at the moment");
+        }
+        if (roll < errorRate + rateLimitRate) {
+            return error(HttpStatus.TOO_MANY_REQUESTS, "BAD_REQUEST_ERROR", "Too many requests");
+        }
+        return null;
+    }
+
+    private CompletableFuture<ResponseEntity<String>> delayed(ResponseEntity<String> response) {
+        CompletableFuture<ResponseEntity<String>> future = new CompletableFuture<>();
+        scheduler.schedule(() -> future.complete(response), sampleLatencyMs(), TimeUnit.MILLISECONDS);
+        return future;
+    }
+
+    private long sampleLatencyMs() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextDouble() < slowRate) {
+            return slowLatencyMs;
+        }
+        return latencyMs + (latencyJitterMs > 0 ? random.nextLong(latencyJitterMs + 1) : 0);
+    }
+
+    private ResponseEntity<String> error(HttpStatus status, String code, String description) {
+        ObjectNode root = objectMapper.createObjectNode();
+        ObjectNode error = root.putObject("error");
+        error.put("code", code);
+        error.put("description", description);
+        return json(status, root);
+    }
+
+    private static ResponseEntity<String> json(HttpStatus status, ObjectNode body) {
+        return ResponseEntity.status(status).contentType(MediaType.APPLICATION_JSON).body(body.toString());
+    }
+
+    private static String randomId() {
+        return UUID.randomUUID().toString().replace("-", "").substring(0, 14);
+    }
+
+    private static String hmac(SecretKeySpec key, byte[] data) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_SHA256);
+            mac.init(key);
+            return HexFormat.of().formatHex(mac.doFinal(data));
+        } catch (NoSuchAlgorithmException | InvalidKeyException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,41 @@
+package com.parkease.services;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.parkease.beans.ParkingSpace;
+import com.parkease.dao.ParkingSpaceRepo;
+
+// Geocodes lots that have no stored coordinates yet: rows created before the
+// columns existed, or lots whose geocoding failed when they were saved.
+@Component
+public class GeocodeBackfillJob {
+
+    @Autowired
+    private ParkingSpaceRepo parkingSpaceRepo;
+
+    @Autowired
+    private GeocodingService geocodingService;
+
+    // Walks the table in id order across runs, so lots that never resolve
+    // cannot keep the rest from being reached
+    private long lastId;
+
+    @Scheduled(initialDelayString = "${app.geocoding.backfill-initial-delay-ms:30000}",
+            fixedDelayString = "${app.geocoding.backfill-interval-ms:3600000}")
+    public void backfill() {
+        // One batch per run, so addresses that never resolve are not retried in a tight loop
+        List<ParkingSpace> pending =
+                parkingSpaceRepo.findTop50ByLatitudeIsNullAndAddressIsNotNullAndIdGreaterThanOrderByIdAsc(lastId);
+        lastId = pending.size() < 50 ? 0 : pending.get(pending.size() - 1).getId();
+        // Lookups run in parallel; GeocodingService paces them to the provider's limit
+        int resolved = geocodingService.geocodeAll(pending);
+        parkingSpaceRepo.saveAll(pending.stream().filter(s -> s.getLatitude() != null).toList());
+        if (!pending.isEmpty()) {
+            System.out.println("Geocode backfill: resolved " + resolved + " of " + pending.size() + " parking spaces");
+        }
+    }
+}
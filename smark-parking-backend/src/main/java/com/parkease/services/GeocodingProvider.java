@@ -0,0 +1,11 @@
+package com.parkease.services;
+
+import java.util.Optional;
+
+// A geocoding backend. Implementations make one blocking lookup per call;
+// caching, deduplication and rate limiting live in GeocodingService.
+public interface GeocodingProvider {
+
+    // {latitude, longitude}, or empty when the address is unknown
+    Optional<double[]> lookup(String address);
+}
@@ -0,0 +1,201 @@
+package com.parkease.services;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.parkease.beans.GeocodeCacheEntry;
+import com.parkease.beans.ParkingSpace;
+import com.parkease.dao.GeocodeCacheRepository;
+
+import jakarta.annotation.PreDestroy;
+
+// Resolves lot addresses to coordinates. Called when a lot is written, never
+// on the search path; nearby search reads the stored latitude/longitude.
+//
+// Lookups go through a persistent cache keyed by normalized address, then
+// share one in-flight request per address, then run on a bounded pool paced
+// by a token bucket so bulk geocoding stays within the provider's limits.
+@Service
+public class GeocodingService {
+
+    private final GeocodingProvider provider;
+    private final DependencyGuard guard;
+    private final GeocodeCacheRepository cacheRepository;
+    private final TokenBucket rateLimiter;
+    private final ThreadPoolExecutor executor;
+    private final Map<String, CompletableFuture<Optional<double[]>>> inFlight = new ConcurrentHashMap<>();
+
+    @Value("${app.geocoding.miss-ttl-hours:24}")
+    private long missTtlHours;
+
+    @Value("${app.geocoding.lookup-timeout-ms:30000}")
+    private long lookupTimeoutMs;
+
+    public GeocodingService(GeocodingProvider provider, GeocodeCacheRepository cacheRepository,
+            @Qualifier("nominatimGuard") DependencyGuard guard,
+            @Value("${app.geocoding.rate-per-second:1}") double ratePerSecond,
+            @Value("${app.geocoding.burst:1}") int burst,
+            @Value("${app.geocoding.threads:4}") int threads,
+            @Value("${app.geocoding.queue-capacity:1000}") int queueCapacity) {
+        this.provider = provider;
+        this.guard = guard;
+        this.cacheRepository = cacheRepository;
+        this.rateLimiter = new TokenBucket(ratePerSecond, burst);
+        AtomicInteger threadNumber = new AtomicInteger();
+        // A full queue makes the submitting thread do the lookup itself, which
+        // slows a bulk import down instead of failing it
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+                    Thread t = new Thread(r, "geocode-" + threadNumber.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    public CompletableFuture<Optional<double[]>> geocodeAsync(String address) {
+        if (address == null || address.isBlank()) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+        String normalized = normalize(address);
+        String key = hash(normalized);
+
+        Optional<GeocodeCacheEntry> cached = cacheRepository.findById(key);
+        if (cached.isPresent() && isFresh(cached.get())) {
+            GeocodeCacheEntry entry = cached.get();
+            return CompletableFuture.completedFuture(entry.isResolved()
+                    ? Optional.of(new double[] { entry.getLatitude(), entry.getLongitude() })
+                    : Optional.empty());
+        }
+
+        CompletableFuture<Optional<double[]>> created = new CompletableFuture<>();
+        CompletableFuture<Optional<double[]>> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            return existing;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    created.complete(lookupAndCache(key, normalized, address));
+                } catch (Throwable e) {
+                    created.completeExceptionally(e);
+                } finally {
+                    inFlight.remove(key, created);
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.remove(key, created);
+            created.completeExceptionally(e);
+        }
+        return created;
+    }
+
+    public Optional<double[]> geocode(String address) {
+        try {
+            return geocodeAsync(address).get(lookupTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (TimeoutException e) {
+            System.err.println("Geocoding timed out for '" + address + "'");
+        } catch (Exception e) {
+            System.err.println("Geocoding failed for '" + address + "': " + e.getMessage());
+        }
+        return Optional.empty();
+    }
+
+    // Sets the coordinates in place; they are cleared when the address cannot be
+    // resolved so the backfill job picks the lot up again
+    public boolean geocode(ParkingSpace space) {
+        return apply(space, geocode(space.getAddress()));
+    }
+
+    // Geocodes many lots at once; repeated addresses cost a single lookup.
+    // Returns the number of lots that got coordinates.
+    public int geocodeAll(List<ParkingSpace> spaces) {
+        List<CompletableFuture<Optional<double[]>>> lookups = spaces.stream()
+                .map(space -> geocodeAsync(space.getAddress()))
+                .toList();
+        int resolved = 0;
+        for (int i = 0; i < spaces.size(); i++) {
+            Optional<double[]> coords;
+            try {
+                coords = lookups.get(i).get(lookupTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                coords = Optional.empty();
+            }
+            if (apply(spaces.get(i), coords)) {
+                resolved++;
+            }
+        }
+        return resolved;
+    }
+
+    private boolean apply(ParkingSpace space, Optional<double[]> coords) {
+        space.setLatitude(coords.map(c -> c[0]).orElse(null));
+        space.setLongitude(coords.map(c -> c[1]).orElse(null));
+        return coords.isPresent();
+    }
+
+    private Optional<double[]> lookupAndCache(String key, String normalized, String address)
+            throws Exception {
+        rateLimiter.acquire();
+        // Provider failures and an open circuit are not cached: the lot keeps no
+        // coordinates and the backfill job tries again later
+        Optional<double[]> coords = guard.call(() -> provider.lookup(address));
+        cacheRepository.save(new GeocodeCacheEntry(key, normalized,
+                coords.map(c -> c[0]).orElse(null),
+                coords.map(c -> c[1]).orElse(null),
+                coords.isPresent(),
+                System.currentTimeMillis()));
+        return coords;
+    }
+
+    private boolean isFresh(GeocodeCacheEntry entry) {
+        // Hits never expire; misses are retried once the address may have been added upstream
+        return entry.isResolved()
+                || System.currentTimeMillis() - entry.getUpdatedAt() < TimeUnit.HOURS.toMillis(missTtlHours);
+    }
+
+    static String normalize(String address) {
+        return address.trim()
+                .toLowerCase(Locale.ROOT)
+                .replaceAll("[^\\p{L}\\p{N},]+", " ")
+                .replaceAll("\\s*,\\s*", ",")
+                .replaceAll(",+", ",")
+                .replaceAll("\\s+", " ")
+                .trim();
+    }
+
+    private static String hash(String normalized) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(normalized.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
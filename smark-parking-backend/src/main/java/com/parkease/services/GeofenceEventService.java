@@ -0,0 +1,142 @@
+package com.parkease.services;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.parkease.dtos.GeofenceBatchResponse;
+import com.parkease.dtos.GeofenceEvent;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Accepts geofence pings from the mobile app and turns them into booking
+// status changes. Requests only deduplicate and enqueue; a scheduled drain
+// applies whole batches in one transaction, so the database sees a few
+// statements per interval however many pings arrive.
+@Service
+public class GeofenceEventService {
+
+    @Autowired
+    private BookingService bookingService;
+
+    private final BlockingQueue<GeofenceEvent> queue;
+    // Keys of applied events. Queued events are only in pending until the
+    // drain has stored them, so a batch that fails to apply can be resent.
+    private final TtlLruCache<String, Boolean> seen;
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+
+    @Value("${app.geofence.batch-size:500}")
+    private int batchSize;
+
+    public GeofenceEventService(MeterRegistry meterRegistry,
+            @Value("${app.geofence.queue-capacity:10000}") int queueCapacity,
+            @Value("${app.geofence.dedupe-size:100000}") int dedupeSize,
+            @Value("${app.geofence.dedupe-ttl-minutes:60}") long dedupeTtlMinutes) {
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.seen = new TtlLruCache<>(dedupeSize, dedupeTtlMinutes * 60_000L);
+        Gauge.builder("parkease.geofence.queue.size", queue, BlockingQueue::size)
+                .description("Geofence events waiting to be applied")
+                .register(meterRegistry);
+    }
+
+    // Events of the given user; the userId they carry is overwritten
+    public GeofenceBatchResponse submit(long userId, List<GeofenceEvent> events) {
+        GeofenceBatchResponse response = new GeofenceBatchResponse();
+        for (GeofenceEvent event : events) {
+            if (event == null || event.getParkingSpaceId() == null || event.getType() == null) {
+                response.setInvalid(response.getInvalid() + 1);
+                continue;
+            }
+            event.setUserId(userId);
+            String key = dedupeKey(event);
+            if (seen.get(key) != null || !pending.add(key)) {
+                response.setDuplicates(response.getDuplicates() + 1);
+                continue;
+            }
+            if (!queue.offer(event)) {
+                pending.remove(key);
+                response.setRejected(response.getRejected() + 1);
+                continue;
+            }
+            response.setAccepted(response.getAccepted() + 1);
+        }
+        return response;
+    }
+
+    @Scheduled(fixedDelayString = "${app.geofence.flush-interval-ms:1000}")
+    public void drain() {
+        List<GeofenceEvent> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            try {
+                bookingService.applyGeofenceEvents(latestPerUserAndLot(batch));
+                markApplied(batch);
+            } catch (Exception e) {
+                System.err.println("Failed to apply " + batch.size() + " geofence events, retrying one by one: "
+                        + e.getMessage());
+                applyOneByOne(batch);
+            }
+            batch.clear();
+        }
+    }
+
+    // Applies each user and lot on its own to isolate the ones that fail.
+    // Their events are forgotten rather than marked seen, so the app's next
+    // upload of them is accepted again.
+    private void applyOneByOne(List<GeofenceEvent> batch) {
+        Map<String, List<GeofenceEvent>> byUserAndLot = new LinkedHashMap<>();
+        for (GeofenceEvent event : batch) {
+            byUserAndLot.computeIfAbsent(event.getUserId() + ":" + event.getParkingSpaceId(),
+                    k -> new ArrayList<>()).add(event);
+        }
+        for (List<GeofenceEvent> events : byUserAndLot.values()) {
+            try {
+                bookingService.applyGeofenceEvents(latestPerUserAndLot(events));
+                markApplied(events);
+            } catch (Exception e) {
+                for (GeofenceEvent event : events) {
+                    pending.remove(dedupeKey(event));
+                }
+                System.err.println("Dropped " + events.size() + " geofence events for user "
+                        + events.get(0).getUserId() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private void markApplied(List<GeofenceEvent> events) {
+        for (GeofenceEvent event : events) {
+            String key = dedupeKey(event);
+            seen.put(key, Boolean.TRUE);
+            pending.remove(key);
+        }
+    }
+
+    // A phone that bounces on the fence edge sends ENTER/EXIT/ENTER; only the
+    // newest event per user and lot matters for the resulting state
+    private List<GeofenceEvent> latestPerUserAndLot(List<GeofenceEvent> batch) {
+        Map<String, GeofenceEvent> latest = new LinkedHashMap<>();
+        for (GeofenceEvent event : batch) {
+            latest.merge(event.getUserId() + ":" + event.getParkingSpaceId(), event,
+                    (a, b) -> b.getTimestamp() >= a.getTimestamp() ? b : a);
+        }
+        return new ArrayList<>(latest.values());
+    }
+
+    // Client event ids are scoped to the user, so one user's ids cannot shadow another's
+    private String dedupeKey(GeofenceEvent event) {
+        if (event.getEventId() != null && !event.getEventId().isBlank()) {
+            return event.getUserId() + ":" + event.getEventId();
+        }
+        return event.getUserId() + ":" + event.getParkingSpaceId() + ":" + event.getType() + ":" + event.getTimestamp();
+    }
+}
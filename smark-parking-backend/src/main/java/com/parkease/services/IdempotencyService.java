@@ -0,0 +1,167 @@
+package com.parkease.services;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.parkease.beans.IdempotencyRecord;
+import com.parkease.dao.IdempotencyRecordRepository;
+
+// Runs a write at most once per Idempotency-Key. The first request inserts an
+// IN_PROGRESS row (the unique key decides concurrent races), performs the
+// write and stores its response; retries with the same key get that stored
+// response back. Failed writes drop the row so the client can simply retry.
+// Requests without a key behave exactly as before.
+@Service
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 100;
+
+    @Autowired
+    private IdempotencyRecordRepository repository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.idempotency.ttl-hours:24}")
+    private long ttlHours;
+
+    // An IN_PROGRESS row older than this belongs to a request that died midway
+    @Value("${app.idempotency.lock-timeout-seconds:60}")
+    private long lockTimeoutSeconds;
+
+    public <T> ResponseEntity<?> execute(String scope, String key, Object request, Supplier<ResponseEntity<T>> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            return ResponseEntity.badRequest().body(HEADER + " must be at most " + MAX_KEY_LENGTH + " characters");
+        }
+        String principal = currentPrincipal();
+        String requestHash = fingerprint(request);
+        long now = System.currentTimeMillis();
+
+        // Look first: retries are the common case and should not hit the unique index
+        Optional<IdempotencyRecord> existing = repository.findByScopeAndPrincipalAndIdempotencyKey(scope, principal, key);
+        if (existing.isPresent()) {
+            if (!existing.get().isExpired(now)) {
+                return replay(existing.get(), requestHash);
+            }
+            repository.deleteIfExpired(existing.get().getId(), now);
+        }
+        IdempotencyRecord claimed = claim(scope, principal, key, requestHash, now);
+        if (claimed == null) {
+            // Lost the race to a concurrent request with the same key
+            existing = repository.findByScopeAndPrincipalAndIdempotencyKey(scope, principal, key);
+            return existing.isPresent() ? replay(existing.get(), requestHash) : inProgress();
+        }
+
+        ResponseEntity<T> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            repository.deleteById(claimed.getId());
+            throw e;
+        }
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            repository.deleteById(claimed.getId());
+            return response;
+        }
+        store(claimed, response);
+        return response;
+    }
+
+    private IdempotencyRecord claim(String scope, String principal, String key, String requestHash, long now) {
+        try {
+            return repository.saveAndFlush(new IdempotencyRecord(scope, principal, key, requestHash, now,
+                    now + TimeUnit.SECONDS.toMillis(lockTimeoutSeconds)));
+        } catch (DataIntegrityViolationException e) {
+            return null;
+        }
+    }
+
+    private ResponseEntity<?> replay(IdempotencyRecord record, String requestHash) {
+        if (!record.getRequestHash().equals(requestHash)) {
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                    .body(HEADER + " was already used for a different request");
+        }
+        if (!IdempotencyRecord.COMPLETED.equals(record.getStatus())) {
+            return inProgress();
+        }
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(record.getResponseStatus())
+                .header(REPLAYED_HEADER, "true");
+        if (record.getResponseContentType() != null) {
+            builder.contentType(MediaType.parseMediaType(record.getResponseContentType()));
+        }
+        return builder.body(record.getResponseBody());
+    }
+
+    private static ResponseEntity<String> inProgress() {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body("A request with this " + HEADER + " is in progress");
+    }
+
+    private void store(IdempotencyRecord record, ResponseEntity<?> response) {
+        Object body = response.getBody();
+        String contentType;
+        String serialized;
+        if (body == null) {
+            contentType = null;
+            serialized = null;
+        } else if (body instanceof String text) {
+            contentType = MediaType.TEXT_PLAIN_VALUE;
+            serialized = text;
+        } else {
+            contentType = MediaType.APPLICATION_JSON_VALUE;
+            try {
+                serialized = objectMapper.writeValueAsString(body);
+            } catch (JsonProcessingException e) {
+                // The write has happened; keep the row so a retry cannot repeat it
+                System.err.println("Could not store idempotent response: " + e.getMessage());
+                serialized = null;
+            }
+        }
+        repository.complete(record.getId(), response.getStatusCode().value(), contentType, serialized,
+                System.currentTimeMillis() + TimeUnit.HOURS.toMillis(ttlHours));
+    }
+
+    @Scheduled(fixedDelayString = "${app.idempotency.purge-interval-ms:600000}")
+    public void purgeExpired() {
+        int purged = repository.deleteExpired(System.currentTimeMillis());
+        if (purged > 0) {
+            System.out.println("Purged " + purged + " expired idempotency records");
+        }
+    }
+
+    private static String currentPrincipal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : "anonymous";
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(request);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(json));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
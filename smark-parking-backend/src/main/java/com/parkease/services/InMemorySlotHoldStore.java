@@ -0,0 +1,61 @@
+package com.parkease.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import com.parkease.beans.SlotHold;
+
+// Single-node store for local development and tests; holds die with the JVM.
+@Service
+@ConditionalOnProperty(name = "app.slot-hold.store", havingValue = "memory")
+public class InMemorySlotHoldStore implements SlotHoldStore {
+
+    private final Map<Long, SlotHold> holds = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean tryHold(SlotHold hold, long now) {
+        SlotHold current = holds.compute(hold.getSlotId(),
+                (id, existing) -> existing == null || existing.isExpired(now) ? hold : existing);
+        return current == hold;
+    }
+
+    @Override
+    public Optional<SlotHold> findActive(long slotId, long now) {
+        SlotHold hold = holds.get(slotId);
+        return hold == null || hold.isExpired(now) ? Optional.empty() : Optional.of(hold);
+    }
+
+    @Override
+    public List<SlotHold> findAllActive(long now) {
+        return holds.values().stream().filter(h -> !h.isExpired(now)).toList();
+    }
+
+    @Override
+    public Optional<SlotHold> removeIfHeldBy(long slotId, long userId) {
+        SlotHold hold = holds.get(slotId);
+        if (hold != null && hold.getUserId() == userId && holds.remove(slotId, hold)) {
+            return Optional.of(hold);
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public List<SlotHold> purgeExpired(long now, int batchSize) {
+        List<SlotHold> purged = new ArrayList<>();
+        for (SlotHold hold : holds.values()) {
+            if (purged.size() >= batchSize) {
+                break;
+            }
+            if (hold.isExpired(now) && holds.remove(hold.getSlotId(), hold)) {
+                purged.add(hold);
+            }
+        }
+        return purged;
+    }
+}
@@ -0,0 +1,98 @@
+package com.parkease.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+
+import com.parkease.beans.SlotHold;
+
+// Default store: the slot_hold table (see SlotHold) is shared by every node and
+// survives restarts. The primary key on slot_id is what makes tryHold atomic.
+@Service
+@ConditionalOnProperty(name = "app.slot-hold.store", havingValue = "jdbc", matchIfMissing = true)
+public class JdbcSlotHoldStore implements SlotHoldStore {
+
+    private static final String COLUMNS = "slot_id, parking_space_id, user_id, user_name, created_at, expires_at";
+
+    private static final RowMapper<SlotHold> ROW_MAPPER = (rs, rowNum) -> new SlotHold(
+            rs.getLong("slot_id"),
+            rs.getLong("parking_space_id"),
+            rs.getLong("user_id"),
+            rs.getString("user_name"),
+            rs.getLong("created_at"),
+            rs.getLong("expires_at"));
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public boolean tryHold(SlotHold hold, long now) {
+        // Clear a lapsed hold the sweeper has not reached yet; a live one stays
+        // and makes the insert below fail on the primary key
+        jdbcTemplate.update("DELETE FROM slot_hold WHERE slot_id = ? AND expires_at <= ?", hold.getSlotId(), now);
+        try {
+            jdbcTemplate.update("INSERT INTO slot_hold (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?)",
+                    hold.getSlotId(), hold.getParkingSpaceId(), hold.getUserId(), hold.getUserName(),
+                    hold.getCreatedAt(), hold.getExpiresAt());
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public Optional<SlotHold> findActive(long slotId, long now) {
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM slot_hold WHERE slot_id = ? AND expires_at > ?",
+                ROW_MAPPER, slotId, now).stream().findFirst();
+    }
+
+    @Override
+    public List<SlotHold> findAllActive(long now) {
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM slot_hold WHERE expires_at > ?", ROW_MAPPER, now);
+    }
+
+    @Override
+    public Optional<SlotHold> removeIfHeldBy(long slotId, long userId) {
+        Optional<SlotHold> hold = jdbcTemplate.query(
+                "SELECT " + COLUMNS + " FROM slot_hold WHERE slot_id = ? AND user_id = ?",
+                ROW_MAPPER, slotId, userId).stream().findFirst();
+        // Match on created_at too so a hold placed in between is left alone
+        if (hold.isPresent() && jdbcTemplate.update(
+                "DELETE FROM slot_hold WHERE slot_id = ? AND user_id = ? AND created_at = ?",
+                slotId, userId, hold.get().getCreatedAt()) == 0) {
+            return Optional.empty();
+        }
+        return hold;
+    }
+
+    @Override
+    public List<SlotHold> purgeExpired(long now, int batchSize) {
+        List<SlotHold> expired = jdbcTemplate.query(
+                "SELECT " + COLUMNS + " FROM slot_hold WHERE expires_at <= ? ORDER BY expires_at LIMIT ?",
+                ROW_MAPPER, now, batchSize);
+        if (expired.isEmpty()) {
+            return expired;
+        }
+
+        List<Object[]> args = expired.stream()
+                .map(h -> new Object[] { h.getSlotId(), h.getExpiresAt() })
+                .toList();
+        int[] counts = jdbcTemplate.batchUpdate("DELETE FROM slot_hold WHERE slot_id = ? AND expires_at = ?", args);
+
+        // A zero count means another node's sweep (or a new hold) got there first
+        List<SlotHold> purged = new ArrayList<>(expired.size());
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] != 0) {
+                purged.add(expired.get(i));
+            }
+        }
+        return purged;
+    }
+}
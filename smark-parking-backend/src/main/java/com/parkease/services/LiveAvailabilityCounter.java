@@ -0,0 +1,58 @@
+package com.parkease.services;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.parkease.dao.ParkingSlotRepository;
+
+// Free-slot count per lot, kept in memory so ranking and broadcasts do not
+// count rows on every request. ParkingSlotAvailabilityListener marks a lot
+// stale after a slot write commits; the next read recounts just that lot.
+@Service
+public class LiveAvailabilityCounter {
+
+    @Autowired
+    private ParkingSlotRepository parkingSlotRepository;
+
+    private final Map<Long, Integer> freeSlots = new ConcurrentHashMap<>();
+    private final Set<Long> stale = ConcurrentHashMap.newKeySet();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        for (Object[] row : parkingSlotRepository.countAvailableByParkingSpace()) {
+            freeSlots.put((Long) row[0], ((Long) row[1]).intValue());
+        }
+    }
+
+    public int getFreeSlots(long parkingSpaceId) {
+        // Remove the mark before counting so a write landing mid-count marks it again
+        if (stale.remove(parkingSpaceId) || !freeSlots.containsKey(parkingSpaceId)) {
+            int count = (int) parkingSlotRepository.countByParkingSpaceIdAndIsAvailableTrue(parkingSpaceId);
+            freeSlots.put(parkingSpaceId, count);
+            return count;
+        }
+        return freeSlots.get(parkingSpaceId);
+    }
+
+    public void markStale(long parkingSpaceId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Counting before commit would read the old rows
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    stale.add(parkingSpaceId);
+                }
+            });
+        } else {
+            stale.add(parkingSpaceId);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.parkease.services;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import com.parkease.dtos.NominatimResponse;
+
+@Service
+@ConditionalOnProperty(name = "app.geocoding.provider", havingValue = "nominatim", matchIfMissing = true)
+public class NominatimGeocodingProvider implements GeocodingProvider {
+
+    private final RestTemplate restTemplate;
+    private final String nominatimUrl;
+    private final String userAgent;
+
+    public NominatimGeocodingProvider(
+            @Value("${app.geocoding.nominatim-url:https://nominatim.openstreetmap.org}") String nominatimUrl,
+            // Nominatim's usage policy requires an identifying User-Agent
+            @Value("${app.geocoding.user-agent:ParkEase/1.0}") String userAgent,
+            @Value("${app.geocoding.connect-timeout-ms:2000}") long connectTimeoutMs,
+            @Value("${app.geocoding.read-timeout-ms:5000}") long readTimeoutMs) {
+        this.nominatimUrl = nominatimUrl;
+        this.userAgent = userAgent;
+        // One shared JDK client keeps connections to the provider alive between lookups
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+        this.restTemplate = new RestTemplate(requestFactory);
+    }
+
+    @Override
+    public Optional<double[]> lookup(String address) {
+        String url = UriComponentsBuilder.fromUriString(nominatimUrl + "/search")
+                .queryParam("format", "json")
+                .queryParam("limit", 1)
+                .queryParam("q", address)
+                .encode()
+                .toUriString();
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.USER_AGENT, userAgent);
+        NominatimResponse[] response = restTemplate.exchange(url, HttpMethod.GET,
+                new HttpEntity<>(headers), NominatimResponse[].class).getBody();
+        if (response != null && response.length > 0) {
+            return Optional.of(new double[] {
+                    Double.parseDouble(response[0].lat), Double.parseDouble(response[0].lon) });
+        }
+        return Optional.empty();
+    }
+}
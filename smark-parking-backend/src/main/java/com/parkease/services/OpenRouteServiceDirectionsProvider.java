@@ -0,0 +1,46 @@
+package com.parkease.services;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.Locale;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+
+// Needs an API key (ORS_API_KEY); without one the stub provider stands in
+@Service
+@ConditionalOnExpression("'${app.directions.provider:ors}' == 'ors' and !'${app.directions.ors-api-key:}'.isEmpty()")
+public class OpenRouteServiceDirectionsProvider implements DirectionsProvider {
+
+    private final RestTemplate restTemplate;
+    private final String baseUrl;
+    private final String apiKey;
+
+    public OpenRouteServiceDirectionsProvider(
+            @Value("${app.directions.ors-url:https://api.openrouteservice.org}") String baseUrl,
+            @Value("${app.directions.ors-api-key:}") String apiKey,
+            @Value("${app.directions.connect-timeout-ms:2000}") long connectTimeoutMs,
+            @Value("${app.directions.read-timeout-ms:5000}") long readTimeoutMs) {
+        this.baseUrl = baseUrl;
+        this.apiKey = apiKey;
+        // The JDK client keeps connections to openrouteservice alive across requests
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+        this.restTemplate = new RestTemplate(requestFactory);
+    }
+
+    @Override
+    public String route(double startLat, double startLng, double endLat, double endLng) {
+        String url = String.format(Locale.ROOT,
+            "%s/v2/directions/driving-car?api_key=%s&start=%f,%f&end=%f,%f",
+            baseUrl, apiKey, startLng, startLat, endLng, endLat
+        );
+        return restTemplate.getForObject(url, String.class);
+    }
+}
@@ -1,6 +1,7 @@
 package com.parkease.services;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
@@ -17,6 +18,10 @@ public class OtpService {
     @Autowired
     private JavaMailSender mailSender;
 
+    @Autowired
+    @Qualifier("smtpGuard")
+    private DependencyGuard smtpGuard;
+
     private String generatedOtp;
 
     public String generateOtp() {
@@ -53,7 +58,10 @@ public class OtpService {
         helper.setSubject(subject);
         helper.setText(htmlContent, true); // true for HTML
 
-        mailSender.send(message);
+        smtpGuard.execute(() -> {
+            mailSender.send(message);
+            return null;
+        });
     }
     public boolean validateOtp(String otp) {
         return otp.equals(generatedOtp);
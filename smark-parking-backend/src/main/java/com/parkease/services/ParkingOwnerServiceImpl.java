@@ -8,6 +8,8 @@ import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.mail.MailException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -24,6 +26,7 @@ import com.parkease.dao.ParkingUserRepo;
 import com.parkease.dtos.NominatimResponse;
 import com.parkease.dtos.ParkingSpaceDto;
 import com.parkease.dtos.Role;
+import com.parkease.exceptions.DependencyUnavailableException;
 
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
@@ -42,6 +45,13 @@ public class ParkingOwnerServiceImpl implements ParkingOwnerService{
 	@Autowired
     private JavaMailSender mailSender;
 
+	@Autowired
+	@Qualifier("smtpGuard")
+	private DependencyGuard smtpGuard;
+
+	@Autowired
+	private GeocodingService geocodingService;
+
 	@Override
 	public ParkingOwner createParkignOwner(ParkingOwner parkingOwner) {
 	    // First, save the ParkingOwner
@@ -56,13 +66,14 @@ public class ParkingOwnerServiceImpl implements ParkingOwnerService{
 	    ParkingSpace parkingSpace = savedOwner.getParkingSpaces().get(0);
 	    parkingSpace.setParkingowner(savedOwner);
 	    parkingOwner.setUsername(parkingOwner.getEmail());
+	    geocodingService.geocode(parkingSpace);
 	
 	    parkingSpaceRepo.save(parkingSpace);
         try {
 			sendApprovalPendingEmail(savedOwner);
-		} catch (MessagingException e) {
-			// TODO Auto-generated catch block
-			e.printStackTrace();
+		} catch (MessagingException | MailException | DependencyUnavailableException e) {
+			// The registration stands when mail is down
+			System.err.println("Could not send approval pending email to " + savedOwner.getEmail() + ": " + e.getMessage());
 		}
 	    return savedOwner;
 	}
@@ -109,9 +120,8 @@ public class ParkingOwnerServiceImpl implements ParkingOwnerService{
 	        parkingOwnerRepo.save(owner); // Save the updated owner along with changes
 	        try {
 				sendApprovalEmail(owner.getEmail(),owner.getFullname());
-			} catch (MessagingException e) {
-				// TODO Auto-generated catch block
-				e.printStackTrace();
+			} catch (MessagingException | MailException | DependencyUnavailableException e) {
+				System.err.println("Could not send approval email to " + owner.getEmail() + ": " + e.getMessage());
 			}
 	        return true;
 	    }
@@ -144,7 +154,7 @@ public class ParkingOwnerServiceImpl implements ParkingOwnerService{
 	        helper.setSubject(subject);
 	        helper.setText(body, true);  // Set to true to send HTML email
 
-	        mailSender.send(message);
+	        sendGuarded(message);
 	    }
 	@Override
 	public boolean rejectOwnerRequest(long id) {
@@ -248,7 +258,14 @@ public class ParkingOwnerServiceImpl implements ParkingOwnerService{
 	        helper.setSubject(subject);
 	        helper.setText(htmlContent, true); // true for HTML
 
-	        mailSender.send(message);
+	        sendGuarded(message);
+	    }
+
+	    private void sendGuarded(MimeMessage message) {
+	        smtpGuard.execute(() -> {
+	            mailSender.send(message);
+	            return null;
+	        });
 	    }
 	   
 
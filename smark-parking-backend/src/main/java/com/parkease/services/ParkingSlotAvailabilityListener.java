@@ -0,0 +1,30 @@
+package com.parkease.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import com.parkease.beans.ParkingSlot;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+// JPA callbacks for ParkingSlot that keep LiveAvailabilityCounter current
+@Component
+public class ParkingSlotAvailabilityListener {
+
+    // Lazy: the listener is created while the EntityManagerFactory is still being built
+    @Autowired
+    @Lazy
+    private LiveAvailabilityCounter availabilityCounter;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(ParkingSlot slot) {
+        if (slot.getParkingSpace() != null) {
+            availabilityCounter.markStale(slot.getParkingSpace().getId());
+        }
+    }
+}
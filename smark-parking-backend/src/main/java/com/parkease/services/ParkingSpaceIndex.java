@@ -0,0 +1,98 @@
+package com.parkease.services;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.parkease.beans.ParkingSpace;
+import com.parkease.dao.ParkingSpaceRepo;
+import com.parkease.geo.GridSpatialIndex;
+import com.parkease.geo.GridSpatialIndex.Neighbor;
+import com.parkease.geo.ProximityGraph;
+
+// In-memory spatial index of geocoded lots, plus each lot's nearest
+// neighbours for overflow redirection. Loaded once at startup and kept
+// current by ParkingSpaceIndexListener whenever a lot row is written.
+@Service
+public class ParkingSpaceIndex {
+
+    @Autowired
+    private ParkingSpaceRepo parkingSpaceRepo;
+
+    private final GridSpatialIndex index;
+    private final ProximityGraph proximityGraph;
+    // Kept next to the coordinates so price ranking needs no row loads
+    private final Map<Long, Double> pricing = new ConcurrentHashMap<>();
+
+    // 0.02 degrees is roughly 2 km, so a 5 km search reads about 7x7 cells
+    public ParkingSpaceIndex(@Value("${app.geo.index-cell-degrees:0.02}") double cellDegrees,
+            @Value("${app.geo.proximity-neighbours:8}") int proximityNeighbours,
+            @Value("${app.geo.proximity-radius-km:10}") double proximityRadiusKm) {
+        this.index = new GridSpatialIndex(cellDegrees);
+        this.proximityGraph = new ProximityGraph(index, proximityNeighbours, proximityRadiusKm);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        index.clear();
+        pricing.clear();
+        for (ParkingSpace space : parkingSpaceRepo.findByLatitudeIsNotNullAndLongitudeIsNotNull()) {
+            index.put(space.getId(), space.getLatitude(), space.getLongitude());
+            pricing.put(space.getId(), space.getPricingPerHour());
+        }
+        proximityGraph.rebuild();
+        System.out.println("Parking space index loaded with " + index.size() + " lots");
+    }
+
+    public void update(ParkingSpace space) {
+        if (space.getLatitude() != null && space.getLongitude() != null) {
+            double[] previous = index.position(space.getId());
+            pricing.put(space.getId(), space.getPricingPerHour());
+            // Most saves are slot or price changes; only a move touches the graph
+            if (previous == null || previous[0] != space.getLatitude() || previous[1] != space.getLongitude()) {
+                index.put(space.getId(), space.getLatitude(), space.getLongitude());
+                proximityGraph.onPut(space.getId());
+            }
+        } else {
+            remove(space.getId());
+        }
+    }
+
+    public void remove(long spaceId) {
+        index.remove(spaceId);
+        pricing.remove(spaceId);
+        proximityGraph.onRemove(spaceId);
+    }
+
+    // Closest lots to a lot, nearest first, within app.geo.proximity-radius-km
+    public List<Neighbor> neighbours(long spaceId) {
+        return proximityGraph.neighbours(spaceId);
+    }
+
+    public void forEachWithinRadius(double lat, double lon, double radiusKm, Consumer<Neighbor> action) {
+        index.forEachWithinRadius(lat, lon, radiusKm, action);
+    }
+
+    public double getPricingPerHour(long spaceId) {
+        return pricing.getOrDefault(spaceId, 0.0);
+    }
+
+    public List<Neighbor> withinRadius(double lat, double lon, double radiusKm) {
+        return index.withinRadius(lat, lon, radiusKm);
+    }
+
+    public List<Neighbor> nearest(double lat, double lon, int k, double maxRadiusKm) {
+        return index.nearest(lat, lon, k, maxRadiusKm);
+    }
+
+    public int size() {
+        return index.size();
+    }
+}
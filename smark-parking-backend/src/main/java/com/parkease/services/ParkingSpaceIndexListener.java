@@ -0,0 +1,68 @@
+package com.parkease.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.parkease.beans.ParkingSpace;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+// JPA callbacks for ParkingSpace, so every save path keeps the spatial and
+// text indexes and the price table current without each caller having to
+// remember them. The callbacks fire at flush, so inside a transaction the
+// indexes are only touched once it commits; a rollback leaves them as they were.
+// Hibernate obtains this listener from the Spring context.
+@Component
+public class ParkingSpaceIndexListener {
+
+    // Lazy: the listener is created while the EntityManagerFactory is still being built
+    @Autowired
+    @Lazy
+    private ParkingSpaceIndex parkingSpaceIndex;
+
+    @Autowired
+    @Lazy
+    private ParkingSpaceSearchIndex searchIndex;
+
+    @Autowired
+    @Lazy
+    private PricingEngine pricingEngine;
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(ParkingSpace space) {
+        afterCommit(() -> {
+            parkingSpaceIndex.update(space);
+            searchIndex.update(space);
+            pricingEngine.update(space);
+        });
+    }
+
+    @PostRemove
+    public void onRemove(ParkingSpace space) {
+        long id = space.getId();
+        afterCommit(() -> {
+            parkingSpaceIndex.remove(id);
+            searchIndex.remove(id);
+            pricingEngine.remove(id);
+        });
+    }
+
+    private static void afterCommit(Runnable update) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    update.run();
+                }
+            });
+        } else {
+            update.run();
+        }
+    }
+}
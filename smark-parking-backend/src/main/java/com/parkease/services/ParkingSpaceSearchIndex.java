@@ -0,0 +1,88 @@
+package com.parkease.services;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.parkease.beans.ParkingSpace;
+import com.parkease.dao.ParkingSpaceRepo;
+import com.parkease.dtos.SearchSuggestion;
+import com.parkease.search.TrigramIndex;
+import com.parkease.search.TrigramIndex.Match;
+
+// Text search over lot names and addresses. Loaded at startup and kept current
+// by ParkingSpaceIndexListener, so the search box never hits the database.
+@Service
+public class ParkingSpaceSearchIndex {
+
+    private record Label(String lotName, String address, String addressLower) {
+    }
+
+    @Autowired
+    private ParkingSpaceRepo parkingSpaceRepo;
+
+    private final TrigramIndex index = new TrigramIndex();
+    private final Map<Long, Label> labels = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        index.clear();
+        labels.clear();
+        for (ParkingSpace space : parkingSpaceRepo.findAll()) {
+            update(space);
+        }
+        System.out.println("Parking space search index loaded with " + index.size() + " lots");
+    }
+
+    public void update(ParkingSpace space) {
+        String address = space.getAddress();
+        labels.put(space.getId(), new Label(space.getLotName(), address,
+                address != null ? address.toLowerCase(Locale.ROOT) : ""));
+        index.put(space.getId(), space.getLotName(), space.getAddress());
+    }
+
+    public void remove(long spaceId) {
+        index.remove(spaceId);
+        labels.remove(spaceId);
+    }
+
+    public List<Long> searchIds(String query, int limit) {
+        return index.search(query, limit).stream().map(Match::id).toList();
+    }
+
+    // Exactly the lots the old address LIKE '%query%' returned, by id. The
+    // trigram index narrows them down and the address confirms each one, so
+    // fuzzy matches stay on /search; only a query without a three-letter word
+    // has to check every address.
+    public List<Long> addressContainingIds(String query) {
+        String needle = query == null ? "" : query.trim().toLowerCase(Locale.ROOT);
+        if (needle.isEmpty()) {
+            return List.of();
+        }
+        Set<Long> candidates = index.candidates(needle);
+        return (candidates != null ? candidates : labels.keySet()).stream()
+                .filter(id -> {
+                    Label label = labels.get(id);
+                    return label != null && label.addressLower().contains(needle);
+                })
+                .sorted()
+                .toList();
+    }
+
+    public List<SearchSuggestion> suggest(String query, int limit) {
+        return index.search(query, limit).stream()
+                .filter(m -> labels.containsKey(m.id()))
+                .map(m -> {
+                    Label label = labels.get(m.id());
+                    return new SearchSuggestion(m.id(), label.lotName(), label.address(), m.score());
+                })
+                .toList();
+    }
+}
@@ -7,7 +7,10 @@ import java.util.List;
 import org.springframework.http.ResponseEntity;
 
 import com.parkease.beans.ParkingSpace;
+import com.parkease.dtos.ParkingSlotSummary;
 import com.parkease.dtos.ParkingSpaceDto;
+import com.parkease.dtos.ParkingSpaceSummary;
+import com.parkease.enums.NearbySort;
 
 public interface ParkingSpaceService {
 	public List<ParkingSpace> getByAddress(String location);
@@ -25,11 +28,29 @@ public interface ParkingSpaceService {
 	public List<ParkingSpaceDto> findNearbyParking(double lat, double lon);
 
 
+	public List<ParkingSpaceDto> findNearbyParking(double lat, double lon, double radiusKm, int limit, NearbySort sort);
+
+
 	public List<ParkingSpace> getAllParkingSpaces();
 
+
+	public List<ParkingSpaceSummary> getSummariesByAddress(String location);
+
+
+	public List<ParkingSpaceSummary> getAllSummaries();
+
+
+	public List<ParkingSpaceSummary> findNearbySummaries(double lat, double lon, double radiusKm, int limit, NearbySort sort);
+
+
+	public List<ParkingSlotSummary> getSlots(long spaceId);
+
+
+	public List<ParkingSpaceSummary> findAlternatives(long spaceId, int limit);
+
 	public ParkingSpace updateParkingSpace(Long id, Long ownerId, ParkingSpace updatedDetails) ;
 
 
 	public ParkingSpace updatePricingAndTime(String lotName, LocalTime availableFrom, LocalTime availableTo,
-			Double pricingPerHour);
+			Double pricingPerHour, Double dailyCap, Double overnightRate);
 }
\ No newline at end of file
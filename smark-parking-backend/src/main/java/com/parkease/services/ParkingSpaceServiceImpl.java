@@ -2,22 +2,36 @@ package com.parkease.services;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
 import java.util.Random;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
 import com.parkease.beans.ParkingOwner;
 import com.parkease.beans.ParkingSlot;
 import com.parkease.beans.ParkingSpace;
 import com.parkease.dao.ParkingOwnerRepo;
+import com.parkease.dao.ParkingSlotRepository;
 import com.parkease.dao.ParkingSpaceRepo;
-import com.parkease.dtos.NominatimResponse;
+import com.parkease.dtos.ParkingSlotSummary;
 import com.parkease.dtos.ParkingSpaceDto;
+import com.parkease.dtos.ParkingSpaceSummary;
+import com.parkease.enums.NearbySort;
+import com.parkease.exceptions.LotFullException;
+import com.parkease.exceptions.ResourceNotFoundException;
+import com.parkease.exceptions.SlotHeldException;
+import com.parkease.geo.GridSpatialIndex.Neighbor;
 @Service
 public class ParkingSpaceServiceImpl implements ParkingSpaceService{
 	
@@ -25,12 +39,31 @@ public class ParkingSpaceServiceImpl implements ParkingSpaceService{
 	public ParkingSpaceRepo parkingSpaceRepo;
 	@Autowired
 	public ParkingOwnerRepo parkingOwnerRepo;;
-	 private final RestTemplate restTemplate=new RestTemplate();
+	@Autowired
+	private GeocodingService geocodingService;
+	@Autowired
+	private ParkingSpaceIndex parkingSpaceIndex;
+	@Autowired
+	private LiveAvailabilityCounter availabilityCounter;
+	@Autowired
+	private ParkingSpaceSearchIndex searchIndex;
+	@Autowired
+	private ParkingSlotRepository parkingSlotRepository;
+	@Autowired
+	private SlotHoldService slotHoldService;
+	@Value("${app.geo.overflow-suggestions:3}")
+	private int overflowSuggestions;
+
+	private final Random random = new Random();
 
 	@Override
 	public List<ParkingSpace> getByAddress(String location) {
-		// TODO Auto-generated method stub
-		return parkingSpaceRepo.findByAddressContainingIgnoreCase(location);
+		// Answered from the in-memory search index instead of LIKE '%x%', with
+		// the same results; the city search pages show every match, uncapped
+		List<Long> ids = searchIndex.addressContainingIds(location);
+		Map<Long, ParkingSpace> spaces = parkingSpaceRepo.findAllById(ids).stream()
+				.collect(Collectors.toMap(ParkingSpace::getId, Function.identity()));
+		return ids.stream().filter(spaces::containsKey).map(spaces::get).collect(Collectors.toList());
 	}
 
 	
@@ -52,31 +85,33 @@ public class ParkingSpaceServiceImpl implements ParkingSpaceService{
 
 	@Override
 	public long bookRandomSlot(long spaceId) {
-		ParkingSpace space = parkingSpaceRepo.findById( spaceId).get();
-        System.out.println(space.getAddress());
-
-     List<ParkingSlot> slots=space.getParkingSlot();
-     ParkingSlot slot=null;
-     Random random = new Random();
-     while(true) {
-     int randomNumber = random.nextInt(space.getTotalSlots()) + 1; // Generates a number between 1 and 90
-     System.out.println("Random Number: " + randomNumber);
-      slot=slots.get(randomNumber);
-     if(slot.isAvailable()) {
-    	slot.setAvailable(false) ;
-    	break;
-     }
-     }
-    
-      
-     space.setParkingSlot(slots);
-     
-     parkingSpaceRepo.save(space);
-     if(slot!=null) {
-    	 return slot.getSlotId();
-     }
-     return -1;
-		
+		if (!parkingSpaceRepo.existsById(spaceId)) {
+			throw new ResourceNotFoundException("Parking space not found with id: " + spaceId);
+		}
+		// Free slots in random order. Each is claimed in the hold store first, so
+		// a slot someone is holding through checkout is skipped and a reserve
+		// arriving meanwhile is refused; the conditional update then skips a slot
+		// a concurrent booking got first. A full lot answers with nearby lots instead.
+		List<ParkingSlot> free = new ArrayList<>(parkingSlotRepository.findByParkingSpaceIdAndIsAvailableTrue(spaceId));
+		Collections.shuffle(free, random);
+		for (ParkingSlot slot : free) {
+			try {
+				if (!slotHoldService.claim(slot.getSlotId(), spaceId, SlotHoldService.RANDOM_BOOKING_HOLDER)) {
+					// Another random booking is trying this slot
+					continue;
+				}
+			} catch (SlotHeldException e) {
+				continue;
+			}
+			boolean taken = parkingSlotRepository.takeIfAvailable(slot.getSlotId()) == 1;
+			slotHoldService.completeClaim(slot.getSlotId(), SlotHoldService.RANDOM_BOOKING_HOLDER);
+			if (taken) {
+				// A bulk update skips the entity listener
+				availabilityCounter.markStale(spaceId);
+				return slot.getSlotId();
+			}
+		}
+		throw new LotFullException(spaceId, findAlternatives(spaceId, overflowSuggestions));
 	}
 
 
@@ -97,12 +132,20 @@ public class ParkingSpaceServiceImpl implements ParkingSpaceService{
 		
 	}
 	 public List<ParkingSpaceDto> findNearbyParking(double userLat, double userLon) {
-	        List<ParkingSpace> spots = parkingSpaceRepo.findAll();
+	        return findNearbyParking(userLat, userLon, 5.0, Integer.MAX_VALUE, NearbySort.DISTANCE); // within 5 km
+	    }
+
+	 public List<ParkingSpaceDto> findNearbyParking(double userLat, double userLon, double radiusKm, int limit, NearbySort sort) {
+	        List<Neighbor> ranked = rankNearby(userLat, userLon, radiusKm, limit, sort);
+
+	        // Only the lots being returned are loaded from the database
+	        Map<Long, ParkingSpace> spots = parkingSpaceRepo.findAllById(
+	                ranked.stream().map(Neighbor::id).collect(Collectors.toList()))
+	                .stream().collect(Collectors.toMap(ParkingSpace::getId, Function.identity()));
 
-	        return spots.stream().map(spot -> {
-	            double[] coords = getCoordinates(spot.getAddress());
-	            double distance = haversine(userLat, userLon, coords[0], coords[1]);
-	            ParkingSpaceDto dto= new ParkingSpaceDto(spot.getAddress(), coords[0], coords[1], distance);
+	        return ranked.stream().filter(n -> spots.containsKey(n.id())).map(n -> {
+	            ParkingSpace spot = spots.get(n.id());
+	            ParkingSpaceDto dto= new ParkingSpaceDto(spot.getAddress(), spot.getLatitude(), spot.getLongitude(), n.distanceKm());
 	            
 	            dto.setLotName(spot.getLotName());
 	            dto.setNumberOfFloors(spot.getNumberOfFloors());
@@ -110,30 +153,65 @@ public class ParkingSpaceServiceImpl implements ParkingSpaceService{
 	            dto.setPricingPerHour(spot.getPricingPerHour());
 	            dto.setSpaceIdd(spot.getId());
 	            dto.setTotalSlots(spot.getTotalSlots());
+	            dto.setFreeSlots(availabilityCounter.getFreeSlots(spot.getId()));
 	            return dto;
-	        }).filter(spot -> spot.getDistance() < 5.0) // Filter spots within 5 km
-	          .sorted((a, b) -> Double.compare(a.getDistance(), b.getDistance()))
-	          .collect(Collectors.toList());
+	        }).collect(Collectors.toList());
+	    }
+
+	 public List<ParkingSpaceSummary> findNearbySummaries(double userLat, double userLon, double radiusKm, int limit, NearbySort sort) {
+	        List<Neighbor> ranked = rankNearby(userLat, userLon, radiusKm, limit, sort);
+	        Map<Long, ParkingSpaceSummary> summaries = summariesById(ranked.stream().map(Neighbor::id).collect(Collectors.toList()));
+	        List<ParkingSpaceSummary> result = new ArrayList<>(ranked.size());
+	        for (Neighbor n : ranked) {
+	            ParkingSpaceSummary summary = summaries.get(n.id());
+	            if (summary != null) {
+	                summary.setDistanceKm(n.distanceKm());
+	                result.add(summary);
+	            }
+	        }
+	        return result;
 	    }
 
-	    private double[] getCoordinates(String address) {
-	        String url = "https://nominatim.openstreetmap.org/search?format=json&q=" + address.replace(" ", "+");
-	        NominatimResponse[] response = restTemplate.getForObject(url, NominatimResponse[].class);
-	        if (response != null && response.length > 0) {
-	            return new double[]{Double.parseDouble(response[0].lat), Double.parseDouble(response[0].lon)};
+	 private List<Neighbor> rankNearby(double userLat, double userLon, double radiusKm, int limit, NearbySort sort) {
+	        if (sort == NearbySort.DISTANCE) {
+	            // The index scans outward ring by ring and stops at the k-th lot
+	            return parkingSpaceIndex.nearest(userLat, userLon, limit, radiusKm);
 	        }
-	        return new double[]{0.0, 0.0};
+	        return topK(userLat, userLon, radiusKm, limit, sort);
+	    }
+
+	 // A candidate with its ranking score read once, so the heap and the final
+	 // sort compare stable values even while prices or free slots change
+	 private record Scored(Neighbor neighbor, double score) {
+	    }
+
+	 // Best-first ordering on the score; ties go to the closer lot
+	 private static final Comparator<Scored> BY_SCORE = Comparator.comparingDouble(Scored::score)
+	            .thenComparingDouble(s -> s.neighbor().distanceKm());
+
+	 // Lower is better: cheapest first, or most free slots first
+	 private double score(Neighbor n, NearbySort sort) {
+	        return sort == NearbySort.PRICE
+	                ? parkingSpaceIndex.getPricingPerHour(n.id())
+	                : -availabilityCounter.getFreeSlots(n.id());
 	    }
 
-	    private double haversine(double lat1, double lon1, double lat2, double lon2) {
-	        final int R = 6371; // Radius of Earth in km
-	        double dLat = Math.toRadians(lat2 - lat1);
-	        double dLon = Math.toRadians(lon2 - lon1);
-	        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) +
-	                   Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) *
-	                   Math.sin(dLon / 2) * Math.sin(dLon / 2);
-	        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
-	        return R * c; // Distance in km
+	 // Keeps the k best candidates in a heap whose head is the worst of them,
+	 // so ranking costs O(n log k) rather than sorting every lot in range
+	 private List<Neighbor> topK(double lat, double lon, double radiusKm, int k, NearbySort sort) {
+	        PriorityQueue<Scored> heap = new PriorityQueue<>(BY_SCORE.reversed());
+	        parkingSpaceIndex.forEachWithinRadius(lat, lon, radiusKm, neighbor -> {
+	            Scored candidate = new Scored(neighbor, score(neighbor, sort));
+	            if (heap.size() < k) {
+	                heap.add(candidate);
+	            } else if (BY_SCORE.compare(candidate, heap.peek()) < 0) {
+	                heap.poll();
+	                heap.add(candidate);
+	            }
+	        });
+	        List<Scored> result = new ArrayList<>(heap);
+	        result.sort(BY_SCORE);
+	        return result.stream().map(Scored::neighbor).collect(Collectors.toList());
 	    }
 
 
@@ -144,13 +222,74 @@ public class ParkingSpaceServiceImpl implements ParkingSpaceService{
 		}
 
 
+		@Override
+		public List<ParkingSpaceSummary> getSummariesByAddress(String location) {
+			List<Long> ids = searchIndex.addressContainingIds(location);
+			Map<Long, ParkingSpaceSummary> summaries = summariesById(ids);
+			return ids.stream().filter(summaries::containsKey).map(summaries::get).collect(Collectors.toList());
+		}
+
+
+		@Override
+		public List<ParkingSpaceSummary> getAllSummaries() {
+			return parkingSpaceRepo.findAllSummaries();
+		}
+
+
+		@Override
+		public List<ParkingSlotSummary> getSlots(long spaceId) {
+			if (!parkingSpaceRepo.existsById(spaceId)) {
+				throw new ResourceNotFoundException("Parking space not found with id: " + spaceId);
+			}
+			return parkingSlotRepository.findSummariesByParkingSpaceId(spaceId);
+		}
+
+
+		// Nearest lots from the precomputed proximity graph that have a free
+		// slot right now; no spatial query runs on this path
+		@Override
+		public List<ParkingSpaceSummary> findAlternatives(long spaceId, int limit) {
+			List<Neighbor> open = new ArrayList<>(limit);
+			for (Neighbor n : parkingSpaceIndex.neighbours(spaceId)) {
+				if (open.size() >= limit) {
+					break;
+				}
+				if (availabilityCounter.getFreeSlots(n.id()) > 0) {
+					open.add(n);
+				}
+			}
+			Map<Long, ParkingSpaceSummary> summaries = summariesById(open.stream().map(Neighbor::id).collect(Collectors.toList()));
+			List<ParkingSpaceSummary> result = new ArrayList<>(open.size());
+			for (Neighbor n : open) {
+				ParkingSpaceSummary summary = summaries.get(n.id());
+				if (summary != null) {
+					summary.setDistanceKm(n.distanceKm());
+					result.add(summary);
+				}
+			}
+			return result;
+		}
+
+
+		private Map<Long, ParkingSpaceSummary> summariesById(List<Long> ids) {
+			if (ids.isEmpty()) {
+				return Map.of();
+			}
+			return parkingSpaceRepo.findSummariesByIdIn(ids).stream()
+					.collect(Collectors.toMap(ParkingSpaceSummary::getSpaceId, Function.identity()));
+		}
+
+
 		  public ParkingSpace updateParkingSpace(Long id, Long ownerId, ParkingSpace updatedDetails) {
 			  ParkingOwner owner=parkingOwnerRepo.findById(ownerId).get();
 		        ParkingSpace existing = parkingSpaceRepo.findByIdAndParkingowner(id,owner )
 		                .orElseThrow(() -> new RuntimeException("Parking space not found"));
                 existing.setLotName(updatedDetails.getLotName());
                 existing.setNumberOfFloors(updatedDetails.getNumberOfFloors());
-		        existing.setAddress(updatedDetails.getAddress());
+		        if (!Objects.equals(existing.getAddress(), updatedDetails.getAddress())) {
+		            existing.setAddress(updatedDetails.getAddress());
+		            geocodingService.geocode(existing);
+		        }
 		        existing.setTotalSlots(updatedDetails.getTotalSlots());
 		      
 
@@ -160,7 +299,7 @@ public class ParkingSpaceServiceImpl implements ParkingSpaceService{
 
 		@Override
 		public ParkingSpace updatePricingAndTime(String lotName, LocalTime availableFrom, LocalTime availableTo,
-				Double pricingPerHour) {
+				Double pricingPerHour, Double dailyCap, Double overnightRate) {
 			// TODO Auto-generated method stub
 			System.out.println(pricingPerHour);
 			ParkingSpace parkingSpace=parkingSpaceRepo.findByLotName(lotName);
@@ -169,6 +308,9 @@ public class ParkingSpaceServiceImpl implements ParkingSpaceService{
 				;
 				parkingSpace.setAvailableTo(availableTo);
 				parkingSpace.setPricingPerHour(pricingPerHour);
+				// Null leaves the lot on the app.pricing default caps
+				parkingSpace.setDailyCap(dailyCap);
+				parkingSpace.setOvernightRate(overnightRate);
 				return parkingSpaceRepo.save(parkingSpace);
 				
 			}
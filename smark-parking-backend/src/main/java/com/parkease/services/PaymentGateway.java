@@ -0,0 +1,9 @@
+package com.parkease.services;
+
+// Payment provider behind checkout. Calls block; PaymentGatewayService runs
+// them off the servlet threads.
+public interface PaymentGateway {
+
+    // Returns the provider's order JSON (id, amount, currency, ...)
+    String createOrder(long amountPaise, String currency, String receipt);
+}
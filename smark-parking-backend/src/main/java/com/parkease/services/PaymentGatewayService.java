@@ -0,0 +1,94 @@
+package com.parkease.services;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.parkease.exceptions.DependencyUnavailableException;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+// Runs gateway calls on a small bounded pool so a slow provider ties up these
+// threads instead of Tomcat's. When the queue is full the returned future fails
+// at once with RejectedExecutionException rather than piling up more waiting
+// checkouts.
+// Calls go through the razorpay guard, which also records their latency; while
+// its circuit is open orders fail at once without taking a queue slot.
+@Service
+public class PaymentGatewayService {
+
+    private final PaymentGateway gateway;
+    private final DependencyGuard guard;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMs;
+
+    public PaymentGatewayService(PaymentGateway gateway, MeterRegistry meterRegistry,
+            @Qualifier("razorpayGuard") DependencyGuard guard,
+            @Value("${app.payment.threads:16}") int threads,
+            @Value("${app.payment.queue-capacity:200}") int queueCapacity,
+            @Value("${app.payment.order-timeout-ms:15000}") long timeoutMs) {
+        this.gateway = gateway;
+        this.guard = guard;
+        this.timeoutMs = timeoutMs;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+                    Thread t = new Thread(r, "payment-gateway-" + threadNumber.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }, new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("parkease.payment.gateway.queued", executor, e -> e.getQueue().size())
+                .description("Gateway calls waiting for a thread")
+                .register(meterRegistry);
+        Gauge.builder("parkease.payment.gateway.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Gateway calls in progress")
+                .register(meterRegistry);
+    }
+
+    // Amount in rupees; the gateway works in paise
+    public CompletableFuture<String> createOrderAsync(double amount, String currency, String receipt) {
+        if (guard.getState() == DependencyGuard.State.OPEN) {
+            return CompletableFuture.failedFuture(new DependencyUnavailableException(guard.getName(), "circuit open"));
+        }
+        long amountPaise = Math.round(amount * 100);
+        CompletableFuture<String> result = new CompletableFuture<>();
+        Future<?> call;
+        try {
+            call = executor.submit(() -> {
+                try {
+                    result.complete(guard.execute(() -> gateway.createOrder(amountPaise, currency, receipt)));
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        // On timeout a queued call is dropped and a running one interrupted, so
+        // it stops holding a pool thread. A request Razorpay already received may
+        // still create the order there; it is never paid and expires at the gateway.
+        result.orTimeout(timeoutMs, TimeUnit.MILLISECONDS).whenComplete((order, e) -> {
+            if (e instanceof TimeoutException) {
+                call.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
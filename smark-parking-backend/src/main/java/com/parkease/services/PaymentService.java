@@ -8,14 +8,36 @@ import com.parkease.beans.PaymentOrder;
 import com.parkease.beans.PaymentStatus;
 import com.parkease.dao.PaymentOrderRepository;
 import com.parkease.dtos.CreateOrderRequest;
+import com.parkease.dtos.PaymentPage;
+import com.parkease.dtos.PaymentQuery;
+import com.parkease.dtos.PaymentWebhookEvent;
+import com.parkease.exceptions.InvalidPaymentSignatureException;
+import com.parkease.exceptions.PaymentMismatchException;
 
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.json.JSONObject;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
+import jakarta.transaction.Transactional;
+
 @Service
 public class PaymentService {
 
@@ -27,26 +49,224 @@ public class PaymentService {
    @Autowired
    PaymentOrderRepository orderRepository;
 
+   @Autowired
+   RevenueRollupService revenueRollupService;
+
+   private static final LocalDate LAST_DATE = LocalDate.of(9999, 12, 31);
+
+   private static final String HMAC_SHA256 = "HmacSHA256";
+
+   @Value("${razorpay.key.secret}")
+   private String keySecret;
+
+   @Value("${app.payment.query.max-page-size:500}")
+   private int maxPageSize;
+
+   @Value("${app.payment.query.legacy-limit:1000}")
+   private int legacyLimit;
+
+	// The row create-order wrote for the gateway order; /store and the webhooks
+	// only complete it, so the amount is always the one the order was created for
+	public void recordOrder(String orderJson, String customerEmail) {
+		JSONObject order = new JSONObject(orderJson);
+		PaymentOrder payment = new PaymentOrder();
+		payment.setOrderId(order.getString("id"));
+		payment.setAmount(order.getLong("amount") / 100.0);
+		payment.setCurrency(order.optString("currency", "INR"));
+		payment.setCustomerEmail(customerEmail);
+		payment.setStatus(String.valueOf(PaymentStatus.PENDING));
+		payment.setDate(LocalDate.now());
+		orderRepository.save(payment);
+	}
+
+	// The checkout result of an order created here: the gateway's signature is
+	// checked, and the stored order keeps its amount whatever the body says
 	 public void savePayment(PaymentOrder payment) {
-		  LocalDate createdDate = LocalDate.now();
-		  System.out.println(createdDate+"==================================================================================================================");
-		  payment.setDate(createdDate);
-		  payment.setStatus(String.valueOf(PaymentStatus.COMPLETED));
-	        orderRepository.save(payment);
+		  verifyCheckoutSignature(payment.getOrderId(), payment.getPaymentId(), payment.getSignature());
+		  PaymentOrder stored = orderRepository.findFirstByOrderId(payment.getOrderId())
+				  .orElseThrow(() -> new PaymentMismatchException("Unknown order " + payment.getOrderId()));
+		  complete(stored, payment);
 	    }
 
+	// razorpay_signature is the hex HMAC-SHA256 of "orderId|paymentId" with the key secret
+	private void verifyCheckoutSignature(String orderId, String paymentId, String signature) {
+		if (orderId == null || paymentId == null || signature == null) {
+			throw new InvalidPaymentSignatureException("orderId, paymentId and signature are required");
+		}
+		byte[] expected;
+		try {
+			Mac mac = Mac.getInstance(HMAC_SHA256);
+			mac.init(new SecretKeySpec(keySecret.getBytes(StandardCharsets.UTF_8), HMAC_SHA256));
+			expected = HexFormat.of().formatHex(mac.doFinal((orderId + "|" + paymentId).getBytes(StandardCharsets.UTF_8)))
+					.getBytes(StandardCharsets.UTF_8);
+		} catch (NoSuchAlgorithmException | InvalidKeyException e) {
+			throw new IllegalStateException(e);
+		}
+		if (!MessageDigest.isEqual(expected, signature.trim().getBytes(StandardCharsets.UTF_8))) {
+			throw new InvalidPaymentSignatureException("Invalid payment signature for order " + orderId);
+		}
+	}
+
+	// Fills in what only the checkout knows on the order's row; the webhook may
+	// already have marked it captured
+	private void complete(PaymentOrder existing, PaymentOrder payment) {
+		if (existing.getLotName() != null) {
+			return;
+		}
+		existing.setPaymentId(payment.getPaymentId());
+		existing.setSignature(payment.getSignature());
+		existing.setCustomerName(payment.getCustomerName());
+		existing.setCustomerEmail(payment.getCustomerEmail());
+		existing.setLotName(payment.getLotName());
+		existing.setStatus(String.valueOf(PaymentStatus.COMPLETED));
+		// Resolved again from the new email and lot name by the next reconciliation
+		existing.setUserId(null);
+		existing.setParkingSpaceId(null);
+		orderRepository.save(existing);
+		revenueRollupService.recordPayment(existing);
+	}
+
+	// A booking pays with the order it names: that order's payment must be
+	// captured, and for the amount the booking is charged
+	public void checkCaptured(String orderId, double amount) {
+		if (orderId == null || orderId.isBlank()) {
+			throw new PaymentMismatchException("orderId of the paid order is required");
+		}
+		PaymentOrder payment = orderRepository.findFirstByOrderId(orderId)
+				.orElseThrow(() -> new PaymentMismatchException("No payment stored for order " + orderId));
+		if (statusRank(payment.getStatus()) != 2) {
+			throw new PaymentMismatchException("Payment for order " + orderId + " is not captured");
+		}
+		if (Math.abs(payment.getAmount() - amount) >= 0.005) {
+			throw new PaymentMismatchException("Booking amount " + amount + " does not match the "
+					+ payment.getAmount() + " captured for order " + orderId);
+		}
+	}
+
+	// Upserts a batch of webhook events (at most one per order) by orderId in
+	// one transaction: one lookup for the whole batch, then inserts and updates.
+	// Orders created here already have a row; one created elsewhere is inserted,
+	// and an insert racing another for the same order violates uk_payment_order_id
+	// and fails the batch; PaymentWebhookService then retries order by order.
+	@Transactional
+	public void applyWebhookEvents(List<PaymentWebhookEvent> events) {
+		Map<String, PaymentOrder> existing = new HashMap<>();
+		for (PaymentOrder order : orderRepository.findByOrderIdIn(events.stream().map(PaymentWebhookEvent::getOrderId).toList())) {
+			existing.putIfAbsent(order.getOrderId(), order);
+		}
+		List<PaymentOrder> changed = new ArrayList<>();
+		for (PaymentWebhookEvent event : events) {
+			PaymentOrder order = existing.get(event.getOrderId());
+			if (order == null) {
+				order = new PaymentOrder();
+				order.setOrderId(event.getOrderId());
+				order.setCurrency(event.getCurrency());
+				order.setCustomerEmail(event.getEmail());
+				order.setDate(LocalDate.now());
+			} else if (statusRank(event.getStatus()) < statusRank(order.getStatus())) {
+				// Replays and late deliveries never move a payment backwards
+				continue;
+			}
+			order.setStatus(event.getStatus());
+			if (event.getPaymentId() != null) {
+				order.setPaymentId(event.getPaymentId());
+			}
+			if (event.getAmount() > 0) {
+				order.setAmount(event.getAmount());
+			}
+			changed.add(order);
+		}
+		orderRepository.saveAll(changed);
+	}
+
+	// Of two events for one order, the one that should decide its status
+	public static PaymentWebhookEvent stronger(PaymentWebhookEvent a, PaymentWebhookEvent b) {
+		int byRank = Integer.compare(statusRank(b.getStatus()), statusRank(a.getStatus()));
+		if (byRank != 0) {
+			return byRank > 0 ? b : a;
+		}
+		return b.getCreatedAt() >= a.getCreatedAt() ? b : a;
+	}
+
+	// An order may see failed attempts before a successful one, so COMPLETED
+	// outranks FAILED whatever the delivery order
+	private static int statusRank(String status) {
+		if (status == null) {
+			return -1;
+		}
+		if (PaymentStatus.COMPLETED.name().equalsIgnoreCase(status) || "SUCCESS".equalsIgnoreCase(status)) {
+			return 2;
+		}
+		if (PaymentStatus.FAILED.name().equalsIgnoreCase(status)) {
+			return 1;
+		}
+		return 0;
+	}
+
+	// The unbounded list endpoints now return the newest legacy-limit rows;
+	// findPayments pages through the rest
+
+	public List<PaymentOrder> getAllPayments() {
+		return page(new PaymentQuery(), null, legacyLimit).getItems();
+	}
+
 	public List<PaymentOrder> getPayments(String lotName) {
-		 
-		List<PaymentOrder> payments= orderRepository.findByLotName(lotName);
-		return payments;
-		
+		return page(new PaymentQuery(lotName, null, null, null), null, legacyLimit).getItems();
 	}
 
 	public List<PaymentOrder> getUserPayments(String email) {
-		
-		List<PaymentOrder> userPayments=	orderRepository.findByCustomerEmail(email);
-		// TODO Auto-generated method stub
-		return userPayments;
+		return page(new PaymentQuery(null, email, null, null), null, legacyLimit).getItems();
+	}
+
+	public PaymentPage findPayments(PaymentQuery query, String cursor, int limit) {
+		return page(query, cursor, Math.max(1, Math.min(limit, maxPageSize)));
+	}
+
+	// Walks every matching row a page at a time, so an export never holds
+	// more than one page or one long-running query
+	public void forEachPaymentPage(PaymentQuery query, Consumer<List<PaymentOrder>> consumer) {
+		String cursor = null;
+		do {
+			PaymentPage page = page(query, cursor, maxPageSize);
+			if (!page.getItems().isEmpty()) {
+				consumer.accept(page.getItems());
+			}
+			cursor = page.getNextCursor();
+		} while (cursor != null);
+	}
+
+	private PaymentPage page(PaymentQuery query, String cursor, int size) {
+		if (query.getLotName() != null && query.getCustomerEmail() != null) {
+			throw new IllegalArgumentException("Filter by lotName or customerEmail, not both");
+		}
+		LocalDate from = query.getFrom() != null ? query.getFrom() : LocalDate.EPOCH;
+		LocalDate beforeDate = query.getTo() != null ? query.getTo().plusDays(1) : LAST_DATE;
+		long beforeId = 0;
+		if (cursor != null && !cursor.isBlank()) {
+			int separator = cursor.indexOf('_');
+			try {
+				beforeDate = LocalDate.parse(cursor.substring(0, separator));
+				beforeId = Long.parseLong(cursor.substring(separator + 1));
+			} catch (RuntimeException e) {
+				throw new IllegalArgumentException("Invalid cursor: " + cursor);
+			}
+		}
+		// One extra row tells whether another page follows
+		Pageable limit = PageRequest.of(0, size + 1);
+		List<PaymentOrder> rows;
+		if (query.getLotName() != null) {
+			rows = orderRepository.findPageByLotName(query.getLotName(), from, beforeDate, beforeId, limit);
+		} else if (query.getCustomerEmail() != null) {
+			rows = orderRepository.findPageByCustomerEmail(query.getCustomerEmail(), from, beforeDate, beforeId, limit);
+		} else {
+			rows = orderRepository.findPage(from, beforeDate, beforeId, limit);
+		}
+		if (rows.size() <= size) {
+			return new PaymentPage(rows, null);
+		}
+		List<PaymentOrder> items = new ArrayList<>(rows.subList(0, size));
+		PaymentOrder last = items.get(size - 1);
+		return new PaymentPage(items, last.getDate() + "_" + last.getId());
 	}
     
 
@@ -0,0 +1,239 @@
+package com.parkease.services;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.parkease.beans.PaymentStatus;
+import com.parkease.dtos.PaymentWebhookEvent;
+import com.parkease.enums.WebhookIngestResult;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Gateway payment events (Razorpay webhooks). The request only verifies the
+// signature, deduplicates and enqueues, so the gateway gets its 2xx at once;
+// a scheduled drain upserts whole batches into the payment table by orderId.
+@Service
+public class PaymentWebhookService {
+
+    private static final String HMAC_SHA256 = "HmacSHA256";
+
+    // One order's events whose store failed, due again at dueAt
+    private record Retry(List<PaymentWebhookEvent> events, int attempts, long dueAt) {
+    }
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final BlockingQueue<PaymentWebhookEvent> queue;
+    // Keys of stored events. Queued events are only in pending until the
+    // drain has stored them, so a batch that fails can be redelivered.
+    private final TtlLruCache<String, Boolean> seen;
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    // The gateway already had its 2xx for these, so they are retried until
+    // stored; their keys stay pending meanwhile
+    private final Queue<Retry> retries = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger retrying = new AtomicInteger();
+    private final int queueCapacity;
+    private final SecretKeySpec signingKey;
+
+    @Value("${app.payment.webhook.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.payment.webhook.retry-initial-ms:1000}")
+    private long retryInitialMs;
+
+    @Value("${app.payment.webhook.retry-max-ms:300000}")
+    private long retryMaxMs;
+
+    public PaymentWebhookService(MeterRegistry meterRegistry,
+            @Value("${app.payment.webhook.secret:}") String secret,
+            @Value("${app.payment.webhook.queue-capacity:10000}") int queueCapacity,
+            @Value("${app.payment.webhook.dedupe-size:100000}") int dedupeSize,
+            @Value("${app.payment.webhook.dedupe-ttl-minutes:1440}") long dedupeTtlMinutes) {
+        this.signingKey = secret.isBlank() ? null
+                : new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), HMAC_SHA256);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.queueCapacity = queueCapacity;
+        this.seen = new TtlLruCache<>(dedupeSize, dedupeTtlMinutes * 60_000L);
+        Gauge.builder("parkease.payment.webhook.queue.size", queue, BlockingQueue::size)
+                .description("Payment webhook events waiting to be stored")
+                .register(meterRegistry);
+        Gauge.builder("parkease.payment.webhook.retry.size", retrying, AtomicInteger::get)
+                .description("Payment webhook events that failed to store and wait for a retry")
+                .register(meterRegistry);
+    }
+
+    // X-Razorpay-Signature is the hex HMAC-SHA256 of the raw body with the webhook secret
+    public boolean verifySignature(byte[] body, String signature) {
+        if (signingKey == null) {
+            System.err.println("Payment webhook received but app.payment.webhook.secret is not set");
+            return false;
+        }
+        if (signature == null || signature.isBlank()) {
+            return false;
+        }
+        try {
+            Mac mac = Mac.getInstance(HMAC_SHA256);
+            mac.init(signingKey);
+            byte[] expected = HexFormat.of().formatHex(mac.doFinal(body)).getBytes(StandardCharsets.UTF_8);
+            return MessageDigest.isEqual(expected, signature.trim().getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException | InvalidKeyException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public WebhookIngestResult submit(byte[] body, String eventIdHeader) throws IOException {
+        PaymentWebhookEvent event = parse(objectMapper.readTree(body), eventIdHeader);
+        if (event == null) {
+            return WebhookIngestResult.IGNORED;
+        }
+        String key = dedupeKey(event);
+        if (seen.get(key) != null || !pending.add(key)) {
+            return WebhookIngestResult.DUPLICATE;
+        }
+        // A backlog of failing events pushes back on the gateway too, so the
+        // retries can't grow without bound while the database is down
+        if (retrying.get() >= queueCapacity || !queue.offer(event)) {
+            pending.remove(key);
+            return WebhookIngestResult.REJECTED;
+        }
+        return WebhookIngestResult.ACCEPTED;
+    }
+
+    @Scheduled(fixedDelayString = "${app.payment.webhook.flush-interval-ms:1000}")
+    public void drain() {
+        retryDue(System.currentTimeMillis());
+        List<PaymentWebhookEvent> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            try {
+                paymentService.applyWebhookEvents(strongestPerOrder(batch));
+                markStored(batch);
+            } catch (Exception e) {
+                System.err.println("Failed to store " + batch.size() + " payment webhook events, retrying one by one: "
+                        + e.getMessage());
+                applyOneByOne(batch);
+            }
+            batch.clear();
+        }
+    }
+
+    // Stores each order on its own, so one bad order doesn't hold back the
+    // rest of the batch; an order that still fails is scheduled for a retry
+    private void applyOneByOne(List<PaymentWebhookEvent> batch) {
+        Map<String, List<PaymentWebhookEvent>> byOrder = new LinkedHashMap<>();
+        for (PaymentWebhookEvent event : batch) {
+            byOrder.computeIfAbsent(event.getOrderId(), k -> new ArrayList<>()).add(event);
+        }
+        for (List<PaymentWebhookEvent> events : byOrder.values()) {
+            apply(events, 0);
+        }
+    }
+
+    private void retryDue(long now) {
+        for (int i = retries.size(); i > 0; i--) {
+            Retry retry = retries.poll();
+            if (retry == null) {
+                break;
+            }
+            if (retry.dueAt() > now) {
+                retries.add(retry);
+                continue;
+            }
+            retrying.addAndGet(-retry.events().size());
+            apply(retry.events(), retry.attempts());
+        }
+    }
+
+    // Doubles the wait after each failed attempt, up to retry-max-ms
+    private void apply(List<PaymentWebhookEvent> events, int attempts) {
+        try {
+            paymentService.applyWebhookEvents(strongestPerOrder(events));
+            markStored(events);
+        } catch (Exception e) {
+            long delay = Math.min(retryMaxMs, retryInitialMs << Math.min(attempts, 20));
+            retries.add(new Retry(events, attempts + 1, System.currentTimeMillis() + delay));
+            retrying.addAndGet(events.size());
+            System.err.println("Failed to store " + events.size() + " payment webhook events for order "
+                    + events.get(0).getOrderId() + " (attempt " + (attempts + 1) + "), retrying in " + delay
+                    + " ms: " + e.getMessage());
+        }
+    }
+
+    private void markStored(List<PaymentWebhookEvent> events) {
+        for (PaymentWebhookEvent event : events) {
+            String key = dedupeKey(event);
+            seen.put(key, Boolean.TRUE);
+            pending.remove(key);
+        }
+    }
+
+    private static String dedupeKey(PaymentWebhookEvent event) {
+        return event.getEventId() != null && !event.getEventId().isBlank()
+                ? event.getEventId()
+                : event.getEvent() + ":" + event.getPaymentId() + ":" + event.getCreatedAt();
+    }
+
+    // Storms repeat the same order many times; one row write per order is enough
+    private List<PaymentWebhookEvent> strongestPerOrder(List<PaymentWebhookEvent> batch) {
+        Map<String, PaymentWebhookEvent> strongest = new LinkedHashMap<>();
+        for (PaymentWebhookEvent event : batch) {
+            strongest.merge(event.getOrderId(), event, PaymentService::stronger);
+        }
+        return new ArrayList<>(strongest.values());
+    }
+
+    // Null for events that carry no order payment (refunds, disputes, ...)
+    private PaymentWebhookEvent parse(JsonNode root, String eventIdHeader) {
+        String type = root.path("event").asText();
+        String status = switch (type) {
+            case "payment.authorized" -> PaymentStatus.PENDING.name();
+            case "payment.captured", "order.paid" -> PaymentStatus.COMPLETED.name();
+            case "payment.failed" -> PaymentStatus.FAILED.name();
+            default -> null;
+        };
+        JsonNode payment = root.path("payload").path("payment").path("entity");
+        String orderId = payment.path("order_id").asText(null);
+        if (status == null || orderId == null || orderId.isBlank()) {
+            return null;
+        }
+        return new PaymentWebhookEvent(
+                eventIdHeader,
+                type,
+                orderId,
+                payment.path("id").asText(null),
+                payment.path("amount").asLong() / 100.0,
+                payment.path("currency").asText("INR"),
+                payment.path("email").asText(null),
+                status,
+                root.path("created_at").asLong());
+    }
+}
@@ -0,0 +1,221 @@
+package com.parkease.services;
+
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongToIntFunction;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.parkease.beans.ParkingSpace;
+import com.parkease.dao.ParkingSlotRepository;
+import com.parkease.dao.ParkingSpaceRepo;
+import com.parkease.dtos.PriceQuote;
+import com.parkease.pricing.PriceTable;
+import com.parkease.pricing.PricingRules;
+import com.parkease.pricing.Tariff;
+
+// Dynamic hourly prices: the owner's pricingPerHour scaled by the hour of day
+// and by how full the lot is. Every price is precomputed into a PriceTable;
+// quotes only read the current snapshot, and stays are charged through the
+// shared Tariff's cumulative arrays. Occupancy tiers are re-sampled from
+// LiveAvailabilityCounter on a fixed delay. A lot written through
+// ParkingSpaceIndexListener only marks the table dirty, and that same
+// refresh rebuilds it, so new or changed prices apply within one interval.
+@Service
+public class PricingEngine {
+
+    @Autowired
+    private ParkingSpaceRepo parkingSpaceRepo;
+
+    @Autowired
+    private ParkingSlotRepository parkingSlotRepository;
+
+    @Autowired
+    private LiveAvailabilityCounter availabilityCounter;
+
+    private final PricingRules rules;
+    private final Tariff tariff;
+    private final ZoneId zone;
+    private final double dailyCapHours;
+    private final double overnightRateHours;
+    // lot id -> {base price, total slots, daily cap, overnight rate}; NaN for an unset cap
+    private final Map<Long, double[]> inputs = new ConcurrentHashMap<>();
+    // Set when inputs changed since the last rebuild
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    private volatile PriceTable table = PriceTable.EMPTY;
+
+    public PricingEngine(@Value("${app.pricing.hour-multipliers:}") String hourMultipliers,
+            @Value("${app.pricing.occupancy-tiers:}") String occupancyTiers,
+            @Value("${app.pricing.zone:Asia/Kolkata}") String zone,
+            @Value("${app.pricing.block-minutes:60}") int blockMinutes,
+            @Value("${app.pricing.overnight-from:22:00}") LocalTime overnightFrom,
+            @Value("${app.pricing.overnight-to:06:00}") LocalTime overnightTo,
+            @Value("${app.pricing.daily-cap-hours:0}") double dailyCapHours,
+            @Value("${app.pricing.overnight-rate-hours:0}") double overnightRateHours) {
+        this.rules = PricingRules.parse(hourMultipliers, occupancyTiers);
+        this.tariff = new Tariff(rules, blockMinutes, overnightFrom.toSecondOfDay() / 60,
+                overnightTo.toSecondOfDay() / 60);
+        this.zone = ZoneId.of(zone);
+        this.dailyCapHours = dailyCapHours;
+        this.overnightRateHours = overnightRateHours;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        inputs.clear();
+        for (Object[] row : parkingSpaceRepo.findPricingInputs()) {
+            inputs.put((Long) row[0], input((Double) row[1], (Integer) row[2], (Double) row[3], (Double) row[4]));
+        }
+        // One grouped count for every lot's occupancy
+        Map<Long, Integer> freeSlots = new HashMap<>();
+        for (Object[] row : parkingSlotRepository.countAvailableByParkingSpace()) {
+            freeSlots.put((Long) row[0], ((Long) row[1]).intValue());
+        }
+        dirty.set(false);
+        rebuild(lotId -> freeSlots.getOrDefault(lotId, 0));
+        System.out.println("Price table built for " + table.size() + " lots");
+    }
+
+    // Prices only change on a rebuild after a lot was written; otherwise just
+    // the tiers follow occupancy
+    @Scheduled(fixedDelayString = "${app.pricing.refresh-interval-ms:15000}")
+    public synchronized void refreshOccupancy() {
+        // Cleared before reading inputs: a write landing mid-rebuild marks it again
+        if (dirty.getAndSet(false)) {
+            rebuild(availabilityCounter::getFreeSlots);
+            return;
+        }
+        PriceTable current = table;
+        int[] tiers = new int[current.size()];
+        for (int i = 0; i < tiers.length; i++) {
+            long lotId = current.lotId(i);
+            double[] lot = inputs.get(lotId);
+            tiers[i] = lot == null ? 0 : rules.tierFor(availabilityCounter.getFreeSlots(lotId), (int) lot[1]);
+        }
+        table = current.withTiers(tiers, currentOffsetMillis());
+    }
+
+    // Called from the JPA callback once the write commits: record the new inputs and
+    // leave the rebuild to the next refresh
+    public void update(ParkingSpace space) {
+        inputs.put(space.getId(), input(space.getPricingPerHour(), space.getTotalSlots(), space.getDailyCap(),
+                space.getOvernightRate()));
+        dirty.set(true);
+    }
+
+    public void remove(long spaceId) {
+        if (inputs.remove(spaceId) != null) {
+            dirty.set(true);
+        }
+    }
+
+    private static double[] input(double basePrice, int totalSlots, Double dailyCap, Double overnightRate) {
+        return new double[] { basePrice, totalSlots, dailyCap != null ? dailyCap : Double.NaN,
+                overnightRate != null ? overnightRate : Double.NaN };
+    }
+
+    // A cap set on the lot wins; otherwise the default number of base-price hours, if any
+    private static double cap(double lotCap, double basePrice, double defaultHours) {
+        if (!Double.isNaN(lotCap)) {
+            return lotCap;
+        }
+        return defaultHours > 0 ? basePrice * defaultHours : Double.POSITIVE_INFINITY;
+    }
+
+    private synchronized void rebuild(LongToIntFunction freeSlots) {
+        long[] lotIds = inputs.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+        double[] basePrices = new double[lotIds.length];
+        int[] tiers = new int[lotIds.length];
+        double[] dailyCaps = new double[lotIds.length];
+        double[] overnightCaps = new double[lotIds.length];
+        for (int i = 0; i < lotIds.length; i++) {
+            double[] lot = inputs.get(lotIds[i]);
+            if (lot == null) {
+                // Removed while the ids were being copied; priced at zero until the next rebuild
+                continue;
+            }
+            basePrices[i] = lot[0];
+            dailyCaps[i] = cap(lot[2], lot[0], dailyCapHours);
+            overnightCaps[i] = cap(lot[3], lot[0], overnightRateHours);
+            tiers[i] = rules.tierFor(freeSlots.applyAsInt(lotIds[i]), (int) lot[1]);
+        }
+        table = PriceTable.build(rules, lotIds, basePrices, tiers, dailyCaps, overnightCaps,
+                currentOffsetMillis());
+    }
+
+    private long currentOffsetMillis() {
+        return zone.getRules().getOffset(Instant.now()).getTotalSeconds() * 1000L;
+    }
+
+    // The snapshot to read several prices from consistently
+    public PriceTable table() {
+        return table;
+    }
+
+    public PricingRules rules() {
+        return rules;
+    }
+
+    // Hourly price of the lot right now, or NaN when the lot is not priced
+    public double quote(long spaceId) {
+        return quote(spaceId, System.currentTimeMillis());
+    }
+
+    // Hourly price for an hour starting at epochMillis, at the lot's current occupancy
+    public double quote(long spaceId, long epochMillis) {
+        PriceTable snapshot = table;
+        int index = snapshot.indexOf(spaceId);
+        return index < 0 ? Double.NaN : snapshot.price(index, snapshot.hourOf(epochMillis));
+    }
+
+    // What a stay from arrival to departure costs at the lot's current occupancy,
+    // or NaN when the lot is not priced. Allocation-free; see Tariff.
+    public double charge(long spaceId, long arrivalMillis, long departureMillis) {
+        PriceTable snapshot = table;
+        int index = snapshot.indexOf(spaceId);
+        return index < 0 ? Double.NaN : charge(snapshot, index, arrivalMillis, departureMillis);
+    }
+
+    public double charge(PriceTable snapshot, int index, long arrivalMillis, long departureMillis) {
+        long from = Math.floorDiv(arrivalMillis + snapshot.offsetMillis(), 60_000L);
+        long to = tariff.billedEnd(from, Math.floorDiv(departureMillis + snapshot.offsetMillis() + 59_999L, 60_000L));
+        double rate = snapshot.basePrice(index) * rules.tierMultiplier(snapshot.tier(index));
+        double overnightCap = snapshot.overnightCap(index);
+        boolean flatNights = overnightCap != Double.POSITIVE_INFINITY;
+        double total = tariff.dayCharge(from, to, rate, snapshot.dailyCap(index), !flatNights);
+        if (flatNights) {
+            total += tariff.overnightCharge(from, to, rate, overnightCap);
+        }
+        return Math.round(total * 100) / 100.0;
+    }
+
+    public Tariff tariff() {
+        return tariff;
+    }
+
+    // The full quote for the price endpoint; null when the lot is not priced
+    public PriceQuote getQuote(long spaceId, long epochMillis) {
+        PriceTable snapshot = table;
+        int index = snapshot.indexOf(spaceId);
+        if (index < 0) {
+            return null;
+        }
+        int hour = snapshot.hourOf(epochMillis);
+        double[] hourlyPrices = new double[PricingRules.HOURS];
+        Arrays.setAll(hourlyPrices, h -> snapshot.price(index, h));
+        return new PriceQuote(spaceId, snapshot.basePrice(index), snapshot.price(index, hour), hour,
+                snapshot.tier(index), rules.tierMultiplier(snapshot.tier(index)), hourlyPrices,
+                Instant.ofEpochMilli(snapshot.builtAt()));
+    }
+}
@@ -0,0 +1,165 @@
+package com.parkease.services;
+
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.HexFormat;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.parkease.dtos.BookingRequest;
+import com.parkease.dtos.CreateOrderRequest;
+import com.parkease.dtos.StayQuote;
+import com.parkease.exceptions.InvalidQuoteException;
+import com.parkease.exceptions.InvalidStayException;
+import com.parkease.exceptions.ResourceNotFoundException;
+import com.parkease.pricing.PriceTable;
+
+// Server-side stay pricing. A quote is signed so the gateway order and the
+// booking are for exactly what the driver was shown; both are refused without
+// a valid quote rather than repriced.
+@Service
+public class QuoteService {
+
+    private static final String HMAC_SHA256 = "HmacSHA256";
+
+    private final PricingEngine pricingEngine;
+    private final SecretKeySpec signingKey;
+    private final long quoteTtlMillis;
+    private final long maxStayMillis;
+
+    // Without app.pricing.quote-secret the key is per process, so quotes only
+    // redeem on the instance that issued them and not across a restart
+    public QuoteService(PricingEngine pricingEngine,
+            @Value("${app.pricing.quote-secret:}") String secret,
+            @Value("${app.pricing.quote-ttl-minutes:15}") long quoteTtlMinutes,
+            @Value("${app.pricing.max-stay-days:30}") long maxStayDays) {
+        this.pricingEngine = pricingEngine;
+        byte[] keyBytes;
+        if (secret.isBlank()) {
+            keyBytes = new byte[32];
+            new SecureRandom().nextBytes(keyBytes);
+        } else {
+            keyBytes = secret.getBytes(StandardCharsets.UTF_8);
+        }
+        this.signingKey = new SecretKeySpec(keyBytes, HMAC_SHA256);
+        this.quoteTtlMillis = TimeUnit.MINUTES.toMillis(quoteTtlMinutes);
+        this.maxStayMillis = TimeUnit.DAYS.toMillis(maxStayDays);
+    }
+
+    public StayQuote quote(long spaceId, Instant arrival, Instant departure) {
+        validate(arrival, departure);
+        PriceTable snapshot = pricingEngine.table();
+        int index = snapshot.indexOf(spaceId);
+        if (index < 0) {
+            throw new ResourceNotFoundException("Parking space not found with id: " + spaceId);
+        }
+        long arrivalMillis = arrival.toEpochMilli();
+        long departureMillis = departure.toEpochMilli();
+        double amount = pricingEngine.charge(snapshot, index, arrivalMillis, departureMillis);
+        long expiresAt = System.currentTimeMillis() + quoteTtlMillis;
+        long arrivalMinute = Math.floorDiv(arrivalMillis, 60_000L);
+        long billedMinutes = pricingEngine.tariff().billedEnd(arrivalMinute,
+                Math.floorDiv(departureMillis + 59_999L, 60_000L)) - arrivalMinute;
+        return new StayQuote(spaceId, arrival, departure, billedMinutes, amount, snapshot.tier(index),
+                expiresAt + "." + sign(spaceId, arrivalMillis, departureMillis, amount, expiresAt),
+                Instant.ofEpochMilli(expiresAt));
+    }
+
+    // The amount a gateway order is created for: the quoted one, which must be
+    // unexpired and signed for this lot, window and amount
+    public double orderAmount(CreateOrderRequest request) {
+        return redeem(request.getQuoteToken(), request.getParkingLotId(), request.getArrivalTime(),
+                request.getDepartureTime(), request.getAmount(), true);
+    }
+
+    // What the booking is charged: the quoted amount. Expiry is not checked here;
+    // it bounded creating the order, and paying for it may take longer. The
+    // amount sent by the client is never used without a matching signature.
+    public double bookingAmount(BookingRequest request) {
+        return redeem(request.getQuoteToken(), request.getParkingLotId(), request.getArrivalTime(),
+                request.getDepartureTime(), request.getAmount(), false);
+    }
+
+    private double redeem(String token, Long spaceId, String arrivalTime, String departureTime, double amount,
+            boolean checkExpiry) {
+        if (spaceId == null || arrivalTime == null || departureTime == null) {
+            throw new InvalidStayException("Parking lot, arrival and departure time are required");
+        }
+        Instant arrival = parse(arrivalTime);
+        Instant departure = parse(departureTime);
+        validate(arrival, departure);
+        if (!redeemable(token, spaceId, arrival.toEpochMilli(), departure.toEpochMilli(), amount, checkExpiry)) {
+            throw new InvalidQuoteException(checkExpiry
+                    ? "Quote is missing, expired or does not match the stay; request a new quote"
+                    : "Quote is missing or does not match the stay");
+        }
+        return amount;
+    }
+
+    private boolean redeemable(String token, long spaceId, long arrivalMillis, long departureMillis, double amount,
+            boolean checkExpiry) {
+        if (token == null || token.isBlank()) {
+            return false;
+        }
+        int dot = token.indexOf('.');
+        if (dot <= 0) {
+            return false;
+        }
+        long expiresAt;
+        try {
+            expiresAt = Long.parseLong(token.substring(0, dot));
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        if (checkExpiry && expiresAt < System.currentTimeMillis()) {
+            return false;
+        }
+        byte[] expected = sign(spaceId, arrivalMillis, departureMillis, amount, expiresAt)
+                .getBytes(StandardCharsets.UTF_8);
+        return MessageDigest.isEqual(expected, token.substring(dot + 1).getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Amount in paise so the client's double round-trips to the same signature
+    private String sign(long spaceId, long arrivalMillis, long departureMillis, double amount, long expiresAt) {
+        String payload = spaceId + "|" + arrivalMillis + "|" + departureMillis + "|" + Math.round(amount * 100)
+                + "|" + expiresAt;
+        try {
+            Mac mac = Mac.getInstance(HMAC_SHA256);
+            mac.init(signingKey);
+            return HexFormat.of().formatHex(mac.doFinal(payload.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException | InvalidKeyException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void validate(Instant arrival, Instant departure) {
+        if (arrival == null || departure == null) {
+            throw new InvalidStayException("Arrival and departure time are required");
+        }
+        if (!departure.isAfter(arrival)) {
+            throw new InvalidStayException("Departure must be after arrival");
+        }
+        if (departure.toEpochMilli() - arrival.toEpochMilli() > maxStayMillis) {
+            throw new InvalidStayException("Stays longer than " + TimeUnit.MILLISECONDS.toDays(maxStayMillis)
+                    + " days cannot be booked");
+        }
+    }
+
+    private static Instant parse(String time) {
+        try {
+            return Instant.parse(time);
+        } catch (DateTimeParseException e) {
+            throw new InvalidStayException("Invalid time '" + time + "'");
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.parkease.services;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+
+// Razorpay Orders API over one shared HTTP client. The SDK's RazorpayClient
+// rebuilt its HTTP client, and so its connection pool, on every checkout.
+@Service
+public class RazorpayPaymentGateway implements PaymentGateway {
+
+    private final RestTemplate restTemplate;
+    private final String ordersUrl;
+    private final HttpHeaders headers;
+
+    public RazorpayPaymentGateway(
+            @Value("${app.payment.razorpay-url:https://api.razorpay.com}") String baseUrl,
+            @Value("${razorpay.key.id}") String keyId,
+            @Value("${razorpay.key.secret}") String keySecret,
+            @Value("${app.payment.connect-timeout-ms:2000}") long connectTimeoutMs,
+            @Value("${app.payment.read-timeout-ms:10000}") long readTimeoutMs) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+        this.restTemplate = new RestTemplate(requestFactory);
+        this.ordersUrl = baseUrl + "/v1/orders";
+        this.headers = new HttpHeaders();
+        headers.setBasicAuth(keyId, keySecret);
+        headers.setContentType(MediaType.APPLICATION_JSON);
+    }
+
+    @Override
+    public String createOrder(long amountPaise, String currency, String receipt) {
+        JSONObject body = new JSONObject();
+        body.put("amount", amountPaise);
+        body.put("currency", currency);
+        body.put("receipt", receipt);
+        body.put("payment_capture", 1);
+        return restTemplate.postForObject(ordersUrl, new HttpEntity<>(body.toString(), headers), String.class);
+    }
+}
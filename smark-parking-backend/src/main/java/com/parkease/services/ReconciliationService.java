@@ -0,0 +1,404 @@
+package com.parkease.services;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.parkease.beans.ReconciliationDiscrepancy;
+import com.parkease.beans.ReconciliationRun;
+import com.parkease.dao.BookingRepository;
+import com.parkease.dao.PaymentOrderRepository;
+import com.parkease.dao.ReconciliationDiscrepancyRepository;
+import com.parkease.dao.ReconciliationRunRepository;
+import com.parkease.enums.DiscrepancyType;
+import com.parkease.enums.ReconciliationStatus;
+
+import jakarta.annotation.PreDestroy;
+
+// Pairs completed payments with bookings and records what does not pair up.
+//
+// A booking paid through a recorded order pairs with that order's payment.
+// Older bookings carry no payment reference, so the remaining payments match
+// them by the same user (customer email) at the same lot (lot name) arriving
+// within a window around the payment date. A run first resolves the email and lot name
+// of new payments to ids stored on the payment row, so both streams page on
+// plain indexed columns. Both tables are read as keyset pages in
+// (userId, parkingSpaceId, time, id) order and merge-joined, so memory stays
+// at one page per side however many rows there are. Keys are numeric ids, so
+// the database and Java agree on the sort order regardless of collation.
+//
+// After each (userId, parkingSpaceId) group the run may checkpoint; a run that
+// dies is resumed from its last checkpoint by the next start.
+@Service
+public class ReconciliationService {
+
+    private static final ZoneId ZONE = ZoneId.of("Asia/Kolkata");
+    private static final LocalDate LAST_DATE = LocalDate.of(9999, 12, 31);
+    private static final ZonedDateTime LAST_TIME = LAST_DATE.atStartOfDay(ZONE);
+
+    @Autowired
+    private PaymentOrderRepository orderRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ReconciliationRunRepository runRepository;
+
+    @Autowired
+    private ReconciliationDiscrepancyRepository discrepancyRepository;
+
+    @Value("${app.reconciliation.page-size:1000}")
+    private int pageSize;
+
+    @Value("${app.reconciliation.checkpoint-every:10000}")
+    private int checkpointEvery;
+
+    // A booking may arrive up to window-days after the payment, or early-days before it
+    @Value("${app.reconciliation.window-days:30}")
+    private int windowDays;
+
+    @Value("${app.reconciliation.early-days:1}")
+    private int earlyDays;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicBoolean stopping = new AtomicBoolean();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "reconciliation");
+        t.setDaemon(true);
+        return t;
+    });
+
+    @Scheduled(cron = "${app.reconciliation.cron:0 0 4 * * *}", zone = "Asia/Kolkata")
+    public void scheduledRun() {
+        start();
+    }
+
+    // Runs in the background; false when a run is already in progress
+    public boolean start() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    run();
+                } finally {
+                    running.set(false);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            running.set(false);
+            return false;
+        }
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    public Optional<ReconciliationRun> getLatestRun() {
+        return runRepository.findFirstByOrderByIdDesc();
+    }
+
+    public Optional<ReconciliationRun> getRun(long runId) {
+        return runRepository.findById(runId);
+    }
+
+    public List<ReconciliationDiscrepancy> getDiscrepancies(long runId, long afterId, int limit) {
+        return discrepancyRepository.findByRunIdAndIdGreaterThanOrderByIdAsc(runId, afterId, PageRequest.of(0, limit));
+    }
+
+    private void run() {
+        ReconciliationRun run = resumeOrCreate();
+        try {
+            reconcile(run);
+            run.setStatus(ReconciliationStatus.COMPLETED);
+            run.setFinishedAt(System.currentTimeMillis());
+            runRepository.save(run);
+            System.out.println("Reconciliation run " + run.getId() + " completed: " + run.getMatched() + " matched, "
+                    + run.getDiscrepancies() + " discrepancies");
+        } catch (RuntimeException e) {
+            System.err.println("Reconciliation run " + run.getId() + " failed: " + e.getMessage());
+            run.setStatus(ReconciliationStatus.FAILED);
+            run.setError(e.getMessage());
+            runRepository.save(run);
+        }
+    }
+
+    // The latest unfinished run keeps going from its checkpoint; its
+    // discrepancies past the checkpoint are written again, so they are dropped
+    ReconciliationRun resumeOrCreate() {
+        Optional<ReconciliationRun> unfinished = runRepository.findFirstByStatusInOrderByIdDesc(
+                List.of(ReconciliationStatus.RUNNING, ReconciliationStatus.FAILED));
+        Optional<ReconciliationRun> latest = runRepository.findFirstByOrderByIdDesc();
+        if (unfinished.isPresent() && unfinished.get().getId().equals(latest.map(ReconciliationRun::getId).orElse(null))) {
+            ReconciliationRun run = unfinished.get();
+            if (run.getCheckpointUserId() == null) {
+                discrepancyRepository.deleteByRun(run.getId());
+                run.setPaymentsScanned(0);
+                run.setBookingsScanned(0);
+                run.setMatched(0);
+                run.setDiscrepancies(0);
+            } else {
+                discrepancyRepository.deleteAfterCheckpoint(run.getId(), run.getCheckpointUserId(),
+                        run.getCheckpointSpaceId());
+            }
+            run.setStatus(ReconciliationStatus.RUNNING);
+            run.setError(null);
+            System.out.println("Resuming reconciliation run " + run.getId() + " after group "
+                    + run.getCheckpointUserId() + "/" + run.getCheckpointSpaceId());
+            return runRepository.save(run);
+        }
+        ReconciliationRun run = new ReconciliationRun();
+        run.setStatus(ReconciliationStatus.RUNNING);
+        run.setStartedAt(System.currentTimeMillis());
+        return runRepository.save(run);
+    }
+
+    void reconcile(ReconciliationRun run) {
+        int resolved = orderRepository.resolveReconciliationKeys();
+        if (resolved > 0) {
+            System.out.println("Resolved user and lot ids of " + resolved + " payments");
+        }
+        long startUser = run.getCheckpointUserId() != null ? run.getCheckpointUserId() : -1;
+        long startSpace = run.getCheckpointSpaceId() != null ? run.getCheckpointSpaceId() : -1;
+        // Past the last group done: everything in it sorts before (LAST, MAX)
+        PaymentRow paymentStart = new PaymentRow(Long.MAX_VALUE, startUser, startSpace, LAST_DATE, 0, null);
+        BookingRow bookingStart = new BookingRow(Long.MAX_VALUE, startUser, startSpace, LAST_TIME, 0, null, 0, null);
+
+        PageCursor<PaymentRow> payments = new PageCursor<>(paymentStart, after -> orderRepository
+                .findReconciliationPage(after.userId(), after.spaceId(), after.date(), after.id(),
+                        PageRequest.of(0, pageSize))
+                .stream().map(PaymentRow::of).toList());
+        PageCursor<BookingRow> bookings = new PageCursor<>(bookingStart, after -> bookingRepository
+                .findReconciliationPage(after.userId(), after.spaceId(), after.arrival(), after.id(),
+                        PageRequest.of(0, pageSize))
+                .stream().map(BookingRow::of).toList());
+
+        Counters counters = new Counters(run);
+        List<ReconciliationDiscrepancy> pending = new ArrayList<>();
+        long sinceCheckpoint = 0;
+
+        while (payments.peek() != null || bookings.peek() != null) {
+            if (stopping.get()) {
+                throw new IllegalStateException("Stopped by shutdown");
+            }
+            long[] group = firstGroup(payments.peek(), bookings.peek());
+            long rowsBefore = counters.payments + counters.bookings;
+
+            while (true) {
+                PaymentRow p = inGroup(payments.peek(), group);
+                BookingRow b = inGroup(bookings.peek(), group);
+                if (p == null && b == null) {
+                    break;
+                }
+                if (b != null && b.paymentId() != null) {
+                    // Paired by its order; that payment is not in the payment stream
+                    PaymentRow paid = new PaymentRow(b.paymentId(), group[0], group[1], null, b.paymentAmount(),
+                            b.orderId());
+                    if (Math.abs(paid.amount() - b.amount()) >= 0.005) {
+                        pending.add(discrepancy(run, DiscrepancyType.AMOUNT_MISMATCH, group, paid, b));
+                    }
+                    counters.matched++;
+                    bookings.next();
+                    counters.payments++;
+                    counters.bookings++;
+                } else if (p != null && b != null) {
+                    if (b.day().isBefore(p.date().minusDays(earlyDays))) {
+                        // No later payment in the group is early enough for this booking
+                        pending.add(discrepancy(run, DiscrepancyType.BOOKING_WITHOUT_PAYMENT, group, null, b));
+                        bookings.next();
+                        counters.bookings++;
+                    } else if (b.day().isAfter(p.date().plusDays(windowDays))) {
+                        pending.add(discrepancy(run, DiscrepancyType.PAYMENT_WITHOUT_BOOKING, group, p, null));
+                        payments.next();
+                        counters.payments++;
+                    } else {
+                        if (Math.abs(p.amount() - b.amount()) >= 0.005) {
+                            pending.add(discrepancy(run, DiscrepancyType.AMOUNT_MISMATCH, group, p, b));
+                        }
+                        counters.matched++;
+                        payments.next();
+                        bookings.next();
+                        counters.payments++;
+                        counters.bookings++;
+                    }
+                } else if (p != null) {
+                    pending.add(discrepancy(run, DiscrepancyType.PAYMENT_WITHOUT_BOOKING, group, p, null));
+                    payments.next();
+                    counters.payments++;
+                } else {
+                    pending.add(discrepancy(run, DiscrepancyType.BOOKING_WITHOUT_PAYMENT, group, null, b));
+                    bookings.next();
+                    counters.bookings++;
+                }
+                if (pending.size() >= pageSize) {
+                    counters.discrepancies += pending.size();
+                    discrepancyRepository.saveAll(pending);
+                    pending.clear();
+                }
+            }
+
+            sinceCheckpoint += counters.payments + counters.bookings - rowsBefore;
+            if (sinceCheckpoint >= checkpointEvery) {
+                checkpoint(run, group, counters, pending);
+                sinceCheckpoint = 0;
+            }
+        }
+        counters.discrepancies += pending.size();
+        discrepancyRepository.saveAll(pending);
+        counters.copyTo(run);
+    }
+
+    private void checkpoint(ReconciliationRun run, long[] group, Counters counters, List<ReconciliationDiscrepancy> pending) {
+        counters.discrepancies += pending.size();
+        discrepancyRepository.saveAll(pending);
+        pending.clear();
+        counters.copyTo(run);
+        run.setCheckpointUserId(group[0]);
+        run.setCheckpointSpaceId(group[1]);
+        run.setCheckpointAt(System.currentTimeMillis());
+        runRepository.save(run);
+    }
+
+    private static long[] firstGroup(PaymentRow p, BookingRow b) {
+        if (p == null) {
+            return new long[] { b.userId(), b.spaceId() };
+        }
+        if (b == null || compareGroup(p.userId(), p.spaceId(), b.userId(), b.spaceId()) <= 0) {
+            return new long[] { p.userId(), p.spaceId() };
+        }
+        return new long[] { b.userId(), b.spaceId() };
+    }
+
+    private static int compareGroup(long userA, long spaceA, long userB, long spaceB) {
+        int byUser = Long.compare(userA, userB);
+        return byUser != 0 ? byUser : Long.compare(spaceA, spaceB);
+    }
+
+    private static PaymentRow inGroup(PaymentRow p, long[] group) {
+        return p != null && p.userId() == group[0] && p.spaceId() == group[1] ? p : null;
+    }
+
+    private static BookingRow inGroup(BookingRow b, long[] group) {
+        return b != null && b.userId() == group[0] && b.spaceId() == group[1] ? b : null;
+    }
+
+    private static ReconciliationDiscrepancy discrepancy(ReconciliationRun run, DiscrepancyType type, long[] group,
+            PaymentRow p, BookingRow b) {
+        ReconciliationDiscrepancy d = new ReconciliationDiscrepancy();
+        d.setRunId(run.getId());
+        d.setType(type);
+        d.setUserId(group[0]);
+        d.setParkingSpaceId(group[1]);
+        if (p != null) {
+            d.setPaymentOrderId(p.id());
+            d.setOrderId(p.orderId());
+            d.setPaymentAmount(p.amount());
+        }
+        if (b != null) {
+            d.setBookingId(b.id());
+            d.setBookingAmount(b.amount());
+        }
+        d.setCreatedAt(System.currentTimeMillis());
+        return d;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        stopping.set(true);
+        executor.shutdownNow();
+    }
+
+    private record PaymentRow(long id, long userId, long spaceId, LocalDate date, double amount, String orderId) {
+        static PaymentRow of(Object[] row) {
+            return new PaymentRow(((Number) row[0]).longValue(), ((Number) row[1]).longValue(), ((Number) row[2]).longValue(),
+                    (LocalDate) row[3], ((Number) row[4]).doubleValue(), (String) row[5]);
+        }
+    }
+
+    // paymentId is null unless the booking's order has a completed payment
+    private record BookingRow(long id, long userId, long spaceId, ZonedDateTime arrival, double amount,
+            Long paymentId, double paymentAmount, String orderId) {
+        static BookingRow of(Object[] row) {
+            return new BookingRow(((Number) row[0]).longValue(), ((Number) row[1]).longValue(),
+                    ((Number) row[2]).longValue(), (ZonedDateTime) row[3],
+                    ((Number) row[4]).doubleValue(), row[5] == null ? null : ((Number) row[5]).longValue(),
+                    row[6] == null ? 0 : ((Number) row[6]).doubleValue(), (String) row[7]);
+        }
+
+        LocalDate day() {
+            return arrival.withZoneSameInstant(ZONE).toLocalDate();
+        }
+    }
+
+    // Reads one keyset page at a time, fetching the next after the last row handed out
+    private static class PageCursor<T> {
+        private final Function<T, List<T>> fetch;
+        private List<T> page = Collections.emptyList();
+        private int index;
+        private T last;
+        private boolean exhausted;
+
+        PageCursor(T start, Function<T, List<T>> fetch) {
+            this.last = start;
+            this.fetch = fetch;
+        }
+
+        T peek() {
+            if (index == page.size() && !exhausted) {
+                page = fetch.apply(last);
+                index = 0;
+                exhausted = page.isEmpty();
+            }
+            return index < page.size() ? page.get(index) : null;
+        }
+
+        T next() {
+            T row = peek();
+            if (row != null) {
+                last = row;
+                index++;
+            }
+            return row;
+        }
+    }
+
+    private static class Counters {
+        long payments;
+        long bookings;
+        long matched;
+        long discrepancies;
+
+        Counters(ReconciliationRun run) {
+            payments = run.getPaymentsScanned();
+            bookings = run.getBookingsScanned();
+            matched = run.getMatched();
+            discrepancies = run.getDiscrepancies();
+        }
+
+        void copyTo(ReconciliationRun run) {
+            run.setPaymentsScanned(payments);
+            run.setBookingsScanned(bookings);
+            run.setMatched(matched);
+            run.setDiscrepancies(discrepancies);
+        }
+    }
+}
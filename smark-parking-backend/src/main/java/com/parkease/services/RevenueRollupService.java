@@ -0,0 +1,296 @@
+package com.parkease.services;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.parkease.beans.Booking;
+import com.parkease.beans.LotDailyRevenue;
+import com.parkease.beans.ParkingSpace;
+import com.parkease.beans.PaymentOrder;
+import com.parkease.beans.PaymentStatus;
+import com.parkease.dao.BookingRepository;
+import com.parkease.dao.LotDailyRevenueRepository;
+import com.parkease.dao.ParkingSpaceRepo;
+import com.parkease.dao.PaymentOrderRepository;
+import com.parkease.dao.UserRepository;
+import com.parkease.dtos.DailyRevenue;
+
+
+// Keeps lot_daily_revenue current so owner and admin dashboards read a few
+// rows per day instead of summing every payment and booking.
+//
+// Stored payments and bookings bump their lot's row for the day in place.
+// That path never fails the caller, so a missed bump is possible; the nightly
+// compaction recomputes recent days from the raw tables and marks them final.
+@Service
+public class RevenueRollupService {
+
+    private static final ZoneId ZONE = ZoneId.of("Asia/Kolkata");
+
+    @Autowired
+    private LotDailyRevenueRepository rollupRepository;
+
+    @Autowired
+    private PaymentOrderRepository orderRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ParkingSpaceRepo parkingSpaceRepo;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${app.revenue.compaction-lookback-days:7}")
+    private int compactionLookbackDays;
+
+    @Value("${app.revenue.max-report-days:366}")
+    private int maxReportDays;
+
+    public void recordPayment(PaymentOrder payment) {
+        if (payment.getLotName() == null || !String.valueOf(PaymentStatus.COMPLETED).equals(payment.getStatus())) {
+            return;
+        }
+        try {
+            ParkingSpace space = parkingSpaceRepo.findByLotName(payment.getLotName());
+            if (space == null) {
+                return;
+            }
+            LocalDate day = payment.getDate() != null ? payment.getDate() : LocalDate.now(ZONE);
+            double amount = payment.getAmount();
+            upsert(space.getId(), ownerId(space), day,
+                    now -> rollupRepository.addPayment(space.getId(), day, amount, now));
+        } catch (RuntimeException e) {
+            System.err.println("Could not roll up payment " + payment.getPaymentId() + ": " + e.getMessage());
+        }
+    }
+
+    public void recordBooking(Booking booking) {
+        if (booking.getParkingLotId() == null) {
+            return;
+        }
+        try {
+            Optional<ParkingSpace> space = parkingSpaceRepo.findById(booking.getParkingLotId());
+            if (space.isEmpty()) {
+                return;
+            }
+            LocalDate day = booking.getArrivalTime() != null
+                    ? booking.getArrivalTime().withZoneSameInstant(ZONE).toLocalDate()
+                    : LocalDate.now(ZONE);
+            long minutes = durationMinutes(booking.getArrivalTime(), booking.getDepartureTime());
+            long spaceId = booking.getParkingLotId();
+            upsert(spaceId, ownerId(space.get()), day,
+                    now -> rollupRepository.addBooking(spaceId, day, Math.max(minutes, 0), minutes >= 0 ? 1 : 0, now));
+        } catch (RuntimeException e) {
+            System.err.println("Could not roll up booking " + booking.getId() + ": " + e.getMessage());
+        }
+    }
+
+    // Bump the row; create it on the first event of the day. Two first events
+    // can race on the insert, and the loser bumps the winner's row instead.
+    private void upsert(long spaceId, Long ownerId, LocalDate day, Increment increment) {
+        if (increment.apply(System.currentTimeMillis()) > 0) {
+            return;
+        }
+        createRow(spaceId, ownerId, day);
+        increment.apply(System.currentTimeMillis());
+    }
+
+    // Inserts an empty row on its own, outside any transaction, so losing the
+    // race to a concurrent insert fails only this statement
+    private void createRow(long spaceId, Long ownerId, LocalDate day) {
+        try {
+            rollupRepository.saveAndFlush(new LotDailyRevenue(spaceId, ownerId, day));
+        } catch (DataIntegrityViolationException e) {
+            // Created concurrently
+        }
+    }
+
+    public List<LotDailyRevenue> getLotDaily(long parkingSpaceId, LocalDate from, LocalDate to) {
+        checkRange(from, to);
+        return rollupRepository.findByParkingSpaceIdAndDayBetweenOrderByDayAsc(parkingSpaceId, from, to);
+    }
+
+    public List<DailyRevenue> getOwnerDaily(long ownerId, LocalDate from, LocalDate to) {
+        checkRange(from, to);
+        return rollupRepository.findOwnerTotals(ownerId, from, to);
+    }
+
+    // Lot and owner reports belong to the lot's owner; admins are checked by the caller
+    public boolean ownsLot(String email, long parkingSpaceId) {
+        Optional<Long> caller = userId(email);
+        return caller.isPresent() && parkingSpaceRepo.findById(parkingSpaceId)
+                .map(space -> caller.get().equals(ownerId(space)))
+                .orElse(false);
+    }
+
+    public boolean isOwner(String email, long ownerId) {
+        return userId(email).map(id -> id == ownerId).orElse(false);
+    }
+
+    private Optional<Long> userId(String email) {
+        return email == null ? Optional.empty() : userRepository.findByEmail(email).map(user -> user.getUserId());
+    }
+
+    public List<DailyRevenue> getPlatformDaily(LocalDate from, LocalDate to) {
+        checkRange(from, to);
+        return rollupRepository.findPlatformTotals(from, to);
+    }
+
+    private void checkRange(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        if (from.plusDays(maxReportDays).isBefore(to)) {
+            throw new IllegalArgumentException("Range is limited to " + maxReportDays + " days");
+        }
+    }
+
+    // Yesterday and the days before it can still change (late webhooks, status
+    // corrections), so the window is recomputed every night, not just once
+    @Scheduled(cron = "${app.revenue.compaction-cron:0 30 2 * * *}", zone = "Asia/Kolkata")
+    public void compactRecentDays() {
+        LocalDate yesterday = LocalDate.now(ZONE).minusDays(1);
+        try {
+            int rows = recompute(yesterday.minusDays(compactionLookbackDays - 1L), yesterday);
+            System.out.println("Revenue rollup compacted " + rows + " lot-days up to " + yesterday);
+        } catch (RuntimeException e) {
+            System.err.println("Revenue rollup compaction failed: " + e.getMessage());
+        }
+    }
+
+    // Rebuilds the rows for [from, to] from payments and bookings. Days before
+    // today are marked finalized. Returns the number of rows written.
+    //
+    // Rows are rewritten in place under a row lock taken before the raw tables
+    // are read, never deleted: an increment racing the compaction waits for it
+    // instead of finding its row gone. FOR UPDATE only locks rows that exist,
+    // so every lot-day with data gets its row first, inserted one at a time the
+    // way the increments do it.
+    public int recompute(LocalDate from, LocalDate to) {
+        Set<String> existing = rollupRepository.findByDayBetween(from, to).stream()
+                .map(row -> row.getParkingSpaceId() + ":" + row.getDay())
+                .collect(Collectors.toSet());
+        for (Map.Entry<String, LotDailyRevenue> entry : totals(from, to).entrySet()) {
+            if (!existing.contains(entry.getKey())) {
+                LotDailyRevenue row = entry.getValue();
+                createRow(row.getParkingSpaceId(), row.getOwnerId(), row.getDay());
+            }
+        }
+        return transactionTemplate.execute(status -> rewrite(from, to));
+    }
+
+    private int rewrite(LocalDate from, LocalDate to) {
+        Map<String, LotDailyRevenue> stored = new HashMap<>();
+        for (LotDailyRevenue row : rollupRepository.lockByDayBetween(from, to)) {
+            stored.put(row.getParkingSpaceId() + ":" + row.getDay(), row);
+        }
+
+        LocalDate today = LocalDate.now(ZONE);
+        long now = System.currentTimeMillis();
+        List<LotDailyRevenue> changed = new ArrayList<>();
+        for (Map.Entry<String, LotDailyRevenue> entry : totals(from, to).entrySet()) {
+            LotDailyRevenue target = stored.remove(entry.getKey());
+            if (target == null) {
+                // First seen after the inserts above; its own increment creates
+                // the row, and the next compaction checks it
+                continue;
+            }
+            copyTotals(entry.getValue(), target);
+            target.setFinalized(target.getDay().isBefore(today));
+            target.setUpdatedAt(now);
+            changed.add(target);
+        }
+        int recomputed = changed.size();
+        // Lot-days whose payments were all reversed keep their row, zeroed
+        LotDailyRevenue empty = new LotDailyRevenue();
+        for (LotDailyRevenue target : stored.values()) {
+            copyTotals(empty, target);
+            target.setFinalized(target.getDay().isBefore(today));
+            target.setUpdatedAt(now);
+            changed.add(target);
+        }
+        rollupRepository.saveAll(changed);
+        return recomputed;
+    }
+
+    // Totals per lot-day from the raw tables, keyed by "parkingSpaceId:day"
+    private Map<String, LotDailyRevenue> totals(LocalDate from, LocalDate to) {
+        Map<String, LotDailyRevenue> rows = new HashMap<>();
+        for (Object[] sum : orderRepository.sumCompletedByLotAndDay(from, to)) {
+            LotDailyRevenue row = rows.computeIfAbsent(sum[0] + ":" + sum[2],
+                    k -> new LotDailyRevenue((Long) sum[0], (Long) sum[1], (LocalDate) sum[2]));
+            row.setRevenue(row.getRevenue() + ((Number) sum[3]).doubleValue());
+            row.setPaymentCount(row.getPaymentCount() + ((Number) sum[4]).longValue());
+        }
+
+        Map<Long, Optional<ParkingSpace>> spaces = new HashMap<>();
+        List<Object[]> arrivals = bookingRepository.findArrivalsBetween(
+                from.atStartOfDay(ZONE), to.plusDays(1).atStartOfDay(ZONE));
+        for (Object[] arrival : arrivals) {
+            Long spaceId = (Long) arrival[0];
+            if (spaceId == null) {
+                continue;
+            }
+            Optional<ParkingSpace> space = spaces.computeIfAbsent(spaceId, parkingSpaceRepo::findById);
+            if (space.isEmpty()) {
+                continue;
+            }
+            LocalDate day = ((ZonedDateTime) arrival[1]).withZoneSameInstant(ZONE).toLocalDate();
+            LotDailyRevenue row = rows.computeIfAbsent(spaceId + ":" + day,
+                    k -> new LotDailyRevenue(spaceId, ownerId(space.get()), day));
+            row.setBookingCount(row.getBookingCount() + 1);
+            long minutes = durationMinutes((ZonedDateTime) arrival[1], (ZonedDateTime) arrival[2]);
+            if (minutes >= 0) {
+                row.setTotalDurationMinutes(row.getTotalDurationMinutes() + minutes);
+                row.setDurationSamples(row.getDurationSamples() + 1);
+            }
+        }
+        return rows;
+    }
+
+    private static void copyTotals(LotDailyRevenue from, LotDailyRevenue to) {
+        to.setRevenue(from.getRevenue());
+        to.setPaymentCount(from.getPaymentCount());
+        to.setBookingCount(from.getBookingCount());
+        to.setTotalDurationMinutes(from.getTotalDurationMinutes());
+        to.setDurationSamples(from.getDurationSamples());
+    }
+
+    // -1 when the booking has no complete, ordered time range
+    private static long durationMinutes(ZonedDateTime arrival, ZonedDateTime departure) {
+        if (arrival == null || departure == null || departure.isBefore(arrival)) {
+            return -1;
+        }
+        return Duration.between(arrival, departure).toMinutes();
+    }
+
+    private static Long ownerId(ParkingSpace space) {
+        return space.getParkingowner() != null ? space.getParkingowner().getUserId() : null;
+    }
+
+    @FunctionalInterface
+    private interface Increment {
+        int apply(long now);
+    }
+}
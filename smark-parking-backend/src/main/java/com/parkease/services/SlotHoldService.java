@@ -0,0 +1,127 @@
+package com.parkease.services;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.parkease.beans.ParkingSlot;
+import com.parkease.beans.SlotHold;
+import com.parkease.dao.ParkingSlotRepository;
+import com.parkease.enums.SlotHoldResult;
+import com.parkease.exceptions.SlotHeldException;
+
+// Temporary slot holds taken while a user completes checkout. Expiry is a
+// periodic sweep over the store rather than a timer per hold, so holds placed
+// on another node, or before a restart, still time out. The REST and STOMP
+// endpoints both go through hold/release/claim here, and only a change that
+// actually happened in the store is broadcast.
+@Service
+public class SlotHoldService {
+
+    @Autowired
+    private SlotHoldStore store;
+
+    @Autowired
+    private SlotUpdateNotifier notifier;
+
+    @Autowired
+    private ParkingSlotRepository parkingSlotRepository;
+
+    @Value("${app.slot-hold.ttl-minutes:5}")
+    private long ttlMinutes;
+
+    @Value("${app.slot-hold.sweep-batch-size:500}")
+    private int sweepBatchSize;
+
+    // Holder of the short claim a random booking takes, which has no user
+    public static final long RANDOM_BOOKING_HOLDER = -1L;
+
+    public SlotHoldResult hold(Long slotId, Long parkingSpaceId, Long userId, String userName) {
+        Optional<ParkingSlot> slot = parkingSlotRepository.findById(slotId);
+        if (slot.isEmpty() || !slot.get().isAvailable()) {
+            return SlotHoldResult.NOT_AVAILABLE;
+        }
+
+        long now = System.currentTimeMillis();
+        SlotHold hold = new SlotHold(slotId, parkingSpaceId, userId, userName, now,
+                now + TimeUnit.MINUTES.toMillis(ttlMinutes));
+        if (store.tryHold(hold, now)) {
+            notifier.notifySlotReserved(slotId, parkingSpaceId, userId, userName);
+            return SlotHoldResult.HELD;
+        }
+
+        Optional<SlotHold> current = store.findActive(slotId, now);
+        if (current.isPresent() && current.get().getUserId().equals(userId)) {
+            return SlotHoldResult.ALREADY_HELD;
+        }
+        return SlotHoldResult.HELD_BY_OTHER;
+    }
+
+    public Optional<SlotHold> getHold(Long slotId) {
+        return store.findActive(slotId, System.currentTimeMillis());
+    }
+
+    // Only the holder can release a hold; anyone else has to wait for it to expire
+    public Optional<SlotHold> release(Long slotId, Long userId) {
+        if (userId == null) {
+            return Optional.empty();
+        }
+        Optional<SlotHold> released = store.removeIfHeldBy(slotId, userId);
+        released.ifPresent(h -> notifier.notifySlotReleased(h.getSlotId(), h.getParkingSpaceId(), "RELEASED"));
+        return released;
+    }
+
+    // Makes sure the booking user owns the slot for the duration of checkout.
+    // A slot nobody holds is held on the spot so a concurrent reserve loses;
+    // returns true in that case, false when the user already held it.
+    public boolean claim(Long slotId, Long parkingSpaceId, Long userId) {
+        long now = System.currentTimeMillis();
+        SlotHold hold = new SlotHold(slotId, parkingSpaceId, userId, null, now,
+                now + TimeUnit.MINUTES.toMillis(ttlMinutes));
+        if (store.tryHold(hold, now)) {
+            return true;
+        }
+        Optional<SlotHold> current = store.findActive(slotId, now);
+        if (current.isPresent() && current.get().getUserId().equals(userId)) {
+            return false;
+        }
+        if (current.isPresent() || !store.tryHold(hold, now)) {
+            // Either someone else holds it, or their hold lapsed and was retaken in between
+            throw new SlotHeldException("Slot " + slotId + " is held by another user");
+        }
+        return true;
+    }
+
+    // Drops the caller's hold once the booking is saved; the BOOKED broadcast
+    // replaces the RELEASED one
+    public void completeClaim(Long slotId, Long userId) {
+        store.removeIfHeldBy(slotId, userId);
+    }
+
+    @Scheduled(fixedDelayString = "${app.slot-hold.sweep-interval-ms:5000}")
+    public void expireHolds() {
+        long now = System.currentTimeMillis();
+        List<SlotHold> purged;
+        do {
+            purged = store.purgeExpired(now, sweepBatchSize);
+            for (SlotHold hold : purged) {
+                notifier.notifySlotReleased(hold.getSlotId(), hold.getParkingSpaceId(), "TIMEOUT");
+            }
+        } while (purged.size() >= sweepBatchSize);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void restoreHolds() {
+        int active = store.findAllActive(System.currentTimeMillis()).size();
+        System.out.println("Restored " + active + " active slot holds");
+        // Holds that lapsed while the node was down are released straight away
+        expireHolds();
+    }
+}
@@ -0,0 +1,25 @@
+package com.parkease.services;
+
+import java.util.List;
+import java.util.Optional;
+
+import com.parkease.beans.SlotHold;
+
+// Backing store for slot holds. Implementations must make tryHold atomic per
+// slot, since several nodes may race to hold the same slot.
+public interface SlotHoldStore {
+
+    // Places the hold unless another unexpired hold exists for the slot
+    boolean tryHold(SlotHold hold, long now);
+
+    Optional<SlotHold> findActive(long slotId, long now);
+
+    List<SlotHold> findAllActive(long now);
+
+    // Removes the hold only if userId owns it
+    Optional<SlotHold> removeIfHeldBy(long slotId, long userId);
+
+    // Removes up to batchSize expired holds, returning only the ones this call
+    // actually deleted so a sweep on another node never reports them twice
+    List<SlotHold> purgeExpired(long now, int batchSize);
+}
@@ -0,0 +1,73 @@
+package com.parkease.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import com.parkease.beans.ParkingSpace;
+import com.parkease.dao.ParkingSpaceRepo;
+import com.parkease.dtos.ParkingSpaceUpdate;
+import com.parkease.dtos.SlotUpdateMessage;
+
+// Broadcasts slot state changes to STOMP subscribers. Shared by the booking
+// endpoints and the hold expiry sweep so both publish the same messages.
+@Service
+public class SlotUpdateNotifier {
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private ParkingSpaceRepo parkingSpaceRepo;
+
+    @Autowired
+    private LiveAvailabilityCounter availabilityCounter;
+
+    public void notifySlotReserved(Long slotId, Long parkingSpaceId, Long userId, String userName) {
+        SlotUpdateMessage message = new SlotUpdateMessage(slotId, parkingSpaceId, false, "RESERVED");
+        message.setUserId(userId);
+        message.setUserName(userName);
+
+        messagingTemplate.convertAndSend("/topic/parking-space/" + parkingSpaceId, message);
+        messagingTemplate.convertAndSend("/topic/slots", message);
+    }
+
+    public void notifySlotBooked(Long slotId, Long parkingSpaceId, Long userId) {
+        SlotUpdateMessage message = new SlotUpdateMessage(slotId, parkingSpaceId, false, "BOOKED");
+        message.setUserId(userId);
+
+        messagingTemplate.convertAndSend("/topic/parking-space/" + parkingSpaceId, message);
+        messagingTemplate.convertAndSend("/topic/slots", message);
+
+        updateParkingSpaceAvailability(parkingSpaceId);
+    }
+
+    public void notifySlotReleased(Long slotId, Long parkingSpaceId, String action) {
+        SlotUpdateMessage message = new SlotUpdateMessage(slotId, parkingSpaceId, true, action);
+
+        messagingTemplate.convertAndSend("/topic/parking-space/" + parkingSpaceId, message);
+        messagingTemplate.convertAndSend("/topic/slots", message);
+
+        updateParkingSpaceAvailability(parkingSpaceId);
+    }
+
+    public void updateParkingSpaceAvailability(Long parkingSpaceId) {
+        try {
+            ParkingSpace parkingSpace = parkingSpaceRepo.findById(parkingSpaceId).orElse(null);
+            if (parkingSpace != null) {
+                int availableSlots = availabilityCounter.getFreeSlots(parkingSpaceId);
+
+                ParkingSpaceUpdate update = new ParkingSpaceUpdate(
+                    parkingSpaceId,
+                    availableSlots,
+                    parkingSpace.getTotalSlots(),
+                    "AVAILABILITY_UPDATE"
+                );
+
+                messagingTemplate.convertAndSend("/topic/parking-spaces", update);
+            }
+        } catch (Exception e) {
+            System.err.println("Error updating parking space availability: " + e.getMessage());
+        }
+    }
+}
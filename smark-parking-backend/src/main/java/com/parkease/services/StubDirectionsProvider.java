@@ -0,0 +1,33 @@
+package com.parkease.services;
+
+import java.util.Locale;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Service;
+
+import com.parkease.geo.GeoUtils;
+
+// Offline provider for tests and load runs: a straight line between the two
+// points in the same GeoJSON shape openrouteservice returns. Also stands in
+// for openrouteservice when no API key is configured.
+@Service
+@ConditionalOnExpression("'${app.directions.provider:ors}' == 'stub' or '${app.directions.ors-api-key:}'.isEmpty()")
+public class StubDirectionsProvider implements DirectionsProvider {
+
+    public StubDirectionsProvider() {
+        System.out.println("Directions use the straight-line stub provider");
+    }
+
+    // Assumed average city driving speed for the duration estimate
+    private static final double SPEED_M_PER_S = 8.3;
+
+    @Override
+    public String route(double startLat, double startLng, double endLat, double endLng) {
+        double meters = GeoUtils.haversineKm(startLat, startLng, endLat, endLng) * 1000;
+        return String.format(Locale.ROOT,
+            "{\"type\":\"FeatureCollection\",\"features\":[{\"type\":\"Feature\","
+            + "\"geometry\":{\"type\":\"LineString\",\"coordinates\":[[%f,%f],[%f,%f]]},"
+            + "\"properties\":{\"summary\":{\"distance\":%.1f,\"duration\":%.1f}}}]}",
+            startLng, startLat, endLng, endLat, meters, meters / SPEED_M_PER_S);
+    }
+}
@@ -0,0 +1,31 @@
+package com.parkease.services;
+
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+// Offline provider for tests and load runs: every address maps to a stable
+// point inside a box around the configured centre, with no network access.
+@Service
+@ConditionalOnProperty(name = "app.geocoding.provider", havingValue = "stub")
+public class StubGeocodingProvider implements GeocodingProvider {
+
+    @Value("${app.geocoding.stub.center-lat:18.5204}")
+    private double centerLat;
+
+    @Value("${app.geocoding.stub.center-lon:73.8567}")
+    private double centerLon;
+
+    @Value("${app.geocoding.stub.spread-degrees:0.1}")
+    private double spreadDegrees;
+
+    @Override
+    public Optional<double[]> lookup(String address) {
+        int hash = address.hashCode();
+        double latOffset = ((hash & 0xffff) / 65535.0 - 0.5) * 2 * spreadDegrees;
+        double lonOffset = (((hash >>> 16) & 0xffff) / 65535.0 - 0.5) * 2 * spreadDegrees;
+        return Optional.of(new double[] { centerLat + latOffset, centerLon + lonOffset });
+    }
+}
@@ -0,0 +1,66 @@
+package com.parkease.services;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Size-bounded cache whose entries also expire after a fixed TTL. Access
+// order plus removeEldestEntry gives LRU eviction; expired entries are
+// dropped when read. All operations are short and synchronized.
+public class TtlLruCache<K, V> {
+
+    private record Entry<V>(V value, long expiresAtNanos) {
+    }
+
+    private final long ttlNanos;
+    private final LinkedHashMap<K, Entry<V>> map;
+    private long hits;
+    private long misses;
+
+    public TtlLruCache(int maxSize, long ttlMillis) {
+        if (maxSize < 1 || ttlMillis <= 0) {
+            throw new IllegalArgumentException("maxSize must be >= 1 and ttlMillis > 0");
+        }
+        this.ttlNanos = ttlMillis * 1_000_000L;
+        this.map = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    public synchronized V get(K key) {
+        Entry<V> entry = map.get(key);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        if (System.nanoTime() - entry.expiresAtNanos() >= 0) {
+            map.remove(key);
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.value();
+    }
+
+    public synchronized void put(K key, V value) {
+        map.put(key, new Entry<>(value, System.nanoTime() + ttlNanos));
+    }
+
+    public synchronized void invalidate(K key) {
+        map.remove(key);
+    }
+
+    public synchronized int size() {
+        return map.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+}
@@ -0,0 +1,88 @@
+package com.parkease.services;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+
+import com.parkease.dtos.WebSocketSessionStats;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Tracks the outbound send buffer of every open STOMP session so slow
+// consumers can be spotted before they show up as heap pressure.
+@Service
+public class WebSocketSessionMonitor {
+
+    private final Map<String, ConcurrentWebSocketSessionDecorator> sessions = new ConcurrentHashMap<>();
+    private final AtomicLong slowSessionsClosed = new AtomicLong();
+
+    public WebSocketSessionMonitor(MeterRegistry meterRegistry) {
+        Gauge.builder("parkease.websocket.sessions", sessions, Map::size)
+                .description("Open STOMP sessions")
+                .register(meterRegistry);
+        Gauge.builder("parkease.websocket.send.buffer.total", this, WebSocketSessionMonitor::totalBufferedBytes)
+                .description("Bytes queued for sending across all sessions")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("parkease.websocket.send.buffer.max", this, WebSocketSessionMonitor::maxBufferedBytes)
+                .description("Largest per-session send queue")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("parkease.websocket.sessions.slow.closed", slowSessionsClosed, AtomicLong::get)
+                .description("Sessions closed for exceeding the send time or buffer limit")
+                .register(meterRegistry);
+    }
+
+    public void register(ConcurrentWebSocketSessionDecorator session) {
+        sessions.put(session.getId(), session);
+    }
+
+    public void unregister(String sessionId, CloseStatus closeStatus) {
+        sessions.remove(sessionId);
+        if (CloseStatus.SESSION_NOT_RELIABLE.equals(closeStatus)) {
+            slowSessionsClosed.incrementAndGet();
+        }
+    }
+
+    public long totalBufferedBytes() {
+        long total = 0;
+        for (ConcurrentWebSocketSessionDecorator session : sessions.values()) {
+            total += session.getBufferSize();
+        }
+        return total;
+    }
+
+    public long maxBufferedBytes() {
+        long max = 0;
+        for (ConcurrentWebSocketSessionDecorator session : sessions.values()) {
+            max = Math.max(max, session.getBufferSize());
+        }
+        return max;
+    }
+
+    public int getOpenSessions() {
+        return sessions.size();
+    }
+
+    public long getSlowSessionsClosed() {
+        return slowSessionsClosed.get();
+    }
+
+    // Deepest queues first
+    public List<WebSocketSessionStats> getSessionStats(int limit) {
+        return sessions.values().stream()
+                .map(s -> new WebSocketSessionStats(s.getId(), s.getBufferSize(), s.getBufferSizeLimit(),
+                        s.getTimeSinceSendStarted()))
+                .sorted(Comparator.comparingInt(WebSocketSessionStats::getBufferedBytes).reversed())
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,102 @@
+package com.parkease.bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.parkease.geo.GeoUtils;
+import com.parkease.geo.GridSpatialIndex;
+import com.parkease.geo.GridSpatialIndex.Neighbor;
+import com.parkease.geo.SyntheticLots;
+import com.parkease.geo.SyntheticLots.Lot;
+
+/**
+ * Full scan versus grid index for the queries behind nearby search, on the
+ * same synthetic cities as GridSpatialIndexTests (which checks the answers
+ * agree).
+ *
+ * Run with: mvn -Pbench test-compile exec:exec
+ * Pass JMH options through bench.args, e.g. -Dbench.args="NearbySearch -p lots=100000".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NearbySearchBenchmark {
+
+    private static final int QUERY_COUNT = 1024;
+
+    @Param({ "1000", "10000", "100000" })
+    public int lots;
+
+    @Param({ "5" })
+    public double radiusKm;
+
+    @Param({ "20" })
+    public int k;
+
+    @Param({ "0.02" })
+    public double cellDegrees;
+
+    private List<Lot> dataset;
+    private GridSpatialIndex index;
+    private double[][] queries;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dataset = SyntheticLots.generate(lots, 42);
+        index = SyntheticLots.index(dataset, cellDegrees);
+        queries = SyntheticLots.queries(QUERY_COUNT, 43);
+    }
+
+    private double[] nextQuery() {
+        next = (next + 1) & (QUERY_COUNT - 1);
+        return queries[next];
+    }
+
+    @Benchmark
+    public double haversine() {
+        double[] q = nextQuery();
+        Lot lot = dataset.get(next % dataset.size());
+        return GeoUtils.haversineKm(q[0], q[1], lot.lat(), lot.lon());
+    }
+
+    @Benchmark
+    public List<Neighbor> radiusFullScan() {
+        double[] q = nextQuery();
+        return SyntheticLots.bruteForceWithinRadius(dataset, q[0], q[1], radiusKm);
+    }
+
+    @Benchmark
+    public List<Neighbor> radiusIndexed() {
+        double[] q = nextQuery();
+        return index.withinRadius(q[0], q[1], radiusKm);
+    }
+
+    @Benchmark
+    public List<Neighbor> nearestFullScan() {
+        double[] q = nextQuery();
+        return SyntheticLots.bruteForceNearest(dataset, q[0], q[1], k, radiusKm);
+    }
+
+    @Benchmark
+    public List<Neighbor> nearestIndexed() {
+        double[] q = nextQuery();
+        return index.nearest(q[0], q[1], k, radiusKm);
+    }
+}
@@ -0,0 +1,131 @@
+package com.parkease.geo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.parkease.geo.GridSpatialIndex.Neighbor;
+import com.parkease.geo.SyntheticLots.Lot;
+
+// Checks the grid index against a full scan on seeded synthetic cities.
+// Any change to the index or the cell size has to keep these identical.
+public class GridSpatialIndexTests {
+
+    private static final long SEED = 20240601L;
+    private static final int QUERIES = 200;
+    private static final double CELL_DEGREES = 0.02;
+    private static final double[] RADII_KM = { 0.3, 1, 5, 12 };
+    private static final double MAX_RADIUS_KM = 12;
+    private static final int[] KS = { 1, 5, 50 };
+
+    @ParameterizedTest
+    @ValueSource(ints = { 1_000, 10_000, 100_000 })
+    public void withinRadiusMatchesFullScan(int size) {
+        List<Lot> lots = SyntheticLots.generate(size, SEED + size);
+        GridSpatialIndex index = SyntheticLots.index(lots, CELL_DEGREES);
+
+        for (double[] q : SyntheticLots.queries(queryCount(size), SEED - size)) {
+            // One scan at the widest radius; narrower answers are its prefixes
+            List<Neighbor> widest = SyntheticLots.bruteForceWithinRadius(lots, q[0], q[1], MAX_RADIUS_KM);
+            for (double radiusKm : RADII_KM) {
+                List<Neighbor> actual = index.withinRadius(q[0], q[1], radiusKm);
+                assertSameResults(within(widest, radiusKm), actual, "radius " + radiusKm + " at " + q[0] + "," + q[1]);
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = { 1_000, 10_000, 100_000 })
+    public void nearestMatchesFullScan(int size) {
+        List<Lot> lots = SyntheticLots.generate(size, SEED + size);
+        GridSpatialIndex index = SyntheticLots.index(lots, CELL_DEGREES);
+
+        for (double[] q : SyntheticLots.queries(queryCount(size), SEED - size)) {
+            List<Neighbor> widest = SyntheticLots.bruteForceWithinRadius(lots, q[0], q[1], MAX_RADIUS_KM);
+            for (double maxRadiusKm : RADII_KM) {
+                List<Neighbor> inRange = within(widest, maxRadiusKm);
+                for (int k : KS) {
+                    List<Neighbor> expected = inRange.subList(0, Math.min(k, inRange.size()));
+                    List<Neighbor> actual = index.nearest(q[0], q[1], k, maxRadiusKm);
+                    assertSameResults(expected, actual, "k " + k + " within " + maxRadiusKm + " at " + q[0] + "," + q[1]);
+                }
+            }
+        }
+    }
+
+    // Keeps the full scans over the larger cities to a few seconds
+    private static int queryCount(int size) {
+        return Math.max(20, Math.min(200, 2_000_000 / size));
+    }
+
+    private static List<Neighbor> within(List<Neighbor> sortedByDistance, double radiusKm) {
+        int end = 0;
+        while (end < sortedByDistance.size() && sortedByDistance.get(end).distanceKm() <= radiusKm) {
+            end++;
+        }
+        return sortedByDistance.subList(0, end);
+    }
+
+    // Moves and removals must leave no stale entries behind in the old cells
+    @Test
+    public void staysCorrectUnderMovesAndRemovals() {
+        Random random = new Random(SEED);
+        List<Lot> initial = SyntheticLots.generate(10_000, SEED);
+        GridSpatialIndex index = SyntheticLots.index(initial, CELL_DEGREES);
+        Map<Long, Lot> current = new HashMap<>();
+        initial.forEach(lot -> current.put(lot.id(), lot));
+
+        List<Lot> moves = SyntheticLots.generate(5_000, SEED + 1);
+        for (Lot move : moves) {
+            long id = 1 + random.nextInt(initial.size());
+            if (random.nextInt(4) == 0) {
+                index.remove(id);
+                current.remove(id);
+            } else {
+                index.put(id, move.lat(), move.lon());
+                current.put(id, new Lot(id, move.lat(), move.lon()));
+            }
+        }
+
+        assertEquals(current.size(), index.size());
+        List<Lot> lots = new ArrayList<>(current.values());
+        for (double[] q : SyntheticLots.queries(QUERIES, SEED + 2)) {
+            assertSameResults(SyntheticLots.bruteForceWithinRadius(lots, q[0], q[1], 3),
+                    index.withinRadius(q[0], q[1], 3), "radius after moves");
+            assertSameResults(SyntheticLots.bruteForceNearest(lots, q[0], q[1], 10, 20),
+                    index.nearest(q[0], q[1], 10, 20), "nearest after moves");
+        }
+    }
+
+    @Test
+    public void handlesEmptyIndexAndZeroK() {
+        GridSpatialIndex index = new GridSpatialIndex(CELL_DEGREES);
+        assertTrue(index.withinRadius(18.5, 73.8, 5).isEmpty());
+        assertTrue(index.nearest(18.5, 73.8, 5, 5).isEmpty());
+        index.put(1, 18.5, 73.8);
+        assertTrue(index.nearest(18.5, 73.8, 0, 5).isEmpty());
+        assertFalse(index.nearest(18.5, 73.8, 1, 5).isEmpty());
+    }
+
+    // Equal distances may come back in any order, so ids are compared per distance
+    private static void assertSameResults(List<Neighbor> expected, List<Neighbor> actual, String query) {
+        assertEquals(expected.size(), actual.size(), "result count for " + query);
+        List<Neighbor> sorted = new ArrayList<>(actual);
+        sorted.sort(SyntheticLots.BY_DISTANCE);
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).distanceKm(), sorted.get(i).distanceKm(), "distance #" + i + " for " + query);
+        }
+        assertEquals(expected.stream().map(Neighbor::id).sorted().toList(),
+                sorted.stream().map(Neighbor::id).sorted().toList(), "ids for " + query);
+    }
+}
@@ -0,0 +1,108 @@
+package com.parkease.geo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.parkease.geo.GridSpatialIndex.Neighbor;
+import com.parkease.geo.SyntheticLots.Lot;
+
+// Checks the precomputed neighbour lists against a full scan per lot, both
+// after a rebuild and after incremental puts, moves and removals.
+public class ProximityGraphTests {
+
+    private static final long SEED = 20240715L;
+    private static final double CELL_DEGREES = 0.02;
+    private static final int K = 8;
+    private static final double RADIUS_KM = 3;
+
+    @Test
+    public void rebuildMatchesFullScan() {
+        List<Lot> lots = SyntheticLots.generate(2_000, SEED);
+        GridSpatialIndex index = SyntheticLots.index(lots, CELL_DEGREES);
+        ProximityGraph graph = new ProximityGraph(index, K, RADIUS_KM);
+        graph.rebuild();
+
+        for (Lot lot : lots) {
+            assertSameNeighbours(expected(lots, lot), graph.neighbours(lot.id()), "lot " + lot.id());
+        }
+    }
+
+    @Test
+    public void incrementalUpdatesMatchFullScan() {
+        Random random = new Random(SEED);
+        List<Lot> initial = SyntheticLots.generate(2_000, SEED + 1);
+        GridSpatialIndex index = SyntheticLots.index(initial, CELL_DEGREES);
+        ProximityGraph graph = new ProximityGraph(index, K, RADIUS_KM);
+        graph.rebuild();
+        Map<Long, Lot> current = new HashMap<>();
+        initial.forEach(lot -> current.put(lot.id(), lot));
+
+        List<Lot> moves = SyntheticLots.generate(1_000, SEED + 2);
+        long nextId = initial.size() + 1;
+        for (Lot move : moves) {
+            int action = random.nextInt(3);
+            if (action == 0) {
+                long id = 1 + random.nextInt(initial.size());
+                index.remove(id);
+                graph.onRemove(id);
+                current.remove(id);
+            } else {
+                // Either moves an existing lot or adds a new one
+                long id = action == 1 ? 1 + random.nextInt(initial.size()) : nextId++;
+                index.put(id, move.lat(), move.lon());
+                graph.onPut(id);
+                current.put(id, new Lot(id, move.lat(), move.lon()));
+            }
+        }
+
+        List<Lot> lots = new ArrayList<>(current.values());
+        for (Lot lot : lots) {
+            assertSameNeighbours(expected(lots, lot), graph.neighbours(lot.id()), "lot " + lot.id() + " after updates");
+        }
+    }
+
+    @Test
+    public void removedLotHasNoNeighboursAndIsListedNowhere() {
+        List<Lot> lots = SyntheticLots.generate(500, SEED + 3);
+        GridSpatialIndex index = SyntheticLots.index(lots, CELL_DEGREES);
+        ProximityGraph graph = new ProximityGraph(index, K, RADIUS_KM);
+        graph.rebuild();
+
+        long removed = lots.get(0).id();
+        index.remove(removed);
+        graph.onRemove(removed);
+
+        assertTrue(graph.neighbours(removed).isEmpty());
+        for (Lot lot : lots) {
+            for (Neighbor n : graph.neighbours(lot.id())) {
+                assertTrue(n.id() != removed, "lot " + lot.id() + " still lists the removed lot");
+            }
+        }
+    }
+
+    // The lot's k nearest others within the radius, nearest first
+    private static List<Neighbor> expected(List<Lot> lots, Lot lot) {
+        List<Neighbor> others = new ArrayList<>();
+        for (Neighbor n : SyntheticLots.bruteForceWithinRadius(lots, lot.lat(), lot.lon(), RADIUS_KM)) {
+            if (n.id() != lot.id()) {
+                others.add(n);
+            }
+        }
+        return others.subList(0, Math.min(K, others.size()));
+    }
+
+    private static void assertSameNeighbours(List<Neighbor> expected, List<Neighbor> actual, String context) {
+        assertEquals(expected.size(), actual.size(), context + ": count");
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).distanceKm(), actual.get(i).distanceKm(), 1e-9, context + ": distance " + i);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.parkease.geo;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import com.parkease.geo.GridSpatialIndex.Neighbor;
+
+// Seeded lot datasets over a Pune-sized bounding box, shared by the
+// correctness tests and the JMH benchmarks. Most lots sit in a few dense
+// districts around the centre, the rest are spread evenly, so both crowded
+// and sparse grid cells get exercised.
+public final class SyntheticLots {
+
+    public static final double MIN_LAT = 18.40;
+    public static final double MAX_LAT = 18.65;
+    public static final double MIN_LON = 73.70;
+    public static final double MAX_LON = 73.98;
+
+    public static final Comparator<Neighbor> BY_DISTANCE =
+            Comparator.comparingDouble(Neighbor::distanceKm).thenComparingLong(Neighbor::id);
+
+    private static final int DISTRICTS = 12;
+    private static final double DISTRICT_SPREAD_DEGREES = 0.008;
+    private static final double CLUSTERED_SHARE = 0.7;
+
+    public record Lot(long id, double lat, double lon) {
+    }
+
+    private SyntheticLots() {
+    }
+
+    public static List<Lot> generate(int count, long seed) {
+        Random random = new Random(seed);
+        double[][] districts = new double[DISTRICTS][];
+        for (int i = 0; i < DISTRICTS; i++) {
+            districts[i] = randomPoint(random);
+        }
+        List<Lot> lots = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            double[] point;
+            if (random.nextDouble() < CLUSTERED_SHARE) {
+                double[] centre = districts[random.nextInt(DISTRICTS)];
+                point = new double[] {
+                        clamp(centre[0] + random.nextGaussian() * DISTRICT_SPREAD_DEGREES, MIN_LAT, MAX_LAT),
+                        clamp(centre[1] + random.nextGaussian() * DISTRICT_SPREAD_DEGREES, MIN_LON, MAX_LON) };
+            } else {
+                point = randomPoint(random);
+            }
+            lots.add(new Lot(i + 1, point[0], point[1]));
+        }
+        return lots;
+    }
+
+    // Query points are drawn from the same box, so some land in empty areas
+    public static double[][] queries(int count, long seed) {
+        Random random = new Random(seed);
+        double[][] queries = new double[count][];
+        for (int i = 0; i < count; i++) {
+            queries[i] = randomPoint(random);
+        }
+        return queries;
+    }
+
+    public static GridSpatialIndex index(List<Lot> lots, double cellDegrees) {
+        GridSpatialIndex index = new GridSpatialIndex(cellDegrees);
+        for (Lot lot : lots) {
+            index.put(lot.id(), lot.lat(), lot.lon());
+        }
+        return index;
+    }
+
+    // Reference answers: a full scan, as findNearbyParking did before the index
+
+    public static List<Neighbor> bruteForceWithinRadius(List<Lot> lots, double lat, double lon, double radiusKm) {
+        List<Neighbor> result = new ArrayList<>();
+        for (Lot lot : lots) {
+            double d = GeoUtils.haversineKm(lat, lon, lot.lat(), lot.lon());
+            if (d <= radiusKm) {
+                result.add(new Neighbor(lot.id(), d));
+            }
+        }
+        result.sort(BY_DISTANCE);
+        return result;
+    }
+
+    public static List<Neighbor> bruteForceNearest(List<Lot> lots, double lat, double lon, int k, double maxRadiusKm) {
+        List<Neighbor> inRange = bruteForceWithinRadius(lots, lat, lon, maxRadiusKm);
+        return inRange.subList(0, Math.min(k, inRange.size()));
+    }
+
+    private static double[] randomPoint(Random random) {
+        return new double[] {
+                MIN_LAT + random.nextDouble() * (MAX_LAT - MIN_LAT),
+                MIN_LON + random.nextDouble() * (MAX_LON - MIN_LON) };
+    }
+
+    private static double clamp(double value, double min, double max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
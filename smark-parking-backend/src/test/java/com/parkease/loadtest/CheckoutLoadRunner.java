@@ -0,0 +1,214 @@
+package com.parkease.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.parkease.loadtest.StompLoadRunner.LatencyHistogram;
+
+/**
+ * Drives complete checkouts against a backend started with the gateway-sim
+ * profile: create-order (through the gateway pool to the simulator), pay on
+ * the simulator as the browser checkout would, then store the payment and,
+ * when a slot is given, the booking. Each checkout is for a one-hour stay from
+ * now, quoted by the server first so the order is for the quoted amount. Each sender runs checkouts back to back
+ * for the duration; the report gives checkouts per second and per-step latency.
+ *
+ * Run against a started backend (--spring.profiles.active=local,gateway-sim):
+ *   mvn -Ploadtest test-compile exec:java -Dloadtest.mainClass=com.parkease.loadtest.CheckoutLoadRunner \
+ *       -Dloadtest.token=JWT
+ *
+ * Settings (system properties):
+ *   loadtest.baseUrl        http://localhost:8081
+ *   loadtest.token          JWT of a ROLE_USER account (required)
+ *   loadtest.email          checkout@example.com   payer email sent to the simulator and /store
+ *   loadtest.lotName        lot name stored with each payment (optional)
+ *   loadtest.parkingLotId   lot id to quote and book (required)
+ *   loadtest.slotId         slot id for the booking step (optional; skipped when absent)
+ *   loadtest.concurrency    32      parallel checkouts
+ *   loadtest.durationSec    60
+ */
+public class CheckoutLoadRunner {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private final String baseUrl = System.getProperty("loadtest.baseUrl", "http://localhost:8081");
+    private final String token = System.getProperty("loadtest.token");
+    private final String email = System.getProperty("loadtest.email", "checkout@example.com");
+    private final String lotName = System.getProperty("loadtest.lotName");
+    private final Long parkingLotId = Long.getLong("loadtest.parkingLotId");
+    private final Long slotId = Long.getLong("loadtest.slotId");
+    private final int concurrency = Integer.getInteger("loadtest.concurrency", 32);
+    private final int durationSec = Integer.getInteger("loadtest.durationSec", 60);
+
+    private final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final LatencyHistogram quoteLatency = new LatencyHistogram();
+    private final LatencyHistogram createLatency = new LatencyHistogram();
+    private final LatencyHistogram payLatency = new LatencyHistogram();
+    private final LatencyHistogram storeLatency = new LatencyHistogram();
+    private final LatencyHistogram bookingLatency = new LatencyHistogram();
+    private final LatencyHistogram checkoutLatency = new LatencyHistogram();
+    private final Map<String, AtomicLong> failures = new ConcurrentHashMap<>();
+    private final AtomicLong completed = new AtomicLong();
+
+    public static void main(String[] args) throws Exception {
+        new CheckoutLoadRunner().run();
+    }
+
+    void run() throws Exception {
+        if (token == null || token.isBlank()) {
+            System.err.println("Set -Dloadtest.token to the JWT of a ROLE_USER account");
+            return;
+        }
+        if (parkingLotId == null) {
+            System.err.println("Set -Dloadtest.parkingLotId to a lot to quote (and the lot of -Dloadtest.slotId)");
+            return;
+        }
+        System.out.println("Running checkouts with " + concurrency + " senders for " + durationSec + " s"
+                + (slotId != null ? " (with booking of slot " + slotId + ")" : "") + "...");
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(durationSec);
+        ExecutorService senders = Executors.newFixedThreadPool(concurrency);
+        long start = System.nanoTime();
+        for (int i = 0; i < concurrency; i++) {
+            senders.execute(() -> {
+                while (System.nanoTime() < deadline) {
+                    checkout();
+                }
+            });
+        }
+        senders.shutdown();
+        senders.awaitTermination(durationSec + 120L, TimeUnit.SECONDS);
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        System.out.println();
+        System.out.println("=== Checkout load: " + completed.get() + " checkouts in " + elapsedMs + " ms ===");
+        System.out.printf("Throughput                : %.1f checkouts/s%n", completed.get() * 1000.0 / Math.max(1, elapsedMs));
+        System.out.println("Failures by step          : " + new TreeMap<>(failures));
+        System.out.println("quote latency (ms)        : " + quoteLatency.summary());
+        System.out.println("create-order latency (ms) : " + createLatency.summary());
+        System.out.println("gateway pay latency (ms)  : " + payLatency.summary());
+        System.out.println("store latency (ms)        : " + storeLatency.summary());
+        if (slotId != null) {
+            System.out.println("booking latency (ms)      : " + bookingLatency.summary());
+        }
+        System.out.println("checkout latency (ms)     : " + checkoutLatency.summary());
+        System.exit(0);
+    }
+
+    private void checkout() {
+        long start = System.nanoTime();
+        Instant arrival = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        JsonNode quote = call("quote", quoteLatency, get("/parkingspaces/" + parkingLotId + "/quote?arrival=" + arrival
+                + "&departure=" + arrival.plus(1, ChronoUnit.HOURS)));
+        if (quote == null) {
+            return;
+        }
+        JsonNode order = call("create-order", createLatency, post("/api/payment/create-order", true, null,
+                quoted(quote).put("email", email)));
+        if (order == null) {
+            return;
+        }
+        String orderId = order.path("id").asText();
+        JsonNode paid = call("pay", payLatency, post("/gateway-sim/v1/orders/" + orderId + "/pay", false, null,
+                mapper.createObjectNode().put("email", email)));
+        if (paid == null) {
+            return;
+        }
+        String paymentId = paid.path("razorpay_payment_id").asText();
+        ObjectNode payment = mapper.createObjectNode()
+                .put("paymentId", paymentId)
+                .put("orderId", orderId)
+                .put("signature", paid.path("razorpay_signature").asText())
+                .put("amount", order.path("amount").asLong() / 100.0)
+                .put("currency", order.path("currency").asText("INR"))
+                .put("customerEmail", email)
+                .put("customerName", "Load Test")
+                .put("lotName", lotName)
+                .put("status", "Completed");
+        if (call("store", storeLatency, post("/api/payment/store", true, paymentId, payment)) == null) {
+            return;
+        }
+        if (slotId != null) {
+            ObjectNode booking = quoted(quote)
+                    .put("orderId", orderId)
+                    .put("carNumber", "LOAD-TEST");
+            if (call("booking", bookingLatency, post("/api/bookings/" + slotId, true, paymentId, booking)) == null) {
+                return;
+            }
+        }
+        checkoutLatency.record(System.nanoTime() - start);
+        completed.incrementAndGet();
+    }
+
+    // The quote fields create-order and the booking both carry
+    private ObjectNode quoted(JsonNode quote) {
+        return mapper.createObjectNode()
+                .put("parkingLotId", parkingLotId)
+                .put("amount", quote.path("amount").asDouble())
+                .put("arrivalTime", quote.path("arrivalTime").asText())
+                .put("departureTime", quote.path("departureTime").asText())
+                .put("quoteToken", quote.path("quoteToken").asText());
+    }
+
+    // Some endpoints answer plain text; only the gateway responses are read
+    private static JsonNode parse(String body) {
+        try {
+            return mapper.readTree(body);
+        } catch (Exception e) {
+            return mapper.createObjectNode();
+        }
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+    }
+
+    private HttpRequest post(String path, boolean authenticated, String idempotencyKey, ObjectNode body) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString()));
+        if (authenticated) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        if (idempotencyKey != null) {
+            request.header("Idempotency-Key", idempotencyKey);
+        }
+        return request.build();
+    }
+
+    // Null (and counted as a failure of the step) unless the call returned 2xx
+    private JsonNode call(String step, LatencyHistogram latency, HttpRequest request) {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+            latency.record(System.nanoTime() - start);
+            if (response.statusCode() / 100 != 2) {
+                failures.computeIfAbsent(step + " " + response.statusCode(), k -> new AtomicLong()).incrementAndGet();
+                return null;
+            }
+            return parse(response.body());
+        } catch (Exception e) {
+            failures.computeIfAbsent(step + " " + e.getClass().getSimpleName(), k -> new AtomicLong()).incrementAndGet();
+            return null;
+        }
+    }
+}
@@ -0,0 +1,320 @@
+package com.parkease.loadtest;
+
+import java.lang.reflect.Type;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.springframework.web.socket.sockjs.client.SockJsClient;
+import org.springframework.web.socket.sockjs.client.WebSocketTransport;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Opens thousands of SockJS/STOMP sessions against /ws, subscribes them to
+ * /topic/parking-space/{id} and drives reserve/release traffic through the
+ * booking REST endpoints, then reports event latency and server CPU/heap.
+ *
+ * Run against a started backend:
+ *   mvn -Ploadtest test-compile exec:java -Dloadtest.sessions=5000 -Dloadtest.token=JWT
+ *
+ * Settings (system properties, all optional except token for booking traffic):
+ *   loadtest.baseUrl        http://localhost:8081
+ *   loadtest.sessions       2000    concurrent STOMP sessions
+ *   loadtest.topicsPerSession 2     parking-space topics per session
+ *   loadtest.hotSpaces      5       most subscriptions go to the first N lots
+ *   loadtest.bookingsPerSec 20      reserve+release pairs per second
+ *   loadtest.durationSec    60      measurement window
+ *   loadtest.token          JWT of a ROLE_USER account (Authorization header)
+ */
+public class StompLoadRunner {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private final String baseUrl = System.getProperty("loadtest.baseUrl", "http://localhost:8081");
+    private final int sessions = Integer.getInteger("loadtest.sessions", 2000);
+    private final int topicsPerSession = Integer.getInteger("loadtest.topicsPerSession", 2);
+    private final int hotSpaces = Integer.getInteger("loadtest.hotSpaces", 5);
+    private final int bookingsPerSec = Integer.getInteger("loadtest.bookingsPerSec", 20);
+    private final int durationSec = Integer.getInteger("loadtest.durationSec", 60);
+    private final String token = System.getProperty("loadtest.token");
+
+    private final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+
+    // slotId:action -> nanoTime the REST call was issued
+    private final Map<String, Long> pendingEvents = new ConcurrentHashMap<>();
+    private final LatencyHistogram eventLatency = new LatencyHistogram();
+    private final LatencyHistogram restLatency = new LatencyHistogram();
+    private final AtomicLong eventsReceived = new AtomicLong();
+    private final AtomicLong restErrors = new AtomicLong();
+    private final AtomicInteger connected = new AtomicInteger();
+    private final AtomicInteger connectFailures = new AtomicInteger();
+    private final List<double[]> serverSamples = new ArrayList<>(); // {cpu, heapBytes}
+
+    public static void main(String[] args) throws Exception {
+        new StompLoadRunner().run();
+    }
+
+    void run() throws Exception {
+        Map<Long, List<Long>> slotsBySpace = loadAvailableSlots();
+        if (slotsBySpace.isEmpty()) {
+            System.err.println("No parking spaces with free slots found at " + baseUrl);
+            return;
+        }
+        List<Long> spaceIds = new ArrayList<>(slotsBySpace.keySet());
+        System.out.println("Parking spaces: " + spaceIds.size() + ", opening " + sessions + " sessions...");
+
+        List<StompSession> open = connectSessions(spaceIds);
+        System.out.println("Connected " + connected.get() + " sessions, " + connectFailures.get() + " failed");
+
+        ScheduledExecutorService driver = Executors.newScheduledThreadPool(4);
+        if (token != null && bookingsPerSec > 0) {
+            long periodMicros = 1_000_000L / bookingsPerSec;
+            driver.scheduleAtFixedRate(() -> bookingCycle(slotsBySpace, spaceIds), 0, periodMicros, TimeUnit.MICROSECONDS);
+        } else {
+            System.out.println("No loadtest.token given, running subscriptions only");
+        }
+        if (token != null) {
+            driver.scheduleAtFixedRate(this::sampleServer, 0, 5, TimeUnit.SECONDS);
+        }
+
+        Thread.sleep(durationSec * 1000L);
+        driver.shutdownNow();
+        driver.awaitTermination(5, TimeUnit.SECONDS);
+
+        report();
+        for (StompSession session : open) {
+            try {
+                session.disconnect();
+            } catch (Exception ignored) {
+            }
+        }
+        System.exit(0);
+    }
+
+    private Map<Long, List<Long>> loadAvailableSlots() throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/parkingspaces/getAllParkingSpaces")).GET().build();
+        JsonNode spaces = mapper.readTree(http.send(request, HttpResponse.BodyHandlers.ofString()).body());
+        Map<Long, List<Long>> result = new ConcurrentHashMap<>();
+        for (JsonNode space : spaces) {
+            List<Long> slots = new ArrayList<>();
+            for (JsonNode slot : space.path("parkingSlot")) {
+                if (slot.path("available").asBoolean()) {
+                    slots.add(slot.path("slotId").asLong());
+                }
+            }
+            if (!slots.isEmpty()) {
+                result.put(space.path("id").asLong(), slots);
+            }
+        }
+        return result;
+    }
+
+    private List<StompSession> connectSessions(List<Long> spaceIds) throws InterruptedException {
+        WebSocketStompClient client = new WebSocketStompClient(
+                new SockJsClient(List.of(new WebSocketTransport(new StandardWebSocketClient()))));
+        client.setMessageConverter(new MappingJackson2MessageConverter());
+
+        List<StompSession> open = new ArrayList<>();
+        Semaphore inFlight = new Semaphore(200);
+        Random random = new Random(42);
+        for (int i = 0; i < sessions; i++) {
+            inFlight.acquire();
+            List<Long> topics = pickTopics(spaceIds, random);
+            client.connectAsync(baseUrl + "/ws", new StompSessionHandlerAdapter() {
+                @Override
+                public void afterConnected(StompSession session, StompHeaders connectedHeaders) {
+                    for (Long spaceId : topics) {
+                        session.subscribe("/topic/parking-space/" + spaceId, new EventHandler());
+                    }
+                }
+            }).whenComplete((session, error) -> {
+                inFlight.release();
+                if (error != null) {
+                    connectFailures.incrementAndGet();
+                } else {
+                    connected.incrementAndGet();
+                    synchronized (open) {
+                        open.add(session);
+                    }
+                }
+            });
+        }
+        inFlight.acquire(200);
+        return open;
+    }
+
+    // Skewed towards a few hot lots, like a busy downtown evening
+    private List<Long> pickTopics(List<Long> spaceIds, Random random) {
+        List<Long> topics = new ArrayList<>();
+        int hot = Math.min(hotSpaces, spaceIds.size());
+        for (int t = 0; t < topicsPerSession; t++) {
+            int index = random.nextInt(10) < 8 ? random.nextInt(hot) : random.nextInt(spaceIds.size());
+            Long id = spaceIds.get(index);
+            if (!topics.contains(id)) {
+                topics.add(id);
+            }
+        }
+        return topics;
+    }
+
+    private void bookingCycle(Map<Long, List<Long>> slotsBySpace, List<Long> spaceIds) {
+        Long spaceId = spaceIds.get(ThreadLocalRandom.current().nextInt(spaceIds.size()));
+        List<Long> slots = slotsBySpace.get(spaceId);
+        Long slotId = slots.get(ThreadLocalRandom.current().nextInt(slots.size()));
+        String body = "{\"parkingSpaceId\":" + spaceId + ",\"userId\":1,\"userName\":\"loadtest\"}";
+        if (post("/api/bookings/reserve/" + slotId, body, slotId + ":RESERVED")) {
+            post("/api/bookings/release/" + slotId, body, slotId + ":RELEASED");
+        }
+    }
+
+    private boolean post(String path, String body, String eventKey) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(10))
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        long start = System.nanoTime();
+        pendingEvents.put(eventKey, start);
+        try {
+            HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+            restLatency.record(System.nanoTime() - start);
+            if (response.statusCode() >= 300) {
+                pendingEvents.remove(eventKey);
+                restErrors.incrementAndGet();
+                return false;
+            }
+            return true;
+        } catch (Exception e) {
+            pendingEvents.remove(eventKey);
+            restErrors.incrementAndGet();
+            return false;
+        }
+    }
+
+    private void sampleServer() {
+        try {
+            double cpu = metric("process.cpu.usage", "");
+            double heap = metric("jvm.memory.used", "?tag=area:heap");
+            synchronized (serverSamples) {
+                serverSamples.add(new double[] { cpu, heap });
+            }
+        } catch (Exception e) {
+            System.err.println("Metrics sample failed: " + e.getMessage());
+        }
+    }
+
+    private double metric(String name, String query) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/metrics/" + name + query))
+                .header("Authorization", "Bearer " + token)
+                .GET().build();
+        JsonNode node = mapper.readTree(http.send(request, HttpResponse.BodyHandlers.ofString()).body());
+        return node.path("measurements").path(0).path("value").asDouble();
+    }
+
+    private void report() {
+        System.out.println();
+        System.out.println("=== STOMP load test: " + durationSec + "s ===");
+        System.out.println("Sessions connected/failed : " + connected.get() + " / " + connectFailures.get());
+        System.out.println("Events received           : " + eventsReceived.get());
+        System.out.println("REST calls / errors       : " + restLatency.count() + " / " + restErrors.get());
+        System.out.println("Event latency (ms)        : " + eventLatency.summary());
+        System.out.println("REST latency (ms)         : " + restLatency.summary());
+        synchronized (serverSamples) {
+            if (!serverSamples.isEmpty()) {
+                double cpuMax = 0, cpuSum = 0, heapMax = 0;
+                for (double[] sample : serverSamples) {
+                    cpuMax = Math.max(cpuMax, sample[0]);
+                    cpuSum += sample[0];
+                    heapMax = Math.max(heapMax, sample[1]);
+                }
+                System.out.printf("Server CPU avg/max        : %.1f%% / %.1f%%%n",
+                        100 * cpuSum / serverSamples.size(), 100 * cpuMax);
+                System.out.printf("Server heap used max      : %.1f MB%n", heapMax / (1024 * 1024));
+            }
+        }
+    }
+
+    private class EventHandler implements StompFrameHandler {
+        @Override
+        public Type getPayloadType(StompHeaders headers) {
+            return Map.class;
+        }
+
+        @Override
+        public void handleFrame(StompHeaders headers, Object payload) {
+            eventsReceived.incrementAndGet();
+            Map<?, ?> event = (Map<?, ?>) payload;
+            Object slotId = event.get("slotId");
+            Object action = event.get("action");
+            if (slotId == null || action == null) {
+                return;
+            }
+            Long sentAt = pendingEvents.get(slotId + ":" + action);
+            if (sentAt != null) {
+                eventLatency.record(System.nanoTime() - sentAt);
+            }
+        }
+    }
+
+    // Fixed 1 ms buckets up to 60 s; good enough for end-to-end numbers and lock free
+    static class LatencyHistogram {
+        private static final int MAX_MS = 60_000;
+        private final AtomicLongArray buckets = new AtomicLongArray(MAX_MS + 1);
+        private final AtomicLong total = new AtomicLong();
+
+        void record(long nanos) {
+            int ms = (int) Math.min(MAX_MS, TimeUnit.NANOSECONDS.toMillis(nanos));
+            buckets.incrementAndGet(ms);
+            total.incrementAndGet();
+        }
+
+        long count() {
+            return total.get();
+        }
+
+        long percentile(double p) {
+            long target = (long) Math.ceil(total.get() * p);
+            long seen = 0;
+            for (int ms = 0; ms <= MAX_MS; ms++) {
+                seen += buckets.get(ms);
+                if (seen >= target && seen > 0) {
+                    return ms;
+                }
+            }
+            return MAX_MS;
+        }
+
+        String summary() {
+            if (total.get() == 0) {
+                return "no samples";
+            }
+            return "p50=" + percentile(0.50) + " p90=" + percentile(0.90) + " p99=" + percentile(0.99)
+                    + " p99.9=" + percentile(0.999) + " max=" + percentile(1.0) + " (n=" + total.get() + ")";
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.parkease.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.parkease.loadtest.StompLoadRunner.LatencyHistogram;
+
+/**
+ * Replays a storm of signed Razorpay-style webhook events against
+ * /api/payment/webhook: every order gets authorized, sometimes failed, then
+ * captured events, each delivered several times and all shuffled, the way
+ * gateway retries arrive after an outage. Afterwards every order should be
+ * stored once with status COMPLETED.
+ *
+ * Run against a started backend using the same webhook secret:
+ *   mvn -Ploadtest test-compile exec:java -Dloadtest.mainClass=com.parkease.loadtest.WebhookStormRunner \
+ *       -Dloadtest.webhookSecret=SECRET
+ *
+ * Settings (system properties):
+ *   loadtest.baseUrl        http://localhost:8081
+ *   loadtest.webhookSecret  app.payment.webhook.secret of the backend (required)
+ *   loadtest.orders         2000    distinct orders
+ *   loadtest.deliveries     3       times each event is delivered
+ *   loadtest.failedShare    0.1     orders with a failed attempt before capture
+ *   loadtest.concurrency    64      parallel senders
+ *   loadtest.seed           1
+ */
+public class WebhookStormRunner {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private final String baseUrl = System.getProperty("loadtest.baseUrl", "http://localhost:8081");
+    private final String secret = System.getProperty("loadtest.webhookSecret");
+    private final int orders = Integer.getInteger("loadtest.orders", 2000);
+    private final int deliveries = Integer.getInteger("loadtest.deliveries", 3);
+    private final double failedShare = Double.parseDouble(System.getProperty("loadtest.failedShare", "0.1"));
+    private final int concurrency = Integer.getInteger("loadtest.concurrency", 64);
+    private final long seed = Long.getLong("loadtest.seed", 1L);
+
+    private final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final Map<String, AtomicLong> responses = new ConcurrentHashMap<>();
+    private final AtomicLong errors = new AtomicLong();
+
+    public static void main(String[] args) throws Exception {
+        new WebhookStormRunner().run();
+    }
+
+    void run() throws Exception {
+        if (secret == null || secret.isBlank()) {
+            System.err.println("Set -Dloadtest.webhookSecret to the backend's app.payment.webhook.secret");
+            return;
+        }
+        List<Delivery> storm = buildStorm();
+        System.out.println("Sending " + storm.size() + " deliveries for " + orders + " orders with "
+                + concurrency + " senders...");
+
+        ExecutorService senders = Executors.newFixedThreadPool(concurrency);
+        long start = System.nanoTime();
+        for (Delivery delivery : storm) {
+            senders.execute(() -> send(delivery));
+        }
+        senders.shutdown();
+        senders.awaitTermination(30, TimeUnit.MINUTES);
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        System.out.println();
+        System.out.println("=== Webhook storm: " + storm.size() + " deliveries in " + elapsedMs + " ms ===");
+        System.out.printf("Throughput                : %.0f req/s%n", storm.size() * 1000.0 / Math.max(1, elapsedMs));
+        System.out.println("Responses                 : " + new TreeMap<>(responses));
+        System.out.println("Transport errors          : " + errors.get());
+        System.out.println("Ack latency (ms)          : " + latency.summary());
+        System.out.println("Check: every order_storm_* row in the payment table should be COMPLETED, once.");
+        System.exit(0);
+    }
+
+    private List<Delivery> buildStorm() throws Exception {
+        Random random = new Random(seed);
+        String run = Long.toString(System.currentTimeMillis(), 36);
+        long now = System.currentTimeMillis() / 1000;
+        List<Delivery> storm = new ArrayList<>();
+        for (int i = 0; i < orders; i++) {
+            String orderId = "order_storm_" + run + "_" + i;
+            long amount = 2000 + random.nextInt(50) * 1000;
+            List<String> events = new ArrayList<>(List.of("payment.authorized"));
+            if (random.nextDouble() < failedShare) {
+                events.add("payment.failed");
+            }
+            events.add("payment.captured");
+            for (int e = 0; e < events.size(); e++) {
+                String eventId = "evt_" + run + "_" + i + "_" + e;
+                byte[] body = eventBody(events.get(e), orderId, "pay_" + run + "_" + i + "_" + e, amount, now + e);
+                for (int d = 0; d < deliveries; d++) {
+                    storm.add(new Delivery(eventId, body, sign(body)));
+                }
+            }
+        }
+        Collections.shuffle(storm, random);
+        return storm;
+    }
+
+    private byte[] eventBody(String event, String orderId, String paymentId, long amountPaise, long createdAt)
+            throws Exception {
+        ObjectNode root = mapper.createObjectNode();
+        root.put("entity", "event");
+        root.put("event", event);
+        root.put("created_at", createdAt);
+        ObjectNode payment = root.putObject("payload").putObject("payment").putObject("entity");
+        payment.put("id", paymentId);
+        payment.put("order_id", orderId);
+        payment.put("amount", amountPaise);
+        payment.put("currency", "INR");
+        payment.put("status", event.substring("payment.".length()));
+        payment.put("email", "storm@example.com");
+        return mapper.writeValueAsBytes(root);
+    }
+
+    private String sign(byte[] body) throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        return HexFormat.of().formatHex(mac.doFinal(body));
+    }
+
+    private void send(Delivery delivery) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/payment/webhook"))
+                .header("Content-Type", "application/json")
+                .header("X-Razorpay-Signature", delivery.signature())
+                .header("X-Razorpay-Event-Id", delivery.eventId())
+                .POST(HttpRequest.BodyPublishers.ofByteArray(delivery.body()))
+                .build();
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+            latency.record(System.nanoTime() - start);
+            String key = response.statusCode() + " " + response.body();
+            responses.computeIfAbsent(key, k -> new AtomicLong()).incrementAndGet();
+        } catch (Exception e) {
+            errors.incrementAndGet();
+        }
+    }
+
+    private record Delivery(String eventId, byte[] body, String signature) {
+    }
+}
@@ -0,0 +1,153 @@
+package com.parkease.pricing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+// Block rounding, the daily cap per 24 h from arrival and the per-night cap,
+// with the closed forms also checked against a minute-by-minute sum.
+public class TariffTests {
+
+    private static final double DELTA = 1e-6;
+    private static final long SEED = 20241019L;
+
+    // Minutes since the epoch: day 1 00:00, so stays never start before minute 0
+    private static final long DAY = Tariff.MINUTES_PER_DAY;
+    private static final long NIGHT_FROM = 22 * 60;
+    private static final long NIGHT_TO = 6 * 60;
+
+    private final PricingRules flat = PricingRules.parse("", "");
+    private final Tariff tariff = new Tariff(flat, 60, (int) NIGHT_FROM, (int) NIGHT_TO);
+
+    private static long at(long day, int hour, int minute) {
+        return day * DAY + hour * 60 + minute;
+    }
+
+    @Test
+    public void roundsUpToWholeBlocksFromArrival() {
+        long arrival = at(1, 9, 10);
+        assertEquals(arrival + 60, tariff.billedEnd(arrival, arrival + 1));
+        assertEquals(arrival + 60, tariff.billedEnd(arrival, arrival + 60));
+        assertEquals(arrival + 120, tariff.billedEnd(arrival, arrival + 61));
+        // At least one block, even for an empty stay
+        assertEquals(arrival + 60, tariff.billedEnd(arrival, arrival));
+
+        Tariff quarterHours = new Tariff(flat, 15, (int) NIGHT_FROM, (int) NIGHT_TO);
+        assertEquals(arrival + 15, quarterHours.billedEnd(arrival, arrival + 14));
+        assertEquals(arrival + 30, quarterHours.billedEnd(arrival, arrival + 16));
+    }
+
+    @Test
+    public void rejectsBlocksOutsideOneDay() {
+        assertThrows(IllegalArgumentException.class, () -> new Tariff(flat, 0, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> new Tariff(flat, 1441, 0, 0));
+    }
+
+    @Test
+    public void overnightWindowWrapsMidnight() {
+        assertFalse(tariff.isOvernight(21 * 60 + 59));
+        assertTrue(tariff.isOvernight(22 * 60));
+        assertTrue(tariff.isOvernight(0));
+        assertTrue(tariff.isOvernight(5 * 60 + 59));
+        assertFalse(tariff.isOvernight(6 * 60));
+    }
+
+    @Test
+    public void chargesDaytimeHoursUncapped() {
+        assertEquals(30, tariff.dayCharge(at(1, 9, 0), at(1, 12, 0), 10, Double.POSITIVE_INFINITY, false), DELTA);
+        // 20:00 to 08:00 is 4 daytime hours around 8 overnight ones
+        assertEquals(40, tariff.dayCharge(at(1, 20, 0), at(2, 8, 0), 10, Double.POSITIVE_INFINITY, false), DELTA);
+        assertEquals(120, tariff.dayCharge(at(1, 20, 0), at(2, 8, 0), 10, Double.POSITIVE_INFINITY, true), DELTA);
+    }
+
+    @Test
+    public void capsDaytimePerTwentyFourHoursFromArrival() {
+        // 16 daytime hours a day at 10 each, capped at 100
+        assertEquals(100, tariff.dayCharge(at(1, 6, 0), at(1, 22, 0), 10, 100, false), DELTA);
+        assertEquals(200, tariff.dayCharge(at(1, 8, 0), at(3, 8, 0), 10, 100, false), DELTA);
+        // 08:00 to 12:00 the next day: one capped 24 h, then 4 hours
+        assertEquals(140, tariff.dayCharge(at(1, 8, 0), at(2, 12, 0), 10, 100, false), DELTA);
+        // 18:00 to 18:00: the 24 h span two calendar days but are capped once
+        assertEquals(100, tariff.dayCharge(at(1, 18, 0), at(2, 18, 0), 10, 100, false), DELTA);
+        // A lot without an overnight rate caps its nights with its days
+        assertEquals(100, tariff.dayCharge(at(1, 20, 0), at(2, 8, 0), 10, 100, true), DELTA);
+    }
+
+    @Test
+    public void chargesEachNightSeparately() {
+        // 23:00 to 01:00 straddles midnight within one night
+        assertEquals(20, tariff.overnightCharge(at(1, 23, 0), at(2, 1, 0), 10, 30), DELTA);
+        // A whole night is capped once
+        assertEquals(30, tariff.overnightCharge(at(1, 20, 0), at(2, 8, 0), 10, 30), DELTA);
+        assertEquals(80, tariff.overnightCharge(at(1, 20, 0), at(2, 8, 0), 10, Double.POSITIVE_INFINITY), DELTA);
+        // Arriving after midnight is part of the night that began the day before
+        assertEquals(40, tariff.overnightCharge(at(2, 1, 0), at(2, 5, 0), 10, 100), DELTA);
+        assertEquals(30, tariff.overnightCharge(at(2, 1, 0), at(2, 5, 0), 10, 30), DELTA);
+        // 05:00 to 23:00 touches the end of one night and the start of the next
+        assertEquals(20, tariff.overnightCharge(at(2, 5, 0), at(2, 23, 0), 10, 30), DELTA);
+        // Three whole nights, each capped
+        assertEquals(90, tariff.overnightCharge(at(1, 12, 0), at(4, 12, 0), 10, 30), DELTA);
+        assertEquals(0, tariff.overnightCharge(at(1, 9, 0), at(1, 17, 0), 10, 30), DELTA);
+    }
+
+    @Test
+    public void matchesMinuteByMinuteSum() {
+        PricingRules rules = PricingRules.parse("0-5:0.8,8-10:1.2,17-20:1.3", "");
+        Random random = new Random(SEED);
+        for (int[] night : new int[][] { { 22 * 60, 6 * 60 }, { 23 * 60 + 30, 5 * 60 }, { 1 * 60, 4 * 60 } }) {
+            Tariff tariff = new Tariff(rules, 30, night[0], night[1]);
+            for (int i = 0; i < 500; i++) {
+                long from = DAY + random.nextInt((int) (3 * DAY));
+                long to = from + 1 + random.nextInt((int) (4 * DAY));
+                double rate = 5 + random.nextInt(50);
+                double dailyCap = 50 + random.nextInt(400);
+                double overnightCap = 5 + random.nextInt(100);
+                String stay = "night " + night[0] + "-" + night[1] + ", stay " + from + "-" + to;
+
+                assertEquals(dayByMinute(tariff, rules, from, to, rate, dailyCap, false),
+                        tariff.dayCharge(from, to, rate, dailyCap, false), DELTA, stay);
+                assertEquals(dayByMinute(tariff, rules, from, to, rate, dailyCap, true),
+                        tariff.dayCharge(from, to, rate, dailyCap, true), DELTA, stay);
+                assertEquals(nightsByMinute(tariff, rules, night[0], from, to, rate, overnightCap),
+                        tariff.overnightCharge(from, to, rate, overnightCap), DELTA, stay);
+            }
+        }
+    }
+
+    private static double minuteRate(PricingRules rules, long minute, double rate) {
+        return rules.hourMultiplier((int) (Math.floorMod(minute, DAY) / 60)) * rate / 60;
+    }
+
+    private static double dayByMinute(Tariff tariff, PricingRules rules, long from, long to, double rate,
+            double dailyCap, boolean includeOvernight) {
+        double total = 0;
+        for (long start = from; start < to; start += DAY) {
+            double day = 0;
+            for (long m = start; m < Math.min(to, start + DAY); m++) {
+                if (includeOvernight || !tariff.isOvernight((int) Math.floorMod(m, DAY))) {
+                    day += minuteRate(rules, m, rate);
+                }
+            }
+            total += Math.min(dailyCap, day);
+        }
+        return total;
+    }
+
+    private static double nightsByMinute(Tariff tariff, PricingRules rules, long overnightStart, long from, long to,
+            double rate, double overnightCap) {
+        Map<Long, Double> nights = new HashMap<>();
+        for (long m = from; m < to; m++) {
+            if (tariff.isOvernight((int) Math.floorMod(m, DAY))) {
+                nights.merge(Math.floorDiv(m - overnightStart, DAY), minuteRate(rules, m, rate), Double::sum);
+            }
+        }
+        return nights.values().stream().mapToDouble(night -> Math.min(overnightCap, night)).sum();
+    }
+}
@@ -0,0 +1,96 @@
+package com.parkease.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.parkease.search.TrigramIndex.Match;
+
+public class TrigramIndexTests {
+
+    private TrigramIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        index = new TrigramIndex();
+        index.put(1, "Phoenix Mall Parking", "Viman Nagar, Pune");
+        index.put(2, "Central Plaza", "MG Road, Bengaluru");
+        index.put(3, "Andheri Station Lot", "Andheri West, Mumbai");
+        index.put(4, "Pune Airport P2", "Lohegaon, Pune");
+    }
+
+    private List<Long> ids(String query, int limit) {
+        return index.search(query, limit).stream().map(Match::id).toList();
+    }
+
+    @Test
+    public void prefixOfAWordMatches() {
+        assertEquals(List.of(3L), ids("andh", 10));
+        assertEquals(List.of(2L), ids("Bengal", 10));
+    }
+
+    @Test
+    public void misspeltQueryStillMatches() {
+        assertEquals(List.of(1L), ids("phoenx", 10));
+    }
+
+    @Test
+    public void exactSubstringRanksFirst() {
+        List<Match> matches = index.search("pune", 10);
+        assertEquals(2, matches.size());
+        assertTrue(matches.get(0).score() >= matches.get(1).score());
+        // Shorter text wins the tie between the two exact hits
+        assertEquals(4L, matches.get(0).id());
+    }
+
+    @Test
+    public void normalizesCaseAndPunctuation() {
+        assertEquals(ids("mg road", 10), ids("M.G. ROAD!", 10));
+    }
+
+    @Test
+    public void limitKeepsTheBestMatches() {
+        assertEquals(List.of(4L), ids("pune", 1));
+        assertEquals(List.of(), ids("pune", 0));
+    }
+
+    @Test
+    public void blankOrUnknownQueryMatchesNothing() {
+        assertEquals(List.of(), ids("   ", 10));
+        assertEquals(List.of(), ids("zzzzqx", 10));
+    }
+
+    @Test
+    public void updateReplacesOldTextAndRemoveDropsTheDocument() {
+        index.put(2, "Central Plaza", "Park Street, Kolkata");
+        assertEquals(List.of(), ids("bengaluru", 10));
+        assertEquals(List.of(2L), ids("kolkata", 10));
+
+        index.remove(2);
+        assertEquals(List.of(), ids("kolkata", 10));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    public void shortInfixFallsBelowCoverage() {
+        // Infixes share too few of the padded word-start trigrams; callers that
+        // need substring semantics add their own containment check
+        assertEquals(List.of(), ids("ndh", 10));
+    }
+
+    @Test
+    public void candidatesCoverEveryInnerTrigram() {
+        assertEquals(Set.of(3L), index.candidates("ndh"));
+        assertEquals(Set.of(1L, 4L), index.candidates("une"));
+        assertEquals(Set.of(1L), index.candidates("agar, pu"));
+        assertEquals(Set.of(), index.candidates("phoenx"));
+        // Nothing to narrow by
+        assertNull(index.candidates("mg"));
+    }
+}
@@ -0,0 +1,132 @@
+package com.parkease.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.parkease.beans.Booking;
+import com.parkease.dao.BookingRepository;
+import com.parkease.dtos.GeofenceEvent;
+import com.parkease.enums.GeofenceEventType;
+
+// Which booking a geofence ENTER or EXIT moves, with a 30 minute arrival grace.
+public class BookingServiceTests {
+
+    private static final long USER = 7L;
+    private static final long LOT = 3L;
+
+    private final List<Booking> bookings = new ArrayList<>();
+    private BookingRepository bookingRepository;
+    private BookingService bookingService;
+
+    @BeforeEach
+    public void setUp() {
+        bookingRepository = mock(BookingRepository.class);
+        when(bookingRepository.findByUserIdInAndParkingLotIdInAndBookingStatusIn(anyCollection(), anyCollection(),
+                anyCollection())).thenReturn(bookings);
+        when(bookingRepository.updateStatus(anyCollection(), anyCollection(), any())).thenAnswer(
+                invocation -> ((Collection<?>) invocation.getArgument(0)).size());
+        bookingService = new BookingService();
+        ReflectionTestUtils.setField(bookingService, "bookingRepository", bookingRepository);
+        ReflectionTestUtils.setField(bookingService, "geofenceArrivalGraceMinutes", 30L);
+    }
+
+    private Booking booking(long id, String status, String arrival, String departure) {
+        Booking booking = new Booking();
+        booking.setId(id);
+        booking.setUserId(USER);
+        booking.setParkingLotId(LOT);
+        booking.setBookingStatus(status);
+        booking.setArrivalTime(arrival);
+        booking.setDepartureTime(departure);
+        bookings.add(booking);
+        return booking;
+    }
+
+    private static GeofenceEvent event(GeofenceEventType type, String at) {
+        return new GeofenceEvent(null, USER, LOT, type, Instant.parse(at).toEpochMilli());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Long> updated(String to) {
+        ArgumentCaptor<Collection<Long>> ids = ArgumentCaptor.forClass(Collection.class);
+        verify(bookingRepository).updateStatus(ids.capture(), anyCollection(), eq(to));
+        return new ArrayList<>(ids.getValue());
+    }
+
+    @Test
+    public void enterWithinTheGraceActivatesTheBooking() {
+        booking(1, "Pending", "2026-03-02T10:00:00Z", "2026-03-02T12:00:00Z");
+        assertEquals(1, bookingService.applyGeofenceEvents(List.of(event(GeofenceEventType.ENTER, "2026-03-02T09:40:00Z"))));
+        assertEquals(List.of(1L), updated("Active"));
+    }
+
+    @Test
+    public void enterOutsideTheWindowChangesNothing() {
+        booking(1, "Pending", "2026-03-02T10:00:00Z", "2026-03-02T12:00:00Z");
+        assertEquals(0, bookingService.applyGeofenceEvents(List.of(
+                event(GeofenceEventType.ENTER, "2026-03-02T09:20:00Z"),
+                event(GeofenceEventType.ENTER, "2026-03-02T12:00:00Z"))));
+        verify(bookingRepository, never()).updateStatus(anyCollection(), anyCollection(), any());
+    }
+
+    @Test
+    public void enterActivatesTheEarliestCoveringBooking() {
+        booking(2, "Pending", "2026-03-02T10:15:00Z", "2026-03-02T11:00:00Z");
+        booking(1, "Pending", "2026-03-02T10:00:00Z", "2026-03-02T12:00:00Z");
+        booking(3, "Active", "2026-03-02T09:00:00Z", "2026-03-02T12:00:00Z");
+        bookingService.applyGeofenceEvents(List.of(event(GeofenceEventType.ENTER, "2026-03-02T10:05:00Z")));
+        assertEquals(List.of(1L), updated("Active"));
+    }
+
+    @Test
+    public void exitCompletesTheActiveBooking() {
+        booking(1, "Pending", "2026-03-02T08:00:00Z", "2026-03-02T09:00:00Z");
+        booking(2, "Active", "2026-03-02T10:00:00Z", "2026-03-02T12:00:00Z");
+        bookingService.applyGeofenceEvents(List.of(event(GeofenceEventType.EXIT, "2026-03-02T11:00:00Z")));
+        assertEquals(List.of(2L), updated("Completed"));
+    }
+
+    // The drain keeps only the newest event per user and lot, so an ENTER and
+    // EXIT in one batch reach the booking as the EXIT alone
+    @Test
+    public void exitFallsBackToThePendingBookingUnderWay() {
+        booking(1, "Pending", "2026-03-02T08:00:00Z", "2026-03-02T09:00:00Z");
+        booking(2, "Pending", "2026-03-02T10:00:00Z", "2026-03-02T12:00:00Z");
+        booking(3, "Pending", "2026-03-02T14:00:00Z", "2026-03-02T15:00:00Z");
+        bookingService.applyGeofenceEvents(List.of(event(GeofenceEventType.EXIT, "2026-03-02T10:30:00Z")));
+        assertEquals(List.of(2L), updated("Completed"));
+    }
+
+    @Test
+    public void exitBeforeAnyArrivalChangesNothing() {
+        booking(1, "Pending", "2026-03-02T10:00:00Z", "2026-03-02T12:00:00Z");
+        assertEquals(0, bookingService.applyGeofenceEvents(List.of(event(GeofenceEventType.EXIT, "2026-03-02T09:50:00Z"))));
+        verify(bookingRepository, never()).updateStatus(anyCollection(), anyCollection(), any());
+    }
+
+    @Test
+    public void eventsOnlyMatchTheirOwnUserAndLot() {
+        booking(1, "Pending", "2026-03-02T10:00:00Z", "2026-03-02T12:00:00Z");
+        GeofenceEvent otherLot = new GeofenceEvent(null, USER, LOT + 1, GeofenceEventType.ENTER,
+                Instant.parse("2026-03-02T10:00:00Z").toEpochMilli());
+        GeofenceEvent otherUser = new GeofenceEvent(null, USER + 1, LOT, GeofenceEventType.ENTER,
+                Instant.parse("2026-03-02T10:00:00Z").toEpochMilli());
+        assertEquals(0, bookingService.applyGeofenceEvents(List.of(otherLot, otherUser)));
+    }
+}
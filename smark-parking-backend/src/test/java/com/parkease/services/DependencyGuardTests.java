@@ -0,0 +1,257 @@
+package com.parkease.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import com.parkease.exceptions.DependencyUnavailableException;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class DependencyGuardTests {
+
+    private static final long OPEN_MS = 100;
+
+    private MeterRegistry meterRegistry;
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    // 1 concurrent call, slow above 1s, window of 4 calls, opens at 50% failures
+    // after 4 calls, 2 trial calls when half-open
+    private DependencyGuard guard() {
+        return new DependencyGuard("test", meterRegistry, 1, 0, 1_000, 4, 4, 0.5, OPEN_MS, 2);
+    }
+
+    private String succeed(DependencyGuard guard) {
+        return guard.execute(() -> {
+            calls.incrementAndGet();
+            return "ok";
+        });
+    }
+
+    private void fail(DependencyGuard guard, RuntimeException error) {
+        assertThrows(error.getClass(), () -> guard.execute(() -> {
+            calls.incrementAndGet();
+            throw error;
+        }));
+    }
+
+    private void fail(DependencyGuard guard) {
+        fail(guard, new ResourceAccessException("connect timed out"));
+    }
+
+    private DependencyGuard opened() {
+        DependencyGuard guard = guard();
+        succeed(guard);
+        succeed(guard);
+        fail(guard);
+        fail(guard);
+        assertEquals(DependencyGuard.State.OPEN, guard.getState());
+        return guard;
+    }
+
+    private static void waitOutOpen() throws InterruptedException {
+        Thread.sleep(OPEN_MS + 50);
+    }
+
+    private double rejected(String reason) {
+        return meterRegistry.get("parkease.dependency.rejected").tag("reason", reason).counter().count();
+    }
+
+    @Test
+    public void staysClosedUntilMinimumCallsAreSeen() {
+        DependencyGuard guard = guard();
+        fail(guard);
+        fail(guard);
+        fail(guard);
+        assertEquals(DependencyGuard.State.CLOSED, guard.getState());
+        fail(guard);
+        assertEquals(DependencyGuard.State.OPEN, guard.getState());
+    }
+
+    @Test
+    public void staysClosedBelowTheFailureRate() {
+        DependencyGuard guard = guard();
+        for (int i = 0; i < 10; i++) {
+            succeed(guard);
+            succeed(guard);
+            succeed(guard);
+            fail(guard);
+        }
+        assertEquals(DependencyGuard.State.CLOSED, guard.getState());
+    }
+
+    @Test
+    public void openCircuitRejectsWithoutCalling() {
+        DependencyGuard guard = opened();
+        int before = calls.get();
+
+        assertThrows(DependencyUnavailableException.class, () -> succeed(guard));
+        assertEquals(before, calls.get());
+        assertEquals(1.0, rejected("circuit_open"));
+    }
+
+    @Test
+    public void halfOpenClosesAfterTrialCallsSucceed() throws InterruptedException {
+        DependencyGuard guard = opened();
+        waitOutOpen();
+        assertEquals(DependencyGuard.State.HALF_OPEN, guard.getState());
+
+        succeed(guard);
+        assertEquals(DependencyGuard.State.HALF_OPEN, guard.getState());
+        succeed(guard);
+        assertEquals(DependencyGuard.State.CLOSED, guard.getState());
+
+        // The window starts empty again: three failures are below minimum calls
+        fail(guard);
+        fail(guard);
+        fail(guard);
+        assertEquals(DependencyGuard.State.CLOSED, guard.getState());
+    }
+
+    @Test
+    public void halfOpenFailureReopens() throws InterruptedException {
+        DependencyGuard guard = opened();
+        waitOutOpen();
+
+        succeed(guard);
+        fail(guard);
+        assertEquals(DependencyGuard.State.OPEN, guard.getState());
+        assertThrows(DependencyUnavailableException.class, () -> succeed(guard));
+    }
+
+    @Test
+    public void halfOpenAdmitsOnlyTheTrialCalls() throws Exception {
+        DependencyGuard guard = new DependencyGuard("test", meterRegistry, 4, 0, 1_000, 4, 4, 0.5, OPEN_MS, 2);
+        for (int i = 0; i < 4; i++) {
+            fail(guard);
+        }
+        waitOutOpen();
+
+        CountDownLatch started = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> first = executor.submit(() -> guard.call(() -> {
+                started.countDown();
+                return release.await(5, TimeUnit.SECONDS);
+            }));
+            Future<?> second = executor.submit(() -> guard.call(() -> {
+                started.countDown();
+                return release.await(5, TimeUnit.SECONDS);
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            assertThrows(DependencyUnavailableException.class, () -> succeed(guard));
+
+            release.countDown();
+            first.get(5, TimeUnit.SECONDS);
+            second.get(5, TimeUnit.SECONDS);
+            assertEquals(DependencyGuard.State.CLOSED, guard.getState());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void clientErrorsDoNotOpenTheCircuitButTooManyRequestsDoes() {
+        DependencyGuard guard = guard();
+        for (int i = 0; i < 8; i++) {
+            fail(guard, new HttpClientErrorException(HttpStatus.BAD_REQUEST));
+        }
+        assertEquals(DependencyGuard.State.CLOSED, guard.getState());
+
+        // Two of the last four calls failing is the 50% threshold
+        fail(guard, new HttpClientErrorException(HttpStatus.TOO_MANY_REQUESTS));
+        assertEquals(DependencyGuard.State.CLOSED, guard.getState());
+        fail(guard, new HttpClientErrorException(HttpStatus.TOO_MANY_REQUESTS));
+        assertEquals(DependencyGuard.State.OPEN, guard.getState());
+    }
+
+    @Test
+    public void slowSuccessesCountAsFailures() {
+        DependencyGuard guard = new DependencyGuard("test", meterRegistry, 1, 0, 5, 2, 2, 0.5, OPEN_MS, 1);
+        for (int i = 0; i < 2; i++) {
+            guard.execute(() -> {
+                Thread.sleep(20);
+                return null;
+            });
+        }
+        assertEquals(DependencyGuard.State.OPEN, guard.getState());
+    }
+
+    @Test
+    public void fullBulkheadRejectsWithoutCalling() throws Exception {
+        DependencyGuard guard = guard();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> busy = executor.submit(() -> guard.call(() -> {
+                started.countDown();
+                return release.await(5, TimeUnit.SECONDS);
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            assertThrows(DependencyUnavailableException.class, () -> succeed(guard));
+            assertEquals(0, calls.get());
+            assertEquals(1.0, rejected("bulkhead_full"));
+
+            release.countDown();
+            busy.get(5, TimeUnit.SECONDS);
+            assertEquals("ok", succeed(guard));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void bulkheadRejectionInHalfOpenReturnsTheTrialPermit() throws Exception {
+        DependencyGuard guard = new DependencyGuard("test", meterRegistry, 1, 0, 1_000, 4, 4, 0.5, OPEN_MS, 2);
+        for (int i = 0; i < 4; i++) {
+            fail(guard);
+        }
+        waitOutOpen();
+
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> trial = executor.submit(() -> guard.call(() -> {
+                started.countDown();
+                return release.await(5, TimeUnit.SECONDS);
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            // Takes the second trial permit, then finds the bulkhead full and gives it back
+            assertThrows(DependencyUnavailableException.class, () -> succeed(guard));
+
+            release.countDown();
+            trial.get(5, TimeUnit.SECONDS);
+            succeed(guard);
+            assertEquals(DependencyGuard.State.CLOSED, guard.getState());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.parkease.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.parkease.dtos.GeofenceBatchResponse;
+import com.parkease.dtos.GeofenceEvent;
+import com.parkease.enums.GeofenceEventType;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// Submission, deduplication and the batched drain, with the booking updates mocked.
+public class GeofenceEventServiceTests {
+
+    private static final long USER = 7L;
+    private static final long LOT = 3L;
+
+    private final List<List<GeofenceEvent>> applied = new ArrayList<>();
+    private BookingService bookingService;
+    private GeofenceEventService service;
+    // Lot whose events fail to apply
+    private long failingLot = -1;
+
+    @BeforeEach
+    public void setUp() {
+        bookingService = mock(BookingService.class);
+        doAnswer(invocation -> {
+            List<GeofenceEvent> events = invocation.getArgument(0);
+            if (events.stream().anyMatch(e -> e.getParkingSpaceId() == failingLot)) {
+                throw new IllegalStateException("database down");
+            }
+            applied.add(new ArrayList<>(events));
+            return events.size();
+        }).when(bookingService).applyGeofenceEvents(anyList());
+        service = new GeofenceEventService(new SimpleMeterRegistry(), 4, 100, 60);
+        ReflectionTestUtils.setField(service, "bookingService", bookingService);
+        ReflectionTestUtils.setField(service, "batchSize", 500);
+    }
+
+    private static GeofenceEvent event(String id, Long userId, long lot, GeofenceEventType type, long timestamp) {
+        return new GeofenceEvent(id, userId, lot, type, timestamp);
+    }
+
+    @Test
+    public void eventsBelongToTheSubmittingUser() {
+        GeofenceBatchResponse response = service.submit(USER, List.of(
+                event("a", 99L, LOT, GeofenceEventType.ENTER, 1_000),
+                event("b", null, LOT, GeofenceEventType.EXIT, 2_000)));
+        assertEquals(2, response.getAccepted());
+        service.drain();
+        assertEquals(1, applied.size());
+        applied.get(0).forEach(e -> assertEquals(USER, e.getUserId()));
+    }
+
+    @Test
+    public void rejectsEventsWithoutLotOrType() {
+        GeofenceBatchResponse response = service.submit(USER, List.of(
+                event("a", USER, LOT, null, 1_000),
+                new GeofenceEvent("b", USER, null, GeofenceEventType.ENTER, 1_000)));
+        assertEquals(2, response.getInvalid());
+        assertEquals(0, response.getAccepted());
+    }
+
+    @Test
+    public void deduplicatesQueuedAndAppliedEventsPerUser() {
+        assertEquals(1, service.submit(USER, List.of(event("a", null, LOT, GeofenceEventType.ENTER, 1_000))).getAccepted());
+        assertEquals(1, service.submit(USER, List.of(event("a", null, LOT, GeofenceEventType.ENTER, 1_000))).getDuplicates());
+        // Another user's event with the same client id is their own
+        assertEquals(1, service.submit(USER + 1, List.of(event("a", null, LOT, GeofenceEventType.ENTER, 1_000))).getAccepted());
+        service.drain();
+        assertEquals(1, service.submit(USER, List.of(event("a", null, LOT, GeofenceEventType.ENTER, 1_000))).getDuplicates());
+        // Without an id the user, lot, type and time identify the event
+        assertEquals(1, service.submit(USER, List.of(event(null, null, LOT, GeofenceEventType.EXIT, 5_000))).getAccepted());
+        assertEquals(1, service.submit(USER, List.of(event(null, null, LOT, GeofenceEventType.EXIT, 5_000))).getDuplicates());
+    }
+
+    @Test
+    public void keepsOnlyTheNewestEventPerUserAndLot() {
+        service.submit(USER, List.of(
+                event("a", null, LOT, GeofenceEventType.ENTER, 1_000),
+                event("b", null, LOT, GeofenceEventType.EXIT, 3_000),
+                event("c", null, LOT + 1, GeofenceEventType.ENTER, 2_000)));
+        service.drain();
+        assertEquals(1, applied.size());
+        assertEquals(2, applied.get(0).size());
+        assertEquals(GeofenceEventType.EXIT, applied.get(0).get(0).getType());
+        assertEquals(LOT + 1, applied.get(0).get(1).getParkingSpaceId());
+    }
+
+    @Test
+    public void rejectsWhenTheQueueIsFullAndAcceptsTheRetry() {
+        List<GeofenceEvent> events = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            events.add(event("e" + i, null, LOT + i, GeofenceEventType.ENTER, 1_000));
+        }
+        GeofenceBatchResponse response = service.submit(USER, events);
+        assertEquals(4, response.getAccepted());
+        assertEquals(1, response.getRejected());
+        service.drain();
+        assertEquals(1, service.submit(USER, List.of(events.get(4))).getAccepted());
+    }
+
+    @Test
+    public void failedEventsAreIsolatedAndAcceptedAgain() {
+        failingLot = LOT;
+        service.submit(USER, List.of(
+                event("a", null, LOT, GeofenceEventType.ENTER, 1_000),
+                event("b", null, LOT + 1, GeofenceEventType.ENTER, 1_000)));
+        service.drain();
+        // The whole batch failed, then the other lot applied on its own
+        assertEquals(1, applied.size());
+        assertEquals(LOT + 1, applied.get(0).get(0).getParkingSpaceId());
+        assertEquals(1, service.submit(USER, List.of(event("b", null, LOT + 1, GeofenceEventType.ENTER, 1_000)))
+                .getDuplicates());
+
+        failingLot = -1;
+        assertEquals(1, service.submit(USER, List.of(event("a", null, LOT, GeofenceEventType.ENTER, 1_000)))
+                .getAccepted());
+        service.drain();
+        assertEquals(LOT, applied.get(1).get(0).getParkingSpaceId());
+    }
+}
@@ -0,0 +1,187 @@
+package com.parkease.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.parkease.beans.IdempotencyRecord;
+import com.parkease.dao.IdempotencyRecordRepository;
+
+// Runs IdempotencyService against an in-memory stand-in for the repository
+// that enforces the (scope, principal, key) unique constraint.
+public class IdempotencyServiceTests {
+
+    private static final String SCOPE = "booking.create";
+
+    private IdempotencyService service;
+    private final Map<String, IdempotencyRecord> rows = new ConcurrentHashMap<>();
+    private final AtomicLong ids = new AtomicLong();
+    private final AtomicInteger writes = new AtomicInteger();
+    // Makes the next lookup miss, as a concurrent request's uncommitted insert would
+    private boolean hideRows;
+
+    @BeforeEach
+    public void setUp() {
+        IdempotencyRecordRepository repository = mock(IdempotencyRecordRepository.class);
+        when(repository.findByScopeAndPrincipalAndIdempotencyKey(anyString(), anyString(), anyString()))
+                .thenAnswer(inv -> {
+                    if (hideRows) {
+                        hideRows = false;
+                        return Optional.empty();
+                    }
+                    return Optional.ofNullable(rows.get(inv.getArgument(0) + "|" + inv.getArgument(1)
+                            + "|" + inv.getArgument(2)));
+                });
+        when(repository.saveAndFlush(any(IdempotencyRecord.class))).thenAnswer(inv -> {
+            IdempotencyRecord record = inv.getArgument(0);
+            record.setId(ids.incrementAndGet());
+            if (rows.putIfAbsent(rowKey(record), record) != null) {
+                throw new DataIntegrityViolationException("uk_idempotency_key");
+            }
+            return record;
+        });
+        when(repository.complete(anyLong(), anyInt(), any(), any(), anyLong())).thenAnswer(inv -> {
+            IdempotencyRecord record = byId(inv.getArgument(0));
+            record.setStatus(IdempotencyRecord.COMPLETED);
+            record.setResponseStatus(inv.getArgument(1));
+            record.setResponseContentType(inv.getArgument(2));
+            record.setResponseBody(inv.getArgument(3));
+            record.setExpiresAt(inv.getArgument(4));
+            return 1;
+        });
+        when(repository.deleteIfExpired(anyLong(), anyLong())).thenAnswer(inv -> rows.values()
+                .removeIf(r -> r.getId().equals(inv.getArgument(0)) && r.isExpired(inv.getArgument(1))) ? 1 : 0);
+        doAnswer(inv -> rows.values().removeIf(r -> r.getId().equals(inv.getArgument(0))))
+                .when(repository).deleteById(anyLong());
+
+        service = new IdempotencyService();
+        ReflectionTestUtils.setField(service, "repository", repository);
+        ReflectionTestUtils.setField(service, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(service, "ttlHours", 24L);
+        ReflectionTestUtils.setField(service, "lockTimeoutSeconds", 60L);
+    }
+
+    private static String rowKey(IdempotencyRecord record) {
+        return record.getScope() + "|" + record.getPrincipal() + "|" + record.getIdempotencyKey();
+    }
+
+    private IdempotencyRecord byId(long id) {
+        return rows.values().stream().filter(r -> r.getId() == id).findFirst().orElseThrow();
+    }
+
+    private ResponseEntity<?> book(String key, Object request) {
+        return service.execute(SCOPE, key, request, () -> {
+            int booking = writes.incrementAndGet();
+            return ResponseEntity.ok(Map.of("bookingId", booking));
+        });
+    }
+
+    @Test
+    public void sameKeyAndPayloadReplaysTheFirstResponse() {
+        ResponseEntity<?> first = book("key-1", List.of(10, "slot"));
+        ResponseEntity<?> retry = book("key-1", List.of(10, "slot"));
+
+        assertEquals(1, writes.get());
+        assertEquals(HttpStatus.OK, retry.getStatusCode());
+        assertEquals("true", retry.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        assertNull(first.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        assertEquals("{\"bookingId\":1}", retry.getBody());
+    }
+
+    @Test
+    public void sameKeyWithDifferentPayloadIsRejected() {
+        book("key-1", List.of(10, "slot"));
+        ResponseEntity<?> reused = book("key-1", List.of(11, "slot"));
+
+        assertEquals(1, writes.get());
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, reused.getStatusCode());
+    }
+
+    @Test
+    public void keyStillInFlightAnswersConflict() {
+        ResponseEntity<?>[] concurrent = new ResponseEntity<?>[1];
+        ResponseEntity<?> first = service.execute(SCOPE, "key-1", "body", () -> {
+            // A retry arriving while the first request is still writing
+            concurrent[0] = book("key-1", "body");
+            return ResponseEntity.ok("done");
+        });
+
+        assertEquals(HttpStatus.OK, first.getStatusCode());
+        assertEquals(HttpStatus.CONFLICT, concurrent[0].getStatusCode());
+        assertEquals(0, writes.get());
+    }
+
+    @Test
+    public void losingTheInsertRaceAnswersConflictWhileTheWinnerRuns() {
+        ResponseEntity<?>[] loser = new ResponseEntity<?>[1];
+        service.execute(SCOPE, "key-1", "body", () -> {
+            // The second request looked before the first one's insert was visible
+            hideRows = true;
+            loser[0] = book("key-1", "body");
+            return ResponseEntity.ok("done");
+        });
+
+        assertEquals(HttpStatus.CONFLICT, loser[0].getStatusCode());
+        assertEquals(0, writes.get());
+    }
+
+    @Test
+    public void expiredInFlightKeyIsTakenOver() {
+        long past = System.currentTimeMillis() - 1_000;
+        IdempotencyRecord dead = new IdempotencyRecord(SCOPE, "anonymous", "key-1", "stale", past - 60_000, past);
+        dead.setId(ids.incrementAndGet());
+        rows.put(rowKey(dead), dead);
+
+        ResponseEntity<?> response = book("key-1", "body");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNull(response.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        assertEquals(IdempotencyRecord.COMPLETED, rows.get(rowKey(dead)).getStatus());
+        assertEquals(1, writes.get());
+    }
+
+    @Test
+    public void failedWriteReleasesTheKey() {
+        assertThrows(IllegalStateException.class, () -> service.execute(SCOPE, "key-1", "body", () -> {
+            throw new IllegalStateException("slot taken");
+        }));
+        ResponseEntity<?> rejected = service.execute(SCOPE, "key-2", "body",
+                () -> ResponseEntity.badRequest().body("invalid"));
+
+        assertEquals(HttpStatus.BAD_REQUEST, rejected.getStatusCode());
+        assertTrue(rows.isEmpty());
+        assertEquals(HttpStatus.OK, book("key-1", "body").getStatusCode());
+        assertEquals(1, writes.get());
+    }
+
+    @Test
+    public void requestsWithoutKeyAlwaysRun() {
+        book(null, "body");
+        book(" ", "body");
+        assertEquals(2, writes.get());
+        assertTrue(rows.isEmpty());
+    }
+}
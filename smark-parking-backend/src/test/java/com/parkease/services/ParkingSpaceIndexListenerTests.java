@@ -0,0 +1,91 @@
+package com.parkease.services;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.parkease.beans.ParkingSpace;
+
+// Lot writes reach the in-memory indexes only once their transaction commits.
+public class ParkingSpaceIndexListenerTests {
+
+    private ParkingSpaceIndex parkingSpaceIndex;
+    private ParkingSpaceSearchIndex searchIndex;
+    private PricingEngine pricingEngine;
+    private ParkingSpaceIndexListener listener;
+
+    @BeforeEach
+    public void setUp() {
+        parkingSpaceIndex = mock(ParkingSpaceIndex.class);
+        searchIndex = mock(ParkingSpaceSearchIndex.class);
+        pricingEngine = mock(PricingEngine.class);
+        listener = new ParkingSpaceIndexListener();
+        ReflectionTestUtils.setField(listener, "parkingSpaceIndex", parkingSpaceIndex);
+        ReflectionTestUtils.setField(listener, "searchIndex", searchIndex);
+        ReflectionTestUtils.setField(listener, "pricingEngine", pricingEngine);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static ParkingSpace space(long id) {
+        ParkingSpace space = new ParkingSpace();
+        space.setId(id);
+        return space;
+    }
+
+    private void verifyUntouched() {
+        verify(parkingSpaceIndex, never()).update(any());
+        verify(parkingSpaceIndex, never()).remove(anyLong());
+        verify(searchIndex, never()).update(any());
+        verify(pricingEngine, never()).update(any());
+    }
+
+    @Test
+    public void savesApplyOnCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        ParkingSpace space = space(3);
+        listener.onSave(space);
+        listener.onRemove(space(4));
+        verifyUntouched();
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        verify(parkingSpaceIndex).update(space);
+        verify(searchIndex).update(space);
+        verify(pricingEngine).update(space);
+        verify(parkingSpaceIndex).remove(4L);
+        verify(searchIndex).remove(4L);
+        verify(pricingEngine).remove(4L);
+    }
+
+    @Test
+    public void rolledBackSavesAreDropped() {
+        TransactionSynchronizationManager.initSynchronization();
+        listener.onSave(space(3));
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        verifyUntouched();
+    }
+
+    @Test
+    public void savesOutsideATransactionApplyAtOnce() {
+        ParkingSpace space = space(3);
+        listener.onSave(space);
+        verify(parkingSpaceIndex).update(space);
+        verify(searchIndex).update(space);
+        verify(pricingEngine).update(space);
+    }
+}
@@ -0,0 +1,74 @@
+package com.parkease.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.parkease.beans.ParkingSpace;
+
+public class ParkingSpaceSearchIndexTests {
+
+    private ParkingSpaceSearchIndex searchIndex;
+
+    @BeforeEach
+    public void setUp() {
+        searchIndex = new ParkingSpaceSearchIndex();
+        for (int i = 1; i <= 120; i++) {
+            searchIndex.update(space(i, "Lot " + i, "Sector " + i + ", Andheri West, Mumbai"));
+        }
+        searchIndex.update(space(500, "Phoenix Mall", "Viman Nagar, Pune"));
+    }
+
+    private static ParkingSpace space(long id, String lotName, String address) {
+        ParkingSpace space = new ParkingSpace();
+        space.setId(id);
+        space.setLotName(lotName);
+        space.setAddress(address);
+        return space;
+    }
+
+    @Test
+    public void addressContainingIdsIsNotCapped() {
+        assertEquals(120, searchIndex.addressContainingIds("mumbai").size());
+    }
+
+    @Test
+    public void addressContainingIdsKeepsAddressInfixMatches() {
+        List<Long> ids = searchIndex.addressContainingIds("ndh");
+        assertEquals(120, ids.size());
+        assertEquals(1L, ids.get(0));
+        assertEquals(List.of(12L, 120L), searchIndex.addressContainingIds("Sector 12"));
+        assertEquals(List.of(500L), searchIndex.addressContainingIds("agar, pu"));
+    }
+
+    @Test
+    public void addressContainingIdsIgnoresLotNames() {
+        searchIndex.update(space(700, "Andheri Hub", "Goregaon East, Mumbai"));
+        List<Long> ids = searchIndex.addressContainingIds("andheri");
+        assertEquals(120, ids.size());
+        assertEquals(false, ids.contains(700L));
+    }
+
+    @Test
+    public void addressContainingIdsIsExact() {
+        // Shares every trigram of the query without containing it
+        searchIndex.update(space(600, "Lot 600", "Westend Road, Pune"));
+        assertEquals(List.of(), searchIndex.addressContainingIds("phoenx"));
+        assertEquals(List.of(), searchIndex.addressContainingIds("end west"));
+        assertEquals(List.of(500L), searchIndex.addressContainingIds("viman"));
+    }
+
+    @Test
+    public void shortQueriesStillMatchSubstrings() {
+        searchIndex.update(space(800, "MG Lot", "MG Road, Bengaluru"));
+        assertEquals(List.of(800L), searchIndex.addressContainingIds("mg"));
+    }
+
+    @Test
+    public void misspeltQueryFindsTheLotThroughSearch() {
+        assertEquals(List.of(500L), searchIndex.searchIds("phoenx", 10));
+    }
+}
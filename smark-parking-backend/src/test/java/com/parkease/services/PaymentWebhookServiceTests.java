@@ -0,0 +1,100 @@
+package com.parkease.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.parkease.dtos.PaymentWebhookEvent;
+import com.parkease.enums.WebhookIngestResult;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// Orders that fail to store are retried with backoff instead of dropped, since
+// the gateway already had its 2xx and won't deliver them again.
+public class PaymentWebhookServiceTests {
+
+    private final List<String> stored = new ArrayList<>();
+    private PaymentWebhookService service;
+    // Order whose events fail to store
+    private String failingOrder;
+
+    @BeforeEach
+    public void setUp() {
+        PaymentService paymentService = mock(PaymentService.class);
+        doAnswer(invocation -> {
+            List<PaymentWebhookEvent> events = invocation.getArgument(0);
+            if (events.stream().anyMatch(e -> e.getOrderId().equals(failingOrder))) {
+                throw new IllegalStateException("database down");
+            }
+            events.forEach(e -> stored.add(e.getOrderId()));
+            return null;
+        }).when(paymentService).applyWebhookEvents(anyList());
+        service = new PaymentWebhookService(new SimpleMeterRegistry(), "secret", 2, 100, 60);
+        ReflectionTestUtils.setField(service, "paymentService", paymentService);
+        ReflectionTestUtils.setField(service, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(service, "batchSize", 500);
+        ReflectionTestUtils.setField(service, "retryInitialMs", 0L);
+        ReflectionTestUtils.setField(service, "retryMaxMs", 0L);
+    }
+
+    private WebhookIngestResult submit(String eventId, String orderId) throws Exception {
+        String body = "{\"event\":\"payment.captured\",\"created_at\":1,\"payload\":{\"payment\":{\"entity\":"
+                + "{\"id\":\"pay_" + orderId + "\",\"order_id\":\"" + orderId + "\",\"amount\":5000}}}}";
+        return service.submit(body.getBytes(StandardCharsets.UTF_8), eventId);
+    }
+
+    @Test
+    public void failedOrdersAreRetriedUntilStored() throws Exception {
+        failingOrder = "order_a";
+        submit("e1", "order_a");
+        submit("e2", "order_b");
+        service.drain();
+        assertEquals(List.of("order_b"), stored);
+        // Still held, so a redelivery is a duplicate rather than a second copy
+        assertEquals(WebhookIngestResult.DUPLICATE, submit("e1", "order_a"));
+
+        service.drain();
+        assertEquals(List.of("order_b"), stored);
+
+        failingOrder = null;
+        service.drain();
+        assertEquals(List.of("order_b", "order_a"), stored);
+        assertEquals(WebhookIngestResult.DUPLICATE, submit("e1", "order_a"));
+    }
+
+    @Test
+    public void retriesWaitForTheirBackoff() throws Exception {
+        ReflectionTestUtils.setField(service, "retryInitialMs", 60_000L);
+        ReflectionTestUtils.setField(service, "retryMaxMs", 60_000L);
+        failingOrder = "order_a";
+        submit("e1", "order_a");
+        service.drain();
+        failingOrder = null;
+        service.drain();
+        assertEquals(List.of(), stored);
+    }
+
+    @Test
+    public void aFullRetryBacklogRejectsNewEvents() throws Exception {
+        failingOrder = "order_a";
+        submit("e1", "order_a");
+        submit("e2", "order_a");
+        service.drain();
+        // Two events waiting for a retry fill the capacity of two
+        assertEquals(WebhookIngestResult.REJECTED, submit("e3", "order_c"));
+
+        failingOrder = null;
+        service.drain();
+        assertEquals(WebhookIngestResult.ACCEPTED, submit("e3", "order_c"));
+    }
+}
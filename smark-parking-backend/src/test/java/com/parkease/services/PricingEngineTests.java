@@ -0,0 +1,103 @@
+package com.parkease.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.time.LocalTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.parkease.dao.ParkingSlotRepository;
+import com.parkease.dao.ParkingSpaceRepo;
+
+// Stay charges from a loaded price table, in UTC so the hours read directly:
+// 17:00 is charged at 1.5x, nights are 22:00-06:00, and a lot without caps of
+// its own is capped at 10 base hours a day and 3 a night.
+public class PricingEngineTests {
+
+    static final long PLAIN_LOT = 1L;
+    static final long BUSY_LOT = 2L;
+    static final long FLAT_NIGHT_LOT = 3L;
+
+    private PricingEngine pricingEngine;
+
+    static PricingEngine loadedEngine() {
+        PricingEngine engine = new PricingEngine("17:1.5", "0.5:2.0", "UTC", 60, LocalTime.of(22, 0),
+                LocalTime.of(6, 0), 10, 3);
+        ParkingSpaceRepo parkingSpaceRepo = mock(ParkingSpaceRepo.class);
+        ParkingSlotRepository parkingSlotRepository = mock(ParkingSlotRepository.class);
+        // id, pricingPerHour, totalSlots, dailyCap, overnightRate
+        when(parkingSpaceRepo.findPricingInputs()).thenReturn(List.of(
+                new Object[] { PLAIN_LOT, 10.0, 4, null, null },
+                new Object[] { BUSY_LOT, 20.0, 4, 50.0, null },
+                new Object[] { FLAT_NIGHT_LOT, 10.0, 4, null, 15.0 }));
+        // id, free slots: the busy lot is 75% occupied, in the 2.0 tier
+        when(parkingSlotRepository.countAvailableByParkingSpace()).thenReturn(List.of(
+                new Object[] { PLAIN_LOT, 4L },
+                new Object[] { BUSY_LOT, 1L },
+                new Object[] { FLAT_NIGHT_LOT, 4L }));
+        ReflectionTestUtils.setField(engine, "parkingSpaceRepo", parkingSpaceRepo);
+        ReflectionTestUtils.setField(engine, "parkingSlotRepository", parkingSlotRepository);
+        engine.load();
+        return engine;
+    }
+
+    @BeforeEach
+    public void setUp() {
+        pricingEngine = loadedEngine();
+    }
+
+    private double charge(long lotId, String arrival, String departure) {
+        return pricingEngine.charge(lotId, Instant.parse(arrival).toEpochMilli(),
+                Instant.parse(departure).toEpochMilli());
+    }
+
+    @Test
+    public void chargesWholeHoursFromArrival() {
+        assertEquals(10, charge(PLAIN_LOT, "2026-03-02T09:00:00Z", "2026-03-02T10:00:00Z"));
+        assertEquals(10, charge(PLAIN_LOT, "2026-03-02T09:00:00Z", "2026-03-02T09:00:30Z"));
+        assertEquals(20, charge(PLAIN_LOT, "2026-03-02T09:00:00Z", "2026-03-02T10:00:01Z"));
+        assertEquals(20, charge(PLAIN_LOT, "2026-03-02T09:20:00Z", "2026-03-02T10:50:00Z"));
+    }
+
+    @Test
+    public void appliesHourOfDayMultipliers() {
+        assertEquals(15, charge(PLAIN_LOT, "2026-03-02T17:00:00Z", "2026-03-02T18:00:00Z"));
+        // Half of the block falls in the 17:00 hour
+        assertEquals(12.5, charge(PLAIN_LOT, "2026-03-02T16:30:00Z", "2026-03-02T17:30:00Z"));
+    }
+
+    @Test
+    public void capsDaysFromArrivalAndNightsSeparately() {
+        // 16 daytime hours (one at 1.5x) capped at 100, one night at 80 capped at 30
+        assertEquals(130, charge(PLAIN_LOT, "2026-03-02T08:00:00Z", "2026-03-03T08:00:00Z"));
+        // Same 24 h starting in the evening: the daytime cap still applies once
+        assertEquals(130, charge(PLAIN_LOT, "2026-03-02T19:00:00Z", "2026-03-03T19:00:00Z"));
+        // Past the first 24 h the next day starts a new cap
+        assertEquals(170, charge(PLAIN_LOT, "2026-03-02T08:00:00Z", "2026-03-03T12:00:00Z"));
+        // 23:00 to 01:00 straddles midnight in one night
+        assertEquals(20, charge(PLAIN_LOT, "2026-03-02T23:00:00Z", "2026-03-03T01:00:00Z"));
+        // A lot's own overnight rate caps each night: three days at 100 and three nights at 15
+        assertEquals(15, charge(FLAT_NIGHT_LOT, "2026-03-02T22:00:00Z", "2026-03-03T06:00:00Z"));
+        assertEquals(345, charge(FLAT_NIGHT_LOT, "2026-03-02T12:00:00Z", "2026-03-05T12:00:00Z"));
+    }
+
+    @Test
+    public void chargesTheOccupancyTierAndTheLotsOwnCap() {
+        // 20 an hour at 2.0 for a 75% occupied lot
+        assertEquals(40, charge(BUSY_LOT, "2026-03-02T09:00:00Z", "2026-03-02T10:00:00Z"));
+        assertEquals(50, charge(BUSY_LOT, "2026-03-02T09:00:00Z", "2026-03-02T12:00:00Z"));
+        assertEquals(1, pricingEngine.table().tier(pricingEngine.table().indexOf(BUSY_LOT)));
+    }
+
+    @Test
+    public void doesNotPriceUnknownLots() {
+        assertTrue(Double.isNaN(charge(99L, "2026-03-02T09:00:00Z", "2026-03-02T10:00:00Z")));
+    }
+}
@@ -0,0 +1,152 @@
+package com.parkease.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Instant;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.parkease.dtos.BookingRequest;
+import com.parkease.dtos.CreateOrderRequest;
+import com.parkease.dtos.StayQuote;
+import com.parkease.exceptions.InvalidQuoteException;
+import com.parkease.exceptions.InvalidStayException;
+import com.parkease.exceptions.ResourceNotFoundException;
+
+// A quote redeems only for the lot, window and amount it was signed for, and
+// only before it expires when the gateway order is created.
+public class QuoteServiceTests {
+
+    private static final String SECRET = "quote-test-secret";
+    private static final Instant ARRIVAL = Instant.parse("2026-03-02T09:00:00Z");
+    private static final Instant DEPARTURE = Instant.parse("2026-03-02T11:30:00Z");
+
+    private PricingEngine pricingEngine;
+    private QuoteService quoteService;
+
+    @BeforeEach
+    public void setUp() {
+        pricingEngine = PricingEngineTests.loadedEngine();
+        quoteService = new QuoteService(pricingEngine, SECRET, 15, 30);
+    }
+
+    private static CreateOrderRequest order(StayQuote quote) {
+        CreateOrderRequest request = new CreateOrderRequest();
+        request.setParkingLotId(quote.getSpaceId());
+        request.setArrivalTime(quote.getArrivalTime().toString());
+        request.setDepartureTime(quote.getDepartureTime().toString());
+        request.setAmount(quote.getAmount());
+        request.setQuoteToken(quote.getQuoteToken());
+        return request;
+    }
+
+    private static BookingRequest booking(StayQuote quote) {
+        BookingRequest request = new BookingRequest();
+        request.setParkingLotId(quote.getSpaceId());
+        request.setArrivalTime(quote.getArrivalTime().toString());
+        request.setDepartureTime(quote.getDepartureTime().toString());
+        request.setAmount(quote.getAmount());
+        request.setQuoteToken(quote.getQuoteToken());
+        return request;
+    }
+
+    @Test
+    public void quotesTheEngineChargeInWholeBlocks() {
+        StayQuote quote = quoteService.quote(PricingEngineTests.PLAIN_LOT, ARRIVAL, DEPARTURE);
+        assertEquals(30, quote.getAmount());
+        assertEquals(180, quote.getBilledMinutes());
+        assertEquals(pricingEngine.charge(PricingEngineTests.PLAIN_LOT, ARRIVAL.toEpochMilli(),
+                DEPARTURE.toEpochMilli()), quote.getAmount());
+    }
+
+    @Test
+    public void redeemsForTheQuotedStay() {
+        StayQuote quote = quoteService.quote(PricingEngineTests.PLAIN_LOT, ARRIVAL, DEPARTURE);
+        assertEquals(30, quoteService.orderAmount(order(quote)));
+        assertEquals(30, quoteService.bookingAmount(booking(quote)));
+        // Another instance sharing the secret accepts it too
+        assertEquals(30, new QuoteService(pricingEngine, SECRET, 15, 30).orderAmount(order(quote)));
+    }
+
+    @Test
+    public void rejectsTamperedFields() {
+        StayQuote quote = quoteService.quote(PricingEngineTests.PLAIN_LOT, ARRIVAL, DEPARTURE);
+
+        CreateOrderRequest cheaper = order(quote);
+        cheaper.setAmount(1);
+        assertThrows(InvalidQuoteException.class, () -> quoteService.orderAmount(cheaper));
+
+        CreateOrderRequest otherLot = order(quote);
+        otherLot.setParkingLotId(PricingEngineTests.BUSY_LOT);
+        assertThrows(InvalidQuoteException.class, () -> quoteService.orderAmount(otherLot));
+
+        CreateOrderRequest longer = order(quote);
+        longer.setDepartureTime(DEPARTURE.plusSeconds(3_600).toString());
+        assertThrows(InvalidQuoteException.class, () -> quoteService.orderAmount(longer));
+
+        BookingRequest earlier = booking(quote);
+        earlier.setArrivalTime(ARRIVAL.minusSeconds(3_600).toString());
+        assertThrows(InvalidQuoteException.class, () -> quoteService.bookingAmount(earlier));
+    }
+
+    @Test
+    public void rejectsTamperedTokens() {
+        StayQuote quote = quoteService.quote(PricingEngineTests.PLAIN_LOT, ARRIVAL, DEPARTURE);
+        String token = quote.getQuoteToken();
+        int dot = token.indexOf('.');
+
+        CreateOrderRequest flipped = order(quote);
+        char last = token.charAt(token.length() - 1);
+        flipped.setQuoteToken(token.substring(0, token.length() - 1) + (last == '0' ? '1' : '0'));
+        assertThrows(InvalidQuoteException.class, () -> quoteService.orderAmount(flipped));
+
+        // Pushing the expiry out invalidates the signature
+        CreateOrderRequest extended = order(quote);
+        extended.setQuoteToken((Long.parseLong(token.substring(0, dot)) + 3_600_000L) + token.substring(dot));
+        assertThrows(InvalidQuoteException.class, () -> quoteService.orderAmount(extended));
+
+        for (String bad : new String[] { null, "", "abc", ".abc", "x." + token.substring(dot + 1) }) {
+            CreateOrderRequest request = order(quote);
+            request.setQuoteToken(bad);
+            assertThrows(InvalidQuoteException.class, () -> quoteService.orderAmount(request), "token " + bad);
+        }
+
+        // Signed with another key
+        QuoteService otherKey = new QuoteService(pricingEngine, "another-secret", 15, 30);
+        assertThrows(InvalidQuoteException.class, () -> otherKey.orderAmount(order(quote)));
+    }
+
+    @Test
+    public void expiredQuoteCannotCreateAnOrderButStillBooks() {
+        QuoteService expiring = new QuoteService(pricingEngine, SECRET, -1, 30);
+        StayQuote quote = expiring.quote(PricingEngineTests.PLAIN_LOT, ARRIVAL, DEPARTURE);
+        assertThrows(InvalidQuoteException.class, () -> expiring.orderAmount(order(quote)));
+        // The order was created while it was valid; paying may outlast the quote
+        assertEquals(30, expiring.bookingAmount(booking(quote)));
+    }
+
+    @Test
+    public void rejectsInvalidStays() {
+        assertThrows(InvalidStayException.class,
+                () -> quoteService.quote(PricingEngineTests.PLAIN_LOT, DEPARTURE, ARRIVAL));
+        assertThrows(InvalidStayException.class,
+                () -> quoteService.quote(PricingEngineTests.PLAIN_LOT, ARRIVAL, ARRIVAL.plusSeconds(31L * 86_400)));
+        assertThrows(ResourceNotFoundException.class, () -> quoteService.quote(99L, ARRIVAL, DEPARTURE));
+
+        StayQuote quote = quoteService.quote(PricingEngineTests.PLAIN_LOT, ARRIVAL, DEPARTURE);
+        CreateOrderRequest noLot = order(quote);
+        noLot.setParkingLotId(null);
+        assertThrows(InvalidStayException.class, () -> quoteService.orderAmount(noLot));
+
+        CreateOrderRequest badTime = order(quote);
+        badTime.setArrivalTime("tomorrow");
+        assertThrows(InvalidStayException.class, () -> quoteService.orderAmount(badTime));
+
+        BookingRequest reversed = booking(quote);
+        reversed.setArrivalTime(DEPARTURE.toString());
+        reversed.setDepartureTime(ARRIVAL.toString());
+        assertThrows(InvalidStayException.class, () -> quoteService.bookingAmount(reversed));
+    }
+}
@@ -0,0 +1,265 @@
+package com.parkease.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.parkease.beans.ReconciliationDiscrepancy;
+import com.parkease.beans.ReconciliationRun;
+import com.parkease.dao.BookingRepository;
+import com.parkease.dao.PaymentOrderRepository;
+import com.parkease.dao.ReconciliationDiscrepancyRepository;
+import com.parkease.dao.ReconciliationRunRepository;
+import com.parkease.enums.ReconciliationStatus;
+
+// The merge join over keyset pages, with the repositories answering from
+// in-memory rows in the order and after the cursor their queries would.
+public class ReconciliationServiceTests {
+
+    private static final ZoneId ZONE = ZoneId.of("Asia/Kolkata");
+    private static final long LOT = 10L;
+
+    // {id, userId, parkingSpaceId, date, amount, orderId}
+    private final List<Object[]> payments = new ArrayList<>();
+    // {id, userId, parkingLotId, arrivalTime, amount, paymentId, paymentAmount, orderId}
+    private final List<Object[]> bookings = new ArrayList<>();
+    private final List<ReconciliationDiscrepancy> stored = new ArrayList<>();
+    private ReconciliationRun savedRun;
+    // Booking id whose following page fails to load, to cut a run short
+    private long failAfterBooking = -1;
+
+    @BeforeEach
+    public void setUp() {
+        payments.clear();
+        bookings.clear();
+    }
+
+    private ReconciliationService service() {
+        PaymentOrderRepository orderRepository = mock(PaymentOrderRepository.class);
+        when(orderRepository.findReconciliationPage(anyLong(), anyLong(), any(), anyLong(), any()))
+                .thenAnswer(invocation -> page(payments, invocation.getArgument(0), invocation.getArgument(1),
+                        invocation.getArgument(3), invocation.getArgument(2), invocation.getArgument(4)));
+        BookingRepository bookingRepository = mock(BookingRepository.class);
+        when(bookingRepository.findReconciliationPage(anyLong(), anyLong(), any(), anyLong(), any()))
+                .thenAnswer(invocation -> {
+                    long after = invocation.getArgument(3);
+                    if (after == failAfterBooking) {
+                        throw new IllegalStateException("connection lost");
+                    }
+                    return page(bookings, invocation.getArgument(0), invocation.getArgument(1), after,
+                            invocation.getArgument(2), invocation.getArgument(4));
+                });
+
+        ReconciliationRunRepository runRepository = mock(ReconciliationRunRepository.class);
+        when(runRepository.save(any())).thenAnswer(invocation -> {
+            ReconciliationRun run = invocation.getArgument(0);
+            if (run.getId() == null) {
+                run.setId(1L);
+            }
+            savedRun = run;
+            return run;
+        });
+        when(runRepository.findFirstByOrderByIdDesc()).thenAnswer(invocation -> Optional.ofNullable(savedRun));
+        when(runRepository.findFirstByStatusInOrderByIdDesc(anyCollection())).thenAnswer(invocation -> Optional
+                .ofNullable(savedRun).filter(run -> run.getStatus() != ReconciliationStatus.COMPLETED));
+
+        ReconciliationDiscrepancyRepository discrepancyRepository = mock(ReconciliationDiscrepancyRepository.class);
+        when(discrepancyRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<ReconciliationDiscrepancy> batch = invocation.getArgument(0);
+            stored.addAll(batch);
+            return batch;
+        });
+        when(discrepancyRepository.deleteAfterCheckpoint(anyLong(), anyLong(), anyLong())).thenAnswer(invocation -> {
+            long user = invocation.getArgument(1);
+            long space = invocation.getArgument(2);
+            int before = stored.size();
+            stored.removeIf(d -> d.getUserId() > user || (d.getUserId() == user && d.getParkingSpaceId() > space));
+            return before - stored.size();
+        });
+        when(discrepancyRepository.deleteByRun(anyLong())).thenAnswer(invocation -> {
+            int before = stored.size();
+            stored.clear();
+            return before;
+        });
+
+        ReconciliationService service = new ReconciliationService();
+        ReflectionTestUtils.setField(service, "orderRepository", orderRepository);
+        ReflectionTestUtils.setField(service, "bookingRepository", bookingRepository);
+        ReflectionTestUtils.setField(service, "runRepository", runRepository);
+        ReflectionTestUtils.setField(service, "discrepancyRepository", discrepancyRepository);
+        ReflectionTestUtils.setField(service, "pageSize", 2);
+        ReflectionTestUtils.setField(service, "checkpointEvery", 1);
+        ReflectionTestUtils.setField(service, "windowDays", 30);
+        ReflectionTestUtils.setField(service, "earlyDays", 1);
+        return service;
+    }
+
+    // Rows after the cursor in (userId, spaceId, time, id) order, one page at a time
+    private static List<Object[]> page(List<Object[]> rows, long userId, long spaceId, long id, Object time,
+            Pageable pageable) {
+        Object[] cursor = { id, userId, spaceId, time };
+        return rows.stream().filter(row -> compare(row, cursor) > 0).sorted(ReconciliationServiceTests::compare)
+                .limit(pageable.getPageSize()).toList();
+    }
+
+    private static int compare(Object[] a, Object[] b) {
+        int byUser = Long.compare((Long) a[1], (Long) b[1]);
+        if (byUser != 0) {
+            return byUser;
+        }
+        int bySpace = Long.compare((Long) a[2], (Long) b[2]);
+        if (bySpace != 0) {
+            return bySpace;
+        }
+        int byTime = a[3] instanceof LocalDate date ? date.compareTo((LocalDate) b[3])
+                : ((ZonedDateTime) a[3]).toInstant().compareTo(((ZonedDateTime) b[3]).toInstant());
+        return byTime != 0 ? byTime : Long.compare((Long) a[0], (Long) b[0]);
+    }
+
+    private void payment(long id, long userId, String date, double amount) {
+        payments.add(new Object[] { id, userId, LOT, LocalDate.parse(date), amount, "order_" + id });
+    }
+
+    private void booking(long id, long userId, String day, double amount) {
+        bookings.add(new Object[] { id, userId, LOT, LocalDate.parse(day).atTime(10, 0).atZone(ZONE), amount,
+                null, null, null });
+    }
+
+    // A booking made through an order whose completed payment is paymentId
+    private void paidBooking(long id, long userId, String day, double amount, long paymentId, double paid) {
+        bookings.add(new Object[] { id, userId, LOT, LocalDate.parse(day).atTime(10, 0).atZone(ZONE), amount,
+                paymentId, paid, "order_" + paymentId });
+    }
+
+    private ReconciliationRun reconcile() {
+        ReconciliationService service = service();
+        ReconciliationRun run = service.resumeOrCreate();
+        service.reconcile(run);
+        run.setStatus(ReconciliationStatus.COMPLETED);
+        return run;
+    }
+
+    private List<String> found() {
+        return stored.stream()
+                .sorted(Comparator.comparing(ReconciliationDiscrepancy::getUserId)
+                        .thenComparing(d -> d.getBookingId() == null ? 0 : d.getBookingId())
+                        .thenComparing(d -> d.getPaymentOrderId() == null ? 0 : d.getPaymentOrderId()))
+                .map(d -> d.getType() + " p" + d.getPaymentOrderId() + " b" + d.getBookingId())
+                .toList();
+    }
+
+    @Test
+    public void paymentAndBookingInTheWindowMatch() {
+        payment(1, 1, "2026-03-02", 50);
+        booking(1, 1, "2026-03-03", 50);
+        ReconciliationRun run = reconcile();
+        assertEquals(List.of(), found());
+        assertEquals(1, run.getMatched());
+        assertEquals(1, run.getPaymentsScanned());
+        assertEquals(1, run.getBookingsScanned());
+    }
+
+    @Test
+    public void bookingBeforeThePaymentIsUnpaid() {
+        payment(1, 1, "2026-03-05", 50);
+        booking(1, 1, "2026-03-02", 50);
+        booking(2, 1, "2026-03-05", 50);
+        ReconciliationRun run = reconcile();
+        // The early booking is passed over and the payment pairs with the next one
+        assertEquals(List.of("BOOKING_WITHOUT_PAYMENT pnull b1"), found());
+        assertEquals(1, run.getMatched());
+    }
+
+    @Test
+    public void paymentWithNoBookingInTheWindowIsUnmatched() {
+        payment(1, 1, "2026-03-02", 50);
+        booking(1, 1, "2026-04-15", 50);
+        reconcile();
+        assertEquals(List.of("PAYMENT_WITHOUT_BOOKING p1 bnull", "BOOKING_WITHOUT_PAYMENT pnull b1"), found());
+    }
+
+    @Test
+    public void differingAmountsMatchAsAMismatch() {
+        payment(1, 1, "2026-03-02", 50);
+        booking(1, 1, "2026-03-02", 60);
+        ReconciliationRun run = reconcile();
+        assertEquals(List.of("AMOUNT_MISMATCH p1 b1"), found());
+        assertEquals(1, run.getMatched());
+        assertEquals(60.0, stored.get(0).getBookingAmount());
+        assertEquals(50.0, stored.get(0).getPaymentAmount());
+    }
+
+    @Test
+    public void bookingPairsWithItsOwnOrdersPayment() {
+        // Paid months before arrival, outside any window, and in another amount
+        paidBooking(1, 1, "2026-06-01", 60, 7, 50);
+        paidBooking(2, 1, "2026-06-02", 40, 8, 40);
+        // An unlinked payment of the same user and lot still pairs by date
+        payment(9, 1, "2026-06-02", 40);
+        booking(3, 1, "2026-06-03", 40);
+        ReconciliationRun run = reconcile();
+        assertEquals(List.of("AMOUNT_MISMATCH p7 b1"), found());
+        assertEquals("order_7", stored.get(0).getOrderId());
+        assertEquals(3, run.getMatched());
+        assertEquals(3, run.getPaymentsScanned());
+        assertEquals(3, run.getBookingsScanned());
+    }
+
+    @Test
+    public void resumedRunFindsWhatAnUninterruptedRunFinds() {
+        payment(1, 1, "2026-03-02", 50);
+        booking(1, 1, "2026-03-02", 50);
+        payment(2, 2, "2026-03-05", 50);
+        booking(2, 2, "2026-03-01", 50);
+        payment(3, 3, "2026-03-02", 50);
+        booking(3, 3, "2026-03-02", 70);
+        // Enough unpaid bookings that two are written out before the group ends
+        booking(4, 4, "2026-03-02", 10);
+        booking(5, 4, "2026-03-03", 10);
+        booking(6, 4, "2026-03-04", 10);
+        paidBooking(7, 5, "2026-03-02", 30, 8, 25);
+
+        ReconciliationRun whole = reconcile();
+        List<String> expected = found();
+        assertEquals(7, expected.size());
+
+        stored.clear();
+        savedRun = null;
+        failAfterBooking = 6;
+        ReconciliationService service = service();
+        ReconciliationRun run = service.resumeOrCreate();
+        assertThrows(IllegalStateException.class, () -> service.reconcile(run));
+        run.setStatus(ReconciliationStatus.FAILED);
+        assertEquals(3L, run.getCheckpointUserId());
+        assertEquals(LOT, run.getCheckpointSpaceId());
+        // Two of user 4's went out before the page after them failed
+        assertEquals(5, stored.size());
+
+        failAfterBooking = -1;
+        ReconciliationRun resumed = reconcile();
+        assertEquals(1L, resumed.getId());
+        assertEquals(expected, found());
+        assertEquals(whole.getMatched(), resumed.getMatched());
+        assertEquals(whole.getDiscrepancies(), resumed.getDiscrepancies());
+        assertEquals(whole.getPaymentsScanned(), resumed.getPaymentsScanned());
+        assertEquals(whole.getBookingsScanned(), resumed.getBookingsScanned());
+    }
+}
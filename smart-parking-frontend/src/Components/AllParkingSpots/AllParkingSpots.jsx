@@ -159,24 +159,26 @@ const AllParkingSpots = () => {
           };
 
           try {
+            // The payment id makes retries of these two writes idempotent
+            const headers = {
+              Authorization: `Bearer ${token}`,
+              "Idempotency-Key": response.razorpay_payment_id,
+            };
             await axios.post(
               "http://localhost:8081/api/payment/store",
               paymentDetails,
-              {
-                headers: { Authorization: `Bearer ${token}` },
-              }
+              { headers }
             );
 
-            const response = await axios.post(
+            const bookingResponse = await axios.post(
               `http://localhost:8081/api/bookings/${selectedSlot}`,
-              bookingData,
-              {
-                headers: { Authorization: `Bearer ${token}` },
-              }
+              // The booking is checked against this order's captured payment
+              { ...bookingData, orderId: response.razorpay_order_id },
+              { headers }
             );
-            console.log(response);
+            console.log(bookingResponse);
 
-            navigate(`/dashboard/reciept/${response.data.id}`);
+            navigate(`/dashboard/reciept/${bookingResponse.data.id}`);
             // getParkingSpaces();
 
             setConfirmationModal(false);
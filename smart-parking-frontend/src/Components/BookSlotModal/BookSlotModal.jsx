@@ -26,6 +26,7 @@ export const BookSlotModal = ({
  
  const { 
   subscribeToSlotUpdates, 
+  subscribeToSlotReplies,
   reserveSlot, 
   releaseSlot,
   webSocketService,
@@ -127,6 +128,26 @@ useEffect(() => {
     };
   }, [spot?.id, open, subscribeToSlotUpdates, user?.id, webSocketService]);
 
+  // The slot is selected optimistically; drop it again if the server refused the hold
+  useEffect(() => {
+    if (!open) return;
+
+    const subscription = subscribeToSlotReplies((reply) => {
+      if (['ALREADY_RESERVED', 'NOT_AVAILABLE', 'NOT_AUTHENTICATED'].includes(reply.action)) {
+        setSelectedSlot(current => (current === reply.slotId ? null : current));
+        alert(reply.action === 'NOT_AUTHENTICATED'
+          ? 'Please log in to reserve a slot'
+          : `Slot ${reply.slotId} is no longer available`);
+      }
+    });
+
+    return () => {
+      if (subscription) {
+        subscription.unsubscribe();
+      }
+    };
+  }, [open, subscribeToSlotReplies, setSelectedSlot]);
+
   const handleClose = () => {
     // Release any reserved slots by current user
     slotStates.forEach((state, slotId) => {
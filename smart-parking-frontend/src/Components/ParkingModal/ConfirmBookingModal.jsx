@@ -9,9 +9,9 @@ import {
 } from "@mui/material";
 import { useState, useEffect } from "react";
 import dayjs from "dayjs";
-import duration from "dayjs/plugin/duration";
 import { useSelector } from "react-redux";
 import { cancelBooking } from "../../Utils/BookingFunctions";
+import api from "../../api/axios";
 import {
   AccessTime,
   MonetizationOn,
@@ -23,8 +23,6 @@ import {
 import { FaCar } from "react-icons/fa";
 import { useTheme } from "@mui/material/styles";
 
-dayjs.extend(duration);
-
 export const ConfirmBookingModal = ({
   spot,
   selectedSlot,
@@ -40,7 +38,9 @@ export const ConfirmBookingModal = ({
     (state) => state.user
   );
 
-  const [totalAmount, setTotalAmount] = useState(0);
+  // Server-priced stay; the order and the booking are both for quote.amount
+  const [quote, setQuote] = useState(null);
+  const [quoteError, setQuoteError] = useState(null);
   const [arrival, setArrival] = useState(
     arrivalTime ? dayjs(arrivalTime) : dayjs()
   );
@@ -52,25 +52,59 @@ export const ConfirmBookingModal = ({
   const formattedArrival = arrival.format("hh:mm A | DD MMM YYYY");
   const formattedDeparture = departure.format("hh:mm A | DD MMM YYYY");
 
+  const spotId = spot ? spot.spaceId || spot.id || spot.spaceIdd : null;
+
+  const fetchQuote = async () => {
+    const response = await api.get(`/parkingspaces/${spotId}/quote`, {
+      params: {
+        arrival: arrival.toISOString(),
+        departure: departure.toISOString(),
+      },
+    });
+    return response.data;
+  };
+
   useEffect(() => {
-    setTotalAmount(calculateTotalAmount());
-  }, [arrival, departure]);
+    if (!open || !spotId) return;
+    let cancelled = false;
+    setQuote(null);
+    setQuoteError(null);
+    fetchQuote()
+      .then((data) => {
+        if (!cancelled) setQuote(data);
+      })
+      .catch((err) => {
+        console.log(err);
+        if (!cancelled) {
+          setQuoteError(
+            err.response?.data?.message || "Could not price this stay."
+          );
+        }
+      });
+    return () => {
+      cancelled = true;
+    };
+  }, [open, spotId, arrival, departure]);
 
-  const beginPayment = () => {
+  const beginPayment = (currentQuote) => {
+    // The server checks these against the quote's signature
+    const quoted = {
+      parkingLotId: spotId,
+      arrivalTime: currentQuote.arrivalTime,
+      departureTime: currentQuote.departureTime,
+      amount: currentQuote.amount,
+      quoteToken: currentQuote.quoteToken,
+    };
     const paymentData = {
-      amount: totalAmount,
+      ...quoted,
       name: currentUser.fullName,
       email: currentUser.email,
       phone: currentUser.contactno,
     };
-    console.log(currentUser);
 
     const bookingData = {
+      ...quoted,
       userId: currentUser.userId,
-      parkingLotId: spot.spaceId || spot.id || spot.spaceIdd,
-      departureTime: departureTime,
-      arrivalTime: arrivalTime,
-      amount: totalAmount,
     };
     startPayment(paymentData, bookingData);
   };
@@ -80,23 +114,22 @@ export const ConfirmBookingModal = ({
     setSelectedSlot(null);
     onClose();
   };
-  const handleProceed = () => {
+  const handleProceed = async () => {
+    let currentQuote = quote;
+    if (!currentQuote) return;
+    // An expired quote cannot create an order; price the stay again first
+    if (dayjs().isAfter(dayjs(currentQuote.expiresAt))) {
+      try {
+        currentQuote = await fetchQuote();
+        setQuote(currentQuote);
+      } catch (err) {
+        console.log(err);
+        setQuoteError("Could not price this stay.");
+        return;
+      }
+    }
     onClose();
-    beginPayment();
-  };
-  const calculateTotalAmount = () => {
-    if (!spot) return 0;
-    const diff = dayjs.duration(departure.diff(arrival));
-    const hours = diff.hours();
-    const minutes = diff.minutes();
-
-    if (hours < 0 || minutes < 0) return 0;
-
-    let pricePerMin = spot.pricingPerHour / 60;
-    let minAmount = pricePerMin * minutes;
-    let hoursAmount = hours * spot.pricingPerHour;
-
-    return (minAmount + hoursAmount).toFixed(2);
+    beginPayment(currentQuote);
   };
 
   return (
@@ -197,10 +230,16 @@ export const ConfirmBookingModal = ({
               }}
             >
               <span>Total Amount:</span>
-              <span>₹{totalAmount}</span>
+              <span>{quote ? `₹${quote.amount.toFixed(2)}` : "…"}</span>
             </Typography>
           </Paper>
 
+          {quoteError && (
+            <Typography variant="body2" color="error" sx={{ mb: 2 }}>
+              {quoteError}
+            </Typography>
+          )}
+
           <Typography variant="body2" color="text.secondary" sx={{ mb: 2 }}>
             Please review your booking details. Once confirmed, you'll be
             redirected to the payment page.
@@ -233,6 +272,7 @@ export const ConfirmBookingModal = ({
             variant="contained"
             color="primary"
             onClick={handleProceed}
+            disabled={!quote}
             startIcon={<Payment />}
             fullWidth={isMobile}
             sx={{
@@ -20,6 +20,7 @@ export const ParkingModal = ({
   // WebSocket integration
   const { 
     subscribeToSlotUpdates, 
+    subscribeToSlotReplies,
     reserveSlot, 
     releaseSlot,
     webSocketService,
@@ -138,6 +139,26 @@ export const ParkingModal = ({
     };
   }, [spot?.spaceId, open, subscribeToSlotUpdates, user?.userId, webSocketService]);
 
+  // The slot is selected optimistically; drop it again if the server refused the hold
+  useEffect(() => {
+    if (!open) return;
+
+    const subscription = subscribeToSlotReplies((reply) => {
+      if (['ALREADY_RESERVED', 'NOT_AVAILABLE', 'NOT_AUTHENTICATED'].includes(reply.action)) {
+        setSelectedSlot(current => (current === reply.slotId ? null : current));
+        alert(reply.action === 'NOT_AUTHENTICATED'
+          ? 'Please log in to reserve a slot'
+          : `Slot ${reply.slotId} is no longer available`);
+      }
+    });
+
+    return () => {
+      if (subscription) {
+        subscription.unsubscribe();
+      }
+    };
+  }, [open, subscribeToSlotReplies, setSelectedSlot]);
+
   // Memoize slot calculations for better performance with real-time updates
   const slotStats = useMemo(() => {
     if (!spot?.parkingSlot) return { available: 0, total: 0, occupied: 0, reserved: 0 };
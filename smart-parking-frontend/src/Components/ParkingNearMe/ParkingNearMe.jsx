@@ -21,6 +21,7 @@ import { Alert, Button, Snackbar, CircularProgress, Chip } from "@mui/material";
 import { ConfirmBookingModal } from "../ParkingModal/ConfirmBookingModal";
 
 import { cancelBooking } from "../../Utils/BookingFunctions";
+import { SUMMARY_VIEW, withSlots } from "../../Utils/ParkingSpaces";
 
 import { 
   LocationOn, 
@@ -48,10 +49,14 @@ const ParkingNearMe = () => {
   const [searchedPlace, setSearchedPlace] = useState('');
 
   // Event handlers
-  const handleMarkerClick = useCallback((spot) => {
+  const handleMarkerClick = useCallback(async (spot) => {
     console.log("Clicked Spot:", spot);
-    setSelectedSpot(spot);
-    setShowModal(true);
+    try {
+      setSelectedSpot(await withSlots(spot));
+      setShowModal(true);
+    } catch (error) {
+      console.error("Error fetching parking slots:", error);
+    }
   }, []);
 
   const handleClick = useCallback(() => {
@@ -91,7 +96,7 @@ const ParkingNearMe = () => {
     try {
       const response = await api.get(
         `/parkingspaces/${searchedPlace}`,
-      
+        { params: SUMMARY_VIEW }
       );
       setParkingSpaces(response.data);
     } catch (error) {
@@ -109,7 +114,7 @@ const ParkingNearMe = () => {
     api
       .get(
         `/parkingspaces/nearby?lat=${currentLocation.lat}&lon=${currentLocation.lon}`,
-       
+        { params: SUMMARY_VIEW }
       )
       .then((response) => {
         console.log(response.data);
@@ -127,7 +132,7 @@ const ParkingNearMe = () => {
   const confirmBooking = useCallback(async (selected, slotNumber = null) => {
     console.log(selected);
 
-    if (!selected || !selected.spaceIdd) {
+    if (!selected || !selected.spaceId) {
       console.log("No spot selected or invalid spot");
       return;
     }
@@ -137,7 +142,7 @@ const ParkingNearMe = () => {
     try {
       const response = await api.put(
         `/parkingspaces/bookparking`,
-        { spaceId: selected.spaceIdd },
+        { spaceId: selected.spaceId },
         {
           params: slotNumber ? { slotNumber } : {},
         
@@ -195,21 +200,22 @@ const ParkingNearMe = () => {
           };
 
           try {
-            await api.post(
-              "/api/payment/store",
-              paymentDetails,
-             
-            );
+            // The payment id makes retries of these two writes idempotent
+            const idempotency = {
+              headers: { "Idempotency-Key": response.razorpay_payment_id },
+            };
+            await api.post("/api/payment/store", paymentDetails, idempotency);
 
-            const response = await api.post(
+            const bookingResponse = await api.post(
               `/api/bookings/${selectedSlot}`,
-              bookingData,
-             
+              // The booking is checked against this order's captured payment
+              { ...bookingData, orderId: response.razorpay_order_id },
+              idempotency
             );
-            console.log(response);
+            console.log(bookingResponse);
 
             handleClick();
-            navigate(`/dashboard/reciept/${response.data.id}`);
+            navigate(`/dashboard/reciept/${bookingResponse.data.id}`);
             getParkingSpaces();
             setConfirmationModal(false);
           } catch (error) {
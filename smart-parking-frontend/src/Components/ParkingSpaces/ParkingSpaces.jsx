@@ -17,6 +17,7 @@ import {
 import { ConfirmBookingModal } from "../ParkingModal/ConfirmBookingModal";
 import { useSelector } from "react-redux";
 import { cancelBooking } from "../../Utils/BookingFunctions";
+import { SUMMARY_VIEW, withSlots } from "../../Utils/ParkingSpaces";
 
 import { AlertCircle, MapPin, Clock } from "lucide-react";
 import { LocationOn, Payment } from "@mui/icons-material";
@@ -90,11 +91,18 @@ const ParkingSpaces = () => {
   }, [selectedSlot, selectedSpot]);
 
   // Modal handlers
-  const handleMarkerClick = useCallback((spot) => {
-    console.log("Clicked Spot:", spot);
-    setSelectedSpot(spot);
-    setShowModal(true);
-  }, []);
+  const handleMarkerClick = useCallback(
+    async (spot) => {
+      console.log("Clicked Spot:", spot);
+      try {
+        setSelectedSpot(await withSlots(spot));
+        setShowModal(true);
+      } catch (error) {
+        handleAsyncError(error, "Error fetching parking slots");
+      }
+    },
+    [handleAsyncError]
+  );
 
   const handleCloseModal = useCallback(() => {
     setShowModal(false);
@@ -125,7 +133,9 @@ const ParkingSpaces = () => {
 
     try {
       // No need to manually handle tokens - your axios interceptor handles this
-      const response = await api.get(`/parkingspaces/${searchedPlace}`);
+      const response = await api.get(`/parkingspaces/${searchedPlace}`, {
+        params: SUMMARY_VIEW,
+      });
       
       setParkingSpaces(response.data || []);
 
@@ -167,12 +177,10 @@ const ParkingSpaces = () => {
               const location = response.data[0];
               return {
                 lotName: space.lotName,
-                spaceId: space.id,
+                spaceId: space.spaceId,
                 address: space.address,
                 latitude: parseFloat(location.lat),
                 longitude: parseFloat(location.lon),
-                numberOfFloors: space.numberOfFloors,
-                parkingSlot: space.parkingSlot || [],
                 totalSlots: space.totalSlots,
                 pricingPerHour: space.pricingPerHour,
               };
@@ -205,8 +213,8 @@ const ParkingSpaces = () => {
 
   const confirmBooking = useCallback(
     async (selected, slotNumber = null) => {
-      console.log(selected.id, "selected spot");
-      const spaceId = selected.spaceId || selected.id;
+      console.log(selected.spaceId, "selected spot");
+      const spaceId = selected.spaceId;
       if (!spaceId) {
         showSnackbar("No parking spot selected", "error");
         return;
@@ -283,11 +291,17 @@ const ParkingSpaces = () => {
             };
 
             try {
-              await api.post(`/api/payment/store`, paymentDetails);
+              // The payment id makes retries of these two writes idempotent
+              const idempotency = {
+                headers: { "Idempotency-Key": response.razorpay_payment_id },
+              };
+              await api.post(`/api/payment/store`, paymentDetails, idempotency);
 
               const bookingResponse = await api.post(
                 `/api/bookings/${selectedSlot}`,
-                bookingData
+                // The booking is checked against this order's captured payment
+                { ...bookingData, orderId: response.razorpay_order_id },
+                idempotency
               );
 
               setBookingConfirmed(true);
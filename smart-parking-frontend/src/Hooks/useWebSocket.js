@@ -75,6 +75,10 @@ export const useWebSocket = () => {
     return webSocketService.subscribeToParkingSpaces(callback);
   }, []);
 
+  const subscribeToSlotReplies = useCallback((callback) => {
+    return webSocketService.subscribeToSlotReplies(callback);
+  }, []);
+
   return {
     isConnected: isConnected.current,
     user: currentUser, // Return as 'user' for consistency in components
@@ -84,6 +88,7 @@ export const useWebSocket = () => {
     subscribeToSlotUpdates,
     subscribeToGlobalSlots,
     subscribeToParkingSpaces,
+    subscribeToSlotReplies,
     webSocketService
   };
 };
@@ -14,6 +14,7 @@ const Home = () => {
   const [userDetails,setUserDetails]=useState()
   const dispatch=useDispatch()
   const [availableSlots,setAvailableSlots]=useState()
+  const [monthRevenue,setMonthRevenue]=useState()
    const [open, setOpen] = useState(false);
     const handleOpen = () => {
       setOpen(true);
@@ -30,6 +31,11 @@ const Home = () => {
         calculateAvailableSlots();
       }
     }, [userDetails]);
+    useEffect(() => {
+      if (userDetails?.userId) {
+        getMonthRevenue(userDetails.userId);
+      }
+    }, [userDetails?.userId]);
     const countAvailableSlots = (slots) =>
       slots.filter((slot) => slot.available).length;
     
@@ -94,6 +100,28 @@ const Home = () => {
       } catch (err) {}
     };
     
+    // Last 30 days from the daily revenue rollup, a few rows instead of every payment
+    const getMonthRevenue = async (ownerId) => {
+      let token = Cookies.get("jwt") || localStorage.getItem("token");
+      const day = (date) => date.toLocaleDateString("en-CA");
+      const to = new Date();
+      const from = new Date(to.getTime() - 29 * 24 * 60 * 60 * 1000);
+      try {
+        const response = await axios.get(
+          `http://localhost:8081/api/reports/owners/${ownerId}/daily`,
+          {
+            params: { from: day(from), to: day(to) },
+            headers: {
+              Authorization: `Bearer ${token}`,
+            },
+          }
+        );
+        setMonthRevenue(response.data.reduce((sum, row) => sum + row.revenue, 0));
+      } catch (err) {
+        console.log(err);
+      }
+    };
+
     const calculateAvailableSlots=()=>{
       let availableSlots=0
      
@@ -114,6 +142,7 @@ const Home = () => {
         { title: "Available Slots", value: availableSlots },
         { title: "Occupied Slots", value:userDetails?.parkingSpaces[0].totalSlots-availableSlots  },
         { title: "Total Revenue", value: userDetails?.totalEarning },
+        { title: "Revenue (30 days)", value: monthRevenue },
       ].map((item, index) => (
         <div key={index} className={styles.overviewCard}>
           <h3>{item.title}</h3>
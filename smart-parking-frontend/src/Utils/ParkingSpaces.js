@@ -1,5 +1,20 @@
 import axios from "axios";
+import api from "../api/axios";
 
 export const getNearByParkingSpaces = (currentLocation) => {
  
 };
+
+// Search results come back as summaries without slot lists; the slots of a
+// lot are fetched when its slot picker opens. The picker lays out 30 per floor.
+export const SUMMARY_VIEW = { view: "summary" };
+
+export const withSlots = async (space) => {
+  const response = await api.get(`/parkingspaces/${space.spaceId}/slots`);
+  const slots = response.data || [];
+  return {
+    ...space,
+    parkingSlot: slots,
+    numberOfFloors: Math.max(1, Math.ceil(slots.length / 30)),
+  };
+};
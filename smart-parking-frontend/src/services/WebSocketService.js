@@ -24,7 +24,11 @@ class WebSocketService {
 
       this.client = new Client({
         webSocketFactory: () => new SockJS(socketUrl),
-        connectHeaders: {},
+        // The server takes the holder of reserve/release from this token
+        beforeConnect: () => {
+          const token = localStorage.getItem('token');
+          this.client.connectHeaders = token ? { Authorization: `Bearer ${token}` } : {};
+        },
         debug: (str) => {
           console.log('WebSocket Debug:', str);
         },
@@ -192,6 +196,12 @@ class WebSocketService {
     return this.subscribe('/topic/slots', callback);
   }
 
+  // Outcome of this client's own reserve/release requests (RESERVED,
+  // ALREADY_RESERVED, NOT_AVAILABLE, NOT_AUTHENTICATED, RELEASED, NOT_RESERVED)
+  subscribeToSlotReplies(callback) {
+    return this.subscribe('/user/queue/slot-replies', callback);
+  }
+
   // Subscribe to parking space availability updates
   subscribeToParkingSpaces(callback) {
     return this.subscribe('/topic/parking-spaces', callback);